@@ -0,0 +1,148 @@
+package com.hazelcast.example.benchmarks;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastClientExample;
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.example.HazelcastServer;
+import com.hazelcast.example.affinity.UserAffinity;
+import com.hazelcast.example.affinity.UserContext;
+import com.hazelcast.example.affinity.UserKey;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user request path on a two-member cluster seen from a client: three map reads
+ * (users, user-sessions, cache-data) versus one partition-local task.
+ *
+ * "scattered" reads the profile under the old unrelated key ("user:N:profile"), so the three
+ * calls usually go to different owners; "colocated" uses {@link UserKey}, so all three go to
+ * the same owner; "task" replaces the three calls with one {@link UserAffinity#loadContext}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AffinityBenchmark {
+
+    @Param({"10000"})
+    public int users;
+
+    private HazelcastInstance member1;
+    private HazelcastInstance member2;
+    private HazelcastInstance client;
+    private IMap<String, UserData> userMap;
+    private IMap<String, UserSession> sessionMap;
+    private IMap<Object, Object> cacheMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        member1 = Hazelcast.newHazelcastInstance(createMemberConfig("affinity-member-1"));
+        member2 = Hazelcast.newHazelcastInstance(createMemberConfig("affinity-member-2"));
+
+        ClientConfig clientConfig = HazelcastClientExample.createClientConfig();
+        InetSocketAddress address = member1.getCluster().getLocalMember().getSocketAddress();
+        clientConfig.getNetworkConfig().getAddresses().clear();
+        clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+        clientConfig.setProperty("hazelcast.logging.type", "none");
+        // Every read must reach its partition owner; a Near Cache would hide the remote calls
+        clientConfig.getNearCacheConfigMap().clear();
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        userMap = client.getMap(UserAffinity.USERS_MAP);
+        sessionMap = client.getMap(UserAffinity.SESSIONS_MAP);
+        cacheMap = client.getMap(UserAffinity.CACHE_MAP);
+        for (int i = 0; i < users; i++) {
+            String userId = "user" + i;
+            UserProfile profile = new UserProfile("User " + i, userId + "@example.com");
+            userMap.set(userId, new UserData(userId, "User " + i, userId + "@example.com"));
+            sessionMap.set(userId, new UserSession(userId, "User " + i, LocalDateTime.now()));
+            cacheMap.set(scatteredProfileKey(userId), profile);
+            cacheMap.set(UserKey.profile(userId), profile);
+        }
+    }
+
+    private static Config createMemberConfig(String instanceName) {
+        Config config = HazelcastServer.createConfig();
+        config.setInstanceName(instanceName);
+        // Two members joined over loopback, isolated from other clusters on the network
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        config.setProperty("hazelcast.logging.type", "none");
+        return config;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        member2.shutdown();
+        member1.shutdown();
+    }
+
+    private static String scatteredProfileKey(String userId) {
+        return "user:" + userId + ":profile";
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private SplittableRandom random;
+        private int users;
+
+        @Setup(Level.Trial)
+        public void setUp(AffinityBenchmark benchmark) {
+            random = new SplittableRandom();
+            users = benchmark.users;
+        }
+
+        String nextUserId() {
+            return "user" + random.nextInt(users);
+        }
+    }
+
+    @Benchmark
+    public void scattered(ThreadState state, Blackhole blackhole) {
+        String userId = state.nextUserId();
+        blackhole.consume(userMap.get(userId));
+        blackhole.consume(sessionMap.get(userId));
+        blackhole.consume(cacheMap.get(scatteredProfileKey(userId)));
+    }
+
+    @Benchmark
+    public void colocated(ThreadState state, Blackhole blackhole) {
+        String userId = state.nextUserId();
+        blackhole.consume(userMap.get(userId));
+        blackhole.consume(sessionMap.get(userId));
+        blackhole.consume(cacheMap.get(UserKey.profile(userId)));
+    }
+
+    @Benchmark
+    public UserContext task(ThreadState state) throws InterruptedException, ExecutionException {
+        return UserAffinity.loadContext(client, state.nextUserId()).get();
+    }
+}
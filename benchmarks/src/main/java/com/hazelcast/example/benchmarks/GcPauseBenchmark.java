@@ -0,0 +1,211 @@
+package com.hazelcast.example.benchmarks;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastServer;
+import com.hazelcast.example.memory.OffHeapMapStore;
+import com.hazelcast.map.IMap;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * GC pauses of a member holding cache-data fully on heap versus with the off-heap tier.
+ *
+ * Values vary from 256 B to 25 KB. In the "heap" tier every entry stays in the map; in the
+ * "offheap" tier only {@code onHeapEntries} stay on heap and the rest live in an
+ * {@link OffHeapMapStore}. Each iteration logs the GC pause count, total and maximum pause
+ * and the heap used after the last collection, next to the operation throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:MaxDirectMemorySize=2g"})
+public class GcPauseBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(GcPauseBenchmark.class);
+
+    private static final int MIN_VALUE_SIZE = 256;
+    private static final int MAX_VALUE_SIZE = 25_600;
+
+    @Param({"heap", "offheap"})
+    public String tier;
+
+    @Param({"20000"})
+    public int entries;
+
+    @Param({"2000"})
+    public int onHeapEntries;
+
+    @Param({"10"})
+    public int writePercent;
+
+    private HazelcastInstance member;
+    private IMap<String, byte[]> map;
+    private final GcPauses pauses = new GcPauses();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = HazelcastServer.createConfig();
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.setProperty("hazelcast.logging.type", "none");
+
+        MapConfig cacheConfig = config.getMapConfig("cache-data");
+        boolean offHeap = "offheap".equals(tier);
+        if (offHeap) {
+            OffHeapMapStore.configure(cacheConfig, 1024);
+        }
+        cacheConfig.setEvictionConfig(new EvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LFU)
+            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+            .setSize(offHeap ? onHeapEntries : entries * 2));
+        member = Hazelcast.newHazelcastInstance(config);
+
+        map = member.getMap("cache-data");
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < entries; i++) {
+            map.set(key(i), randomValue(random));
+        }
+        pauses.register();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pauses.unregister();
+        member.shutdown();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPauses() {
+        System.gc();
+        pauses.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void logPauses() {
+        logger.info("[{}] GC pauses={}, total={} ms, max={} ms, heap used={} MB",
+            tier, pauses.count.get(), pauses.totalMillis.get(), pauses.maxMillis.get(),
+            pauses.heapUsedAfterGc.get() / (1024 * 1024));
+    }
+
+    private static String key(int index) {
+        return "item:" + index;
+    }
+
+    private static byte[] randomValue(SplittableRandom random) {
+        byte[] value = new byte[random.nextInt(MIN_VALUE_SIZE, MAX_VALUE_SIZE + 1)];
+        random.nextBytes(value);
+        return value;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom();
+        }
+    }
+
+    @Benchmark
+    public Object readMostly(ThreadState state) {
+        String key = key(state.random.nextInt(entries));
+        if (state.random.nextInt(100) < writePercent) {
+            map.set(key, randomValue(state.random));
+            return key;
+        }
+        return map.get(key);
+    }
+
+    /**
+     * Pause durations reported by the GC notifications of this JVM
+     */
+    private static final class GcPauses implements NotificationListener {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+        final AtomicLong maxMillis = new AtomicLong();
+        final AtomicLong heapUsedAfterGc = new AtomicLong();
+        final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+
+        void register() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) gc).addNotificationListener(this, null, null);
+            }
+        }
+
+        void unregister() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                try {
+                    ((NotificationEmitter) gc).removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // not registered
+                }
+            }
+        }
+
+        void reset() {
+            count.set(0);
+            totalMillis.set(0);
+            maxMillis.set(0);
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            // Concurrent cycles (e.g. "G1 Concurrent GC") do not stop the application threads
+            if (info.getGcName().contains("Concurrent")) {
+                return;
+            }
+            long duration = info.getGcInfo().getDuration();
+            count.incrementAndGet();
+            totalMillis.addAndGet(duration);
+            maxMillis.accumulateAndGet(duration, Math::max);
+            heapUsedAfterGc.set(info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                .filter(pool -> heapPools.contains(pool.getKey()))
+                .mapToLong(pool -> pool.getValue().getUsed())
+                .sum());
+        }
+    }
+}
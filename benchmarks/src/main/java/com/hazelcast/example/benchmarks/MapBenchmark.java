@@ -0,0 +1,204 @@
+package com.hazelcast.example.benchmarks;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastClientExample;
+import com.hazelcast.example.HazelcastServer;
+import com.hazelcast.example.cache.PipelinedMap;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of the IMap hot paths used by the example clients.
+ *
+ * The member is built by {@link HazelcastServer#createConfig()}; in the "client" topology
+ * the operations go through a client built by {@link HazelcastClientExample#createClientConfig()}.
+ * Thread count is a JMH option, e.g. {@code java -jar target/benchmarks.jar MapBenchmark -t 8}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MapBenchmark {
+
+    @Param({"embedded", "client"})
+    public String topology;
+
+    @Param({"user-sessions", "cache-data", "example-map"})
+    public String mapName;
+
+    @Param({"128", "1024", "16384"})
+    public int valueSize;
+
+    @Param({"10000"})
+    public int keySpace;
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Param({"256"})
+    public int pipelineDepth;
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+    private IMap<String, byte[]> map;
+    private PipelinedMap<String, byte[]> pipelinedMap;
+    private byte[] value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = HazelcastServer.createConfig();
+        // Keep the benchmark member isolated from other clusters on the network
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.setProperty("hazelcast.logging.type", "none");
+        member = Hazelcast.newHazelcastInstance(config);
+
+        HazelcastInstance instance = member;
+        if ("client".equals(topology)) {
+            ClientConfig clientConfig = HazelcastClientExample.createClientConfig();
+            InetSocketAddress address = member.getCluster().getLocalMember().getSocketAddress();
+            clientConfig.getNetworkConfig().getAddresses().clear();
+            clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+            clientConfig.setProperty("hazelcast.logging.type", "none");
+            client = HazelcastClient.newHazelcastClient(clientConfig);
+            instance = client;
+        }
+
+        value = new byte[valueSize];
+        new SplittableRandom(42).nextBytes(value);
+
+        // Preload the whole key space so reads and replaces always hit
+        map = instance.getMap(mapName);
+        pipelinedMap = new PipelinedMap<>(instance, mapName, pipelineDepth);
+        Map<String, byte[]> preload = new HashMap<>();
+        for (int i = 0; i < keySpace; i++) {
+            preload.put(key(i), value);
+            if (preload.size() == 1000) {
+                map.putAll(preload);
+                preload.clear();
+            }
+        }
+        map.putAll(preload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        member.shutdown();
+    }
+
+    private static String key(int index) {
+        return "key-" + index;
+    }
+
+    /**
+     * Per-thread key selection and pre-built batches (kept out of the measured path)
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private SplittableRandom random;
+        private Map<String, byte[]> batch;
+        private Set<String> batchKeys;
+        private int keySpace;
+
+        @Setup(Level.Trial)
+        public void setUp(MapBenchmark benchmark) {
+            random = new SplittableRandom();
+            keySpace = benchmark.keySpace;
+            batch = new HashMap<>();
+            batchKeys = new HashSet<>();
+            while (batch.size() < benchmark.batchSize) {
+                String key = nextKey();
+                batch.put(key, benchmark.value);
+                batchKeys.add(key);
+            }
+        }
+
+        String nextKey() {
+            return key(random.nextInt(keySpace));
+        }
+    }
+
+    @Benchmark
+    public byte[] get(ThreadState state) {
+        return map.get(state.nextKey());
+    }
+
+    @Benchmark
+    public void set(ThreadState state) {
+        map.set(state.nextKey(), value);
+    }
+
+    @Benchmark
+    public byte[] put(ThreadState state) {
+        return map.put(state.nextKey(), value);
+    }
+
+    @Benchmark
+    public byte[] replace(ThreadState state) {
+        return map.replace(state.nextKey(), value);
+    }
+
+    @Benchmark
+    public void putWithTtl(ThreadState state) {
+        map.set(state.nextKey(), value, 10, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public void putAll(ThreadState state) {
+        map.putAll(state.batch);
+    }
+
+    @Benchmark
+    public Map<String, byte[]> getAll(ThreadState state) {
+        return map.getAll(state.batchKeys);
+    }
+
+    /**
+     * Baseline for the pipelined variants: batchSize blocking sets, one round trip each
+     */
+    @Benchmark
+    public void sequentialSets(ThreadState state) {
+        for (Map.Entry<String, byte[]> entry : state.batch.entrySet()) {
+            map.set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void pipelinedSets(ThreadState state) {
+        pipelinedMap.pipeline(state.batch.entrySet(), entry -> pipelinedMap.setAsync(entry.getKey(), entry.getValue()))
+            .toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Map<String, byte[]> pipelinedGetAll(ThreadState state) {
+        return pipelinedMap.getAll(state.batchKeys).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,129 @@
+package com.hazelcast.example.benchmarks;
+
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.compact.Schema;
+import com.hazelcast.internal.serialization.impl.compact.SchemaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialized size and ser/de time of UserData:
+ * explicit compact serializer vs zero-config (reflective) compact vs Java serialization.
+ *
+ * The serialized size of each format is logged once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(SerializationBenchmark.class);
+
+    @Param({"compact", "reflective", "java"})
+    public String format;
+
+    private InternalSerializationService serializationService;
+    private Object value;
+    private Data data;
+
+    /**
+     * Same fields as UserData; the domain class is not Serializable
+     */
+    public static class SerializableUserData implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String userId;
+        private final String username;
+        private final String email;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime lastLogin;
+
+        public SerializableUserData(String userId, String username, String email, LocalDateTime createdAt,
+                                    LocalDateTime lastLogin) {
+            this.userId = userId;
+            this.username = username;
+            this.email = email;
+            this.createdAt = createdAt;
+            this.lastLogin = lastLogin;
+        }
+    }
+
+    /**
+     * Compact schemas kept in memory (there is no cluster in this benchmark)
+     */
+    private static class InMemorySchemaService implements SchemaService {
+        private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+        @Override
+        public Schema get(long schemaId) { return schemas.get(schemaId); }
+
+        @Override
+        public void put(Schema schema) { schemas.putIfAbsent(schema.getSchemaId(), schema); }
+
+        @Override
+        public void putLocal(Schema schema) { put(schema); }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Without explicit registration Hazelcast falls back to reflective compact
+        SerializationConfig config = new SerializationConfig();
+        if ("compact".equals(format)) {
+            DomainSerializers.register(config);
+        }
+        serializationService = new DefaultSerializationServiceBuilder()
+            .setConfig(config)
+            .setSchemaService(new InMemorySchemaService())
+            .build();
+
+        UserData user = new UserData("user-000123", "User 123", "user123@example.com");
+        user.setLastLogin(user.getCreatedAt().plusMinutes(5));
+        value = "java".equals(format)
+            ? new SerializableUserData(user.getUserId(), user.getUsername(), user.getEmail(), user.getCreatedAt(),
+                user.getLastLogin())
+            : user;
+        data = serializationService.toData(value);
+
+        logger.info("[{}] serialized UserData size: {} bytes", format, data.totalSize());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializationService.dispose();
+    }
+
+    @Benchmark
+    public Data serialize() {
+        return serializationService.toData(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializationService.toObject(data);
+    }
+}
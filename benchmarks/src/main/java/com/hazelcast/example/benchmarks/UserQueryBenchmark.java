@@ -0,0 +1,102 @@
+package com.hazelcast.example.benchmarks;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastServer;
+import com.hazelcast.example.query.UserQueries;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexed vs full-scan queries on the users map (email equality and createdAt range).
+ *
+ * Both variants use the member config from {@link HazelcastServer#createConfig()}; the
+ * "scan" variant runs against a map without the {@link UserQueries} indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserQueryBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"100"})
+    public int rangeSize;
+
+    private HazelcastInstance member;
+    private UserQueries queries;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = HazelcastServer.createConfig();
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.setProperty("hazelcast.logging.type", "none");
+        config.addMapConfig(new MapConfig("users-scan"));
+        member = Hazelcast.newHazelcastInstance(config);
+
+        IMap<String, UserData> map = member.getMap(indexed ? "users" : "users-scan");
+        Map<String, UserData> batch = new HashMap<>();
+        for (int i = 0; i < users; i++) {
+            UserData user = new UserData("user" + i, "User " + i, "user" + i + "@example.com");
+            user.setCreatedAt(BASE.plusMinutes(i));
+            batch.put(user.getUserId(), user);
+            if (batch.size() == 1000) {
+                map.putAll(batch);
+                batch.clear();
+            }
+        }
+        map.putAll(batch);
+
+        queries = new UserQueries(map);
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        member.shutdown();
+    }
+
+    @Benchmark
+    public Optional<UserData> findByEmail() {
+        return queries.findByEmail("user" + random.nextInt(users) + "@example.com");
+    }
+
+    @Benchmark
+    public Collection<String> findIdsCreatedBetween() {
+        LocalDateTime from = BASE.plusMinutes(random.nextInt(users - rangeSize));
+        return queries.findUserIdsCreatedBetween(from, from.plusMinutes(rangeSize - 1));
+    }
+}
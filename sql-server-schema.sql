@@ -45,7 +45,13 @@ BEGIN
         user_id NVARCHAR(100) NOT NULL,                -- ID do usuário relacionado
         event_type NVARCHAR(100) NOT NULL,             -- Tipo do evento (ADDED, UPDATED, REMOVED)
         event_data NVARCHAR(MAX),                      -- Dados do evento em JSON
-        created_at DATETIME2 DEFAULT GETDATE()         -- Timestamp do evento
+        created_at DATETIME2 DEFAULT GETDATE(),        -- Timestamp do evento
+        map_name NVARCHAR(100),                        -- Mapa de origem (changelog)
+        entry_key NVARCHAR(450),                       -- Chave da entrada (changelog)
+        partition_id INT,                              -- Partição da chave (changelog)
+        sequence_no BIGINT,                            -- Sequência do evento na partição (changelog)
+        correlation_id NVARCHAR(64),                   -- ID da alteração, repetido no Service Bus
+        origin_time DATETIME2                          -- Instante da alteração na origem
     );
     
     PRINT '✅ Tabela user_events criada com sucesso!';
@@ -88,6 +94,38 @@ END
 
 GO
 
+-- Colunas do changelog em tabelas criadas antes delas
+IF COL_LENGTH('user_events', 'sequence_no') IS NULL
+BEGIN
+    ALTER TABLE user_events ADD
+        map_name NVARCHAR(100),
+        entry_key NVARCHAR(450),
+        partition_id INT,
+        sequence_no BIGINT;
+    PRINT '✅ Colunas do changelog adicionadas em user_events!';
+END
+GO
+
+-- Colunas de rastreamento da propagação em tabelas criadas antes delas
+IF COL_LENGTH('user_events', 'correlation_id') IS NULL
+BEGIN
+    ALTER TABLE user_events ADD
+        correlation_id NVARCHAR(64),
+        origin_time DATETIME2;
+    PRINT '✅ Colunas de rastreamento adicionadas em user_events!';
+END
+GO
+
+-- Identidade dos eventos do changelog: um evento por (mapa, partição, sequência)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name='UX_user_events_changelog')
+BEGIN
+    CREATE UNIQUE INDEX UX_user_events_changelog ON user_events(map_name, partition_id, sequence_no)
+        WHERE sequence_no IS NOT NULL;
+    PRINT '✅ Índice UX_user_events_changelog criado!';
+END
+
+GO
+
 -- ========================================
 -- 🔍 Verificar estrutura das tabelas
 -- ========================================
@@ -2,16 +2,38 @@ package com.hazelcast.example;
 
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.cache.CacheAsideLoader;
+import com.hazelcast.example.cache.CacheWarmer;
+import com.hazelcast.example.cache.NearCacheSupport;
+import com.hazelcast.example.cache.PipelinedMap;
 import com.hazelcast.map.IMap;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.example.database.BulkInsertOptions;
+import com.hazelcast.example.database.ChangelogWriter;
 import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.database.UserEventWriteBehind;
+import com.hazelcast.example.management.ManagementEndpoint;
+import com.hazelcast.example.messaging.EventEncoder;
 import com.hazelcast.example.messaging.ServiceBusManager;
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.example.metrics.HazelcastMapMetrics;
+import com.hazelcast.example.processors.UpdateLastLoginProcessor;
+import com.hazelcast.example.processors.UserEmailProcessor;
+import com.hazelcast.example.query.UserQueries;
+import com.hazelcast.example.serialization.DomainSerializers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Hazelcast Client com integração Azure SQL Server e Service Bus
@@ -22,7 +44,21 @@ public class HazelcastAzureIntegratedClient {
     
     private HazelcastInstance hazelcastClient;
     private SqlServerManager sqlServerManager;
+    private UserEventWriteBehind userEventWriter;
+    private ChangelogWriter changelogWriter;
+    private boolean sqlServerAvailable;
+    // Indica se o mapa "users" é persistido pelo MapStore do cluster
+    private boolean usersPersistedByMapStore;
     private ServiceBusManager serviceBusManager;
+    private ManagementEndpoint managementEndpoint;
+    // Aquecimento do mapa "users" no modo embedded (null sem MapStore ou com o aquecimento desativado)
+    private CacheWarmer usersWarmer;
+    // Renovações antecipadas do cache-aside
+    private final ExecutorService cacheRefreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     public static void main(String[] args) {
         logger.info("Starting Hazelcast Azure Integrated Client...");
@@ -40,15 +76,21 @@ public class HazelcastAzureIntegratedClient {
     }
     
     private void initialize() {
+        // Configurar SQL Server (antes do Hazelcast, para o MapStore do modo embedded)
+        initializeSqlServer();
+        
         // Configurar Hazelcast Client
         initializeHazelcast();
         
-        // Configurar SQL Server
-        initializeSqlServer();
-        
         // Configurar Service Bus
         initializeServiceBus();
         
+        // Métricas em formato Prometheus
+        initializeMetricsEndpoint();
+        
+        // As demonstrações leem o mapa "users": começam depois do aquecimento
+        awaitUsersWarmup();
+        
         logger.info("All Azure services initialized successfully");
     }
     
@@ -105,14 +147,58 @@ public class HazelcastAzureIntegratedClient {
         config.setProperty("hazelcast.logging.type", "slf4j");
         config.setProperty("hazelcast.operation.call.timeout.millis", "30000");
         
+        // Serializadores Compact explícitos para as classes de domínio
+        DomainSerializers.register(config.getSerializationConfig());
+        
+        // Mapa "users" indexado; persistido pelo MapStore quando o SQL Server está disponível
+        com.hazelcast.config.MapConfig usersConfig = new com.hazelcast.config.MapConfig(UserMapStore.MAP_NAME);
+        UserQueries.addIndexes(usersConfig);
+        CacheWarmer.Settings warmupSettings = null;
+        if (sqlServerAvailable && Boolean.parseBoolean(getEnvVar("USERS_MAP_STORE_ENABLED", "true"))) {
+            int writeDelaySeconds = Integer.parseInt(getEnvVar("USERS_MAP_STORE_WRITE_DELAY_SECONDS", "0"));
+            usersConfig.setMapStoreConfig(UserMapStore.createMapStoreConfig(writeDelaySeconds)
+                .setImplementation(new UserMapStore(sqlServerManager)));
+            usersPersistedByMapStore = true;
+            
+            // Com o aquecimento, a carga inicial do MapStore fica desligada (como no HazelcastServer)
+            warmupSettings = HazelcastServer.usersWarmupSettings();
+            if (warmupSettings.enabled()) {
+                usersConfig.getMapStoreConfig().setProperty(UserMapStore.PROPERTY_INITIAL_LOAD, "false");
+            }
+        }
+        config.addMapConfig(usersConfig);
+        
         hazelcastClient = com.hazelcast.core.Hazelcast.newHazelcastInstance(config);
         logger.info("Embedded Hazelcast instance created successfully for cluster '{}'", clusterName);
+        
+        // Carrega em segundo plano os usuários deste membro; a prontidão espera o fim
+        if (warmupSettings != null && warmupSettings.enabled()) {
+            usersWarmer = new CacheWarmer(hazelcastClient, sqlServerManager, warmupSettings);
+            usersWarmer.start();
+        }
+    }
+    
+    /**
+     * Espera o aquecimento do mapa "users"; uma falha apenas deixa o mapa frio (read-through)
+     */
+    private void awaitUsersWarmup() {
+        if (usersWarmer == null) {
+            return;
+        }
+        logger.info("Waiting for the warm-up of '{}'...", UserMapStore.MAP_NAME);
+        try {
+            usersWarmer.start().join();
+        } catch (Exception e) {
+            logger.warn("Continuing with a cold '{}' map", UserMapStore.MAP_NAME);
+        }
     }
     
     private void initializeClientMode() {
         logger.info("Connecting to external Hazelcast server...");
         ClientConfig clientConfig = createClientConfig();
         this.hazelcastClient = HazelcastClient.newHazelcastClient(clientConfig);
+        // O cliente não enxerga a configuração do cluster: informar se o MapStore está ativo lá
+        this.usersPersistedByMapStore = Boolean.parseBoolean(getEnvVar("USERS_MAP_STORE_ENABLED", "false"));
         logger.info("Connected to external Hazelcast cluster successfully");
     }
     
@@ -130,6 +216,28 @@ public class HazelcastAzureIntegratedClient {
             if (sqlServerManager.testConnection()) {
                 logger.info("SQL Server connection established");
                 sqlServerManager.createTablesIfNotExists();
+                sqlServerAvailable = true;
+                
+                // Gravação assíncrona em lote de user_events
+                this.userEventWriter = new UserEventWriteBehind(sqlServerManager,
+                    Integer.parseInt(getEnvVar("USER_EVENTS_QUEUE_CAPACITY", "10000")),
+                    Integer.parseInt(getEnvVar("USER_EVENTS_BATCH_SIZE", "200")),
+                    Long.parseLong(getEnvVar("USER_EVENTS_MAX_DELAY_MS", "500")),
+                    UserEventWriteBehind.OverflowPolicy.valueOf(getEnvVar("USER_EVENTS_OVERFLOW_POLICY", "BLOCK")),
+                    Long.parseLong(getEnvVar("USER_EVENTS_BLOCK_TIMEOUT_MS", "5000")),
+                    Boolean.parseBoolean(getEnvVar("USER_EVENTS_BULK_COPY", "true"))
+                        ? new BulkInsertOptions(0, Boolean.parseBoolean(getEnvVar("USER_EVENTS_BULK_TABLE_LOCK", "false")),
+                            List.of(), Integer.parseInt(getEnvVar("USER_EVENTS_BULK_TIMEOUT_SECONDS", "30")))
+                        : null);
+                
+                // Changelog ordenado e idempotente dos mapas em user_events
+                this.changelogWriter = new ChangelogWriter(sqlServerManager,
+                    Integer.parseInt(getEnvVar("CHANGELOG_LANES", "4")),
+                    Integer.parseInt(getEnvVar("USER_EVENTS_QUEUE_CAPACITY", "10000")),
+                    Integer.parseInt(getEnvVar("USER_EVENTS_BATCH_SIZE", "200")),
+                    Long.parseLong(getEnvVar("USER_EVENTS_MAX_DELAY_MS", "500")),
+                    Long.parseLong(getEnvVar("USER_EVENTS_BLOCK_TIMEOUT_MS", "5000")),
+                    Integer.parseInt(getEnvVar("CHANGELOG_MAX_ATTEMPTS", "10")));
             } else {
                 logger.warn("SQL Server connection failed - continuing without database");
             }
@@ -145,7 +253,15 @@ public class HazelcastAzureIntegratedClient {
             String queueName = getEnvVar("SERVICE_BUS_QUEUE_NAME", "hazelcast-events");
             
             if (!connectionString.isEmpty()) {
-                this.serviceBusManager = new ServiceBusManager(connectionString, queueName);
+                this.serviceBusManager = new ServiceBusManager(connectionString, queueName,
+                    Integer.parseInt(getEnvVar("SERVICE_BUS_MAX_BATCH_MESSAGES", 
+                        String.valueOf(ServiceBusManager.DEFAULT_MAX_BATCH_MESSAGES))),
+                    Long.parseLong(getEnvVar("SERVICE_BUS_LINGER_MS", 
+                        String.valueOf(ServiceBusManager.DEFAULT_LINGER_MILLIS))),
+                    Integer.parseInt(getEnvVar("SERVICE_BUS_MAX_IN_FLIGHT", 
+                        String.valueOf(ServiceBusManager.DEFAULT_MAX_IN_FLIGHT))),
+                    EventEncoder.Encoding.forContentType(getEnvVar("SERVICE_BUS_CONTENT_TYPE", 
+                        EventEncoder.Encoding.JSON.getContentType())));
                 
                 // Testar conexão
                 if (serviceBusManager.testConnection()) {
@@ -162,6 +278,29 @@ public class HazelcastAzureIntegratedClient {
         }
     }
     
+    /**
+     * Publica /metrics (e /health) em MANAGEMENT_PORT (padrão 8080, -1 desativa)
+     */
+    private void initializeMetricsEndpoint() {
+        int port = Integer.parseInt(getEnvVar("MANAGEMENT_PORT", String.valueOf(ManagementEndpoint.DEFAULT_PORT)));
+        if (port < 0) {
+            return;
+        }
+        try {
+            // No modo embedded a instância é um membro e tem estatísticas locais dos mapas
+            HazelcastMapMetrics.bind(hazelcastClient, List.of(UserMapStore.MAP_NAME, "product-cache", "sync-data"));
+            ManagementEndpoint endpoint = new ManagementEndpoint(port)
+                .addReadinessCheck("hazelcast", () -> hazelcastClient.getLifecycleService().isRunning());
+            if (usersWarmer != null) {
+                endpoint.addReadinessCheck("warmup-" + UserMapStore.MAP_NAME, usersWarmer::isReady,
+                    usersWarmer::getProgress);
+            }
+            managementEndpoint = AppMetrics.expose(endpoint).start();
+        } catch (Exception e) {
+            logger.error("Failed to start the metrics endpoint on port {}", port, e);
+        }
+    }
+    
     private void runDemonstrations() {
         logger.info("Running integrated demonstrations...");
         
@@ -178,22 +317,17 @@ public class HazelcastAzureIntegratedClient {
     private void demonstrateUserOperationsWithPersistence() {
         logger.info("=== Demonstrating User Operations with Persistence ===" );
         
-        IMap<String, UserData> userMap = hazelcastClient.getMap("users");
+        PipelinedMap<String, UserData> pipelinedUsers = new PipelinedMap<>(hazelcastClient, "users",
+            Integer.parseInt(getEnvVar("MAP_PIPELINE_DEPTH", String.valueOf(PipelinedMap.DEFAULT_DEPTH))));
+        IMap<String, UserData> userMap = pipelinedUsers.getMap();
+        
+        Map<String, UserData> users = new LinkedHashMap<>();
         
         // Criar usuários
         for (int i = 1; i <= 5; i++) {
             String userId = "user" + i;
             UserData user = new UserData(userId, "User " + i, "user" + i + "@example.com");
-            
-            // Armazenar no Hazelcast
-            userMap.put(userId, user);
-            
-            // Persistir no SQL Server usando método helper UPSERT
-            if (sqlServerManager != null) {
-                String[] columns = {"user_id", "username", "email", "last_login"};
-                Object[] values = {userId, user.getUsername(), user.getEmail(), LocalDateTime.now()};
-                sqlServerManager.executeUpsert("users", "user_id", columns, values);
-            }
+            users.put(userId, user);
             
             // Enviar evento
             if (serviceBusManager != null) {
@@ -204,49 +338,61 @@ public class HazelcastAzureIntegratedClient {
             logger.info("Created user: {}", user.getUsername());
         }
         
-        logger.info("Total users in Hazelcast cache: {}", userMap.size());
+        // Armazenar no Hazelcast com um putAll por partição em paralelo; com MapStore o cluster persiste via storeAll
+        pipelinedUsers.putAll(users).toCompletableFuture().join();
         
-        // Verificar dados no SQL Server
-        if (sqlServerManager != null) {
-            List<String> dbUsers = sqlServerManager.executeQuery("SELECT user_id, username, email FROM users");
-            logger.info("Users in SQL Server: {}", dbUsers.size());
-            dbUsers.forEach(user -> logger.info("DB User: {}", user));
+        // Registrar o login no dono de cada partição (uma operação em lote, sem get/put pelo cliente)
+        LocalDateTime loginTime = LocalDateTime.now();
+        userMap.executeOnKeys(users.keySet(), new UpdateLastLoginProcessor(loginTime));
+        
+        // Sem MapStore, persistir no SQL Server usando UPSERT em lote (um MERGE por bloco de linhas)
+        if (!usersPersistedByMapStore && sqlServerManager != null) {
+            List<Object[]> userRows = new ArrayList<>();
+            for (UserData user : users.values()) {
+                userRows.add(new Object[]{user.getUserId(), user.getUsername(), user.getEmail(), loginTime});
+            }
+            String[] columns = {"user_id", "username", "email", "last_login"};
+            sqlServerManager.executeUpsertBatch("users", "user_id", columns, userRows);
         }
+        
+        // Leitura apenas do campo necessário (processor somente leitura)
+        Map<String, String> emails = userMap.executeOnKeys(users.keySet(), new UserEmailProcessor());
+        logger.info("User emails: {}", emails);
+        
+        // Consultas respondidas pelo grid usando os índices, sem SELECT no SQL Server
+        UserQueries userQueries = new UserQueries(userMap);
+        userQueries.findByEmail("user1@example.com")
+            .ifPresent(user -> logger.info("Found by email: {} ({})", user.getUserId(), user.getUsername()));
+        LocalDateTime lastHour = LocalDateTime.now().minusHours(1);
+        logger.info("Users created in the last hour: {}", userQueries.countCreatedSince(lastHour));
+        UserQueries.Page<UserData> newest = userQueries.pageCreatedSince(lastHour, 3, 0);
+        newest.items().forEach(user -> logger.info("Newest user: {} created at {}", user.getUserId(), user.getCreatedAt()));
     }
     
     private void demonstrateCacheWithEvents() {
         logger.info("=== Demonstrating Cache Operations with Events ===");
         
-        IMap<String, String> productCache = hazelcastClient.getMap("product-cache");
+        PipelinedMap<String, String> pipelinedProducts = new PipelinedMap<>(hazelcastClient, "product-cache",
+            Integer.parseInt(getEnvVar("MAP_PIPELINE_DEPTH", String.valueOf(PipelinedMap.DEFAULT_DEPTH))));
+        IMap<String, String> productCache = pipelinedProducts.getMap();
+        
+        // Cache-aside: cada produto ausente é carregado uma única vez, mesmo com leituras concorrentes.
+        // product-cache tem Near Cache: sem renovação antecipada (beta 0) as leituras são servidas localmente
+        CacheAsideLoader<String, String> productLoader = new CacheAsideLoader<>(productCache, this::loadProductData,
+            Duration.ofSeconds(30), 0, Duration.ofSeconds(10), cacheRefreshExecutor);
         
-        // Simular operações de cache com eventos
         String[] products = {"laptop", "mouse", "keyboard", "monitor", "headset"};
         
+        // Primeira leitura: cache miss, dados buscados no "backend"
         for (String product : products) {
-            // Cache miss - buscar "dados externos"
-            String productData = "Product data for " + product + " - " + LocalDateTime.now();
-            productCache.put(product, productData, 30, TimeUnit.SECONDS); // TTL de 30 segundos
-            
-            // Registrar evento no banco
-            if (sqlServerManager != null) {
-                sqlServerManager.executeUpdate(
-                    "INSERT INTO user_events (user_id, event_type, event_data) VALUES (?, ?, ?)",
-                    "system", "CACHE_MISS", "Product: " + product
-                );
-            }
-            
-            // Enviar evento para Service Bus
-            if (serviceBusManager != null) {
-                serviceBusManager.sendSystemEvent("ProductCache", "INFO", 
-                    "Cache miss for product: " + product);
-            }
-            
+            productLoader.get(product);
             logger.info("Cached product: {}", product);
         }
         
-        // Demonstrar cache hit
+        // Demonstrar cache hit: todas as leituras em voo ao mesmo tempo
+        Map<String, String> cached = pipelinedProducts.getAll(List.of(products)).toCompletableFuture().join();
         for (String product : products) {
-            String cachedData = productCache.get(product);
+            String cachedData = cached.get(product);
             if (cachedData != null) {
                 logger.info("Cache HIT for {}: {}", product, cachedData.substring(0, 30) + "...");
                 
@@ -255,9 +401,31 @@ public class HazelcastAzureIntegratedClient {
                         "Cache hit for product: " + product);
                 }
             } else {
-                logger.info("Cache MISS for {} (expired)", product);
+                logger.info("Product {} not found", product);
             }
         }
+        
+        productLoader.logStats();
+        NearCacheSupport.logStats(hazelcastClient, "product-cache");
+    }
+    
+    /**
+     * Simula a consulta ao backend em um cache miss e registra o evento
+     */
+    private String loadProductData(String product) {
+        String productData = "Product data for " + product + " - " + LocalDateTime.now();
+        
+        // Registrar evento no banco
+        if (userEventWriter != null) {
+            userEventWriter.submit("system", "CACHE_MISS", "Product: " + product);
+        }
+        
+        // Enviar evento para Service Bus
+        if (serviceBusManager != null) {
+            serviceBusManager.sendSystemEvent("ProductCache", "INFO", 
+                "Cache miss for product: " + product);
+        }
+        return productData;
     }
     
     private void demonstrateDataSynchronization() {
@@ -265,8 +433,12 @@ public class HazelcastAzureIntegratedClient {
         
         IMap<String, String> syncMap = hazelcastClient.getMap("sync-data");
         
-        // Adicionar listener para sincronizar com banco
-        syncMap.addEntryListener(new MapEntryListener(sqlServerManager, serviceBusManager), true);
+        // Com o pipeline do Event Journal nos membros, o changelog e o Service Bus já são alimentados por ele
+        if (Boolean.parseBoolean(getEnvVar("MAP_JOURNAL_PIPELINE_ENABLED", "false"))) {
+            logger.info("Changes of '{}' are propagated by the map journal pipeline", syncMap.getName());
+        } else {
+            addChangelogListener(syncMap);
+        }
         
         // Realizar operações que irão disparar eventos
         for (int i = 1; i <= 3; i++) {
@@ -289,6 +461,19 @@ public class HazelcastAzureIntegratedClient {
         logger.info("Removed sync-key-2");
     }
     
+    /**
+     * Registra o listener que grava o changelog, continuando as sequências já gravadas
+     */
+    private void addChangelogListener(IMap<String, String> syncMap) {
+        PartitionService partitionService = hazelcastClient.getPartitionService();
+        int partitionCount = partitionService.getPartitions().size();
+        long[] lastSequences = changelogWriter != null
+            ? ChangelogWriter.lastSequences(sqlServerManager, syncMap.getName(), partitionCount)
+            : new long[partitionCount];
+        syncMap.addEntryListener(new MapEntryListener(changelogWriter, serviceBusManager, partitionService,
+            syncMap.getName(), lastSequences), true);
+    }
+    
     private ClientConfig createClientConfig() {
         ClientConfig config = new ClientConfig();
         
@@ -311,6 +496,14 @@ public class HazelcastAzureIntegratedClient {
             .setInitialBackoffMillis(1000)
             .setMultiplier(1.5);
         
+        // Mesmos serializadores Compact registrados nos membros
+        DomainSerializers.register(config.getSerializationConfig());
+        
+        // Near Cache para leituras repetidas de chaves quentes (UserData é mutável: formato BINARY)
+        NearCacheSupport.configure(config,
+            NearCacheSupport.Settings.defaults("product-cache", InMemoryFormat.OBJECT, 10000, 30).withEnvironmentOverrides(),
+            NearCacheSupport.Settings.defaults(UserMapStore.MAP_NAME, InMemoryFormat.BINARY, 50000, 300).withEnvironmentOverrides());
+        
         logger.info("Hazelcast client configured for cluster '{}' at '{}'", clusterName, serverAddress);
         return config;
     }
@@ -323,11 +516,25 @@ public class HazelcastAzureIntegratedClient {
     private void shutdown() {
         logger.info("Shutting down integrated client...");
         
+        cacheRefreshExecutor.shutdown();
+        
+        if (managementEndpoint != null) {
+            managementEndpoint.close();
+        }
+        
         if (hazelcastClient != null) {
             hazelcastClient.shutdown();
             logger.info("Hazelcast client disconnected");
         }
         
+        // Drenar eventos pendentes antes de fechar o pool
+        if (userEventWriter != null) {
+            userEventWriter.close();
+        }
+        if (changelogWriter != null) {
+            changelogWriter.close();
+        }
+        
         if (sqlServerManager != null) {
             sqlServerManager.shutdown();
         }
@@ -345,6 +552,7 @@ public class HazelcastAzureIntegratedClient {
         private String username;
         private String email;
         private LocalDateTime createdAt;
+        private LocalDateTime lastLogin;
         
         public UserData() {}
         
@@ -367,5 +575,8 @@ public class HazelcastAzureIntegratedClient {
         
         public LocalDateTime getCreatedAt() { return createdAt; }
         public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+        
+        public LocalDateTime getLastLogin() { return lastLogin; }
+        public void setLastLogin(LocalDateTime lastLogin) { this.lastLogin = lastLogin; }
     }
 }
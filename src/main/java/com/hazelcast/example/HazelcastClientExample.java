@@ -2,12 +2,24 @@ package com.hazelcast.example;
 
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.affinity.UserAffinity;
+import com.hazelcast.example.affinity.UserContext;
+import com.hazelcast.example.affinity.UserKey;
+import com.hazelcast.example.cache.NearCacheSupport;
+import com.hazelcast.example.cache.PipelinedMap;
+import com.hazelcast.example.processors.AppendProcessor;
+import com.hazelcast.example.processors.IncrementProcessor;
+import com.hazelcast.example.serialization.DomainSerializers;
 import com.hazelcast.map.IMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -56,7 +68,7 @@ public class HazelcastClientExample {
      * 
      * @return configured ClientConfig instance
      */
-    private static ClientConfig createClientConfig() {
+    public static ClientConfig createClientConfig() {
         ClientConfig clientConfig = new ClientConfig();
         
         // Set cluster name (must match server configuration)
@@ -72,6 +84,13 @@ public class HazelcastClientExample {
             .setMultiplier(2.0)
             .setClusterConnectTimeoutMillis(20000);
         
+        // Register the same compact serializers as the members
+        DomainSerializers.register(clientConfig.getSerializationConfig());
+        
+        // Near Cache for the repeatedly read cache entries
+        NearCacheSupport.configure(clientConfig,
+            NearCacheSupport.Settings.defaults("cache-data", InMemoryFormat.OBJECT, 10000, 300).withEnvironmentOverrides());
+        
         return clientConfig;
     }
     
@@ -83,19 +102,21 @@ public class HazelcastClientExample {
     private static void demonstrateDistributedMap(HazelcastInstance client) {
         logger.info("=== Distributed Map Operations ===");
         
-        IMap<String, String> map = client.getMap("example-map");
+        PipelinedMap<String, String> pipelinedMap = new PipelinedMap<>(client, "example-map");
+        IMap<String, String> map = pipelinedMap.getMap();
         
-        // Put operations
-        map.put("key1", "Hello");
-        map.put("key2", "Hazelcast");
-        map.put("key3", "5.5");
+        // Put operations, all in flight at once (one putAll per partition)
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("key1", "Hello");
+        entries.put("key2", "Hazelcast");
+        entries.put("key3", "5.5");
+        pipelinedMap.putAll(entries).toCompletableFuture().join();
         
         logger.info("Added {} entries to distributed map", map.size());
         
-        // Get operations
-        String value1 = map.get("key1");
-        String value2 = map.get("key2");
-        logger.info("Retrieved values: {} {}", value1, value2);
+        // Get operations, pipelined instead of one round trip each
+        Map<String, String> values = pipelinedMap.getAll(List.of("key1", "key2")).toCompletableFuture().join();
+        logger.info("Retrieved values: {} {}", values.get("key1"), values.get("key2"));
         
         // Check if key exists
         boolean containsKey = map.containsKey("key3");
@@ -122,14 +143,15 @@ public class HazelcastClientExample {
     private static void demonstrateUserSessions(HazelcastInstance client) {
         logger.info("=== User Session Management ===");
         
-        IMap<String, UserSession> userSessions = client.getMap("user-sessions");
+        PipelinedMap<String, UserSession> pipelinedSessions = new PipelinedMap<>(client, "user-sessions");
+        IMap<String, UserSession> userSessions = pipelinedSessions.getMap();
         
-        // Create and store user sessions
+        // Create and store user sessions without waiting for each write
         UserSession session1 = new UserSession("user123", "John Doe", LocalDateTime.now());
         UserSession session2 = new UserSession("user456", "Jane Smith", LocalDateTime.now());
         
-        userSessions.put(session1.getUserId(), session1);
-        userSessions.put(session2.getUserId(), session2);
+        pipelinedSessions.pipeline(List.of(session1, session2),
+            session -> pipelinedSessions.setAsync(session.getUserId(), session)).toCompletableFuture().join();
         
         logger.info("Stored {} user sessions", userSessions.size());
         
@@ -139,6 +161,16 @@ public class HazelcastClientExample {
             logger.info("Retrieved session for user: {}", retrievedSession.getUsername());
         }
         
+        // Count logins per user with a single bulk operation
+        IMap<String, Long> loginCounters = client.getMap("login-counters");
+        Map<String, Long> logins = loginCounters.executeOnKeys(userSessions.keySet(), new IncrementProcessor<>(1));
+        logger.info("Login counters: {}", logins);
+        
+        // Append to each session's state history on the partition owner (one round trip, no get/put race)
+        IMap<String, String> sessionHistory = client.getMap("session-history");
+        String history = sessionHistory.executeOnKey("user123", new AppendProcessor<>("LOGIN", " | ", 256));
+        logger.info("Session history for user123: {}", history);
+        
         // Check active sessions
         logger.info("Total active sessions: {}", userSessions.size());
     }
@@ -151,10 +183,11 @@ public class HazelcastClientExample {
     private static void demonstrateCacheOperations(HazelcastInstance client) {
         logger.info("=== Cache Operations ===");
         
-        IMap<String, Object> cache = client.getMap("cache-data");
+        IMap<Object, Object> cache = client.getMap("cache-data");
         
-        // Cache database query results
-        cache.put("user:123:profile", new UserProfile("John Doe", "john@example.com"));
+        // Cache database query results; per-user data is keyed by UserKey so it shares
+        // the partition of the user's session
+        cache.put(UserKey.profile("user123"), new UserProfile("John Doe", "john@example.com"));
         cache.put("product:456:details", new ProductInfo("Laptop", 999.99));
         
         // Cache with custom TTL
@@ -163,7 +196,7 @@ public class HazelcastClientExample {
         logger.info("Cached {} items", cache.size());
         
         // Retrieve from cache
-        UserProfile userProfile = (UserProfile) cache.get("user:123:profile");
+        UserProfile userProfile = (UserProfile) cache.get(UserKey.profile("user123"));
         if (userProfile != null) {
             logger.info("Retrieved cached user profile: {}", userProfile.getName());
         }
@@ -173,6 +206,18 @@ public class HazelcastClientExample {
             logger.info("Retrieved cached product: {} - ${}", 
                 productInfo.getName(), productInfo.getPrice());
         }
+        
+        NearCacheSupport.logStats(client, "cache-data");
+        
+        // Session and profile of the user read on the partition owner with a single remote call
+        try {
+            UserContext context = UserAffinity.loadContext(client, "user123").get(10, TimeUnit.SECONDS);
+            logger.info("User context for user123: session={}, profile={}",
+                context.session() != null ? context.session().getUsername() : null,
+                context.profile() != null ? context.profile().getEmail() : null);
+        } catch (Exception e) {
+            logger.error("Failed to load user context", e);
+        }
     }
     
     // Helper classes for examples
@@ -0,0 +1,73 @@
+package com.hazelcast.example;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.loadgen.LoadGenerator;
+import com.hazelcast.example.loadgen.WorkloadSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Hazelcast Load Generator
+ *
+ * Replays a production-like mix of reads and writes against a running HazelcastServer cluster
+ * and reports per-operation latency percentiles over time. Usage:
+ *
+ * <pre>
+ * java -cp hazelcast-project.jar com.hazelcast.example.HazelcastLoadGenerator [workload.properties] [key=value ...]
+ * </pre>
+ *
+ * The keys are the components of {@link WorkloadSpec}; command-line pairs override the file.
+ * The cluster addresses come from HAZELCAST_ADDRESSES (comma separated, default 127.0.0.1:5701).
+ */
+public class HazelcastLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(HazelcastLoadGenerator.class);
+
+    public static void main(String[] args) throws Exception {
+        WorkloadSpec spec = WorkloadSpec.defaults().with(parseArguments(args));
+
+        ClientConfig clientConfig = HazelcastClientExample.createClientConfig();
+        String addresses = System.getenv("HAZELCAST_ADDRESSES");
+        if (addresses != null && !addresses.isBlank()) {
+            clientConfig.getNetworkConfig().getAddresses().clear();
+            for (String address : addresses.split(",")) {
+                clientConfig.getNetworkConfig().addAddress(address.trim());
+            }
+        }
+
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+        try {
+            logger.info("Connected to cluster '{}' with {} members", clientConfig.getClusterName(),
+                client.getCluster().getMembers().size());
+            new LoadGenerator(client, spec).run();
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Reads an optional properties file (first argument without '=') and key=value overrides
+     */
+    static Properties parseArguments(String[] args) throws IOException {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                try (Reader reader = Files.newBufferedReader(Path.of(arg))) {
+                    properties.load(reader);
+                }
+            } else {
+                properties.setProperty(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+            }
+        }
+        return properties;
+    }
+}
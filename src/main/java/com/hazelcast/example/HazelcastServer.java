@@ -1,13 +1,35 @@
 package com.hazelcast.example;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.NetworkConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.cache.CacheWarmer;
+import com.hazelcast.example.cache.NearCacheSupport;
+import com.hazelcast.example.database.ChangelogWriter;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.management.ManagementEndpoint;
+import com.hazelcast.example.memory.MapMemoryMonitor;
+import com.hazelcast.example.memory.MemoryLimits;
+import com.hazelcast.example.memory.OffHeapMapStore;
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.example.metrics.HazelcastMapMetrics;
+import com.hazelcast.example.query.UserQueries;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.example.streaming.MapJournalPipeline;
+import com.hazelcast.jet.config.ProcessingGuarantee;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Hazelcast Server Example
  * 
@@ -18,6 +40,13 @@ public class HazelcastServer {
     
     private static final Logger logger = LoggerFactory.getLogger(HazelcastServer.class);
     
+    /** Maps whose changes are streamed from the Event Journal to SQL Server and Service Bus */
+    public static final List<String> CHANGELOG_MAPS = List.of("sync-data", UserMapStore.MAP_NAME, "product-cache");
+    
+    /** Maps whose member-side operation stats are published on /metrics */
+    public static final List<String> METRICS_MAPS = List.of("user-sessions", "cache-data", UserMapStore.MAP_NAME,
+        "sync-data", "product-cache");
+    
     public static void main(String[] args) {
         logger.info("Starting Hazelcast Server...");
         
@@ -30,9 +59,25 @@ public class HazelcastServer {
         logger.info("Instance Name: {}", hazelcastInstance.getName());
         logger.info("Cluster Size: {}", hazelcastInstance.getCluster().getMembers().size());
         
+        // Periodic per-map memory report with limit recommendations and warnings
+        ScheduledExecutorService memoryReporter = startMemoryReport(hazelcastInstance);
+        
+        // Map change propagation through the Jet pipeline (one job per cluster)
+        startChangelogPipeline(hazelcastInstance);
+        
+        // Loads the users this member owns in the background; readiness waits for it
+        CacheWarmer usersWarmer = startUsersWarmup(hazelcastInstance);
+        ManagementEndpoint managementEndpoint = startManagementEndpoint(hazelcastInstance, usersWarmer);
+        
         // Add shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down Hazelcast Server...");
+            if (memoryReporter != null) {
+                memoryReporter.shutdownNow();
+            }
+            if (managementEndpoint != null) {
+                managementEndpoint.close();
+            }
             hazelcastInstance.shutdown();
         }));
         
@@ -50,7 +95,7 @@ public class HazelcastServer {
      * 
      * @return configured Config instance
      */
-    private static Config createConfig() {
+    public static Config createConfig() {
         Config config = new Config();
         
         // Set cluster name
@@ -64,9 +109,19 @@ public class HazelcastServer {
         networkConfig.setPort(5701);
         networkConfig.setPortAutoIncrement(true);
         
+        // Register compact serializers for the domain classes
+        DomainSerializers.register(config.getSerializationConfig());
+        
         // Configure distributed maps
         configureDistributedMaps(config);
         
+        // Batch invalidations sent to client Near Caches
+        NearCacheSupport.configureInvalidation(config);
+        
+        // Event Journal on the changelog maps, read by the Jet pipeline
+        MapJournalPipeline.enableJournal(config, CHANGELOG_MAPS, Integer.parseInt(getEnvVar("MAP_JOURNAL_CAPACITY",
+            String.valueOf(MapJournalPipeline.DEFAULT_JOURNAL_CAPACITY))));
+        
         // Enable metrics and management center (if needed)
         config.getMetricsConfig().setEnabled(true);
         
@@ -85,6 +140,9 @@ public class HazelcastServer {
         userSessionsConfig.setBackupCount(1);
         userSessionsConfig.setAsyncBackupCount(1);
         userSessionsConfig.setTimeToLiveSeconds(3600); // 1 hour TTL
+        // Evict by heap footprint (MB per member) rather than entry count
+        MemoryLimits.apply(userSessionsConfig,
+            MemoryLimits.Settings.usedHeap("user-sessions", EvictionPolicy.LRU, 64).withEnvironmentOverrides());
         config.addMapConfig(userSessionsConfig);
         
         // Example Map: Cache Data
@@ -92,8 +150,160 @@ public class HazelcastServer {
         cacheConfig.setName("cache-data");
         cacheConfig.setBackupCount(2);
         cacheConfig.setMaxIdleSeconds(1800); // 30 minutes idle timeout
+        // With the off-heap tier this limit only bounds the hot entries kept on heap
+        MemoryLimits.apply(cacheConfig,
+            MemoryLimits.Settings.usedHeap("cache-data", EvictionPolicy.LFU, 256).withEnvironmentOverrides());
+        if (Boolean.parseBoolean(getEnvVar("CACHE_DATA_OFF_HEAP", "false"))) {
+            // Only the hottest entries stay on heap; the rest live in native memory on each member
+            int capacityMb = Integer.parseInt(getEnvVar("CACHE_DATA_OFF_HEAP_MB",
+                String.valueOf(OffHeapMapStore.DEFAULT_CAPACITY_MB)));
+            OffHeapMapStore.configure(cacheConfig, capacityMb);
+            
+            logger.info("Configured off-heap tier for 'cache-data' ({} MB native, on-heap limit {} {})",
+                capacityMb, cacheConfig.getEvictionConfig().getSize(), cacheConfig.getEvictionConfig().getMaxSizePolicy());
+        }
         config.addMapConfig(cacheConfig);
         
-        logger.info("Configured distributed maps: user-sessions, cache-data");
+        // Users Map: indexed for grid-side queries, persisted to SQL Server through a MapStore
+        // (only when a database is configured)
+        MapConfig usersConfig = new MapConfig();
+        usersConfig.setName(UserMapStore.MAP_NAME);
+        usersConfig.setBackupCount(1);
+        UserQueries.addIndexes(usersConfig);
+        if (System.getenv("SQL_SERVER_CONNECTION_STRING") != null) {
+            int writeDelaySeconds = Integer.parseInt(getEnvVar("USERS_MAP_STORE_WRITE_DELAY_SECONDS", "0"));
+            usersConfig.setMapStoreConfig(UserMapStore.createMapStoreConfig(writeDelaySeconds));
+            if (usersWarmupSettings().enabled()) {
+                // Loaded by key range on every member by the warm-up instead of the single-stream initial load
+                usersConfig.getMapStoreConfig().setProperty(UserMapStore.PROPERTY_INITIAL_LOAD, "false");
+            }
+            
+            logger.info("Configured map store for '{}' ({})", UserMapStore.MAP_NAME,
+                writeDelaySeconds == 0 ? "write-through" : "write-behind, " + writeDelaySeconds + "s delay");
+        }
+        config.addMapConfig(usersConfig);
+        
+        logger.info("Configured distributed maps: user-sessions, cache-data, {}", UserMapStore.MAP_NAME);
+    }
+    
+    /**
+     * Schedules the memory report every MEMORY_REPORT_INTERVAL_SECONDS (0 disables it)
+     * 
+     * @return the scheduler, or null when disabled
+     */
+    private static ScheduledExecutorService startMemoryReport(HazelcastInstance hazelcastInstance) {
+        int intervalSeconds = Integer.parseInt(getEnvVar("MEMORY_REPORT_INTERVAL_SECONDS", "300"));
+        if (intervalSeconds <= 0) {
+            return null;
+        }
+        
+        MapMemoryMonitor monitor = new MapMemoryMonitor();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "memory-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            // The report covers the whole cluster, so only the oldest member logs it
+            if (!hazelcastInstance.getCluster().getMembers().iterator().next().localMember()) {
+                return;
+            }
+            try {
+                MapMemoryMonitor.log(monitor.report(hazelcastInstance));
+            } catch (RuntimeException e) {
+                logger.warn("Memory report failed", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        return scheduler;
+    }
+    
+    /**
+     * Submits the map journal pipeline when MAP_JOURNAL_PIPELINE_ENABLED is true and a database is configured;
+     * Service Bus is an additional sink when SERVICE_BUS_CONNECTION_STRING is set
+     */
+    private static void startChangelogPipeline(HazelcastInstance hazelcastInstance) {
+        String connectionString = System.getenv("SQL_SERVER_CONNECTION_STRING");
+        if (!Boolean.parseBoolean(getEnvVar("MAP_JOURNAL_PIPELINE_ENABLED", "false")) || connectionString == null) {
+            return;
+        }
+        String username = getEnvVar("SQL_SERVER_USERNAME", "sa");
+        String password = getEnvVar("SQL_SERVER_PASSWORD", "YourPassword123");
+        
+        // Numbering continues from the last sequences already stored
+        Map<String, long[]> lastSequences = new LinkedHashMap<>();
+        int partitionCount = hazelcastInstance.getPartitionService().getPartitions().size();
+        SqlServerManager sqlServerManager = new SqlServerManager(connectionString, username, password);
+        try {
+            sqlServerManager.createTablesIfNotExists();
+            for (String mapName : CHANGELOG_MAPS) {
+                lastSequences.put(mapName, ChangelogWriter.lastSequences(sqlServerManager, mapName, partitionCount));
+            }
+        } finally {
+            sqlServerManager.shutdown();
+        }
+        
+        String serviceBusConnectionString = getEnvVar("SERVICE_BUS_CONNECTION_STRING", "");
+        MapJournalPipeline.submit(hazelcastInstance,
+            MapJournalPipeline.build(lastSequences,
+                MapJournalPipeline.sqlServerDataSource(connectionString, username, password),
+                serviceBusConnectionString.isEmpty() ? null : MapJournalPipeline.serviceBusTransport(
+                    serviceBusConnectionString, getEnvVar("SERVICE_BUS_QUEUE_NAME", "hazelcast-events")),
+                Integer.parseInt(getEnvVar("MAP_JOURNAL_JDBC_BATCH_LIMIT",
+                    String.valueOf(MapJournalPipeline.DEFAULT_JDBC_BATCH_LIMIT)))),
+            ProcessingGuarantee.valueOf(getEnvVar("MAP_JOURNAL_PIPELINE_GUARANTEE", "AT_LEAST_ONCE")),
+            Long.parseLong(getEnvVar("MAP_JOURNAL_SNAPSHOT_INTERVAL_MS",
+                String.valueOf(MapJournalPipeline.DEFAULT_SNAPSHOT_INTERVAL_MILLIS))));
+    }
+    
+    /**
+     * Warm-up settings of the users map (WARMUP_USERS_* environment variables)
+     */
+    public static CacheWarmer.Settings usersWarmupSettings() {
+        return CacheWarmer.Settings.defaults(UserMapStore.MAP_NAME, "users", "user_id").withEnvironmentOverrides();
+    }
+    
+    /**
+     * Starts the users warm-up when a database is configured
+     * 
+     * @return the warmer, or null when there is no database
+     */
+    private static CacheWarmer startUsersWarmup(HazelcastInstance hazelcastInstance) {
+        String connectionString = System.getenv("SQL_SERVER_CONNECTION_STRING");
+        if (connectionString == null) {
+            return null;
+        }
+        
+        // Dedicated pool, released once the warm-up is over
+        SqlServerManager sqlServerManager = new SqlServerManager(connectionString,
+            getEnvVar("SQL_SERVER_USERNAME", "sa"), getEnvVar("SQL_SERVER_PASSWORD", "YourPassword123"));
+        CacheWarmer warmer = new CacheWarmer(hazelcastInstance, sqlServerManager, usersWarmupSettings());
+        warmer.start().whenComplete((ignored, error) -> sqlServerManager.shutdown());
+        return warmer;
+    }
+    
+    /**
+     * Starts the health and Prometheus metrics endpoint on MANAGEMENT_PORT (default 8080, -1 disables it)
+     * 
+     * @return the endpoint, or null when disabled
+     */
+    private static ManagementEndpoint startManagementEndpoint(HazelcastInstance hazelcastInstance,
+                                                              CacheWarmer usersWarmer) {
+        int port = Integer.parseInt(getEnvVar("MANAGEMENT_PORT", String.valueOf(ManagementEndpoint.DEFAULT_PORT)));
+        if (port < 0) {
+            return null;
+        }
+        
+        ManagementEndpoint endpoint = new ManagementEndpoint(port)
+            .addReadinessCheck("hazelcast", () -> hazelcastInstance.getLifecycleService().isRunning());
+        if (usersWarmer != null) {
+            endpoint.addReadinessCheck("warmup-" + UserMapStore.MAP_NAME, usersWarmer::isReady, usersWarmer::getProgress);
+        }
+        HazelcastMapMetrics.bind(hazelcastInstance, METRICS_MAPS);
+        return AppMetrics.expose(endpoint).start();
+    }
+    
+    private static String getEnvVar(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
     }
 }
@@ -4,13 +4,33 @@ import com.hazelcast.core.EntryEvent;
 import com.hazelcast.map.listener.EntryAddedListener;
 import com.hazelcast.map.listener.EntryRemovedListener;
 import com.hazelcast.map.listener.EntryUpdatedListener;
-import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.database.ChangelogEvent;
+import com.hazelcast.example.database.ChangelogWriter;
+import com.hazelcast.example.messaging.ChangeTrace;
 import com.hazelcast.example.messaging.ServiceBusManager;
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.partition.PartitionService;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
  * Listener para eventos do mapa que sincroniza com SQL Server e envia eventos para Service Bus
+ * 
+ * Cada alteração vira um {@link ChangelogEvent} com a partição da chave e a próxima sequência
+ * da partição (os eventos de uma partição chegam ao listener em ordem), gravado pelo
+ * {@link ChangelogWriter} sem bloquear a thread de eventos do Hazelcast. As sequências
+ * continuam das últimas gravadas ({@link ChangelogWriter#lastSequences}); deve haver um único
+ * listener de changelog por mapa, senão dois processos numerariam eventos diferentes igualmente.
+ * 
+ * O tempo gasto em cada evento é publicado em map.listener.process (por mapa e tipo de evento).
+ * Cada alteração recebe aqui um {@link ChangeTrace} (correlation ID e instante de origem), gravado
+ * com o evento em user_events e enviado nas propriedades da mensagem do Service Bus; as etapas
+ * seguintes medem a partir dele o atraso de propagação. Os eventos de entrada do Hazelcast não
+ * trazem o instante da escrita, então a origem é o recebimento pelo listener.
  */
 public class MapEntryListener implements EntryAddedListener<String, String>, 
                                        EntryUpdatedListener<String, String>, 
@@ -18,70 +38,104 @@ public class MapEntryListener implements EntryAddedListener<String, String>,
     
     private static final Logger logger = LoggerFactory.getLogger(MapEntryListener.class);
     
-    private final SqlServerManager sqlServerManager;
+    private final ChangelogWriter changelogWriter;
     private final ServiceBusManager serviceBusManager;
+    private final PartitionService partitionService;
+    private final String mapName;
+    private final AtomicLongArray sequences;
+    private final Timer addedTimer;
+    private final Timer updatedTimer;
+    private final Timer removedTimer;
     
-    public MapEntryListener(SqlServerManager sqlServerManager, ServiceBusManager serviceBusManager) {
-        this.sqlServerManager = sqlServerManager;
+    /**
+     * @param changelogWriter Destino do changelog (null para não persistir)
+     * @param partitionService Serviço de partições do cluster, para a partição de cada chave
+     * @param mapName Mapa observado
+     * @param lastSequences Última sequência já gravada de cada partição
+     */
+    public MapEntryListener(ChangelogWriter changelogWriter, ServiceBusManager serviceBusManager,
+                            PartitionService partitionService, String mapName, long[] lastSequences) {
+        this.changelogWriter = changelogWriter;
         this.serviceBusManager = serviceBusManager;
+        this.partitionService = partitionService;
+        this.mapName = mapName;
+        this.sequences = new AtomicLongArray(lastSequences);
+        this.addedTimer = processTimer(mapName, "added");
+        this.updatedTimer = processTimer(mapName, "updated");
+        this.removedTimer = processTimer(mapName, "removed");
+    }
+    
+    private static Timer processTimer(String mapName, String event) {
+        return AppMetrics.timer("map.listener.process", "Time spent by the map listener on each event",
+            "map", mapName, "event", event);
     }
     
     @Override
     public void entryAdded(EntryEvent<String, String> event) {
-        logger.info("Entry ADDED: {} = {}", event.getKey(), event.getValue());
+        long start = System.nanoTime();
+        ChangeTrace trace = ChangeTrace.start(mapName);
+        logger.info("Entry ADDED: {} = {} [{}]", event.getKey(), event.getValue(), trace.correlationId());
         
-        // Persistir no SQL Server
-        if (sqlServerManager != null) {
-            sqlServerManager.executeUpdate(
-                "INSERT INTO user_events (user_id, event_type, event_data) VALUES (?, ?, ?)",
-                "system", "MAP_ENTRY_ADDED", "Key: " + event.getKey() + ", Value: " + event.getValue()
-            );
+        // Persistir no changelog do SQL Server (assíncrono, em lote)
+        if (changelogWriter != null) {
+            record(event, "MAP_ENTRY_ADDED", trace);
         }
         
         // Enviar evento para Service Bus
         if (serviceBusManager != null) {
             serviceBusManager.sendSystemEvent("HazelcastMap", "INFO", 
-                "Entry added - Key: " + event.getKey());
+                "Entry added - Key: " + event.getKey(), trace);
         }
+        
+        addedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
     
     @Override
     public void entryUpdated(EntryEvent<String, String> event) {
-        logger.info("Entry UPDATED: {} = {} (old: {})", 
-            event.getKey(), event.getValue(), event.getOldValue());
+        long start = System.nanoTime();
+        ChangeTrace trace = ChangeTrace.start(mapName);
+        logger.info("Entry UPDATED: {} = {} (old: {}) [{}]", 
+            event.getKey(), event.getValue(), event.getOldValue(), trace.correlationId());
         
-        // Persistir no SQL Server
-        if (sqlServerManager != null) {
-            sqlServerManager.executeUpdate(
-                "INSERT INTO user_events (user_id, event_type, event_data) VALUES (?, ?, ?)",
-                "system", "MAP_ENTRY_UPDATED", 
-                "Key: " + event.getKey() + ", New: " + event.getValue() + ", Old: " + event.getOldValue()
-            );
+        // Persistir no changelog do SQL Server (assíncrono, em lote)
+        if (changelogWriter != null) {
+            record(event, "MAP_ENTRY_UPDATED", trace);
         }
         
         // Enviar evento para Service Bus
         if (serviceBusManager != null) {
             serviceBusManager.sendSystemEvent("HazelcastMap", "INFO", 
-                "Entry updated - Key: " + event.getKey());
+                "Entry updated - Key: " + event.getKey(), trace);
         }
+        
+        updatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
     
     @Override
     public void entryRemoved(EntryEvent<String, String> event) {
-        logger.info("Entry REMOVED: {} (was: {})", event.getKey(), event.getOldValue());
+        long start = System.nanoTime();
+        ChangeTrace trace = ChangeTrace.start(mapName);
+        logger.info("Entry REMOVED: {} (was: {}) [{}]", event.getKey(), event.getOldValue(), trace.correlationId());
         
-        // Persistir no SQL Server
-        if (sqlServerManager != null) {
-            sqlServerManager.executeUpdate(
-                "INSERT INTO user_events (user_id, event_type, event_data) VALUES (?, ?, ?)",
-                "system", "MAP_ENTRY_REMOVED", "Key: " + event.getKey() + ", Value: " + event.getOldValue()
-            );
+        // Persistir no changelog do SQL Server (assíncrono, em lote)
+        if (changelogWriter != null) {
+            record(event, "MAP_ENTRY_REMOVED", trace);
         }
         
         // Enviar evento para Service Bus
         if (serviceBusManager != null) {
             serviceBusManager.sendSystemEvent("HazelcastMap", "INFO", 
-                "Entry removed - Key: " + event.getKey());
+                "Entry removed - Key: " + event.getKey(), trace);
         }
+        
+        removedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    
+    private void record(EntryEvent<String, String> event, String eventType, ChangeTrace trace) {
+        int partitionId = partitionService.getPartition(event.getKey()).getPartitionId();
+        changelogWriter.submit(new ChangelogEvent(mapName, event.getKey(), eventType, partitionId,
+            sequences.incrementAndGet(partitionId),
+            ChangelogEvent.payload(event.getKey(), event.getValue(), event.getOldValue()),
+            trace.correlationId(), trace.originTime()));
     }
 }
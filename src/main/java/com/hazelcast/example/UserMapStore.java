@@ -0,0 +1,249 @@
+package com.hazelcast.example;
+
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.hazelcast.map.MapStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * MapStore do mapa "users" persistido na tabela users do SQL Server
+ *
+ * Com o MapStore configurado o próprio cluster faz read-through nos misses e as gravações
+ * em lote (storeAll/deleteAll), sem que o código da aplicação grave no banco separadamente.
+ */
+public class UserMapStore implements MapStore<String, UserData>, MapLoaderLifecycleSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserMapStore.class);
+
+    public static final String MAP_NAME = "users";
+
+    // Propriedades aceitas no MapStoreConfig (com fallback para as variáveis de ambiente)
+    public static final String PROPERTY_CONNECTION_STRING = "connectionString";
+    public static final String PROPERTY_USERNAME = "username";
+    public static final String PROPERTY_PASSWORD = "password";
+    public static final String PROPERTY_FETCH_SIZE = "fetchSize";
+    // "false" desativa a carga inicial pelo loadAllKeys (o CacheWarmer aquece o mapa por faixas)
+    public static final String PROPERTY_INITIAL_LOAD = "initialLoad";
+
+    private static final String[] COLUMNS = {"user_id", "username", "email", "created_at", "last_login"};
+    private static final String SELECT_USERS = "SELECT user_id, username, email, created_at, last_login FROM users";
+    // Abaixo do limite de 2100 parâmetros do SQL Server
+    private static final int MAX_KEYS_PER_STATEMENT = 2000;
+
+    private SqlServerManager sqlServerManager;
+    private boolean ownsSqlServerManager;
+    private int fetchSize = 1000;
+    private boolean initialLoad = true;
+
+    /**
+     * Construtor usado quando o MapStore é criado pelo nome da classe (hazelcast.xml)
+     */
+    public UserMapStore() {
+    }
+
+    /**
+     * Construtor usado na configuração programática com um gerenciador já existente
+     */
+    public UserMapStore(SqlServerManager sqlServerManager) {
+        this.sqlServerManager = sqlServerManager;
+    }
+
+    /**
+     * Cria a configuração do MapStore
+     * @param writeDelaySeconds 0 para write-through, maior que 0 para write-behind
+     */
+    public static MapStoreConfig createMapStoreConfig(int writeDelaySeconds) {
+        MapStoreConfig mapStoreConfig = new MapStoreConfig();
+        mapStoreConfig.setEnabled(true);
+        mapStoreConfig.setClassName(UserMapStore.class.getName());
+        mapStoreConfig.setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY);
+        mapStoreConfig.setWriteDelaySeconds(writeDelaySeconds);
+        mapStoreConfig.setWriteBatchSize(500);
+        // Em write-behind grava apenas o último valor de cada chave
+        mapStoreConfig.setWriteCoalescing(true);
+        return mapStoreConfig;
+    }
+
+    @Override
+    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+        String configuredFetchSize = properties.getProperty(PROPERTY_FETCH_SIZE);
+        if (configuredFetchSize != null) {
+            fetchSize = Integer.parseInt(configuredFetchSize);
+        }
+        initialLoad = Boolean.parseBoolean(properties.getProperty(PROPERTY_INITIAL_LOAD, "true"));
+
+        if (sqlServerManager == null) {
+            String connectionString = getProperty(properties, PROPERTY_CONNECTION_STRING, "SQL_SERVER_CONNECTION_STRING");
+            if (connectionString == null) {
+                throw new IllegalStateException("No SQL Server connection string configured for map store of " + mapName);
+            }
+            sqlServerManager = new SqlServerManager(connectionString,
+                getProperty(properties, PROPERTY_USERNAME, "SQL_SERVER_USERNAME"),
+                getProperty(properties, PROPERTY_PASSWORD, "SQL_SERVER_PASSWORD"));
+            ownsSqlServerManager = true;
+        }
+
+        logger.info("User map store initialized for map '{}'", mapName);
+    }
+
+    private static String getProperty(Properties properties, String name, String envVar) {
+        String value = properties.getProperty(name);
+        return value != null ? value : System.getenv(envVar);
+    }
+
+    @Override
+    public void destroy() {
+        if (ownsSqlServerManager) {
+            sqlServerManager.shutdown();
+        }
+    }
+
+    @Override
+    public void store(String key, UserData value) {
+        storeAll(Collections.singletonMap(key, value));
+    }
+
+    @Override
+    public void storeAll(Map<String, UserData> map) {
+        List<Object[]> rows = new ArrayList<>(map.size());
+        for (Map.Entry<String, UserData> entry : map.entrySet()) {
+            UserData user = entry.getValue();
+            rows.add(new Object[]{entry.getKey(), user.getUsername(), user.getEmail(), user.getCreatedAt(),
+                user.getLastLogin()});
+        }
+
+        // Falhas precisam ser propagadas para o Hazelcast repetir (write-behind) ou avisar o chamador
+        if (sqlServerManager.executeUpsertBatch("users", "user_id", COLUMNS, rows) < 0) {
+            throw new IllegalStateException("Failed to store " + rows.size() + " users");
+        }
+        logger.debug("Stored {} users", rows.size());
+    }
+
+    @Override
+    public void delete(String key) {
+        deleteAll(Collections.singletonList(key));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        for (List<String> chunk : chunk(keys)) {
+            String sql = "DELETE FROM users WHERE user_id IN (" + placeholders(chunk.size()) + ")";
+            if (sqlServerManager.executeUpdate(sql, chunk.toArray()) < 0) {
+                throw new IllegalStateException("Failed to delete " + chunk.size() + " users");
+            }
+        }
+        logger.debug("Deleted {} users", keys.size());
+    }
+
+    @Override
+    public UserData load(String key) {
+        try (Stream<UserData> users = sqlServerManager.stream(SELECT_USERS + " WHERE user_id = ?",
+                UserMapStore::mapUser, key)) {
+            return users.findFirst().orElse(null);
+        }
+    }
+
+    @Override
+    public Map<String, UserData> loadAll(Collection<String> keys) {
+        Map<String, UserData> result = new HashMap<>();
+        for (List<String> chunk : chunk(keys)) {
+            String sql = SELECT_USERS + " WHERE user_id IN (" + placeholders(chunk.size()) + ")";
+            try (Stream<UserData> users = sqlServerManager.stream(sql, fetchSize, UserMapStore::mapUser, chunk.toArray())) {
+                users.forEach(user -> result.put(user.getUserId(), user));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retorna as chaves sob demanda. O Hazelcast só fecha o iterador, e só se ele for Closeable:
+     * o iterador fecha a consulta (e devolve a conexão) ao ser fechado ou ao chegar ao fim.
+     * Sem carga inicial devolve null e o mapa começa vazio
+     */
+    @Override
+    public Iterable<String> loadAllKeys() {
+        if (!initialLoad) {
+            return null;
+        }
+        return () -> new KeyIterator(sqlServerManager.stream("SELECT user_id FROM users", fetchSize, rs -> rs.getString(1)));
+    }
+
+    static UserData mapUser(ResultSet rs) throws SQLException {
+        UserData user = new UserData();
+        user.setUserId(rs.getString("user_id"));
+        user.setUsername(rs.getString("username"));
+        user.setEmail(rs.getString("email"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        Timestamp lastLogin = rs.getTimestamp("last_login");
+        user.setLastLogin(lastLogin != null ? lastLogin.toLocalDateTime() : null);
+        return user;
+    }
+
+    private static List<List<String>> chunk(Collection<String> keys) {
+        List<String> all = new ArrayList<>(keys);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += MAX_KEYS_PER_STATEMENT) {
+            chunks.add(all.subList(i, Math.min(i + MAX_KEYS_PER_STATEMENT, all.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static class KeyIterator implements Iterator<String>, Closeable {
+        private final Stream<String> keys;
+        private final Iterator<String> iterator;
+        private boolean closed;
+
+        KeyIterator(Stream<String> keys) {
+            this.keys = keys;
+            this.iterator = keys.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (!iterator.hasNext()) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                keys.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.hazelcast.example.affinity;
+
+import com.hazelcast.nio.serialization.DataSerializableFactory;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Fábrica das tarefas por usuário e dos seus resultados
+ *
+ * Registrada em membros e clientes por {@link com.hazelcast.example.serialization.DomainSerializers}.
+ * Como os entry processors (fábrica 1001), a tarefa é código enviado ao dono da chave e não
+ * dado de domínio: precisa do HazelcastInstanceAware e de um ID fixo resolvido pela fábrica,
+ * sem reflexão. O resultado só embrulha os três valores, gravados com os serializadores Compact.
+ */
+public class AffinityDataSerializableFactory implements DataSerializableFactory {
+
+    public static final int FACTORY_ID = 1002;
+
+    public static final int USER_CONTEXT_TASK = 1;
+    public static final int USER_CONTEXT = 2;
+
+    @Override
+    public IdentifiedDataSerializable create(int typeId) {
+        return switch (typeId) {
+            case USER_CONTEXT_TASK -> new UserContextTask();
+            case USER_CONTEXT -> new UserContext();
+            default -> null;
+        };
+    }
+}
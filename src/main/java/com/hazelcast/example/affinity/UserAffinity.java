@@ -0,0 +1,39 @@
+package com.hazelcast.example.affinity;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.partition.Partition;
+
+import java.util.concurrent.Future;
+
+/**
+ * Operações por usuário executadas no membro dono dos seus dados
+ *
+ * Os mapas "users" e "user-sessions" usam o userId como chave e "cache-data" usa
+ * {@link UserKey}; todos caem na partição do userId. Uma única chamada remota
+ * (submitToKeyOwner) substitui uma leitura remota por mapa.
+ */
+public final class UserAffinity {
+
+    public static final String EXECUTOR_NAME = "user-affinity";
+    public static final String USERS_MAP = "users";
+    public static final String SESSIONS_MAP = "user-sessions";
+    public static final String CACHE_MAP = "cache-data";
+
+    private UserAffinity() {}
+
+    /**
+     * Reúne cadastro, sessão e perfil do usuário com uma única chamada ao dono da partição
+     */
+    public static Future<UserContext> loadContext(HazelcastInstance instance, String userId) {
+        IExecutorService executor = instance.getExecutorService(EXECUTOR_NAME);
+        return executor.submitToKeyOwner(new UserContextTask(userId), userId);
+    }
+
+    /**
+     * Partição onde ficam todos os dados do usuário
+     */
+    public static Partition partitionOf(HazelcastInstance instance, String userId) {
+        return instance.getPartitionService().getPartition(userId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hazelcast.example.affinity;
+
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Dados de um usuário reunidos no membro dono da partição (campos ausentes ficam null)
+ */
+public final class UserContext implements IdentifiedDataSerializable {
+    private UserData user;
+    private UserSession session;
+    private UserProfile profile;
+
+    UserContext() {}
+
+    public UserContext(UserData user, UserSession session, UserProfile profile) {
+        this.user = user;
+        this.session = session;
+        this.profile = profile;
+    }
+
+    public UserData user() { return user; }
+    public UserSession session() { return session; }
+    public UserProfile profile() { return profile; }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(user);
+        out.writeObject(session);
+        out.writeObject(profile);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        user = in.readObject();
+        session = in.readObject();
+        profile = in.readObject();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return AffinityDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return AffinityDataSerializableFactory.USER_CONTEXT;
+    }
+
+    @Override
+    public String toString() {
+        return "UserContext{user=" + user + ", session=" + session + ", profile=" + profile + "}";
+    }
+}
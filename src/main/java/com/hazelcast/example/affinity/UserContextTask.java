@@ -0,0 +1,67 @@
+package com.hazelcast.example.affinity;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Lê cadastro, sessão e perfil de um usuário no membro dono da partição
+ *
+ * Executada com submitToKeyOwner(userId): as três leituras são locais ao membro.
+ */
+public class UserContextTask implements Callable<UserContext>, HazelcastInstanceAware, IdentifiedDataSerializable {
+
+    private String userId;
+    private transient HazelcastInstance hazelcastInstance;
+
+    UserContextTask() {}
+
+    public UserContextTask(String userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public UserContext call() {
+        IMap<String, UserData> users = hazelcastInstance.getMap(UserAffinity.USERS_MAP);
+        IMap<String, UserSession> sessions = hazelcastInstance.getMap(UserAffinity.SESSIONS_MAP);
+        IMap<UserKey, Object> cache = hazelcastInstance.getMap(UserAffinity.CACHE_MAP);
+
+        Object profile = cache.get(UserKey.profile(userId));
+        return new UserContext(users.get(userId), sessions.get(userId),
+            profile instanceof UserProfile userProfile ? userProfile : null);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(userId);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        userId = in.readString();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return AffinityDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return AffinityDataSerializableFactory.USER_CONTEXT_TASK;
+    }
+}
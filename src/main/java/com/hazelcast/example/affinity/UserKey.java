@@ -0,0 +1,58 @@
+package com.hazelcast.example.affinity;
+
+import com.hazelcast.partition.PartitionAware;
+
+import java.util.Objects;
+
+/**
+ * Chave de dados pertencentes a um usuário, posicionada na mesma partição do usuário
+ *
+ * A partição é calculada a partir do userId, a mesma chave String usada nos mapas "users"
+ * e "user-sessions". Assim perfil, sessão e cadastro de um usuário ficam no mesmo membro e
+ * podem ser lidos juntos por uma única tarefa local ({@link UserAffinity}).
+ */
+public final class UserKey implements PartitionAware<String> {
+
+    public static final String PROFILE = "profile";
+
+    private final String userId;
+    private final String kind;
+
+    public UserKey(String userId, String kind) {
+        this.userId = Objects.requireNonNull(userId, "userId");
+        this.kind = Objects.requireNonNull(kind, "kind");
+    }
+
+    public static UserKey profile(String userId) {
+        return new UserKey(userId, PROFILE);
+    }
+
+    public String getUserId() { return userId; }
+    public String getKind() { return kind; }
+
+    @Override
+    public String getPartitionKey() {
+        return userId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserKey other)) {
+            return false;
+        }
+        return userId.equals(other.userId) && kind.equals(other.kind);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, kind);
+    }
+
+    @Override
+    public String toString() {
+        return "user:" + userId + ":" + kind;
+    }
+}
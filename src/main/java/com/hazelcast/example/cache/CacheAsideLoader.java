@@ -0,0 +1,237 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.map.IMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache-aside sobre um IMap com proteção contra "thundering herd"
+ *
+ * - Single-flight: leituras concorrentes da mesma chave ausente compartilham uma única carga
+ *   do backend (por processo; cada cliente carrega no máximo uma vez por expiração).
+ * - Renovação antecipada probabilística (XFetch): perto do fim do TTL uma leitura pode disparar
+ *   a recarga em segundo plano, com probabilidade que cresce com o custo da carga e com a
+ *   proximidade da expiração, evitando que todas as chaves populares expirem ao mesmo tempo.
+ * - Cache negativo local: chaves inexistentes no backend não são consultadas de novo até o
+ *   fim do TTL negativo.
+ *
+ * A renovação antecipada precisa da expiração da entrada e por isso lê o EntryView no dono da
+ * partição, sem passar pelo Near Cache; com beta = 0 as leituras usam get() e aproveitam o Near Cache.
+ * Em mapas com Near Cache use beta = 0: caso contrário toda leitura vai ao membro.
+ */
+public class CacheAsideLoader<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(CacheAsideLoader.class);
+
+    public static final double DEFAULT_EARLY_REFRESH_BETA = 1.0;
+    public static final int MAX_NEGATIVE_ENTRIES = 10000;
+
+    private final IMap<K, V> map;
+    private final Function<K, V> loader;
+    private final long ttlMillis;
+    private final double earlyRefreshBeta;
+    private final long negativeTtlMillis;
+    private final Executor refreshExecutor;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    // Chave -> instante (ms) em que a ausência deixa de valer
+    private final Map<K, Long> negativeEntries = new ConcurrentHashMap<>();
+    // Média móvel da duração das cargas (ms), usada no cálculo do XFetch
+    private volatile double averageLoadMillis;
+
+    // Métricas
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong earlyRefreshes = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+
+    /**
+     * @param map Mapa usado como cache
+     * @param loader Consulta ao backend; retorna null quando a chave não existe
+     * @param ttl Tempo de vida das entradas carregadas
+     * @param earlyRefreshBeta Agressividade da renovação antecipada (0 desativa; 1 é o valor usual;
+     *                         use 0 em mapas com Near Cache)
+     * @param negativeTtl Tempo durante o qual uma chave inexistente não é consultada de novo (zero desativa)
+     * @param refreshExecutor Executor das renovações antecipadas
+     */
+    public CacheAsideLoader(IMap<K, V> map, Function<K, V> loader, Duration ttl, double earlyRefreshBeta,
+                            Duration negativeTtl, Executor refreshExecutor) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        if (earlyRefreshBeta < 0) {
+            throw new IllegalArgumentException("earlyRefreshBeta must not be negative");
+        }
+        this.map = map;
+        this.loader = loader;
+        this.ttlMillis = ttl.toMillis();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.refreshExecutor = refreshExecutor;
+
+        if (earlyRefreshBeta > 0 && map.getLocalMapStats() != null
+                && map.getLocalMapStats().getNearCacheStats() != null) {
+            logger.warn("Map '{}' has a Near Cache but early refresh reads bypass it; use beta 0 to read through " +
+                "the Near Cache", map.getName());
+        }
+    }
+
+    /**
+     * Retorna o valor do cache, carregando do backend quando ausente
+     * @return Valor ou null se a chave não existe no backend
+     * @throws IllegalStateException se a carga falhar
+     */
+    public V get(K key) {
+        Long negativeUntil = negativeEntries.get(key);
+        if (negativeUntil != null) {
+            if (negativeUntil > System.currentTimeMillis()) {
+                negativeHits.incrementAndGet();
+                return null;
+            }
+            negativeEntries.remove(key, negativeUntil);
+        }
+
+        if (earlyRefreshBeta == 0) {
+            V value = map.get(key);
+            if (value != null) {
+                hits.incrementAndGet();
+                return value;
+            }
+            misses.incrementAndGet();
+            return loadOnce(key);
+        }
+
+        EntryView<K, V> entry = map.getEntryView(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            if (shouldRefreshEarly(key, entry.getExpirationTime())) {
+                earlyRefreshes.incrementAndGet();
+                refreshExecutor.execute(() -> {
+                    try {
+                        loadOnce(key);
+                    } catch (RuntimeException e) {
+                        logger.warn("Early refresh failed for key {}", key, e);
+                    }
+                });
+            }
+            return entry.getValue();
+        }
+
+        misses.incrementAndGet();
+        return loadOnce(key);
+    }
+
+    /**
+     * XFetch: renova quando agora - custoMédio * beta * ln(rand) ultrapassa a expiração
+     */
+    private boolean shouldRefreshEarly(K key, long expirationTime) {
+        if (expirationTime == Long.MAX_VALUE || inFlight.containsKey(key)) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        double gap = -averageLoadMillis * earlyRefreshBeta * Math.log(random);
+        return System.currentTimeMillis() + gap >= expirationTime;
+    }
+
+    /**
+     * Carrega a chave uma única vez entre todos os chamadores concorrentes
+     */
+    private V loadOnce(K key) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IllegalStateException ise ? ise : new IllegalStateException(e.getCause());
+            }
+        }
+
+        try {
+            V value = load(key);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V load(K key) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            loadFailures.incrementAndGet();
+            throw new IllegalStateException("Failed to load key " + key, e);
+        }
+        double loadMillis = (System.nanoTime() - start) / 1_000_000.0;
+        averageLoadMillis = loads.getAndIncrement() == 0 ? loadMillis : averageLoadMillis * 0.9 + loadMillis * 0.1;
+
+        if (value == null) {
+            map.delete(key);
+            rememberAbsent(key);
+        } else {
+            map.set(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+            negativeEntries.remove(key);
+        }
+        return value;
+    }
+
+    private void rememberAbsent(K key) {
+        if (negativeTtlMillis <= 0) {
+            return;
+        }
+        if (negativeEntries.size() >= MAX_NEGATIVE_ENTRIES) {
+            long now = System.currentTimeMillis();
+            negativeEntries.values().removeIf(until -> until <= now);
+            if (negativeEntries.size() >= MAX_NEGATIVE_ENTRIES) {
+                return;
+            }
+        }
+        negativeEntries.put(key, System.currentTimeMillis() + negativeTtlMillis);
+    }
+
+    /**
+     * Remove a chave do cache e do cache negativo (ex.: após uma escrita no backend)
+     */
+    public void invalidate(K key) {
+        negativeEntries.remove(key);
+        map.delete(key);
+    }
+
+    public void logStats() {
+        logger.info("Cache-aside '{}': hits={}, misses={}, loads={}, coalesced={}, earlyRefreshes={}, " +
+                "negativeHits={}, loadFailures={}",
+            map.getName(), hits.get(), misses.get(), loads.get(), coalesced.get(), earlyRefreshes.get(),
+            negativeHits.get(), loadFailures.get());
+    }
+
+    // Métricas
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getLoads() { return loads.get(); }
+    public long getCoalesced() { return coalesced.get(); }
+    public long getEarlyRefreshes() { return earlyRefreshes.get(); }
+    public long getNegativeHits() { return negativeHits.get(); }
+    public long getLoadFailures() { return loadFailures.get(); }
+    public double getAverageLoadMillis() { return averageLoadMillis; }
+}
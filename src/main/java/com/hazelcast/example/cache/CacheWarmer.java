@@ -0,0 +1,330 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.PartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Aquecimento de um mapa com MapLoader na inicialização do membro
+ *
+ * A tabela é dividida em faixas de chaves (limites calculados no banco a cada rangeSize linhas)
+ * que são lidas em paralelo. Cada membro percorre as chaves, separa as das partições que ele
+ * possui e as carrega em lote com {@link IMap#loadAll(java.util.Set, boolean)}: a carga roda no
+ * próprio dono pelo MapLoader e, diferente de putAll, não devolve as entradas ao banco pelo
+ * MapStore. Com todos os membros aquecendo ao mesmo tempo, cada linha é carregada uma única vez.
+ * Chaves que mudam de dono durante a carga e ficam sem aquecimento continuam disponíveis por
+ * read-through.
+ *
+ * Custo aceito: cada membro percorre o índice de chaves inteiro e descarta as chaves que não são
+ * suas, então a leitura das chaves se repete em todos os membros (N membros leem N vezes a
+ * coluna da chave, mas as linhas completas uma vez só). Dividir as faixas entre os membros
+ * exigiria combinar a divisão entre eles e refazê-la quando um membro entra ou sai durante a
+ * carga; filtrando pelo dono, cada membro aquece sozinho, com a tabela de partições do momento.
+ *
+ * O membro fica pronto ({@link #isReady()}) quando o aquecimento termina; uma falha não bloqueia
+ * a prontidão, apenas deixa o mapa frio. O fim é registrado no log com o marcador WARMUP_COMPLETE.
+ */
+public class CacheWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    public static final String COMPLETE_MARKER = "WARMUP_COMPLETE";
+
+    public enum State { NOT_STARTED, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Configuração do aquecimento de um mapa
+     *
+     * @param mapName Mapa aquecido (precisa de MapLoader)
+     * @param table Tabela de origem
+     * @param keyColumn Coluna da chave do mapa na tabela
+     * @param enabled Aquecimento ativo
+     * @param parallelism Faixas lidas ao mesmo tempo neste membro
+     * @param rangeSize Linhas por faixa
+     * @param batchSize Chaves por chamada de loadAll
+     */
+    public record Settings(String mapName, String table, String keyColumn, boolean enabled, int parallelism,
+                           int rangeSize, int batchSize) {
+
+        public static Settings defaults(String mapName, String table, String keyColumn) {
+            return new Settings(mapName, table, keyColumn, true, 4, 50_000, 1_000);
+        }
+
+        /**
+         * Aplica as variáveis de ambiente WARMUP_&lt;MAPA&gt;_* sobre estes valores
+         */
+        public Settings withEnvironmentOverrides() {
+            String prefix = "WARMUP_" + mapName.toUpperCase(Locale.ROOT).replace('-', '_') + "_";
+            return new Settings(mapName, table, keyColumn,
+                Boolean.parseBoolean(getEnvVar(prefix + "ENABLED", String.valueOf(enabled))),
+                Integer.parseInt(getEnvVar(prefix + "PARALLELISM", String.valueOf(parallelism))),
+                Integer.parseInt(getEnvVar(prefix + "RANGE_SIZE", String.valueOf(rangeSize))),
+                Integer.parseInt(getEnvVar(prefix + "BATCH_SIZE", String.valueOf(batchSize))));
+        }
+    }
+
+    /**
+     * Faixa [from, to) de chaves; null indica faixa aberta naquele lado
+     */
+    record KeyRange(String from, String to) {}
+
+    private final HazelcastInstance instance;
+    private final SqlServerManager sqlServerManager;
+    private final Settings settings;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.NOT_STARTED);
+    private final AtomicInteger totalRanges = new AtomicInteger();
+    private final AtomicInteger completedRanges = new AtomicInteger();
+    private final AtomicLong scannedKeys = new AtomicLong();
+    private final AtomicLong loadedKeys = new AtomicLong();
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile CompletableFuture<Void> completion;
+
+    public CacheWarmer(HazelcastInstance instance, SqlServerManager sqlServerManager, Settings settings) {
+        if (settings.parallelism() < 1 || settings.rangeSize() < 1 || settings.batchSize() < 1) {
+            throw new IllegalArgumentException("Warm-up parallelism, range size and batch size must be positive");
+        }
+        this.instance = instance;
+        this.sqlServerManager = sqlServerManager;
+        this.settings = settings;
+    }
+
+    /**
+     * Inicia o aquecimento em segundo plano (chamadas repetidas devolvem a mesma execução)
+     *
+     * @return Concluído quando todas as faixas foram lidas; falha com o primeiro erro
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (completion != null) {
+            return completion;
+        }
+        if (!settings.enabled()) {
+            state.set(State.COMPLETED);
+            completion = CompletableFuture.completedFuture(null);
+            return completion;
+        }
+
+        startNanos = System.nanoTime();
+        state.set(State.RUNNING);
+        completion = new CompletableFuture<>();
+        Thread coordinator = new Thread(this::run, "cache-warmup-" + settings.mapName());
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return completion;
+    }
+
+    private void run() {
+        try {
+            List<KeyRange> ranges = ranges();
+            totalRanges.set(ranges.size());
+            logger.info("Warm-up of '{}' started: {} ranges of {} rows, parallelism {}",
+                settings.mapName(), ranges.size(), settings.rangeSize(), settings.parallelism());
+
+            ConcurrentLinkedQueue<KeyRange> pending = new ConcurrentLinkedQueue<>(ranges);
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(settings.parallelism(), ranges.size()); i++) {
+                CompletableFuture<Void> worker = new CompletableFuture<>();
+                Thread thread = new Thread(() -> {
+                    try {
+                        KeyRange range;
+                        while ((range = pending.poll()) != null) {
+                            load(range);
+                            reportProgress();
+                        }
+                        worker.complete(null);
+                    } catch (Throwable e) {
+                        // Interrompe as demais faixas
+                        pending.clear();
+                        worker.completeExceptionally(e);
+                    }
+                }, "cache-warmup-" + settings.mapName() + "-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                workers.add(worker);
+            }
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+
+            endNanos = System.nanoTime();
+            state.set(State.COMPLETED);
+            logger.info("{} map={} ranges={} scannedKeys={} loadedKeys={} elapsedMs={}", COMPLETE_MARKER,
+                settings.mapName(), completedRanges.get(), scannedKeys.get(), loadedKeys.get(), getElapsedMillis());
+            completion.complete(null);
+        } catch (Throwable e) {
+            endNanos = System.nanoTime();
+            state.set(State.FAILED);
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Warm-up of '{}' failed after {} of {} ranges; the map is served by read-through",
+                settings.mapName(), completedRanges.get(), totalRanges.get(), cause);
+            completion.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Limites das faixas: uma chave a cada rangeSize linhas, em ordem. Percorre só a chave
+     * primária (o índice), não as linhas inteiras
+     */
+    List<KeyRange> ranges() {
+        String sql = "SELECT " + settings.keyColumn() + " FROM (SELECT " + settings.keyColumn()
+            + ", ROW_NUMBER() OVER (ORDER BY " + settings.keyColumn() + ") AS rn FROM " + settings.table()
+            + ") numbered WHERE rn % ? = 0 ORDER BY " + settings.keyColumn();
+        List<String> boundaries;
+        try (Stream<String> rows = sqlServerManager.stream(sql, rs -> rs.getString(1), settings.rangeSize())) {
+            boundaries = rows.toList();
+        }
+
+        List<KeyRange> ranges = new ArrayList<>(boundaries.size() + 1);
+        String from = null;
+        for (String boundary : boundaries) {
+            ranges.add(new KeyRange(from, boundary));
+            from = boundary;
+        }
+        ranges.add(new KeyRange(from, null));
+        return ranges;
+    }
+
+    /**
+     * Lê as chaves da faixa e carrega em lote as que pertencem às partições deste membro. A leitura
+     * termina (e devolve a conexão) antes da carga, que usa conexões do MapLoader: com o pool
+     * compartilhado, faixas abertas esperando a carga poderiam esgotá-lo
+     */
+    private void load(KeyRange range) {
+        IMap<String, ?> map = instance.getMap(settings.mapName());
+        PartitionService partitionService = instance.getPartitionService();
+        Member localMember = instance.getCluster().getLocalMember();
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(settings.keyColumn())
+            .append(" FROM ").append(settings.table());
+        List<Object> parameters = new ArrayList<>(2);
+        if (range.from() != null) {
+            sql.append(" WHERE ").append(settings.keyColumn()).append(" >= ?");
+            parameters.add(range.from());
+        }
+        if (range.to() != null) {
+            sql.append(parameters.isEmpty() ? " WHERE " : " AND ").append(settings.keyColumn()).append(" < ?");
+            parameters.add(range.to());
+        }
+
+        List<String> ownedKeys = new ArrayList<>();
+        try (Stream<String> keys = sqlServerManager.stream(sql.toString(), rs -> rs.getString(1),
+                parameters.toArray())) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                scannedKeys.incrementAndGet();
+                if (localMember.equals(partitionService.getPartition(key).getOwner())) {
+                    ownedKeys.add(key);
+                }
+            }
+        }
+
+        HashSet<String> batch = new HashSet<>();
+        for (String key : ownedKeys) {
+            batch.add(key);
+            if (batch.size() >= settings.batchSize()) {
+                loadBatch(map, batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            loadBatch(map, batch);
+        }
+        completedRanges.incrementAndGet();
+    }
+
+    private void loadBatch(IMap<String, ?> map, HashSet<String> batch) {
+        // Não substitui entradas já gravadas pela aplicação durante o aquecimento
+        map.loadAll(batch, false);
+        loadedKeys.addAndGet(batch.size());
+        batch.clear();
+    }
+
+    /**
+     * Registra o andamento a cada 10% das faixas
+     */
+    private void reportProgress() {
+        int total = totalRanges.get();
+        int completed = completedRanges.get();
+        if (total >= 10 && completed % (total / 10) == 0 && completed < total) {
+            logger.info("Warm-up of '{}': {}/{} ranges, {} keys scanned, {} loaded",
+                settings.mapName(), completed, total, scannedKeys.get(), loadedKeys.get());
+        }
+    }
+
+    /**
+     * Pronto para receber tráfego: aquecimento concluído, com ou sem falha
+     */
+    public boolean isReady() {
+        State current = state.get();
+        return current == State.COMPLETED || current == State.FAILED;
+    }
+
+    /**
+     * Andamento do aquecimento, exposto no endpoint de saúde
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("map", settings.mapName());
+        progress.put("state", state.get().name());
+        progress.put("totalRanges", totalRanges.get());
+        progress.put("completedRanges", completedRanges.get());
+        progress.put("scannedKeys", scannedKeys.get());
+        progress.put("loadedKeys", loadedKeys.get());
+        progress.put("elapsedMs", getElapsedMillis());
+        return progress;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public int getTotalRanges() {
+        return totalRanges.get();
+    }
+
+    public int getCompletedRanges() {
+        return completedRanges.get();
+    }
+
+    public long getScannedKeys() {
+        return scannedKeys.get();
+    }
+
+    public long getLoadedKeys() {
+        return loadedKeys.get();
+    }
+
+    public long getElapsedMillis() {
+        if (state.get() == State.NOT_STARTED) {
+            return 0;
+        }
+        long end = isReady() ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1_000_000;
+    }
+
+    private static String getEnvVar(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,164 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.nearcache.NearCacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Configuração e estatísticas de Near Cache nos clientes
+ *
+ * Cada mapa tem valores padrão que podem ser sobrescritos por variáveis de ambiente com o
+ * prefixo NEAR_CACHE_&lt;MAPA&gt;_ (ex.: NEAR_CACHE_PRODUCT_CACHE_TTL_SECONDS). A invalidação
+ * é enviada pelos membros em lotes, configurados em {@link #configureInvalidation(Config)}.
+ */
+public final class NearCacheSupport {
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheSupport.class);
+
+    public static final int DEFAULT_INVALIDATION_BATCH_SIZE = 100;
+    public static final int DEFAULT_INVALIDATION_BATCH_FREQUENCY_SECONDS = 10;
+    public static final int DEFAULT_MAX_TOLERATED_MISS_COUNT = 10;
+    public static final int DEFAULT_RECONCILIATION_INTERVAL_SECONDS = 60;
+
+    private NearCacheSupport() {}
+
+    /**
+     * Configuração de Near Cache de um mapa
+     *
+     * @param mapName Nome do mapa
+     * @param enabled Near Cache ativo para o mapa
+     * @param inMemoryFormat OBJECT evita desserializar a cada leitura; BINARY devolve cópias independentes
+     * @param maxSize Número máximo de entradas locais
+     * @param evictionPolicy Política de remoção quando o limite é atingido
+     * @param timeToLiveSeconds Tempo máximo de uma entrada local (0 = sem limite)
+     * @param maxIdleSeconds Tempo máximo sem leitura (0 = sem limite)
+     * @param preload Grava periodicamente as chaves em disco e as recarrega na inicialização
+     */
+    public record Settings(String mapName, boolean enabled, InMemoryFormat inMemoryFormat, int maxSize,
+                           EvictionPolicy evictionPolicy, int timeToLiveSeconds, int maxIdleSeconds,
+                           boolean preload) {
+
+        public static Settings defaults(String mapName, InMemoryFormat inMemoryFormat, int maxSize,
+                                        int timeToLiveSeconds) {
+            return new Settings(mapName, true, inMemoryFormat, maxSize, EvictionPolicy.LRU, timeToLiveSeconds, 0, false);
+        }
+
+        /**
+         * Aplica as variáveis de ambiente NEAR_CACHE_&lt;MAPA&gt;_* sobre estes valores
+         */
+        public Settings withEnvironmentOverrides() {
+            String prefix = "NEAR_CACHE_" + mapName.toUpperCase(Locale.ROOT).replace('-', '_') + "_";
+            return new Settings(mapName,
+                Boolean.parseBoolean(getEnvVar(prefix + "ENABLED", String.valueOf(enabled))),
+                InMemoryFormat.valueOf(getEnvVar(prefix + "FORMAT", inMemoryFormat.name()).toUpperCase(Locale.ROOT)),
+                Integer.parseInt(getEnvVar(prefix + "MAX_SIZE", String.valueOf(maxSize))),
+                EvictionPolicy.valueOf(getEnvVar(prefix + "EVICTION", evictionPolicy.name()).toUpperCase(Locale.ROOT)),
+                Integer.parseInt(getEnvVar(prefix + "TTL_SECONDS", String.valueOf(timeToLiveSeconds))),
+                Integer.parseInt(getEnvVar(prefix + "MAX_IDLE_SECONDS", String.valueOf(maxIdleSeconds))),
+                Boolean.parseBoolean(getEnvVar(prefix + "PRELOAD", String.valueOf(preload))));
+        }
+    }
+
+    /**
+     * Cria a configuração de Near Cache do cliente para o mapa
+     */
+    public static NearCacheConfig createNearCacheConfig(Settings settings) {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig(settings.mapName())
+            .setInMemoryFormat(settings.inMemoryFormat())
+            .setInvalidateOnChange(true)
+            .setTimeToLiveSeconds(settings.timeToLiveSeconds())
+            .setMaxIdleSeconds(settings.maxIdleSeconds())
+            .setEvictionConfig(new EvictionConfig()
+                .setEvictionPolicy(settings.evictionPolicy())
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(settings.maxSize()));
+
+        if (settings.preload()) {
+            nearCacheConfig.setPreloaderConfig(new NearCachePreloaderConfig()
+                .setEnabled(true)
+                .setDirectory(getEnvVar("NEAR_CACHE_PRELOAD_DIRECTORY", ""))
+                .setStoreInitialDelaySeconds(60)
+                .setStoreIntervalSeconds(600));
+        }
+        return nearCacheConfig;
+    }
+
+    /**
+     * Adiciona ao cliente o Near Cache dos mapas habilitados e os parâmetros de reconciliação
+     */
+    public static ClientConfig configure(ClientConfig clientConfig, Settings... mapSettings) {
+        for (Settings settings : mapSettings) {
+            if (!settings.enabled()) {
+                continue;
+            }
+            clientConfig.addNearCacheConfig(createNearCacheConfig(settings));
+            logger.info("Near Cache enabled for '{}' (format={}, maxSize={}, eviction={}, ttl={}s, preload={})",
+                settings.mapName(), settings.inMemoryFormat(), settings.maxSize(), settings.evictionPolicy(),
+                settings.timeToLiveSeconds(), settings.preload());
+        }
+
+        // Invalidações perdidas são detectadas pela sequência e corrigidas na reconciliação
+        clientConfig.setProperty("hazelcast.invalidation.max.tolerated.miss.count",
+            getEnvVar("NEAR_CACHE_MAX_TOLERATED_MISS_COUNT", String.valueOf(DEFAULT_MAX_TOLERATED_MISS_COUNT)));
+        clientConfig.setProperty("hazelcast.invalidation.reconciliation.interval.seconds",
+            getEnvVar("NEAR_CACHE_RECONCILIATION_INTERVAL_SECONDS", String.valueOf(DEFAULT_RECONCILIATION_INTERVAL_SECONDS)));
+        return clientConfig;
+    }
+
+    /**
+     * Configura nos membros o envio de invalidações em lote para os Near Caches dos clientes
+     */
+    public static Config configureInvalidation(Config config) {
+        config.setProperty("hazelcast.map.invalidation.batch.enabled", "true");
+        config.setProperty("hazelcast.map.invalidation.batch.size",
+            getEnvVar("NEAR_CACHE_INVALIDATION_BATCH_SIZE", String.valueOf(DEFAULT_INVALIDATION_BATCH_SIZE)));
+        config.setProperty("hazelcast.map.invalidation.batchfrequency.seconds",
+            getEnvVar("NEAR_CACHE_INVALIDATION_BATCH_FREQUENCY_SECONDS",
+                String.valueOf(DEFAULT_INVALIDATION_BATCH_FREQUENCY_SECONDS)));
+        return config;
+    }
+
+    /**
+     * Estatísticas do Near Cache do mapa neste cliente (null quando não há Near Cache)
+     */
+    public static NearCacheStats getStats(HazelcastInstance instance, String mapName) {
+        return instance.getMap(mapName).getLocalMapStats().getNearCacheStats();
+    }
+
+    /**
+     * Percentual de leituras servidas pelo Near Cache: hits / (hits + misses) × 100
+     * (NearCacheStats.getRatio() é hits / misses × 100, não um percentual)
+     */
+    public static double hitPercentage(NearCacheStats stats) {
+        long reads = stats.getHits() + stats.getMisses();
+        return reads == 0 ? 0 : stats.getHits() * 100.0 / reads;
+    }
+
+    public static void logStats(HazelcastInstance instance, String mapName) {
+        NearCacheStats stats = getStats(instance, mapName);
+        if (stats == null) {
+            logger.info("No Near Cache for '{}'", mapName);
+            return;
+        }
+        logger.info("Near Cache '{}': entries={}, hits={}, misses={}, hitRatio={}%, invalidations={}, " +
+                "evictions={}, expirations={}, memory={} bytes",
+            mapName, stats.getOwnedEntryCount(), stats.getHits(), stats.getMisses(),
+            String.format("%.1f", hitPercentage(stats)), stats.getInvalidations(), stats.getEvictions(),
+            stats.getExpirations(), stats.getOwnedEntryMemoryCost());
+    }
+
+    private static String getEnvVar(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,186 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Pipelining;
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.PartitionService;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Acesso assíncrono a um IMap com várias operações em voo por conexão
+ *
+ * Em vez de esperar cada put/get antes do próximo (uma ida e volta por operação), as operações
+ * são emitidas com putAsync/getAsync/setAsync e acompanhadas por um {@link Pipelining} de
+ * profundidade configurável: a emissão só espera quando há depth operações pendentes, o que
+ * limita a memória e a fila do cluster sem voltar ao modo sequencial.
+ *
+ * As operações em lote separam as chaves por partição: putAll/setAll enviam um putAllAsync/
+ * setAllAsync por partição, e getAll emite os getAsync de cada partição juntos (o IMap não tem
+ * getAll assíncrono).
+ *
+ * A latência de cada operação, da emissão à resposta, é publicada em hazelcast.map.call por
+ * mapa e operação (putAll/setAll contam uma chamada por partição).
+ */
+public class PipelinedMap<K, V> {
+
+    public static final int DEFAULT_DEPTH = 256;
+
+    private final IMap<K, V> map;
+    private final PartitionService partitionService;
+    private final int depth;
+    private final Timer getTimer;
+    private final Timer putTimer;
+    private final Timer setTimer;
+    private final Timer putAllTimer;
+    private final Timer setAllTimer;
+
+    /**
+     * @param depth Máximo de operações pendentes nas chamadas em lote
+     */
+    public PipelinedMap(HazelcastInstance instance, String mapName, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Pipeline depth must be positive");
+        }
+        this.map = instance.getMap(mapName);
+        this.partitionService = instance.getPartitionService();
+        this.depth = depth;
+        this.getTimer = callTimer(mapName, "get");
+        this.putTimer = callTimer(mapName, "put");
+        this.setTimer = callTimer(mapName, "set");
+        this.putAllTimer = callTimer(mapName, "putAll");
+        this.setAllTimer = callTimer(mapName, "setAll");
+    }
+
+    private static Timer callTimer(String mapName, String operation) {
+        return AppMetrics.timer("hazelcast.map.call", "Map operation latency seen by the caller",
+            "map", mapName, "operation", operation);
+    }
+
+    public PipelinedMap(HazelcastInstance instance, String mapName) {
+        this(instance, mapName, DEFAULT_DEPTH);
+    }
+
+    public CompletionStage<V> getAsync(K key) {
+        return timed(getTimer, () -> map.getAsync(key));
+    }
+
+    public CompletionStage<V> putAsync(K key, V value) {
+        return timed(putTimer, () -> map.putAsync(key, value));
+    }
+
+    /**
+     * Como putAsync, sem devolver o valor anterior (menos dados na resposta)
+     */
+    public CompletionStage<Void> setAsync(K key, V value) {
+        return timed(setTimer, () -> map.setAsync(key, value));
+    }
+
+    public CompletionStage<Void> setAsync(K key, V value, long ttl, TimeUnit timeUnit) {
+        return timed(setTimer, () -> map.setAsync(key, value, ttl, timeUnit));
+    }
+
+    private static <T> CompletionStage<T> timed(Timer timer, Supplier<CompletionStage<T>> operation) {
+        long start = System.nanoTime();
+        return operation.get().whenComplete((result, error) -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Executa a operação para cada item com até depth operações pendentes
+     *
+     * A chamada retorna depois de emitir todas as operações (esperando apenas quando o pipeline
+     * está cheio); o resultado traz os valores na ordem dos itens
+     */
+    public <T, R> CompletionStage<List<R>> pipeline(Collection<? extends T> items,
+                                                   Function<? super T, ? extends CompletionStage<R>> operation) {
+        Pipelining<R> pipelining = new Pipelining<>(depth);
+        List<CompletableFuture<R>> stages = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                stages.add(pipelining.add(operation.apply(item)).toCompletableFuture());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.allOf(stages.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> stages.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Grava as entradas com um putAllAsync por partição
+     */
+    public CompletionStage<Void> putAll(Map<? extends K, ? extends V> entries) {
+        return pipeline(groupByPartition(entries).values(),
+            group -> timed(putAllTimer, () -> map.putAllAsync(group))).thenApply(ignored -> null);
+    }
+
+    /**
+     * Como putAll, sem eventos de valor anterior (setAllAsync por partição)
+     */
+    public CompletionStage<Void> setAll(Map<? extends K, ? extends V> entries) {
+        return pipeline(groupByPartition(entries).values(),
+            group -> timed(setAllTimer, () -> map.setAllAsync(group))).thenApply(ignored -> null);
+    }
+
+    /**
+     * Lê as chaves com os getAsync agrupados por partição; chaves ausentes ficam fora do resultado
+     */
+    public CompletionStage<Map<K, V>> getAll(Collection<? extends K> keys) {
+        List<K> ordered = new ArrayList<>(keys.size());
+        groupByPartition(keys).values().forEach(ordered::addAll);
+
+        return pipeline(ordered, this::getAsync).thenApply(values -> {
+            Map<K, V> result = new LinkedHashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                if (values.get(i) != null) {
+                    result.put(ordered.get(i), values.get(i));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Entradas separadas pela partição da chave, na ordem das partições
+     */
+    Map<Integer, Map<K, V>> groupByPartition(Map<? extends K, ? extends V> entries) {
+        Map<Integer, Map<K, V>> groups = new TreeMap<>();
+        entries.forEach((key, value) -> groups
+            .computeIfAbsent(partitionService.getPartition(key).getPartitionId(), partition -> new LinkedHashMap<>())
+            .put(key, value));
+        return groups;
+    }
+
+    private Map<Integer, List<K>> groupByPartition(Collection<? extends K> keys) {
+        Map<Integer, List<K>> groups = new TreeMap<>();
+        for (K key : keys) {
+            groups.computeIfAbsent(partitionService.getPartition(key).getPartitionId(), partition -> new ArrayList<>())
+                .add(key);
+        }
+        return groups;
+    }
+
+    public IMap<K, V> getMap() {
+        return map;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hazelcast.example.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Laço de consumo em lotes de uma fila, usado pelas threads de gravação e de envio
+ *
+ * Espera o primeiro elemento até o linger e completa o lote até o tamanho máximo ou até o
+ * linger contado a partir do primeiro elemento; então entrega o lote ao flush. Depois que o
+ * dono para (running falso) o laço ainda drena o que restou na fila, sem esperar o linger.
+ * Uma interrupção da thread equivale a parar: o dono é avisado e o lote parcial é entregue.
+ */
+public final class BatchLoop {
+    private static final Logger logger = LoggerFactory.getLogger(BatchLoop.class);
+
+    private BatchLoop() {}
+
+    /**
+     * Executa o laço na thread atual até o dono parar e a fila esvaziar
+     * @param name Nome usado no log de erros inesperados
+     * @param running Indica se o dono ainda aceita elementos
+     * @param stop Chamado quando a thread é interrompida, para o dono parar de aceitar elementos
+     * @param flush Grava ou envia o lote; false encerra o laço (o lote e a fila ficam com o flush)
+     */
+    public static <T> void run(String name, BlockingQueue<T> queue, int batchSize, long lingerMillis,
+                               BooleanSupplier running, Runnable stop, Predicate<List<T>> flush) {
+        List<T> batch = new ArrayList<>(batchSize);
+
+        while (running.getAsBoolean() || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(lingerMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running.getAsBoolean()) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                if (!flush.test(batch)) {
+                    return;
+                }
+
+            } catch (InterruptedException e) {
+                stop.run();
+                if (!batch.isEmpty() && !flush.test(batch)) {
+                    return;
+                }
+            } catch (Exception e) {
+                logger.error("Unexpected error in {}", name, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
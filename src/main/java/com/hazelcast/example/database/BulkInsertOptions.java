@@ -0,0 +1,49 @@
+package com.hazelcast.example.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Opções da carga em massa ({@link SqlServerManager#bulkInsert})
+ *
+ * @param batchSize Linhas por lote enviado ao servidor (0 = todas em um único lote)
+ * @param tableLock Bloqueia a tabela durante a carga (TABLOCK) em vez de bloquear linha a linha
+ * @param orderColumns Colunas pelas quais as linhas são ordenadas antes do envio (vazia = ordem recebida)
+ * @param timeoutSeconds Tempo máximo de cada carga (0 = sem limite)
+ */
+public record BulkInsertOptions(int batchSize, boolean tableLock, List<String> orderColumns, int timeoutSeconds) {
+
+    public static final BulkInsertOptions DEFAULT = new BulkInsertOptions(0, false, List.of(), 0);
+
+    public BulkInsertOptions {
+        if (batchSize < 0 || timeoutSeconds < 0) {
+            throw new IllegalArgumentException("batchSize and timeoutSeconds must not be negative");
+        }
+        orderColumns = List.copyOf(orderColumns);
+    }
+
+    /**
+     * Linhas na ordem de orderColumns (nulos primeiro); sem colunas de ordenação devolve a própria lista
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    List<Object[]> sort(String[] columns, List<Object[]> rows) {
+        if (orderColumns.isEmpty()) {
+            return rows;
+        }
+        Comparator<Object[]> order = null;
+        for (String column : orderColumns) {
+            int index = Arrays.asList(columns).indexOf(column);
+            if (index < 0) {
+                throw new IllegalArgumentException("Order column must be one of the columns: " + column);
+            }
+            Comparator<Object[]> byColumn = Comparator.comparing(row -> (Comparable) row[index],
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+            order = order == null ? byColumn : order.thenComparing(byColumn);
+        }
+        List<Object[]> sorted = new ArrayList<>(rows);
+        sorted.sort(order);
+        return sorted;
+    }
+}
@@ -0,0 +1,49 @@
+package com.hazelcast.example.database;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.Serializable;
+
+/**
+ * Alteração de uma entrada de mapa registrada no changelog (tabela user_events)
+ *
+ * A identidade do evento é (mapName, partitionId, sequence): a sequência cresce por partição
+ * na ordem em que as alterações aconteceram, e todas as alterações de uma chave caem na mesma
+ * partição, então a ordem por sequência é a ordem de aplicação da chave.
+ *
+ * @param mapName Mapa de origem
+ * @param entryKey Chave da entrada (também gravada em user_id)
+ * @param eventType MAP_ENTRY_ADDED, MAP_ENTRY_UPDATED, MAP_ENTRY_REMOVED...
+ * @param partitionId Partição da chave no cluster
+ * @param sequence Sequência do evento dentro da partição
+ * @param payload JSON com a chave e os valores novo e antigo
+ * @param correlationId Identificador da alteração, repetido nas mensagens do Service Bus (pode ser null)
+ * @param originTime Instante da alteração na origem, em epoch ms (0 quando desconhecido)
+ */
+public record ChangelogEvent(String mapName, String entryKey, String eventType, int partitionId,
+                             long sequence, String payload, String correlationId, long originTime)
+        implements Serializable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Monta o payload JSON {"key": ..., "value": ..., "oldValue": ...} (valores ausentes ficam null)
+     */
+    public static String payload(Object key, Object value, Object oldValue) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.set("key", MAPPER.valueToTree(key));
+        node.set("value", MAPPER.valueToTree(value));
+        node.set("oldValue", MAPPER.valueToTree(oldValue));
+        try {
+            return MAPPER.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not encode changelog payload for key " + key, e);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.hazelcast.example.database;
+
+import com.hazelcast.example.concurrent.BatchLoop;
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.example.metrics.PropagationLag;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Gravação ordenada e idempotente do changelog de mapas na tabela user_events
+ *
+ * Os eventos são distribuídos em filas (lanes) pela partição: as alterações de uma chave estão
+ * sempre na mesma partição e portanto na mesma lane, que grava seus lotes em ordem, enquanto
+ * lanes diferentes gravam em paralelo. Cada linha é inserida só se (map_name, partition_id,
+ * sequence_no) ainda não existe, então um lote que falhou pode ser repetido inteiro e um
+ * evento reenviado não gera duplicata.
+ *
+ * A lane nunca pula um lote: um lote com falha é repetido com backoff até ser gravado, e depois
+ * de maxAttempts tentativas a lane é dada como parada (continua tentando, no intervalo máximo).
+ * Enquanto isso a fila cresce; quando um evento não cabe nela dentro do timeout, a partição dele
+ * falha e deixa de aceitar eventos, em vez de descartar só aquele e gravar os seguintes. Assim o
+ * changelog de uma partição nunca tem buracos: termina na última sequência gravada, e a
+ * numeração continua dali no próximo início ({@link #lastSequences}). Só no fechamento a lane
+ * desiste de um lote (depois de maxAttempts) e, com ele, do restante da fila.
+ *
+ * Cada linha leva o correlation ID e o instante de origem da alteração (correlation_id,
+ * origin_time); depois da gravação o atraso desde a origem é publicado em propagation.lag
+ * (etapa "sql") e a latência dos lotes aparece em sql.statement ("insert user_events").
+ * As linhas por resultado (inserted, duplicate, failed, rejected), as novas tentativas e a
+ * profundidade somada das filas ativas vão para changelog.rows, changelog.retries e changelog.queue.
+ */
+public class ChangelogWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ChangelogWriter.class);
+
+    public static final String INSERT_SQL =
+        "INSERT INTO user_events (user_id, event_type, event_data, map_name, entry_key, partition_id, sequence_no, " +
+        "correlation_id, origin_time) " +
+        "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM user_events " +
+        "WHERE map_name = ? AND partition_id = ? AND sequence_no = ?)";
+
+    private static final String LAST_SEQUENCES_SQL =
+        "SELECT partition_id, MAX(sequence_no) FROM user_events WHERE map_name = ? AND sequence_no IS NOT NULL " +
+        "GROUP BY partition_id";
+
+    private static final String READ_SQL =
+        "SELECT map_name, entry_key, event_type, partition_id, sequence_no, event_data, correlation_id, origin_time " +
+        "FROM user_events " +
+        "WHERE map_name = ? AND partition_id = ? AND sequence_no > ? ORDER BY sequence_no " +
+        "OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    // Instâncias em execução, somadas no gauge da fila
+    private static final Set<ChangelogWriter> ACTIVE = ConcurrentHashMap.newKeySet();
+    private static final Function<String, Counter> ROWS =
+        AppMetrics.resultCounters("changelog.rows", "Changelog rows by outcome");
+    private static final Counter INSERTED_ROWS = ROWS.apply("inserted");
+    private static final Counter DUPLICATE_ROWS = ROWS.apply("duplicate");
+    private static final Counter FAILED_ROWS = ROWS.apply("failed");
+    private static final Counter REJECTED_ROWS = ROWS.apply("rejected");
+    private static final Counter RETRIES = AppMetrics.counter("changelog.retries", "Changelog batch retries");
+
+    static {
+        Gauge.builder("changelog.queue", ACTIVE,
+                writers -> writers.stream().mapToInt(ChangelogWriter::getQueueDepth).sum())
+            .description("Changelog events waiting in the lane queues")
+            .strongReference(true)
+            .register(AppMetrics.registry());
+    }
+
+    private final SqlServerManager sqlServerManager;
+    private final Lane[] lanes;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final long blockTimeoutMillis;
+    private final int maxAttempts;
+    private volatile boolean running = true;
+    // Partições (mapa:partição) que deixaram de aceitar eventos
+    private final Set<String> failedPartitions = ConcurrentHashMap.newKeySet();
+
+    // Métricas
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong insertedRows = new AtomicLong();
+    private final AtomicLong duplicateRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    public ChangelogWriter(SqlServerManager sqlServerManager) {
+        this(sqlServerManager, 4, 10000, 500, 200, 5000, 10);
+    }
+
+    /**
+     * @param sqlServerManager Gerenciador usado para gravar os lotes
+     * @param laneCount Número de lanes (threads de gravação em paralelo)
+     * @param capacityPerLane Tamanho máximo da fila de cada lane
+     * @param batchSize Número máximo de linhas por lote
+     * @param maxDelayMillis Tempo máximo que um evento espera na fila antes do flush
+     * @param blockTimeoutMillis Tempo máximo que o chamador espera por espaço na fila antes de a
+     *                           partição do evento falhar
+     * @param maxAttempts Tentativas de gravação de um lote antes de a lane ser dada como parada
+     *                    (no fechamento, antes de desistir dela)
+     */
+    public ChangelogWriter(SqlServerManager sqlServerManager, int laneCount, int capacityPerLane, int batchSize,
+                           long maxDelayMillis, long blockTimeoutMillis, int maxAttempts) {
+        if (laneCount <= 0 || capacityPerLane <= 0 || batchSize <= 0 || maxDelayMillis <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException(
+                "laneCount, capacityPerLane, batchSize, maxDelayMillis and maxAttempts must be positive");
+        }
+        this.sqlServerManager = sqlServerManager;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, capacityPerLane);
+        }
+
+        ACTIVE.add(this);
+        logger.info("Changelog writer started (lanes={}, capacityPerLane={}, batchSize={}, maxDelay={}ms, maxAttempts={})",
+            laneCount, capacityPerLane, batchSize, maxDelayMillis, maxAttempts);
+    }
+
+    /**
+     * Enfileira o evento na lane da sua partição
+     * @return true se o evento foi aceito; false se o writer está fechado ou a partição falhou
+     *         (agora, por fila cheia além do timeout, ou antes)
+     */
+    public boolean submit(ChangelogEvent event) {
+        String partition = event.mapName() + ":" + event.partitionId();
+        boolean accepted = false;
+        if (running && !failedPartitions.contains(partition)) {
+            try {
+                accepted = lanes[Math.floorMod(event.partitionId(), lanes.length)].queue
+                    .offer(event, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Gravar os eventos seguintes deixaria um buraco na sequência da partição
+            if (!accepted && running && failedPartitions.add(partition)) {
+                logger.error("Changelog queue full for {} ms, partition {} of map '{}' stops at sequence {}; " +
+                        "numbering continues from the last written sequence on the next start",
+                    blockTimeoutMillis, event.partitionId(), event.mapName(), event.sequence() - 1);
+            }
+        }
+
+        if (accepted) {
+            submitted.incrementAndGet();
+        } else {
+            REJECTED_ROWS.increment();
+            rejected.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Última sequência gravada de cada partição do mapa (0 para partições sem eventos),
+     * usada para continuar a numeração depois de um restart
+     */
+    public static long[] lastSequences(SqlServerManager sqlServerManager, String mapName, int partitionCount) {
+        long[] sequences = new long[partitionCount];
+        long rows = sqlServerManager.forEachRow(LAST_SEQUENCES_SQL, sqlServerManager.getDefaultFetchSize(),
+            rs -> new long[] {rs.getInt(1), rs.getLong(2)},
+            row -> {
+                if (row[0] >= 0 && row[0] < partitionCount) {
+                    sequences[(int) row[0]] = row[1];
+                }
+            },
+            mapName);
+        // Sem as últimas sequências a numeração recomeçaria e os eventos novos seriam tomados por duplicatas
+        if (rows < 0) {
+            throw new IllegalStateException("Could not read the last changelog sequences of map " + mapName);
+        }
+        return sequences;
+    }
+
+    /**
+     * Leitura incremental do changelog de uma partição, em ordem de sequência
+     * @param afterSequence Última sequência já consumida (0 para ler desde o início)
+     */
+    public static List<ChangelogEvent> read(SqlServerManager sqlServerManager, String mapName, int partitionId,
+                                            long afterSequence, int limit) {
+        try (Stream<ChangelogEvent> events = sqlServerManager.stream(READ_SQL,
+                rs -> new ChangelogEvent(rs.getString(1), rs.getString(2), rs.getString(3), rs.getInt(4),
+                    rs.getLong(5), rs.getString(6), rs.getString(7), toEpochMillis(rs.getTimestamp(8))),
+                mapName, partitionId, afterSequence, limit)) {
+            return events.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Parâmetros de {@link #INSERT_SQL} para o evento
+     */
+    public static Object[] toRow(ChangelogEvent event) {
+        return new Object[] {event.entryKey(), event.eventType(), event.payload(), event.mapName(),
+            event.entryKey(), event.partitionId(), event.sequence(), event.correlationId(),
+            event.originTime() > 0 ? new Timestamp(event.originTime()) : null,
+            event.mapName(), event.partitionId(), event.sequence()};
+    }
+
+    private static long toEpochMillis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : 0;
+    }
+
+    private final class Lane implements Runnable {
+        final int index;
+        final BlockingQueue<ChangelogEvent> queue;
+        final Thread thread;
+        volatile boolean stalled;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "changelog-writer-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            BatchLoop.run("changelog writer", queue, batchSize, maxDelayMillis, () -> running, () -> running = false,
+                batch -> {
+                    if (flush(batch)) {
+                        return true;
+                    }
+                    abandon(batch);
+                    return false;
+                });
+        }
+
+        /**
+         * Grava o lote, repetindo com backoff exponencial até conseguir; a inserção condicional
+         * torna a repetição segura
+         * @return false apenas no fechamento, depois de maxAttempts tentativas
+         */
+        private boolean flush(List<ChangelogEvent> batch) {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (ChangelogEvent event : batch) {
+                rows.add(toRow(event));
+            }
+
+            long backoff = INITIAL_BACKOFF_MILLIS;
+            for (int attempt = 1; ; attempt++) {
+                int inserted = sqlServerManager.executeBatch(INSERT_SQL, rows);
+                flushes.incrementAndGet();
+                if (inserted >= 0) {
+                    insertedRows.addAndGet(inserted);
+                    duplicateRows.addAndGet(batch.size() - inserted);
+                    INSERTED_ROWS.increment(inserted);
+                    DUPLICATE_ROWS.increment(batch.size() - inserted);
+                    for (ChangelogEvent event : batch) {
+                        PropagationLag.record(PropagationLag.STAGE_SQL, event.mapName(), event.originTime());
+                    }
+                    if (stalled) {
+                        stalled = false;
+                        logger.info("Changelog lane {} resumed after {} attempts", index, attempt);
+                    }
+                    return true;
+                }
+                if (!running && attempt >= maxAttempts) {
+                    return false;
+                }
+                if (attempt == maxAttempts) {
+                    stalled = true;
+                    ChangelogEvent first = batch.get(0);
+                    logger.error("Changelog lane {} stalled: batch of {} events failed {} times (first: map={}, " +
+                            "partition={}, sequence={}); retrying every {} ms", index, batch.size(), attempt,
+                        first.mapName(), first.partitionId(), first.sequence(), MAX_BACKOFF_MILLIS);
+                } else if (attempt < maxAttempts) {
+                    logger.warn("Changelog batch of {} events failed (attempt {}/{}), retrying in {} ms",
+                        batch.size(), attempt, maxAttempts, backoff);
+                }
+                retries.incrementAndGet();
+                RETRIES.increment();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    // Shutdown: ainda tenta as tentativas restantes sem esperar
+                    running = false;
+                    backoff = 0;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+
+        /**
+         * Fechamento com o banco indisponível: o lote e o restante da fila ficam sem gravar (o fim
+         * do changelog de cada partição, sem buracos)
+         */
+        private void abandon(List<ChangelogEvent> batch) {
+            int remaining = batch.size() + queue.drainTo(new ArrayList<>());
+            failedRows.addAndGet(remaining);
+            FAILED_ROWS.increment(remaining);
+            ChangelogEvent first = batch.get(0);
+            logger.error("Changelog lane {} closed with {} events not written (first: map={}, partition={}, " +
+                "sequence={})", index, remaining, first.mapName(), first.partitionId(), first.sequence());
+        }
+    }
+
+    /**
+     * Para de aceitar eventos, drena as filas e aguarda os últimos flushes
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ACTIVE.remove(this);
+
+        logger.info("Changelog writer stopped: submitted={}, inserted={}, duplicates={}, failed={}, rejected={}, " +
+                "batches={}, retries={}, failedPartitions={}",
+            submitted.get(), insertedRows.get(), duplicateRows.get(), failedRows.get(), rejected.get(),
+            flushes.get(), retries.get(), failedPartitions.size());
+    }
+
+    // Métricas
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+    public int getLaneCount() { return lanes.length; }
+    public long getSubmittedCount() { return submitted.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+    /** Partições que deixaram de aceitar eventos, como mapa:partição */
+    public Set<String> getFailedPartitions() { return Set.copyOf(failedPartitions); }
+    public int getStalledLaneCount() {
+        int stalled = 0;
+        for (Lane lane : lanes) {
+            if (lane.stalled) {
+                stalled++;
+            }
+        }
+        return stalled;
+    }
+    public long getFlushCount() { return flushes.get(); }
+    public long getInsertedRows() { return insertedRows.get(); }
+    public long getDuplicateRows() { return duplicateRows.get(); }
+    public long getFailedRows() { return failedRows.get(); }
+    public long getRetryCount() { return retries.get(); }
+}
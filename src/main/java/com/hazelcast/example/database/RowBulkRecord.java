@@ -0,0 +1,175 @@
+package com.hazelcast.example.database;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Linhas em memória como fonte do SQLServerBulkCopy
+ *
+ * O tipo de cada coluna é deduzido dos valores Java (String, números, Boolean, BigDecimal,
+ * Timestamp/LocalDateTime, byte[]); o tamanho das colunas de texto e binárias é o do maior
+ * valor. Colunas só com nulos são enviadas como NVARCHAR. O driver converte para o tipo da
+ * coluna de destino.
+ */
+class RowBulkRecord implements ISQLServerBulkRecord {
+
+    private record Column(String name, int type, int precision, int scale) {}
+
+    private final Column[] columns;
+    private final List<Object[]> rows;
+    private int position = -1;
+
+    RowBulkRecord(String[] columnNames, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row.length != columnNames.length) {
+                throw new IllegalArgumentException("Number of columns must match number of values");
+            }
+        }
+        this.rows = rows;
+        this.columns = new Column[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columns[i] = describe(columnNames[i], i, rows);
+        }
+    }
+
+    private static Column describe(String name, int index, List<Object[]> rows) {
+        int type = Types.NULL;
+        int precision = 1;
+        int scale = 0;
+        for (Object[] row : rows) {
+            Object value = row[index];
+            if (value == null) {
+                continue;
+            }
+            int valueType = typeOf(value);
+            if (type != Types.NULL && type != valueType) {
+                throw new IllegalArgumentException("Column " + name + " mixes " +
+                    JDBCType.valueOf(type) + " and " + JDBCType.valueOf(valueType) + " values");
+            }
+            type = valueType;
+            if (value instanceof String text) {
+                precision = Math.max(precision, text.length());
+            } else if (value instanceof byte[] bytes) {
+                precision = Math.max(precision, bytes.length);
+            } else if (value instanceof BigDecimal decimal) {
+                scale = Math.max(scale, Math.max(0, decimal.scale()));
+                precision = Math.max(precision, decimal.precision() - decimal.scale() + scale);
+            }
+        }
+        return switch (type) {
+            case Types.NULL -> new Column(name, Types.NVARCHAR, 1, 0);
+            case Types.INTEGER -> new Column(name, type, 10, 0);
+            case Types.BIGINT -> new Column(name, type, 19, 0);
+            case Types.BIT -> new Column(name, type, 1, 0);
+            case Types.DOUBLE -> new Column(name, type, 15, 0);
+            case Types.TIMESTAMP -> new Column(name, type, 27, 7);
+            default -> new Column(name, type, precision, scale);
+        };
+    }
+
+    private static int typeOf(Object value) {
+        if (value instanceof String) {
+            return Types.NVARCHAR;
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Types.INTEGER;
+        } else if (value instanceof Long) {
+            return Types.BIGINT;
+        } else if (value instanceof Boolean) {
+            return Types.BIT;
+        } else if (value instanceof Double || value instanceof Float) {
+            return Types.DOUBLE;
+        } else if (value instanceof BigDecimal) {
+            return Types.DECIMAL;
+        } else if (value instanceof Timestamp || value instanceof LocalDateTime) {
+            return Types.TIMESTAMP;
+        } else if (value instanceof byte[]) {
+            return Types.VARBINARY;
+        }
+        throw new IllegalArgumentException("Unsupported bulk insert value type: " + value.getClass().getName());
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+        Set<Integer> ordinals = new LinkedHashSet<>();
+        IntStream.rangeClosed(1, columns.length).forEach(ordinals::add);
+        return ordinals;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column - 1].name();
+    }
+
+    @Override
+    public int getColumnType(int column) {
+        return columns[column - 1].type();
+    }
+
+    @Override
+    public int getPrecision(int column) {
+        return columns[column - 1].precision();
+    }
+
+    @Override
+    public int getScale(int column) {
+        return columns[column - 1].scale();
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) {
+        return false;
+    }
+
+    @Override
+    public Object[] getRowData() {
+        Object[] row = rows.get(position);
+        Object[] data = new Object[columns.length];
+        for (int i = 0; i < data.length; i++) {
+            Object value = row[i];
+            data[i] = value instanceof LocalDateTime dateTime ? Timestamp.valueOf(dateTime) : value;
+        }
+        return data;
+    }
+
+    @Override
+    public boolean next() {
+        return ++position < rows.size();
+    }
+
+    // Os metadados vêm dos valores; não há colunas declaradas nem texto de data a interpretar,
+    // então o que o driver informa por estes métodos é ignorado
+
+    @Override
+    public void addColumnMetadata(int positionInFile, String name, int jdbcType, int precision, int scale,
+                                  DateTimeFormatter dateTimeFormatter) {}
+
+    @Override
+    public void addColumnMetadata(int positionInFile, String name, int jdbcType, int precision, int scale) {}
+
+    @Override
+    public void setTimestampWithTimezoneFormat(String dateTimeFormat) {}
+
+    @Override
+    public void setTimestampWithTimezoneFormat(DateTimeFormatter dateTimeFormatter) {}
+
+    @Override
+    public void setTimeWithTimezoneFormat(String timeFormat) {}
+
+    @Override
+    public void setTimeWithTimezoneFormat(DateTimeFormatter dateTimeFormatter) {}
+
+    @Override
+    public DateTimeFormatter getColumnDateTimeFormatter(int column) {
+        return null;
+    }
+}
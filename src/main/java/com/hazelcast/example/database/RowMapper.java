@@ -0,0 +1,16 @@
+package com.hazelcast.example.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converte a linha atual de um ResultSet em um objeto tipado
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    
+    /**
+     * @param rs ResultSet já posicionado na linha a ser convertida (não chamar next())
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
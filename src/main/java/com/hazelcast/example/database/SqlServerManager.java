@@ -1,7 +1,15 @@
 package com.hazelcast.example.database;
 
+import com.hazelcast.example.metrics.AppMetrics;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,17 +19,102 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Gerenciador de conexão com Azure SQL Server
+ * 
+ * Publica as métricas do pool Hikari (espera por conexão, tempo de uso, conexões ativas e
+ * pendentes) e a latência de cada comando no timer sql.statement, identificado pelo verbo e
+ * pela tabela (ex.: "select users", "merge users") para não criar uma série por texto SQL.
+ * Nas leituras em streaming ({@link #stream}, {@link #forEachRow}) o tempo medido vai até a
+ * abertura do resultado, já que o restante depende do consumidor. O cache de textos MERGE
+ * publica acertos, falhas, ocupação e taxa de acerto em sql.merge.cache.* (por pool).
  */
 public class SqlServerManager {
     private static final Logger logger = LoggerFactory.getLogger(SqlServerManager.class);
     
+    // O SQL Server aceita no máximo 2100 parâmetros por comando; mantemos uma margem
+    private static final int MAX_PARAMETERS_PER_STATEMENT = 2000;
+    // Limite de linhas por construtor VALUES
+    private static final int MAX_ROWS_PER_VALUES = 1000;
+    // Statements preparados mantidos por conexão no driver
+    private static final int STATEMENT_POOLING_CACHE_SIZE = 256;
+    // Linhas buscadas por round trip nas leituras em streaming
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    // Textos MERGE gerados mantidos em cache
+    private static final int MERGE_SQL_CACHE_SIZE = 256;
+    // Verbo e tabela de um comando, para o nome da métrica
+    private static final Pattern STATEMENT_TABLE = Pattern.compile(
+        "^\\s*(select|insert|update|delete|merge)\\b(?:.*?\\b(?:from|into)\\b)?\\s*([\\w.\\[\\]#]+)",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    
     private final HikariDataSource dataSource;
+    private final SqlTextCache<MergeKey> mergeSqlCache = new SqlTextCache<>(MERGE_SQL_CACHE_SIZE);
+    private final Map<String, Timer> statementTimers = new ConcurrentHashMap<>();
+    private final List<Meter> cacheMeters;
+    private volatile int defaultFetchSize = DEFAULT_FETCH_SIZE;
+    // Definido na primeira carga em massa: o pool usa o driver do SQL Server?
+    private volatile Boolean bulkCopySupported;
     
     public SqlServerManager(String connectionString, String username, String password) {
+        this(createSqlServerConfig(connectionString, username, password));
+    }
+    
+    /**
+     * Cria o gerenciador a partir de uma configuração Hikari já montada
+     * (usado também pelos testes com banco em memória)
+     */
+    public SqlServerManager(HikariConfig config) {
+        if (config.getMetricRegistry() == null && config.getMetricsTrackerFactory() == null) {
+            config.setMetricRegistry(AppMetrics.registry());
+        }
+        this.dataSource = new HikariDataSource(config);
+        this.cacheMeters = registerCacheMeters(mergeSqlCache, dataSource.getPoolName());
+        
+        logger.info("SQL Server connection pool initialized");
+    }
+    
+    /**
+     * Métricas do cache de textos MERGE, identificadas pelo nome do pool
+     */
+    private static List<Meter> registerCacheMeters(SqlTextCache<?> cache, String pool) {
+        return List.of(
+            FunctionCounter.builder("sql.merge.cache.requests", cache, SqlTextCache::getHits)
+                .description("MERGE SQL text cache lookups")
+                .tags("pool", pool, "result", "hit")
+                .register(AppMetrics.registry()),
+            FunctionCounter.builder("sql.merge.cache.requests", cache, SqlTextCache::getMisses)
+                .description("MERGE SQL text cache lookups")
+                .tags("pool", pool, "result", "miss")
+                .register(AppMetrics.registry()),
+            Gauge.builder("sql.merge.cache.hit.ratio", cache, SqlTextCache::getHitRate)
+                .description("Share of MERGE SQL text cache lookups served from the cache")
+                .tag("pool", pool)
+                .register(AppMetrics.registry()),
+            Gauge.builder("sql.merge.cache.size", cache, SqlTextCache::size)
+                .description("MERGE SQL texts held in the cache")
+                .tag("pool", pool)
+                .register(AppMetrics.registry()));
+    }
+    
+    /**
+     * Monta a configuração padrão do pool para o Azure SQL Server
+     */
+    public static HikariConfig createSqlServerConfig(String connectionString, String username, String password) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(connectionString);
         config.setUsername(username);
@@ -41,9 +134,16 @@ public class SqlServerManager {
         config.addDataSourceProperty("encrypt", "true");
         config.addDataSourceProperty("loginTimeout", "30");
         
-        this.dataSource = new HikariDataSource(config);
+        // Cache de statements preparados no driver: reaproveita o handle do servidor quando o
+        // mesmo SQL é preparado novamente na mesma conexão, evitando recompilações
+        config.addDataSourceProperty("disableStatementPooling", "false");
+        config.addDataSourceProperty("statementPoolingCacheSize", String.valueOf(STATEMENT_POOLING_CACHE_SIZE));
+        config.addDataSourceProperty("prepareMethod", "prepexec");
         
-        logger.info("SQL Server connection pool initialized");
+        // Ler o resultado sob demanda em vez de bufferizar tudo no driver
+        config.addDataSourceProperty("responseBuffering", "adaptive");
+        
+        return config;
     }
     
     /**
@@ -59,10 +159,13 @@ public class SqlServerManager {
     }
     
     /**
-     * Executa uma query SELECT
+     * Executa uma query SELECT e carrega todo o resultado em memória.
+     * Para resultados grandes use {@link #stream} ou {@link #forEachRow}.
      */
     public List<String> executeQuery(String sql, Object... parameters) {
         List<String> results = new ArrayList<>();
+        long start = System.nanoTime();
+        boolean success = false;
         
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -84,18 +187,132 @@ public class SqlServerManager {
                     results.add(row.toString());
                 }
             }
+            success = true;
             
         } catch (SQLException e) {
             logger.error("Failed to execute query: " + sql, e);
+        } finally {
+            recordStatement(sql, start, success);
         }
         
         return results;
     }
     
+    /**
+     * Executa uma query SELECT como um Stream tipado, lendo as linhas sob demanda.
+     * O Stream mantém a conexão aberta e DEVE ser fechado (try-with-resources),
+     * o que libera o ResultSet, o statement e a conexão.
+     * Falhas durante a leitura são propagadas como IllegalStateException.
+     */
+    public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... parameters) {
+        return stream(sql, defaultFetchSize, mapper, parameters);
+    }
+    
+    /**
+     * Igual a {@link #stream(String, RowMapper, Object...)} com fetchSize explícito
+     */
+    public <T> Stream<T> stream(String sql, int fetchSize, RowMapper<T> mapper, Object... parameters) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        long start = System.nanoTime();
+        
+        try {
+            conn = dataSource.getConnection();
+            stmt = prepareForwardOnly(conn, sql, fetchSize, parameters);
+            rs = stmt.executeQuery();
+            recordStatement(sql, start, true);
+        } catch (SQLException e) {
+            recordStatement(sql, start, false);
+            closeQuietly(rs, stmt, conn);
+            throw new IllegalStateException("Failed to execute query: " + sql, e);
+        }
+        
+        ResultSet resultSet = rs;
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.mapRow(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to read row: " + sql, e);
+                }
+            }
+        };
+        
+        Connection connection = conn;
+        PreparedStatement statement = stmt;
+        return StreamSupport.stream(spliterator, false)
+            .onClose(() -> closeQuietly(resultSet, statement, connection));
+    }
+    
+    /**
+     * Executa uma query SELECT entregando cada linha ao consumer, sem acumular em memória
+     * @return Número de linhas processadas, ou -1 em caso de falha
+     */
+    public <T> long forEachRow(String sql, int fetchSize, RowMapper<T> mapper, 
+                               Consumer<? super T> consumer, Object... parameters) {
+        long start = System.nanoTime();
+        boolean recorded = false;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = prepareForwardOnly(conn, sql, fetchSize, parameters);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            recordStatement(sql, start, true);
+            recorded = true;
+            long rows = 0;
+            while (rs.next()) {
+                consumer.accept(mapper.mapRow(rs));
+                rows++;
+            }
+            return rows;
+            
+        } catch (SQLException e) {
+            if (!recorded) {
+                recordStatement(sql, start, false);
+            }
+            logger.error("Failed to execute query: " + sql, e);
+            return -1;
+        }
+    }
+    
+    private static PreparedStatement prepareForwardOnly(Connection conn, String sql, int fetchSize, 
+                                                        Object... parameters) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                stmt.setObject(i + 1, parameters[i]);
+            }
+            return stmt;
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+    
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource != null) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close JDBC resource", e);
+                }
+            }
+        }
+    }
+    
     /**
      * Executa um comando INSERT/UPDATE/DELETE
      */
     public int executeUpdate(String sql, Object... parameters) {
+        long start = System.nanoTime();
+        boolean success = false;
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -105,13 +322,151 @@ public class SqlServerManager {
             }
             
             int rowsAffected = stmt.executeUpdate();
+            success = true;
             logger.debug("Query executed successfully, {} rows affected", rowsAffected);
             return rowsAffected;
             
         } catch (SQLException e) {
             logger.error("Failed to execute update: " + sql, e);
             return -1;
+        } finally {
+            recordStatement(sql, start, success);
+        }
+    }
+    
+    /**
+     * Executa o mesmo comando INSERT/UPDATE/DELETE para várias linhas
+     * usando addBatch/executeBatch em uma única transação
+     * @return Total de linhas afetadas, ou -1 em caso de falha
+     */
+    public int executeBatch(String sql, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        long start = System.nanoTime();
+        boolean success = false;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Object[] parameters : batch) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        stmt.setObject(i + 1, parameters[i]);
+                    }
+                    stmt.addBatch();
+                }
+                
+                int rowsAffected = 0;
+                for (int count : stmt.executeBatch()) {
+                    // SUCCESS_NO_INFO (-2) conta como uma linha
+                    rowsAffected += count >= 0 ? count : 1;
+                }
+                conn.commit();
+                success = true;
+                
+                logger.debug("Batch executed successfully, {} statements, {} rows affected", 
+                    batch.size(), rowsAffected);
+                return rowsAffected;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Failed to execute batch: " + sql, e);
+            return -1;
+        } finally {
+            recordStatement(sql, start, success);
+        }
+    }
+    
+    /**
+     * Insere várias linhas com a cópia em massa do SQL Server (SQLServerBulkCopy), que envia as
+     * linhas em fluxo no protocolo de carga em vez de um INSERT por linha. Todas as linhas são
+     * gravadas na mesma transação. Com outros drivers (ex.: H2 nos testes) as linhas são
+     * gravadas com INSERT e addBatch/executeBatch, com o mesmo resultado.
+     * A carga em massa não dispara triggers nem verifica constraints CHECK e FOREIGN KEY.
+     * @param tableName Tabela de destino
+     * @param columns Colunas preenchidas, na ordem dos valores de cada linha
+     * @param rows Lista de linhas, cada uma com os valores na ordem de columns
+     * @param options Tamanho do lote, bloqueio de tabela, ordenação e timeout
+     * @return Número de linhas inseridas, ou -1 em caso de falha
+     */
+    public int bulkInsert(String tableName, String[] columns, List<Object[]> rows, BulkInsertOptions options) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> ordered = options.sort(columns, rows);
+        if (!isBulkCopySupported()) {
+            return executeBatch("INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES (" +
+                String.join(", ", Collections.nCopies(columns.length, "?")) + ")", ordered);
+        }
+        
+        RowBulkRecord record = new RowBulkRecord(columns, ordered);
+        long start = System.nanoTime();
+        boolean success = false;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            
+            try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(conn.unwrap(SQLServerConnection.class))) {
+                SQLServerBulkCopyOptions copyOptions = new SQLServerBulkCopyOptions();
+                copyOptions.setBatchSize(options.batchSize());
+                copyOptions.setTableLock(options.tableLock());
+                copyOptions.setBulkCopyTimeout(options.timeoutSeconds());
+                bulkCopy.setBulkCopyOptions(copyOptions);
+                bulkCopy.setDestinationTableName(tableName);
+                for (int i = 0; i < columns.length; i++) {
+                    bulkCopy.addColumnMapping(i + 1, columns[i]);
+                }
+                
+                bulkCopy.writeToServer(record);
+                conn.commit();
+                success = true;
+                logger.debug("Bulk inserted {} rows into {}", ordered.size(), tableName);
+                return ordered.size();
+                
+            } finally {
+                // Qualquer falha (inclusive RuntimeException do driver ou dos valores) desfaz os lotes já
+                // enviados; sem isso, religar o autocommit confirmaria a carga parcial
+                if (!success) {
+                    conn.rollback();
+                }
+                conn.setAutoCommit(autoCommit);
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Failed to bulk insert into " + tableName, e);
+            return -1;
+        } finally {
+            statementTimer("bulk " + tableName, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Verifica uma vez se as conexões do pool são do driver do SQL Server
+     */
+    private boolean isBulkCopySupported() {
+        Boolean supported = bulkCopySupported;
+        if (supported == null) {
+            try (Connection conn = dataSource.getConnection()) {
+                supported = conn.isWrapperFor(SQLServerConnection.class);
+            } catch (SQLException e) {
+                // Sem conexão não dá para decidir; a próxima chamada tenta de novo
+                logger.warn("Could not check bulk copy support: {}", e.getMessage());
+                return false;
+            }
+            bulkCopySupported = supported;
+            if (!supported) {
+                logger.info("JDBC driver has no SQL Server bulk copy, bulk inserts use batched INSERT statements");
+            }
         }
+        return supported;
     }
     
     /**
@@ -134,11 +489,34 @@ public class SqlServerManager {
             "    user_id NVARCHAR(100) NOT NULL," +
             "    event_type NVARCHAR(100) NOT NULL," +
             "    event_data NVARCHAR(MAX)," +
-            "    created_at DATETIME2 DEFAULT GETDATE()" +
+            "    created_at DATETIME2 DEFAULT GETDATE()," +
+            "    map_name NVARCHAR(100)," +
+            "    entry_key NVARCHAR(450)," +
+            "    partition_id INT," +
+            "    sequence_no BIGINT," +
+            "    correlation_id NVARCHAR(64)," +
+            "    origin_time DATETIME2" +
             ")";
         
+        // Colunas do changelog em tabelas criadas antes delas
+        String addChangelogColumns = "IF COL_LENGTH('user_events', 'sequence_no') IS NULL " +
+            "ALTER TABLE user_events ADD map_name NVARCHAR(100), entry_key NVARCHAR(450), " +
+            "partition_id INT, sequence_no BIGINT";
+        
+        // Rastreamento da propagação (correlation ID e instante da alteração na origem)
+        String addTraceColumns = "IF COL_LENGTH('user_events', 'correlation_id') IS NULL " +
+            "ALTER TABLE user_events ADD correlation_id NVARCHAR(64), origin_time DATETIME2";
+        
+        // Identidade dos eventos do changelog (ver ChangelogWriter); linhas sem sequência ficam fora
+        String createChangelogIndex = "IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name='UX_user_events_changelog') " +
+            "CREATE UNIQUE INDEX UX_user_events_changelog ON user_events(map_name, partition_id, sequence_no) " +
+            "WHERE sequence_no IS NOT NULL";
+        
         executeUpdate(createUsersTable);
         executeUpdate(createEventsTable);
+        executeUpdate(addChangelogColumns);
+        executeUpdate(addTraceColumns);
+        executeUpdate(createChangelogIndex);
         
         logger.info("Database tables created/verified");
     }
@@ -156,18 +534,167 @@ public class SqlServerManager {
             throw new IllegalArgumentException("Number of columns must match number of values");
         }
         
-        // Construir a query MERGE dinamicamente
+        return executeUpdate(mergeSql(tableName, keyColumn, columns, 1), values);
+    }
+    
+    /**
+     * Executa um UPSERT de várias linhas usando MERGE com uma fonte VALUES de múltiplas linhas.
+     * As linhas são divididas em blocos abaixo do limite de 2100 parâmetros do SQL Server e
+     * todos os blocos são gravados na mesma transação.
+     * Se a mesma chave aparecer mais de uma vez, vale a última ocorrência (o MERGE não aceita
+     * atualizar a mesma linha duas vezes).
+     * @param tableName Nome da tabela
+     * @param keyColumn Coluna que será usada como chave para verificar se o registro existe
+     * @param columns Array com os nomes das colunas (incluindo a chave)
+     * @param rows Lista de linhas, cada uma com os valores na ordem de columns
+     * @return Número de linhas afetadas, ou -1 em caso de falha
+     */
+    public int executeUpsertBatch(String tableName, String keyColumn, String[] columns, List<Object[]> rows) {
+        int keyIndex = Arrays.asList(columns).indexOf(keyColumn);
+        if (keyIndex < 0) {
+            throw new IllegalArgumentException("Key column must be one of the columns: " + keyColumn);
+        }
+        
+        // Eliminar chaves duplicadas mantendo a última ocorrência
+        Map<Object, Object[]> uniqueRows = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            if (row.length != columns.length) {
+                throw new IllegalArgumentException("Number of columns must match number of values");
+            }
+            uniqueRows.put(row[keyIndex], row);
+        }
+        if (uniqueRows.isEmpty()) {
+            return 0;
+        }
+        
+        List<Object[]> pending = new ArrayList<>(uniqueRows.values());
+        int rowsPerChunk = Math.max(1, Math.min(MAX_ROWS_PER_VALUES, MAX_PARAMETERS_PER_STATEMENT / columns.length));
+        int fullChunks = pending.size() / rowsPerChunk;
+        int remainder = pending.size() % rowsPerChunk;
+        
+        String statement = "merge " + tableName;
+        long start = System.nanoTime();
+        boolean success = false;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            
+            try {
+                int rowsAffected = 0;
+                
+                // Blocos completos reutilizam o mesmo statement via addBatch
+                if (fullChunks > 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            mergeSql(tableName, keyColumn, columns, rowsPerChunk))) {
+                        for (int chunk = 0; chunk < fullChunks; chunk++) {
+                            bindRows(stmt, pending.subList(chunk * rowsPerChunk, (chunk + 1) * rowsPerChunk));
+                            stmt.addBatch();
+                        }
+                        for (int count : stmt.executeBatch()) {
+                            // SUCCESS_NO_INFO (-2) conta como o bloco inteiro
+                            rowsAffected += count >= 0 ? count : rowsPerChunk;
+                        }
+                    }
+                }
+                
+                if (remainder > 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            mergeSql(tableName, keyColumn, columns, remainder))) {
+                        bindRows(stmt, pending.subList(fullChunks * rowsPerChunk, pending.size()));
+                        rowsAffected += stmt.executeUpdate();
+                    }
+                }
+                
+                conn.commit();
+                success = true;
+                logger.debug("Upserted {} rows into {} using {} statements", 
+                    pending.size(), tableName, fullChunks + (remainder > 0 ? 1 : 0));
+                return rowsAffected;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Failed to execute batch upsert into " + tableName, e);
+            return -1;
+        } finally {
+            statementTimer(statement, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private void recordStatement(String sql, long startNanos, boolean success) {
+        statementTimer(statementName(sql), success).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer statementTimer(String statement, boolean success) {
+        String outcome = success ? "success" : "failure";
+        return statementTimers.computeIfAbsent(statement + '|' + outcome, ignored -> AppMetrics.timer(
+            "sql.statement", "SQL statement latency, from prepare to the last row or commit",
+            "statement", statement, "outcome", outcome));
+    }
+    
+    /**
+     * Nome do comando na métrica: verbo e tabela em minúsculas ("select users"), ou só o verbo
+     * para DDL e blocos (ex.: "if", "alter")
+     */
+    static String statementName(String sql) {
+        Matcher matcher = STATEMENT_TABLE.matcher(sql);
+        if (matcher.find()) {
+            return (matcher.group(1) + " " + matcher.group(2).replace("[", "").replace("]", "")).toLowerCase();
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end > 0 ? trimmed.substring(0, end).toLowerCase() : "other";
+    }
+    
+    private static void bindRows(PreparedStatement stmt, List<Object[]> rows) throws SQLException {
+        int index = 1;
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                stmt.setObject(index++, value);
+            }
+        }
+    }
+    
+    /**
+     * Chave do cache de MERGE: mesma tabela, chave, colunas e número de linhas geram o mesmo SQL
+     */
+    private record MergeKey(String tableName, String keyColumn, List<String> columns, int rowCount) {}
+    
+    private String mergeSql(String tableName, String keyColumn, String[] columns, int rowCount) {
+        return mergeSqlCache.get(new MergeKey(tableName, keyColumn, List.of(columns), rowCount),
+            SqlServerManager::buildMergeSql);
+    }
+    
+    /**
+     * Monta o MERGE com uma fonte VALUES de rowCount linhas
+     */
+    private static String buildMergeSql(MergeKey key) {
+        String tableName = key.tableName();
+        String keyColumn = key.keyColumn();
+        String[] columns = key.columns().toArray(new String[0]);
+        int rowCount = key.rowCount();
+        String columnList = String.join(", ", columns);
+        
         StringBuilder mergeQuery = new StringBuilder();
-        mergeQuery.append("MERGE ").append(tableName).append(" AS target ");
-        mergeQuery.append("USING (SELECT ");
+        mergeQuery.append("MERGE INTO ").append(tableName).append(" AS target ");
+        mergeQuery.append("USING (VALUES ");
         
-        // Adicionar SELECTs para os valores
-        for (int i = 0; i < columns.length; i++) {
-            if (i > 0) mergeQuery.append(", ");
-            mergeQuery.append("? AS ").append(columns[i]);
+        // Um grupo de placeholders por linha
+        String rowPlaceholders = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) mergeQuery.append(", ");
+            mergeQuery.append(rowPlaceholders);
         }
         
-        mergeQuery.append(") AS source ");
+        mergeQuery.append(") AS source (").append(columnList).append(") ");
         mergeQuery.append("ON target.").append(keyColumn).append(" = source.").append(keyColumn).append(" ");
         
         // WHEN MATCHED (UPDATE)
@@ -182,19 +709,14 @@ public class SqlServerManager {
         }
         
         // WHEN NOT MATCHED (INSERT)
-        mergeQuery.append(" WHEN NOT MATCHED THEN INSERT (");
-        for (int i = 0; i < columns.length; i++) {
-            if (i > 0) mergeQuery.append(", ");
-            mergeQuery.append(columns[i]);
-        }
-        mergeQuery.append(") VALUES (");
+        mergeQuery.append(" WHEN NOT MATCHED THEN INSERT (").append(columnList).append(") VALUES (");
         for (int i = 0; i < columns.length; i++) {
             if (i > 0) mergeQuery.append(", ");
             mergeQuery.append("source.").append(columns[i]);
         }
         mergeQuery.append(");");
         
-        return executeUpdate(mergeQuery.toString(), values);
+        return mergeQuery.toString();
     }
     
     /**
@@ -202,11 +724,33 @@ public class SqlServerManager {
      */
     public void shutdown() {
         if (dataSource != null && !dataSource.isClosed()) {
+            logger.info("MERGE SQL cache: hits={}, misses={}, hitRate={}", 
+                mergeSqlCache.getHits(), mergeSqlCache.getMisses(), 
+                String.format("%.2f", mergeSqlCache.getHitRate()));
             dataSource.close();
+            cacheMeters.forEach(AppMetrics.registry()::remove);
             logger.info("SQL Server connection pool closed");
         }
     }
     
+    public int getDefaultFetchSize() {
+        return defaultFetchSize;
+    }
+    
+    public void setDefaultFetchSize(int defaultFetchSize) {
+        if (defaultFetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive");
+        }
+        this.defaultFetchSize = defaultFetchSize;
+    }
+    
+    /**
+     * Métricas do cache de SQL gerado para UPSERT
+     */
+    public SqlTextCache<?> getMergeSqlCache() {
+        return mergeSqlCache;
+    }
+    
     public DataSource getDataSource() {
         return dataSource;
     }
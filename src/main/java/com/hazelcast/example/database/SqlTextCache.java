@@ -0,0 +1,70 @@
+package com.hazelcast.example.database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache LRU limitado para textos SQL gerados dinamicamente (ex.: MERGE do UPSERT).
+ *
+ * Evita reconstruir a mesma string a cada chamada e garante que o mesmo texto seja
+ * enviado ao driver, aproveitando o pool de statements preparados do mssql-jdbc.
+ */
+public class SqlTextCache<K> {
+
+    private final int maxEntries;
+    private final Map<K, String> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SqlTextCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        // accessOrder = true transforma o LinkedHashMap em LRU
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, String> eldest) {
+                return size() > SqlTextCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Retorna o SQL em cache para a chave ou gera e armazena um novo
+     */
+    public String get(K key, Function<K, String> generator) {
+        synchronized (entries) {
+            String sql = entries.get(key);
+            if (sql != null) {
+                hits.incrementAndGet();
+                return sql;
+            }
+        }
+
+        // Gerar fora do lock; em caso de corrida o último gerado prevalece (textos idênticos)
+        misses.incrementAndGet();
+        String sql = generator.apply(key);
+        synchronized (entries) {
+            entries.put(key, sql);
+        }
+        return sql;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() { return maxEntries; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+}
@@ -0,0 +1,230 @@
+package com.hazelcast.example.database;
+
+import com.hazelcast.example.concurrent.BatchLoop;
+import com.hazelcast.example.metrics.AppMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Pipeline write-behind para a tabela user_events.
+ *
+ * Os eventos são retirados da thread do chamador (ex.: thread de eventos do Hazelcast)
+ * para uma fila limitada e gravados em lotes JDBC (addBatch/executeBatch) por uma
+ * thread dedicada. O lote é descarregado ao atingir o tamanho máximo ou o atraso máximo.
+ * Com opções de carga em massa, cada lote vai pelo SQLServerBulkCopy
+ * ({@link SqlServerManager#bulkInsert}) em vez de um INSERT por linha.
+ * As linhas por resultado (flushed, failed, dropped) e a profundidade somada das filas ativas
+ * são publicadas em user.events.write.behind.rows e user.events.write.behind.queue.
+ */
+public class UserEventWriteBehind implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(UserEventWriteBehind.class);
+
+    public static final String INSERT_SQL =
+        "INSERT INTO user_events (user_id, event_type, event_data) VALUES (?, ?, ?)";
+    private static final String[] COLUMNS = {"user_id", "event_type", "event_data"};
+
+    // Instâncias em execução, somadas no gauge da fila
+    private static final Set<UserEventWriteBehind> ACTIVE = ConcurrentHashMap.newKeySet();
+    private static final Function<String, Counter> ROWS =
+        AppMetrics.resultCounters("user.events.write.behind.rows", "User events rows by outcome");
+    private static final Counter FLUSHED_ROWS = ROWS.apply("flushed");
+    private static final Counter FAILED_ROWS = ROWS.apply("failed");
+    private static final Counter DROPPED_ROWS = ROWS.apply("dropped");
+
+    static {
+        Gauge.builder("user.events.write.behind.queue", ACTIVE,
+                writers -> writers.stream().mapToInt(UserEventWriteBehind::getQueueDepth).sum())
+            .description("User events waiting in the write-behind queues")
+            .strongReference(true)
+            .register(AppMetrics.registry());
+    }
+
+    /**
+     * Comportamento quando a fila está cheia
+     */
+    public enum OverflowPolicy {
+        /** Bloqueia o chamador até haver espaço (respeitando o timeout configurado) */
+        BLOCK,
+        /** Descarta o evento imediatamente */
+        DROP
+    }
+
+    private final SqlServerManager sqlServerManager;
+    private final BlockingQueue<Object[]> queue;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final BulkInsertOptions bulkInsertOptions;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    // Métricas
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public UserEventWriteBehind(SqlServerManager sqlServerManager) {
+        this(sqlServerManager, 10000, 500, 200, OverflowPolicy.BLOCK, 5000);
+    }
+
+    /**
+     * @param sqlServerManager Gerenciador usado para gravar os lotes
+     * @param capacity Tamanho máximo da fila
+     * @param batchSize Número máximo de linhas por lote
+     * @param maxDelayMillis Tempo máximo que um evento espera na fila antes do flush
+     * @param overflowPolicy Política aplicada quando a fila está cheia
+     * @param blockTimeoutMillis Tempo máximo de bloqueio na política BLOCK antes de descartar
+     */
+    public UserEventWriteBehind(SqlServerManager sqlServerManager, int capacity, int batchSize,
+                                long maxDelayMillis, OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        this(sqlServerManager, capacity, batchSize, maxDelayMillis, overflowPolicy, blockTimeoutMillis, null);
+    }
+
+    /**
+     * @param bulkInsertOptions Opções da carga em massa de cada lote, ou null para INSERT com executeBatch
+     */
+    public UserEventWriteBehind(SqlServerManager sqlServerManager, int capacity, int batchSize,
+                                long maxDelayMillis, OverflowPolicy overflowPolicy, long blockTimeoutMillis,
+                                BulkInsertOptions bulkInsertOptions) {
+        if (capacity <= 0 || batchSize <= 0 || maxDelayMillis <= 0) {
+            throw new IllegalArgumentException("capacity, batchSize and maxDelayMillis must be positive");
+        }
+        this.sqlServerManager = sqlServerManager;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.bulkInsertOptions = bulkInsertOptions;
+
+        ACTIVE.add(this);
+        this.flusher = new Thread(this::flushLoop, "user-events-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+
+        logger.info("User events write-behind started (capacity={}, batchSize={}, maxDelay={}ms, policy={}, bulk={})",
+            capacity, batchSize, maxDelayMillis, overflowPolicy, bulkInsertOptions != null);
+    }
+
+    /**
+     * Enfileira um evento para gravação assíncrona
+     * @return true se o evento foi aceito, false se foi descartado
+     */
+    public boolean submit(String userId, String eventType, String eventData) {
+        Object[] row = {userId, eventType, eventData};
+
+        boolean accepted;
+        if (!running) {
+            accepted = false;
+        } else if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(row, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(row);
+        }
+
+        if (accepted) {
+            submitted.incrementAndGet();
+        } else {
+            DROPPED_ROWS.increment();
+            long total = dropped.incrementAndGet();
+            // Evita inundar o log quando a fila fica cheia por muito tempo
+            if (total == 1 || total % 1000 == 0) {
+                logger.warn("User events queue full, {} events dropped so far", total);
+            }
+        }
+        return accepted;
+    }
+
+    private void flushLoop() {
+        BatchLoop.run("user events write-behind", queue, batchSize, maxDelayMillis, () -> running,
+            () -> running = false, batch -> {
+                flush(batch);
+                return true;
+            });
+    }
+
+    private void flush(List<Object[]> batch) {
+        long start = System.nanoTime();
+        int result = bulkInsertOptions != null
+            ? sqlServerManager.bulkInsert("user_events", COLUMNS, batch, bulkInsertOptions)
+            : sqlServerManager.executeBatch(INSERT_SQL, batch);
+        long elapsed = System.nanoTime() - start;
+
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+
+        if (result < 0) {
+            failedRows.addAndGet(batch.size());
+            FAILED_ROWS.increment(batch.size());
+        } else {
+            flushedRows.addAndGet(batch.size());
+            FLUSHED_ROWS.increment(batch.size());
+        }
+
+        logger.debug("Flushed {} user events in {} ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Para de aceitar eventos, drena a fila e aguarda o último flush
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ACTIVE.remove(this);
+
+        logger.info("User events write-behind stopped: submitted={}, flushed={}, failed={}, dropped={}, " +
+                "batches={}, avgRowsPerBatch={}, avgFlushMs={}, maxFlushMs={}",
+            submitted.get(), flushedRows.get(), failedRows.get(), dropped.get(), flushes.get(),
+            String.format("%.1f", getAverageRowsPerBatch()),
+            String.format("%.2f", getAverageFlushLatencyMillis()), getMaxFlushLatencyMillis());
+    }
+
+    // Métricas
+    public int getQueueDepth() { return queue.size(); }
+    public long getSubmittedCount() { return submitted.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getFlushCount() { return flushes.get(); }
+    public long getFlushedRows() { return flushedRows.get(); }
+    public long getFailedRows() { return failedRows.get(); }
+
+    public double getAverageRowsPerBatch() {
+        long count = flushes.get();
+        return count == 0 ? 0 : (double) (flushedRows.get() + failedRows.get()) / count;
+    }
+
+    public double getAverageFlushLatencyMillis() {
+        long count = flushes.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / count;
+    }
+
+    public long getMaxFlushLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get());
+    }
+}
@@ -0,0 +1,142 @@
+package com.hazelcast.example.loadgen;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Distribuição das chaves acessadas pelo gerador de carga (índices de 0 a keySpace - 1)
+ */
+public interface KeyDistribution {
+
+    enum Type { UNIFORM, ZIPFIAN, HOTSPOT }
+
+    long next(SplittableRandom random);
+
+    long keySpace();
+
+    static KeyDistribution uniform(long keySpace) {
+        return new Uniform(keySpace);
+    }
+
+    /**
+     * @param theta Concentração entre 0 e 1 (0.99 é o padrão do YCSB: poucas chaves recebem
+     *              a maior parte dos acessos)
+     */
+    static KeyDistribution zipfian(long keySpace, double theta) {
+        return new Zipfian(keySpace, theta);
+    }
+
+    /**
+     * @param hotKeyFraction Fração das chaves que formam o conjunto quente
+     * @param hotOpsFraction Fração dos acessos que vão para o conjunto quente
+     */
+    static KeyDistribution hotspot(long keySpace, double hotKeyFraction, double hotOpsFraction) {
+        return new Hotspot(keySpace, hotKeyFraction, hotOpsFraction);
+    }
+
+    static KeyDistribution of(WorkloadSpec spec) {
+        return switch (Type.valueOf(spec.keyDistribution().toUpperCase(Locale.ROOT))) {
+            case UNIFORM -> uniform(spec.keySpace());
+            case ZIPFIAN -> zipfian(spec.keySpace(), spec.zipfianTheta());
+            case HOTSPOT -> hotspot(spec.keySpace(), spec.hotspotKeyFraction(), spec.hotspotOpsFraction());
+        };
+    }
+
+    record Uniform(long keySpace) implements KeyDistribution {
+        public Uniform {
+            if (keySpace < 1) {
+                throw new IllegalArgumentException("Key space must be positive");
+            }
+        }
+
+        @Override
+        public long next(SplittableRandom random) {
+            return random.nextLong(keySpace);
+        }
+    }
+
+    /**
+     * Zipfian de Gray et al. ("Quickly generating billion-record synthetic databases"), como no
+     * YCSB. O índice sorteado passa por um hash para que as chaves mais acessadas não sejam as
+     * primeiras da faixa (e fiquem espalhadas pelas partições)
+     */
+    final class Zipfian implements KeyDistribution {
+        private final long keySpace;
+        private final double theta;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+
+        Zipfian(long keySpace, double theta) {
+            if (keySpace < 2 || theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("Zipfian needs at least 2 keys and 0 < theta < 1");
+            }
+            this.keySpace = keySpace;
+            this.theta = theta;
+            this.zetaN = zeta(keySpace, theta);
+            this.alpha = 1.0 / (1.0 - theta);
+            double zeta2 = zeta(2, theta);
+            this.eta = (1 - Math.pow(2.0 / keySpace, 1 - theta)) / (1 - zeta2 / zetaN);
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+
+        /**
+         * Posição no ranking de popularidade (0 é a chave mais acessada)
+         */
+        long nextRank(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, theta)) {
+                return 1;
+            }
+            return Math.min(keySpace - 1, (long) (keySpace * Math.pow(eta * u - eta + 1, alpha)));
+        }
+
+        @Override
+        public long next(SplittableRandom random) {
+            return Math.floorMod(fnv(nextRank(random)), keySpace);
+        }
+
+        @Override
+        public long keySpace() {
+            return keySpace;
+        }
+
+        private static long fnv(long value) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < 8; i++) {
+                hash ^= value & 0xFF;
+                hash *= 0x100000001B3L;
+                value >>>= 8;
+            }
+            return hash;
+        }
+    }
+
+    record Hotspot(long keySpace, double hotKeyFraction, double hotOpsFraction) implements KeyDistribution {
+        public Hotspot {
+            if (keySpace < 2 || hotKeyFraction <= 0 || hotKeyFraction >= 1 || hotOpsFraction < 0 || hotOpsFraction > 1) {
+                throw new IllegalArgumentException("Hotspot needs at least 2 keys, 0 < hotKeyFraction < 1 "
+                    + "and 0 <= hotOpsFraction <= 1");
+            }
+        }
+
+        @Override
+        public long next(SplittableRandom random) {
+            long hotKeys = Math.max(1, (long) (keySpace * hotKeyFraction));
+            return random.nextDouble() < hotOpsFraction
+                ? random.nextLong(hotKeys)
+                : hotKeys + random.nextLong(keySpace - hotKeys);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.hazelcast.example.loadgen;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.map.IMap;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga open-loop para os mapas do cluster
+ *
+ * As operações são emitidas em horários fixos derivados da taxa alvo, sem esperar as respostas
+ * anteriores (getAsync/setAsync). A latência é medida a partir do horário previsto de emissão, e
+ * não do envio efetivo: quando o cluster ou o próprio gerador atrasam, o tempo de espera entra
+ * na medição (correção de coordinated omission). Cada operação (mapa.get, mapa.set) tem seu
+ * histograma HdrHistogram; os percentis são registrados a cada intervalo e no fim, e podem ser
+ * gravados em um log de histogramas para análise posterior.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+
+    private final HazelcastInstance instance;
+    private final WorkloadSpec spec;
+    private final WeightedChoice<String> maps;
+    private final WeightedChoice<Integer> valueSizes;
+    private final WeightedChoice<Integer> ttls;
+    private final KeyDistribution keys;
+    private final Map<Integer, byte[]> payloads = new TreeMap<>();
+    private final Map<String, IMap<String, Object>> mapProxies = new ConcurrentHashMap<>();
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> totals = new TreeMap<>();
+    private final Semaphore inFlight;
+    private final LongAdder issued = new LongAdder();
+    private HistogramLogWriter logWriter;
+
+    public LoadGenerator(HazelcastInstance instance, WorkloadSpec spec) {
+        this.instance = instance;
+        this.spec = spec;
+        this.maps = WeightedChoice.parse(spec.mapMix(), String::trim);
+        this.valueSizes = WeightedChoice.parse(spec.valueSizes(), Integer::valueOf);
+        this.ttls = WeightedChoice.parse(spec.ttlMix(), Integer::valueOf);
+        this.keys = KeyDistribution.of(spec);
+        this.inFlight = new Semaphore(spec.maxInFlight());
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int size : valueSizes.values()) {
+            byte[] payload = new byte[size];
+            random.nextBytes(payload);
+            payloads.put(size, payload);
+        }
+    }
+
+    /**
+     * Executa a carga pela duração configurada
+     *
+     * @return Histograma total de cada operação
+     */
+    public Map<String, Histogram> run() throws InterruptedException {
+        PrintStream logStream = openHistogramLog();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loadgen-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(spec.durationSeconds());
+            logger.info("Load generation started: {} ops/s for {} s, maps {}, keys {} ({}), read ratio {}",
+                spec.targetOpsPerSecond(), spec.durationSeconds(), spec.mapMix(), spec.keySpace(),
+                spec.keyDistribution(), spec.readRatio());
+
+            reporter.scheduleAtFixedRate(this::report, spec.reportIntervalSeconds(), spec.reportIntervalSeconds(),
+                TimeUnit.SECONDS);
+
+            List<Thread> dispatchers = new ArrayList<>();
+            for (int i = 0; i < spec.dispatchers(); i++) {
+                int index = i;
+                Thread thread = new Thread(() -> dispatch(index, start, end), "loadgen-dispatch-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                dispatchers.add(thread);
+            }
+            for (Thread thread : dispatchers) {
+                thread.join();
+            }
+
+            // Espera as respostas pendentes antes do relatório final
+            if (!inFlight.tryAcquire(spec.maxInFlight(), 30, TimeUnit.SECONDS)) {
+                logger.warn("{} operations still pending at the end of the run", spec.maxInFlight() - inFlight.availablePermits());
+            }
+        } finally {
+            reporter.shutdownNow();
+            reporter.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        report();
+        logSummary();
+        if (logStream != null) {
+            logStream.close();
+        }
+        synchronized (this) {
+            return new TreeMap<>(totals);
+        }
+    }
+
+    /**
+     * Emite operações nos horários previstos; cada dispatcher cuida de 1/N da taxa, defasado dos demais
+     */
+    private void dispatch(int index, long start, long end) {
+        SplittableRandom random = new SplittableRandom();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(spec.dispatchers()) / spec.targetOpsPerSecond();
+        long intended = start + intervalNanos * index / spec.dispatchers();
+        try {
+            while (intended < end) {
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+                inFlight.acquire();
+                issue(random, intended);
+                intended += intervalNanos;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void issue(SplittableRandom random, long intendedStart) {
+        String mapName = maps.next(random);
+        long keyIndex = keys.next(random);
+        boolean read = random.nextDouble() < spec.readRatio();
+        String operation = mapName + (read ? ".get" : ".set");
+
+        CompletionStage<?> stage;
+        try {
+            IMap<String, Object> map = mapProxies.computeIfAbsent(mapName, instance::getMap);
+            String key = key(mapName, keyIndex);
+            if (read) {
+                stage = map.getAsync(key);
+            } else {
+                int ttlSeconds = ttls.next(random);
+                Object value = value(mapName, keyIndex, random);
+                stage = ttlSeconds > 0
+                    ? map.setAsync(key, value, ttlSeconds, TimeUnit.SECONDS)
+                    : map.setAsync(key, value);
+            }
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        issued.increment();
+
+        stage.whenComplete((result, error) -> {
+            if (error == null) {
+                recorders.computeIfAbsent(operation, name -> new Recorder(3))
+                    .recordValue(System.nanoTime() - intendedStart);
+            } else {
+                errors.computeIfAbsent(operation, name -> new LongAdder()).increment();
+            }
+            inFlight.release();
+        });
+    }
+
+    static String key(String mapName, long keyIndex) {
+        return mapName.startsWith("user") ? "user" + keyIndex : "key:" + keyIndex;
+    }
+
+    /**
+     * Valores com o tipo de cada mapa; o tamanho configurado vale para os mapas de bytes (cache-data)
+     */
+    private Object value(String mapName, long keyIndex, SplittableRandom random) {
+        String userId = "user" + keyIndex;
+        return switch (mapName) {
+            case "user-sessions" -> new UserSession(userId, "User " + keyIndex, LocalDateTime.now());
+            case "users" -> new UserData(userId, "User " + keyIndex, userId + "@example.com");
+            default -> payloads.get(valueSizes.next(random));
+        };
+    }
+
+    /**
+     * Percentis do último intervalo de cada operação, acumulados nos totais
+     */
+    private synchronized void report() {
+        for (Map.Entry<String, Recorder> entry : new TreeMap<>(recorders).entrySet()) {
+            Histogram interval = entry.getValue().getIntervalHistogram();
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+            totals.computeIfAbsent(entry.getKey(), name -> new Histogram(3)).add(interval);
+            double seconds = Math.max(1, interval.getEndTimeStamp() - interval.getStartTimeStamp()) / 1000.0;
+            logger.info("{} {}", entry.getKey(), describe(interval, seconds, errorCount(entry.getKey())));
+
+            if (logWriter != null) {
+                interval.setTag(entry.getKey());
+                logWriter.outputIntervalHistogram(interval);
+            }
+        }
+    }
+
+    private void logSummary() {
+        double seconds = spec.durationSeconds();
+        logger.info("Load generation finished: {} operations issued ({} ops/s target)", issued.sum(),
+            spec.targetOpsPerSecond());
+        synchronized (this) {
+            totals.forEach((operation, histogram) ->
+                logger.info("TOTAL {} {}", operation, describe(histogram, seconds, errorCount(operation))));
+        }
+    }
+
+    private static String describe(Histogram histogram, double seconds, long errorCount) {
+        StringBuilder line = new StringBuilder()
+            .append("count=").append(histogram.getTotalCount())
+            .append(String.format(" rate=%.1f/s", histogram.getTotalCount() / seconds));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            line.append(String.format(" %s=%.3fms", PERCENTILE_LABELS[i],
+                histogram.getValueAtPercentile(PERCENTILES[i]) / 1e6));
+        }
+        line.append(String.format(" max=%.3fms errors=%d", histogram.getMaxValue() / 1e6, errorCount));
+        return line.toString();
+    }
+
+    private long errorCount(String operation) {
+        LongAdder count = errors.get(operation);
+        return count != null ? count.sum() : 0;
+    }
+
+    private PrintStream openHistogramLog() {
+        if (spec.histogramLog() == null || spec.histogramLog().isBlank()) {
+            return null;
+        }
+        try {
+            PrintStream stream = new PrintStream(spec.histogramLog());
+            logWriter = new HistogramLogWriter(stream);
+            logWriter.outputLogFormatVersion();
+            long now = System.currentTimeMillis();
+            logWriter.outputStartTime(now);
+            logWriter.setBaseTime(now);
+            logWriter.outputLegend();
+            return stream;
+        } catch (FileNotFoundException e) {
+            throw new IllegalArgumentException("Cannot write histogram log " + spec.histogramLog(), e);
+        }
+    }
+
+    public long getIssued() {
+        return issued.sum();
+    }
+}
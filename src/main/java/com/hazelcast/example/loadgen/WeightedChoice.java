@@ -0,0 +1,66 @@
+package com.hazelcast.example.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Sorteio ponderado entre valores, lido do formato "valor:peso,valor:peso" (pesos relativos)
+ */
+public final class WeightedChoice<T> {
+    private final List<T> values;
+    private final double[] cumulative;
+
+    private WeightedChoice(List<T> values, double[] cumulative) {
+        this.values = values;
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * @param spec Ex.: "128:0.6,1024:0.3,16384:0.1"; um valor sem peso vale 1
+     */
+    public static <T> WeightedChoice<T> parse(String spec, Function<String, T> parser) {
+        List<T> values = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String item = part.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int separator = item.lastIndexOf(':');
+            double weight = separator < 0 ? 1 : Double.parseDouble(item.substring(separator + 1));
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in '" + spec + "'");
+            }
+            values.add(parser.apply(separator < 0 ? item : item.substring(0, separator)));
+            weights.add(weight);
+        }
+
+        double total = weights.stream().mapToDouble(Double::doubleValue).sum();
+        if (values.isEmpty() || total <= 0) {
+            throw new IllegalArgumentException("No positive weight in '" + spec + "'");
+        }
+        double[] cumulative = new double[values.size()];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += weights.get(i) / total;
+            cumulative[i] = sum;
+        }
+        return new WeightedChoice<>(List.copyOf(values), cumulative);
+    }
+
+    public T next(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (u < cumulative[i]) {
+                return values.get(i);
+            }
+        }
+        return values.get(values.size() - 1);
+    }
+
+    public List<T> values() {
+        return values;
+    }
+}
@@ -0,0 +1,70 @@
+package com.hazelcast.example.loadgen;
+
+import java.util.Properties;
+
+/**
+ * Carga gerada pelo {@link LoadGenerator}
+ *
+ * Lida de um arquivo .properties e/ou de argumentos chave=valor com os nomes dos componentes
+ * (ex.: targetOpsPerSecond=5000 keyDistribution=hotspot).
+ *
+ * @param durationSeconds Duração da medição
+ * @param targetOpsPerSecond Taxa de emissão (open-loop: não depende das respostas)
+ * @param readRatio Fração de leituras (get); o restante são gravações (set)
+ * @param mapMix Mapas e pesos, ex.: "user-sessions:0.4,cache-data:0.4,users:0.2"
+ * @param keySpace Chaves distintas por mapa
+ * @param keyDistribution uniform, zipfian ou hotspot
+ * @param zipfianTheta Concentração da zipfian (0 &lt; theta &lt; 1)
+ * @param hotspotKeyFraction Fração das chaves no conjunto quente
+ * @param hotspotOpsFraction Fração dos acessos ao conjunto quente
+ * @param valueSizes Tamanhos e pesos, em bytes, dos valores gravados no cache-data
+ * @param ttlMix TTLs e pesos, em segundos, das gravações (0 usa o TTL do mapa)
+ * @param maxInFlight Limite de operações pendentes (o atraso ao atingi-lo entra na latência)
+ * @param dispatchers Threads que emitem as operações (a taxa é dividida entre elas)
+ * @param reportIntervalSeconds Intervalo entre os relatórios de percentis
+ * @param histogramLog Arquivo do log de histogramas HdrHistogram (vazio desativa)
+ */
+public record WorkloadSpec(long durationSeconds, int targetOpsPerSecond, double readRatio, String mapMix,
+                           long keySpace, String keyDistribution, double zipfianTheta, double hotspotKeyFraction,
+                           double hotspotOpsFraction, String valueSizes, String ttlMix, int maxInFlight,
+                           int dispatchers, int reportIntervalSeconds, String histogramLog) {
+
+    public WorkloadSpec {
+        if (durationSeconds < 1 || targetOpsPerSecond < 1 || maxInFlight < 1 || dispatchers < 1
+                || reportIntervalSeconds < 1) {
+            throw new IllegalArgumentException("Duration, rate, maxInFlight, dispatchers and report interval "
+                + "must be positive");
+        }
+        if (readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("readRatio must be between 0 and 1");
+        }
+    }
+
+    public static WorkloadSpec defaults() {
+        return new WorkloadSpec(300, 1000, 0.8, "user-sessions:0.4,cache-data:0.4,users:0.2",
+            100_000, "zipfian", 0.99, 0.01, 0.9, "128:0.6,1024:0.3,16384:0.1", "0:0.7,60:0.2,3600:0.1",
+            1000, 2, 10, "");
+    }
+
+    /**
+     * Aplica as propriedades presentes sobre estes valores
+     */
+    public WorkloadSpec with(Properties properties) {
+        return new WorkloadSpec(
+            Long.parseLong(properties.getProperty("durationSeconds", String.valueOf(durationSeconds))),
+            Integer.parseInt(properties.getProperty("targetOpsPerSecond", String.valueOf(targetOpsPerSecond))),
+            Double.parseDouble(properties.getProperty("readRatio", String.valueOf(readRatio))),
+            properties.getProperty("mapMix", mapMix),
+            Long.parseLong(properties.getProperty("keySpace", String.valueOf(keySpace))),
+            properties.getProperty("keyDistribution", keyDistribution),
+            Double.parseDouble(properties.getProperty("zipfianTheta", String.valueOf(zipfianTheta))),
+            Double.parseDouble(properties.getProperty("hotspotKeyFraction", String.valueOf(hotspotKeyFraction))),
+            Double.parseDouble(properties.getProperty("hotspotOpsFraction", String.valueOf(hotspotOpsFraction))),
+            properties.getProperty("valueSizes", valueSizes),
+            properties.getProperty("ttlMix", ttlMix),
+            Integer.parseInt(properties.getProperty("maxInFlight", String.valueOf(maxInFlight))),
+            Integer.parseInt(properties.getProperty("dispatchers", String.valueOf(dispatchers))),
+            Integer.parseInt(properties.getProperty("reportIntervalSeconds", String.valueOf(reportIntervalSeconds))),
+            properties.getProperty("histogramLog", histogramLog));
+    }
+}
@@ -0,0 +1,147 @@
+package com.hazelcast.example.management;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Endpoint HTTP de gerenciamento do membro (servidor do próprio JDK)
+ *
+ * /health/live responde enquanto o processo está de pé; /health/ready responde 200 apenas
+ * quando todas as verificações de prontidão passam (503 caso contrário), com o estado e os
+ * detalhes de cada uma em JSON. Outras rotas podem ser adicionadas com {@link #addHandler}.
+ */
+public class ManagementEndpoint implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ManagementEndpoint.class);
+
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private record ReadinessCheck(BooleanSupplier ready, Supplier<Map<String, Object>> details) {}
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, ReadinessCheck> readinessChecks = new LinkedHashMap<>();
+
+    /**
+     * @param port Porta HTTP (0 escolhe uma porta livre)
+     */
+    public ManagementEndpoint(int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open management port " + port, e);
+        }
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "management-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/health/live", exchange -> respondJson(exchange, 200, Map.of("status", "UP")));
+        server.createContext("/health/ready", this::handleReady);
+    }
+
+    /**
+     * Verificação de prontidão
+     *
+     * @param name Nome exibido na resposta
+     * @param ready Verdadeiro quando a parte verificada está pronta
+     * @param details Informações adicionais exibidas na resposta (pode ser null)
+     */
+    public synchronized ManagementEndpoint addReadinessCheck(String name, BooleanSupplier ready,
+                                                             Supplier<Map<String, Object>> details) {
+        readinessChecks.put(name, new ReadinessCheck(ready, details));
+        return this;
+    }
+
+    public ManagementEndpoint addReadinessCheck(String name, BooleanSupplier ready) {
+        return addReadinessCheck(name, ready, null);
+    }
+
+    public ManagementEndpoint addHandler(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        return this;
+    }
+
+    public ManagementEndpoint start() {
+        server.start();
+        logger.info("Management endpoint listening on port {}", getPort());
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Estado atual das verificações; também usado fora do HTTP (logs e testes)
+     */
+    public synchronized boolean isReady() {
+        return readinessChecks.values().stream().allMatch(check -> check.ready().getAsBoolean());
+    }
+
+    private void handleReady(HttpExchange exchange) throws IOException {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        boolean ready = true;
+        synchronized (this) {
+            for (Map.Entry<String, ReadinessCheck> entry : readinessChecks.entrySet()) {
+                boolean checkReady = entry.getValue().ready().getAsBoolean();
+                ready &= checkReady;
+
+                Map<String, Object> check = new LinkedHashMap<>();
+                check.put("status", checkReady ? "UP" : "DOWN");
+                if (entry.getValue().details() != null) {
+                    check.put("details", entry.getValue().details().get());
+                }
+                checks.put(entry.getKey(), check);
+            }
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", ready ? "UP" : "DOWN");
+        body.put("checks", checks);
+        respondJson(exchange, ready ? 200 : 503, body);
+    }
+
+    private static void respondJson(HttpExchange exchange, int status, Object body) throws IOException {
+        respond(exchange, status, "application/json", MAPPER.writeValueAsBytes(body));
+    }
+
+    /**
+     * Envia a resposta completa e fecha a troca
+     */
+    public static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        respond(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,192 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Contabilidade de memória por mapa em todos os membros
+ *
+ * Coleta o LocalMapStats (custo das entradas próprias e de backup) e o heap de cada membro,
+ * recomenda um limite USED_HEAP_SIZE por mapa a partir do maior consumo observado e avisa
+ * quando um membro se aproxima do limite configurado ou do heap disponível.
+ * Funciona a partir de membros e de clientes (a coleta é uma tarefa enviada a cada membro).
+ */
+public class MapMemoryMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(MapMemoryMonitor.class);
+
+    public static final String EXECUTOR_NAME = "memory-monitor";
+    public static final double DEFAULT_HEADROOM = 1.5;
+    public static final double DEFAULT_WARN_RATIO = 0.8;
+    public static final double DEFAULT_MAX_MAP_HEAP_FRACTION = 0.5;
+
+    private static final long MB = 1024 * 1024;
+
+    private final double headroom;
+    private final double warnRatio;
+    private final double maxMapHeapFraction;
+
+    /**
+     * Resumo de um mapa no cluster
+     *
+     * @param entries Entradas próprias e de backup em todos os membros
+     * @param memoryCost Heap ocupado pelas entradas em todos os membros
+     * @param bytesPerEntry Custo médio de uma entrada
+     * @param peakMemberCost Maior consumo do mapa em um único membro
+     * @param recommendedMaxHeapMb Limite USED_HEAP_SIZE sugerido por membro
+     */
+    public record MapReport(String mapName, long entries, long memoryCost, long bytesPerEntry, long peakMemberCost,
+                            String maxSizePolicy, int maxSize, int recommendedMaxHeapMb) {}
+
+    public record MemoryReport(List<MemberMemorySample> members, List<MapReport> maps, List<String> warnings) {}
+
+    public MapMemoryMonitor() {
+        this(DEFAULT_HEADROOM, DEFAULT_WARN_RATIO, DEFAULT_MAX_MAP_HEAP_FRACTION);
+    }
+
+    /**
+     * @param headroom Folga aplicada ao maior consumo observado na recomendação (1.5 = +50%)
+     * @param warnRatio Fração de um limite a partir da qual há aviso
+     * @param maxMapHeapFraction Fração máxima do heap de um membro que um único mapa deve ocupar
+     */
+    public MapMemoryMonitor(double headroom, double warnRatio, double maxMapHeapFraction) {
+        if (headroom < 1 || warnRatio <= 0 || warnRatio > 1 || maxMapHeapFraction <= 0 || maxMapHeapFraction > 1) {
+            throw new IllegalArgumentException("headroom must be >= 1; warnRatio and maxMapHeapFraction in (0, 1]");
+        }
+        this.headroom = headroom;
+        this.warnRatio = warnRatio;
+        this.maxMapHeapFraction = maxMapHeapFraction;
+    }
+
+    /**
+     * Coleta uma amostra de cada membro do cluster
+     */
+    public List<MemberMemorySample> sample(HazelcastInstance instance) {
+        IExecutorService executor = instance.getExecutorService(EXECUTOR_NAME);
+        Map<Member, Future<MemberMemorySample>> futures = executor.submitToAllMembers(new MemberMemoryTask());
+
+        List<MemberMemorySample> samples = new ArrayList<>(futures.size());
+        for (Map.Entry<Member, Future<MemberMemorySample>> entry : futures.entrySet()) {
+            try {
+                samples.add(entry.getValue().get(30, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sampling member memory", e);
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Could not sample memory of member {}", entry.getKey(), e);
+            }
+        }
+        return samples;
+    }
+
+    public MemoryReport report(HazelcastInstance instance) {
+        return analyze(sample(instance));
+    }
+
+    /**
+     * Calcula o resumo por mapa, as recomendações e os avisos a partir das amostras
+     */
+    public MemoryReport analyze(Collection<MemberMemorySample> samples) {
+        List<String> warnings = new ArrayList<>();
+        long minHeapMax = samples.stream().mapToLong(MemberMemorySample::getHeapMax).filter(max -> max > 0)
+            .min().orElse(Long.MAX_VALUE);
+        long mapBudget = minHeapMax == Long.MAX_VALUE ? Long.MAX_VALUE : (long) (minHeapMax * maxMapHeapFraction);
+
+        Map<String, List<MapMemoryUsage>> usageByMap = new TreeMap<>();
+        for (MemberMemorySample sample : samples) {
+            double freePercentage = sample.getFreeHeapPercentage();
+            if (freePercentage < (1 - warnRatio) * 100) {
+                warnings.add(String.format("Member %s heap is %.0f%% used (%d of %d MB)", sample.getMember(),
+                    100 - freePercentage, sample.getHeapUsed() / MB, sample.getHeapMax() / MB));
+            }
+            for (MapMemoryUsage usage : sample.getMaps()) {
+                usageByMap.computeIfAbsent(usage.getMapName(), name -> new ArrayList<>()).add(usage);
+                checkLimit(sample, usage, warnings);
+            }
+        }
+
+        List<MapReport> maps = new ArrayList<>();
+        for (Map.Entry<String, List<MapMemoryUsage>> entry : usageByMap.entrySet()) {
+            List<MapMemoryUsage> usages = entry.getValue();
+            long entries = usages.stream().mapToLong(MapMemoryUsage::getEntryCount).sum();
+            long memoryCost = usages.stream().mapToLong(MapMemoryUsage::getMemoryCost).sum();
+            long peak = usages.stream().mapToLong(MapMemoryUsage::getMemoryCost).max().orElse(0);
+            long bytesPerEntry = entries == 0 ? 0 : memoryCost / entries;
+            MapMemoryUsage first = usages.get(0);
+
+            long recommended = Math.max(1, (long) Math.ceil(peak * headroom / MB));
+            if (recommended * MB > mapBudget) {
+                warnings.add(String.format("Map %s needs about %d MB per member, more than %.0f%% of the smallest " +
+                        "heap (%d MB); add members or move it to the off-heap tier",
+                    entry.getKey(), recommended, maxMapHeapFraction * 100, mapBudget / MB));
+                recommended = Math.max(1, mapBudget / MB);
+            }
+            if ("PER_NODE".equals(first.getMaxSizePolicy()) && bytesPerEntry > 0
+                    && (long) first.getMaxSize() * bytesPerEntry > mapBudget) {
+                warnings.add(String.format("Map %s entry limit %d (%s) allows about %d MB per member at %d bytes/entry; " +
+                        "use USED_HEAP_SIZE %d", entry.getKey(), first.getMaxSize(), first.getMaxSizePolicy(),
+                    (long) first.getMaxSize() * bytesPerEntry / MB, bytesPerEntry, recommended));
+            }
+
+            maps.add(new MapReport(entry.getKey(), entries, memoryCost, bytesPerEntry, peak,
+                first.getMaxSizePolicy(), first.getMaxSize(), (int) Math.min(Integer.MAX_VALUE, recommended)));
+        }
+        return new MemoryReport(List.copyOf(samples), maps, warnings);
+    }
+
+    /**
+     * Avisa quando o mapa no membro se aproxima do seu limite de eviction
+     */
+    private void checkLimit(MemberMemorySample sample, MapMemoryUsage usage, List<String> warnings) {
+        switch (usage.getMaxSizePolicy()) {
+            case "USED_HEAP_SIZE" -> {
+                long limit = usage.getMaxSize() * MB;
+                if (usage.getMemoryCost() >= limit * warnRatio) {
+                    warnings.add(String.format("Map %s on member %s uses %d MB of its %d MB limit",
+                        usage.getMapName(), sample.getMember(), usage.getMemoryCost() / MB, usage.getMaxSize()));
+                }
+            }
+            case "FREE_HEAP_PERCENTAGE" -> {
+                if (sample.getFreeHeapPercentage() <= usage.getMaxSize() / warnRatio) {
+                    warnings.add(String.format("Member %s has %.0f%% free heap; map %s starts evicting below %d%%",
+                        sample.getMember(), sample.getFreeHeapPercentage(), usage.getMapName(), usage.getMaxSize()));
+                }
+            }
+            case "PER_NODE" -> {
+                if (usage.getOwnedEntryCount() >= usage.getMaxSize() * warnRatio) {
+                    warnings.add(String.format("Map %s on member %s holds %d of %d entries",
+                        usage.getMapName(), sample.getMember(), usage.getOwnedEntryCount(), usage.getMaxSize()));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Registra o relatório no log; avisos em WARN
+     */
+    public static void log(MemoryReport report) {
+        for (MapReport map : report.maps()) {
+            logger.info("Map '{}': entries={}, memory={} KB, bytesPerEntry={}, peakPerMember={} KB, limit={} {}, " +
+                    "recommended USED_HEAP_SIZE={} MB",
+                map.mapName(), map.entries(), map.memoryCost() / 1024, map.bytesPerEntry(), map.peakMemberCost() / 1024,
+                map.maxSizePolicy(), map.maxSize(), map.recommendedMaxHeapMb());
+        }
+        for (String warning : report.warnings()) {
+            logger.warn(warning);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Uso de memória de um mapa em um membro (LocalMapStats) e o limite configurado
+ */
+public final class MapMemoryUsage implements IdentifiedDataSerializable {
+    private String mapName;
+    private long ownedEntryCount;
+    private long ownedEntryMemoryCost;
+    private long backupEntryCount;
+    private long backupEntryMemoryCost;
+    private String maxSizePolicy;
+    private int maxSize;
+
+    MapMemoryUsage() {}
+
+    public MapMemoryUsage(String mapName, long ownedEntryCount, long ownedEntryMemoryCost, long backupEntryCount,
+                          long backupEntryMemoryCost, String maxSizePolicy, int maxSize) {
+        this.mapName = mapName;
+        this.ownedEntryCount = ownedEntryCount;
+        this.ownedEntryMemoryCost = ownedEntryMemoryCost;
+        this.backupEntryCount = backupEntryCount;
+        this.backupEntryMemoryCost = backupEntryMemoryCost;
+        this.maxSizePolicy = maxSizePolicy;
+        this.maxSize = maxSize;
+    }
+
+    public String getMapName() { return mapName; }
+    public long getOwnedEntryCount() { return ownedEntryCount; }
+    public long getOwnedEntryMemoryCost() { return ownedEntryMemoryCost; }
+    public long getBackupEntryCount() { return backupEntryCount; }
+    public long getBackupEntryMemoryCost() { return backupEntryMemoryCost; }
+    public String getMaxSizePolicy() { return maxSizePolicy; }
+    public int getMaxSize() { return maxSize; }
+
+    /** Entradas próprias e de backup no membro */
+    public long getEntryCount() { return ownedEntryCount + backupEntryCount; }
+    /** Heap ocupado pelas entradas próprias e de backup no membro */
+    public long getMemoryCost() { return ownedEntryMemoryCost + backupEntryMemoryCost; }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(mapName);
+        out.writeLong(ownedEntryCount);
+        out.writeLong(ownedEntryMemoryCost);
+        out.writeLong(backupEntryCount);
+        out.writeLong(backupEntryMemoryCost);
+        out.writeString(maxSizePolicy);
+        out.writeInt(maxSize);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        mapName = in.readString();
+        ownedEntryCount = in.readLong();
+        ownedEntryMemoryCost = in.readLong();
+        backupEntryCount = in.readLong();
+        backupEntryMemoryCost = in.readLong();
+        maxSizePolicy = in.readString();
+        maxSize = in.readInt();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MemoryDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MemoryDataSerializableFactory.MAP_MEMORY_USAGE;
+    }
+}
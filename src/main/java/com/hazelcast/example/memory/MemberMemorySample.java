@@ -0,0 +1,72 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap de um membro e uso de memória dos seus mapas num instante
+ */
+public final class MemberMemorySample implements IdentifiedDataSerializable {
+    private String member;
+    private long heapUsed;
+    private long heapMax;
+    private List<MapMemoryUsage> maps;
+
+    MemberMemorySample() {}
+
+    public MemberMemorySample(String member, long heapUsed, long heapMax, List<MapMemoryUsage> maps) {
+        this.member = member;
+        this.heapUsed = heapUsed;
+        this.heapMax = heapMax;
+        this.maps = maps;
+    }
+
+    public String getMember() { return member; }
+    public long getHeapUsed() { return heapUsed; }
+    public long getHeapMax() { return heapMax; }
+    public List<MapMemoryUsage> getMaps() { return maps; }
+
+    public double getFreeHeapPercentage() {
+        return heapMax <= 0 ? 100 : 100.0 * (heapMax - heapUsed) / heapMax;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(member);
+        out.writeLong(heapUsed);
+        out.writeLong(heapMax);
+        out.writeInt(maps.size());
+        for (MapMemoryUsage usage : maps) {
+            usage.writeData(out);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        member = in.readString();
+        heapUsed = in.readLong();
+        heapMax = in.readLong();
+        int size = in.readInt();
+        maps = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            MapMemoryUsage usage = new MapMemoryUsage();
+            usage.readData(in);
+            maps.add(usage);
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MemoryDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MemoryDataSerializableFactory.MEMBER_MEMORY_SAMPLE;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Coleta, no membro onde executa, o heap e o LocalMapStats de todos os mapas
+ */
+public class MemberMemoryTask implements Callable<MemberMemorySample>, HazelcastInstanceAware, IdentifiedDataSerializable {
+
+    private transient HazelcastInstance hazelcastInstance;
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public MemberMemorySample call() {
+        return sample(hazelcastInstance);
+    }
+
+    /**
+     * Amostra do membro local (deve ser chamada em um membro)
+     */
+    public static MemberMemorySample sample(HazelcastInstance member) {
+        List<MapMemoryUsage> maps = new ArrayList<>();
+        for (DistributedObject object : member.getDistributedObjects()) {
+            // Mapas internos do Hazelcast (prefixo "__") ficam de fora
+            if (!(object instanceof IMap<?, ?> map) || map.getName().startsWith("__")) {
+                continue;
+            }
+            LocalMapStats stats = map.getLocalMapStats();
+            MapConfig mapConfig = member.getConfig().findMapConfig(map.getName());
+            EvictionConfig eviction = mapConfig.getEvictionConfig();
+            maps.add(new MapMemoryUsage(map.getName(), stats.getOwnedEntryCount(), stats.getOwnedEntryMemoryCost(),
+                stats.getBackupEntryCount(), stats.getBackupEntryMemoryCost(),
+                eviction.getEvictionPolicy() == EvictionPolicy.NONE ? "NONE" : eviction.getMaxSizePolicy().name(),
+                eviction.getSize()));
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return new MemberMemorySample(member.getCluster().getLocalMember().getAddress().toString(),
+            heap.getUsed(), heap.getMax(), maps);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) {
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) {
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MemoryDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MemoryDataSerializableFactory.MEMBER_MEMORY_TASK;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.nio.serialization.DataSerializableFactory;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Fábrica da coleta de uso de memória nos membros
+ *
+ * Registrada em membros e clientes por {@link com.hazelcast.example.serialization.DomainSerializers}.
+ */
+public class MemoryDataSerializableFactory implements DataSerializableFactory {
+
+    public static final int FACTORY_ID = 1003;
+
+    public static final int MEMBER_MEMORY_TASK = 1;
+    public static final int MEMBER_MEMORY_SAMPLE = 2;
+    public static final int MAP_MEMORY_USAGE = 3;
+
+    @Override
+    public IdentifiedDataSerializable create(int typeId) {
+        return switch (typeId) {
+            case MEMBER_MEMORY_TASK -> new MemberMemoryTask();
+            case MEMBER_MEMORY_SAMPLE -> new MemberMemorySample();
+            case MAP_MEMORY_USAGE -> new MapMemoryUsage();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+
+import java.util.Locale;
+
+/**
+ * Limites de memória dos mapas nos membros
+ *
+ * Os mapas são limitados pelo heap que ocupam (USED_HEAP_SIZE, em MB por membro) ou pelo heap
+ * livre do membro (FREE_HEAP_PERCENTAGE), e não pelo número de entradas, que não diz nada
+ * quando o tamanho dos valores varia. Os padrões podem ser sobrescritos por variáveis de
+ * ambiente com o prefixo &lt;MAPA&gt;_ (ex.: CACHE_DATA_MAX_SIZE_POLICY, CACHE_DATA_MAX_SIZE).
+ */
+public final class MemoryLimits {
+
+    private MemoryLimits() {}
+
+    /**
+     * Limite de um mapa
+     *
+     * @param mapName Nome do mapa
+     * @param evictionPolicy Política de remoção quando o limite é atingido
+     * @param maxSizePolicy USED_HEAP_SIZE, FREE_HEAP_PERCENTAGE ou uma das políticas por contagem
+     * @param size MB, porcentagem ou número de entradas, conforme a política
+     */
+    public record Settings(String mapName, EvictionPolicy evictionPolicy, MaxSizePolicy maxSizePolicy, int size) {
+
+        public static Settings usedHeap(String mapName, EvictionPolicy evictionPolicy, int maxHeapMb) {
+            return new Settings(mapName, evictionPolicy, MaxSizePolicy.USED_HEAP_SIZE, maxHeapMb);
+        }
+
+        public static Settings freeHeap(String mapName, EvictionPolicy evictionPolicy, int minFreePercentage) {
+            return new Settings(mapName, evictionPolicy, MaxSizePolicy.FREE_HEAP_PERCENTAGE, minFreePercentage);
+        }
+
+        /**
+         * Aplica as variáveis de ambiente &lt;MAPA&gt;_EVICTION, _MAX_SIZE_POLICY e _MAX_SIZE sobre estes valores
+         */
+        public Settings withEnvironmentOverrides() {
+            String prefix = mapName.toUpperCase(Locale.ROOT).replace('-', '_') + "_";
+            return new Settings(mapName,
+                EvictionPolicy.valueOf(getEnvVar(prefix + "EVICTION", evictionPolicy.name()).toUpperCase(Locale.ROOT)),
+                MaxSizePolicy.valueOf(getEnvVar(prefix + "MAX_SIZE_POLICY", maxSizePolicy.name()).toUpperCase(Locale.ROOT)),
+                Integer.parseInt(getEnvVar(prefix + "MAX_SIZE", String.valueOf(size))));
+        }
+
+        public EvictionConfig toEvictionConfig() {
+            return new EvictionConfig()
+                .setEvictionPolicy(evictionPolicy)
+                .setMaxSizePolicy(maxSizePolicy)
+                .setSize(size);
+        }
+    }
+
+    /**
+     * Aplica o limite ao mapa
+     */
+    public static MapConfig apply(MapConfig mapConfig, Settings settings) {
+        return mapConfig.setEvictionConfig(settings.toEvictionConfig());
+    }
+
+    /**
+     * Limite em bytes por membro quando a política é USED_HEAP_SIZE (-1 nas demais)
+     */
+    public static long maxHeapBytes(EvictionConfig evictionConfig) {
+        return evictionConfig.getMaxSizePolicy() == MaxSizePolicy.USED_HEAP_SIZE
+            ? evictionConfig.getSize() * 1024L * 1024L
+            : -1;
+    }
+
+    private static String getEnvVar(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
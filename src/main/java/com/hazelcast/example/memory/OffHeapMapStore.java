@@ -0,0 +1,210 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.EntryStore;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segundo nível fora do heap para um mapa usado como cache
+ *
+ * O mapa mantém no heap apenas as entradas mais acessadas (limite de eviction do mapa); toda gravação
+ * é copiada em write-through para um {@link OffHeapSlabStore} do membro, limitado por bytes de
+ * memória nativa, e as entradas removidas do heap pela eviction são recarregadas de lá no próximo
+ * get. O segundo nível é local ao membro: entradas que só existem fora do heap não acompanham a
+ * migração de partições, e um miss nele equivale a um miss do cache.
+ *
+ * Como {@link EntryStore}, recebe junto com o valor o instante de expiração da entrada (TTL da
+ * gravação) e o guarda na frente dos bytes: a cópia fora do heap vence no mesmo instante que a
+ * entrada do heap e, quando recarregada, volta ao mapa com o tempo de vida que ainda resta. O
+ * max-idle do mapa é aplicado à parte, renovado a cada leitura deste nível; um TTL maior ou igual
+ * ao max-idle não se distingue dele e fora do heap vale como max-idle.
+ *
+ * Os valores são gravados no formato binário do próprio membro, com o serializador interno
+ * (SerializationServiceSupport e HeapData, de com.hazelcast.internal e com.hazelcast.spi.impl):
+ * assim qualquer valor aceito pelo mapa, inclusive Compact e IdentifiedDataSerializable, é
+ * guardado sem configuração extra. São APIs sem garantia de compatibilidade entre versões do
+ * Hazelcast, a revisar em cada atualização.
+ */
+public class OffHeapMapStore implements EntryStore<Object, Object>, MapLoaderLifecycleSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapMapStore.class);
+
+    // Propriedades aceitas no MapStoreConfig
+    public static final String PROPERTY_CAPACITY_MB = "capacityMb";
+    public static final String PROPERTY_SLAB_SIZE_KB = "slabSizeKb";
+    public static final String PROPERTY_MAX_IDLE_SECONDS = "maxIdleSeconds";
+
+    public static final int DEFAULT_CAPACITY_MB = 512;
+
+    // Diferença aceita entre o último acesso registrado pelo mapa e a chamada de store
+    private static final long IDLE_TOLERANCE_MILLIS = 1000;
+
+    private OffHeapSlabStore store;
+    private SerializationService serializationService;
+    private long maxIdleMillis;
+    private String mapName;
+
+    /**
+     * Configura este MapStore no mapa; o limite do nível no heap é o EvictionConfig do mapa
+     * (ver {@link MemoryLimits})
+     *
+     * @param capacityMb Memória nativa do segundo nível por membro
+     */
+    public static MapConfig configure(MapConfig mapConfig, int capacityMb) {
+        MapStoreConfig mapStoreConfig = new MapStoreConfig()
+            .setEnabled(true)
+            .setClassName(OffHeapMapStore.class.getName())
+            .setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY)
+            .setWriteDelaySeconds(0);
+        mapStoreConfig.setProperty(PROPERTY_CAPACITY_MB, String.valueOf(capacityMb));
+        mapStoreConfig.setProperty(PROPERTY_MAX_IDLE_SECONDS, String.valueOf(mapConfig.getMaxIdleSeconds()));
+
+        return mapConfig
+            .setInMemoryFormat(InMemoryFormat.BINARY)
+            .setMapStoreConfig(mapStoreConfig);
+    }
+
+    @Override
+    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+        this.mapName = mapName;
+        long capacityMb = Long.parseLong(properties.getProperty(PROPERTY_CAPACITY_MB, String.valueOf(DEFAULT_CAPACITY_MB)));
+        int slabSize = Integer.parseInt(properties.getProperty(PROPERTY_SLAB_SIZE_KB,
+            String.valueOf(OffHeapSlabStore.DEFAULT_SLAB_SIZE / 1024))) * 1024;
+        maxIdleMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(properties.getProperty(PROPERTY_MAX_IDLE_SECONDS, "0")));
+
+        store = new OffHeapSlabStore(capacityMb * 1024 * 1024, slabSize);
+        serializationService = ((SerializationServiceSupport) hazelcastInstance).getSerializationService();
+
+        logger.info("Off-heap store initialized for map '{}' (capacity={} MB, slab={} KB, maxIdle={}s)",
+            mapName, capacityMb, slabSize / 1024, maxIdleMillis / 1000);
+    }
+
+    @Override
+    public void destroy() {
+        logStats();
+        store.clear();
+    }
+
+    @Override
+    public void store(Object key, MetadataAwareValue<Object> value) {
+        long now = System.currentTimeMillis();
+        long expirationTime = ttlExpirationTime(value.getExpirationTime(), now);
+        long ttlMillis = maxIdleMillis;
+        if (expirationTime != MetadataAwareValue.NO_TIME_SET) {
+            long remaining = expirationTime - now;
+            if (remaining <= 0) {
+                store.remove(key);
+                return;
+            }
+            ttlMillis = ttlMillis > 0 ? Math.min(ttlMillis, remaining) : remaining;
+        }
+
+        byte[] data = serializationService.toData(value.getValue()).toByteArray();
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES + data.length)
+            .putLong(expirationTime)
+            .put(data)
+            .array();
+        if (!store.put(key, bytes, ttlMillis)) {
+            logger.debug("Value of {} bytes for key {} not kept off-heap", data.length, key);
+        }
+    }
+
+    /**
+     * O instante recebido é o menor entre o fim do TTL e o fim do max-idle contado desde este
+     * acesso; quando coincide com o max-idle a entrada não tem TTL próprio e a validade fica só
+     * com a renovação por max-idle deste nível. Um TTL maior ou igual ao max-idle do mapa não é
+     * distinguível aqui e vale como max-idle
+     */
+    private long ttlExpirationTime(long expirationTime, long now) {
+        if (expirationTime == MetadataAwareValue.NO_TIME_SET || expirationTime == Long.MAX_VALUE) {
+            return MetadataAwareValue.NO_TIME_SET;
+        }
+        if (maxIdleMillis > 0 && expirationTime >= now + maxIdleMillis - IDLE_TOLERANCE_MILLIS) {
+            return MetadataAwareValue.NO_TIME_SET;
+        }
+        return expirationTime;
+    }
+
+    @Override
+    public void storeAll(Map<Object, MetadataAwareValue<Object>> map) {
+        map.forEach(this::store);
+    }
+
+    @Override
+    public void delete(Object key) {
+        store.remove(key);
+    }
+
+    @Override
+    public void deleteAll(Collection<Object> keys) {
+        keys.forEach(store::remove);
+    }
+
+    /**
+     * Valor com a expiração gravada; a renovação por max-idle nunca passa do instante de expiração
+     */
+    @Override
+    public MetadataAwareValue<Object> load(Object key) {
+        byte[] bytes = store.get(key, maxIdleMillis);
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long expirationTime = buffer.getLong();
+        if (expirationTime != MetadataAwareValue.NO_TIME_SET && expirationTime <= System.currentTimeMillis()) {
+            store.remove(key);
+            return null;
+        }
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        Object value = serializationService.toObject(new HeapData(data));
+        return new MetadataAwareValue<>(value, expirationTime);
+    }
+
+    @Override
+    public Map<Object, MetadataAwareValue<Object>> loadAll(Collection<Object> keys) {
+        Map<Object, MetadataAwareValue<Object>> result = new HashMap<>();
+        for (Object key : keys) {
+            MetadataAwareValue<Object> value = load(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sem carga inicial: o segundo nível começa vazio em cada membro
+     */
+    @Override
+    public Iterable<Object> loadAllKeys() {
+        return null;
+    }
+
+    public OffHeapSlabStore getStore() {
+        return store;
+    }
+
+    public void logStats() {
+        logger.info("Off-heap store '{}': entries={}, used={} bytes, reserved={}/{} bytes, hits={}, misses={}, " +
+                "evictions={}, expirations={}, rejected={}, slabMoves={}",
+            mapName, store.size(), store.getUsedBytes(), store.getReservedBytes(), store.getCapacityBytes(),
+            store.getHits(), store.getMisses(), store.getEvictions(), store.getExpirations(), store.getRejected(),
+            store.getSlabMoves());
+    }
+}
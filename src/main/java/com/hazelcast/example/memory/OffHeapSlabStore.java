@@ -0,0 +1,494 @@
+package com.hazelcast.example.memory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Armazenamento de valores binários fora do heap, em slabs de ByteBuffer direto
+ *
+ * Cada slab é dividido em slots de um único tamanho (classes em potências de 2, como no
+ * memcached); um valor ocupa o menor slot em que cabe. O limite é em bytes de memória nativa:
+ * quando não há slot livre na classe e não é possível alocar outro slab, a classe primeiro
+ * toma um slab sem entradas de outra classe; sem slab vazio, remove a sua entrada menos usada;
+ * e, se não tem entradas, toma de outra classe o slab da entrada menos usada entre todas
+ * (removendo as entradas dele). Assim os slabs acompanham a mudança dos tamanhos gravados em
+ * vez de ficarem presos às primeiras classes. Apenas as chaves e os índices ficam no heap.
+ *
+ * Cada classe tem seu próprio lock (slots livres, entradas e ordem de uso são dela), então
+ * valores de tamanhos diferentes não disputam o mesmo monitor; a reserva de slabs é o único
+ * ponto comum, e a troca de slabs entre classes trava uma classe de cada vez. Gravações e
+ * remoções de uma chave passam antes por um lock escolhido pelo hash da chave, que as mantém
+ * em ordem quando o valor muda de classe.
+ */
+public class OffHeapSlabStore {
+
+    public static final int MIN_SLOT_SIZE = 64;
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private static final int KEY_LOCKS = 64;
+
+    private final long capacityBytes;
+    private final int slabSize;
+    private final SizeClass[] sizeClasses;
+    // Slabs reservados; cada um pertence a uma única classe, lido apenas sob o lock dela
+    private final ByteBuffer[] slabs;
+    // Slots ocupados de cada slab e slabs que ficaram sem entradas, alterados sob o lock da classe dona
+    private final int[] liveSlots;
+    private final boolean[] emptySlab;
+    private int slabCount;
+    // Slabs devolvidos por uma classe e ainda não tomados por outra
+    private final ArrayDeque<Integer> releasedSlabs = new ArrayDeque<>();
+    private final Object slabLock = new Object();
+    // Slabs de alguma classe sem nenhuma entrada (indicação para evitar varrer as classes)
+    private final AtomicInteger emptySlabs = new AtomicInteger();
+    private final Object[] keyLocks = new Object[KEY_LOCKS];
+    // Classe onde cada chave está; alterada sempre sob o lock dessa classe
+    private final Map<Object, SizeClass> keyClasses = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    // Métricas
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong slabMoves = new AtomicLong();
+
+    // Endereço de um slot: índice do slab nos 32 bits altos, deslocamento nos baixos
+    private static final class Slot {
+        final long address;
+        final int length;
+        long expiresAt;
+        long accessedAt;
+
+        Slot(long address, int length, long expiresAt, long accessedAt) {
+            this.address = address;
+            this.length = length;
+            this.expiresAt = expiresAt;
+            this.accessedAt = accessedAt;
+        }
+    }
+
+    private static final class SizeClass {
+        final int slotSize;
+        // Lista de slots livres encadeada dentro dos próprios slots (sem objetos no heap)
+        long freeHead = -1;
+        // Slab em uso pela classe e próximo deslocamento ainda não usado
+        int currentSlab = -1;
+        int nextOffset;
+        // Slabs da classe
+        final List<Integer> ownedSlabs = new ArrayList<>();
+        // Ordem de acesso: a primeira entrada é a menos usada
+        final LinkedHashMap<Object, Slot> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        SizeClass(int slotSize) {
+            this.slotSize = slotSize;
+        }
+    }
+
+    /**
+     * @param capacityBytes Memória nativa máxima (soma dos slabs alocados)
+     * @param slabSize Tamanho de cada slab; também é o maior valor aceito
+     */
+    public OffHeapSlabStore(long capacityBytes, int slabSize) {
+        if (slabSize < MIN_SLOT_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("slabSize must be a power of two >= " + MIN_SLOT_SIZE);
+        }
+        if (capacityBytes < slabSize) {
+            throw new IllegalArgumentException("capacityBytes must hold at least one slab");
+        }
+        this.capacityBytes = capacityBytes;
+        this.slabSize = slabSize;
+        int maxSlabs = (int) Math.min(capacityBytes / slabSize, Integer.MAX_VALUE);
+        this.slabs = new ByteBuffer[maxSlabs];
+        this.liveSlots = new int[maxSlabs];
+        this.emptySlab = new boolean[maxSlabs];
+
+        int classes = Integer.numberOfTrailingZeros(slabSize) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE) + 1;
+        this.sizeClasses = new SizeClass[classes];
+        for (int i = 0; i < classes; i++) {
+            sizeClasses[i] = new SizeClass(MIN_SLOT_SIZE << i);
+        }
+        for (int i = 0; i < KEY_LOCKS; i++) {
+            keyLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Grava o valor, substituindo o anterior da chave
+     * @param ttlMillis Validade da entrada (0 = sem expiração)
+     * @return false se o valor é maior que um slab ou não há espaço na sua classe
+     */
+    public boolean put(Object key, byte[] value, long ttlMillis) {
+        synchronized (keyLock(key)) {
+            SizeClass previous = keyClasses.get(key);
+            if (value.length > slabSize) {
+                rejected.incrementAndGet();
+                if (previous != null) {
+                    release(key, previous);
+                }
+                return false;
+            }
+
+            SizeClass sizeClass = sizeClassFor(value.length);
+            long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+            boolean stored;
+            synchronized (sizeClass) {
+                // Na mesma classe o slot anterior é liberado antes, podendo ser reaproveitado
+                if (previous == sizeClass) {
+                    releaseLocked(key, sizeClass);
+                }
+                stored = tryStore(sizeClass, key, value, expiresAt);
+            }
+            // Sem espaço na classe: um slab vazio de outra classe, a entrada menos usada da
+            // própria classe ou, se ela não tem entradas, o slab menos usado de outra classe
+            if (!stored && takeEmptySlab(sizeClass)) {
+                synchronized (sizeClass) {
+                    stored = tryStore(sizeClass, key, value, expiresAt);
+                }
+            }
+            if (!stored) {
+                boolean hasEntries;
+                synchronized (sizeClass) {
+                    hasEntries = evictLeastRecentlyUsed(sizeClass);
+                    stored = hasEntries && tryStore(sizeClass, key, value, expiresAt);
+                }
+                if (!hasEntries && takeLeastRecentlyUsedSlab(sizeClass)) {
+                    synchronized (sizeClass) {
+                        stored = tryStore(sizeClass, key, value, expiresAt);
+                    }
+                }
+            }
+            // Em outra classe o valor anterior continua legível até o novo estar gravado
+            if (previous != null && previous != sizeClass) {
+                release(key, previous);
+            }
+            if (!stored) {
+                rejected.incrementAndGet();
+            }
+            return stored;
+        }
+    }
+
+    /**
+     * Lê uma cópia do valor
+     * @param touchTtlMillis Quando maior que 0, renova a validade da entrada (semântica de max-idle)
+     * @return Valor ou null se ausente ou expirado
+     */
+    public byte[] get(Object key, long touchTtlMillis) {
+        SizeClass sizeClass = keyClasses.get(key);
+        if (sizeClass == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        synchronized (sizeClass) {
+            Slot slot = sizeClass.entries.get(key);
+            if (slot == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            if (slot.expiresAt <= now) {
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                releaseLocked(key, sizeClass);
+                return null;
+            }
+            if (touchTtlMillis > 0) {
+                slot.expiresAt = now + touchTtlMillis;
+            }
+            slot.accessedAt = System.nanoTime();
+
+            byte[] value = new byte[slot.length];
+            slab(slot.address).get(offset(slot.address), value);
+            hits.incrementAndGet();
+            return value;
+        }
+    }
+
+    public boolean remove(Object key) {
+        synchronized (keyLock(key)) {
+            SizeClass sizeClass = keyClasses.get(key);
+            return sizeClass != null && release(key, sizeClass);
+        }
+    }
+
+    public void clear() {
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                for (Map.Entry<Object, Slot> entry : sizeClass.entries.entrySet()) {
+                    freeSlot(sizeClass, entry.getValue().address);
+                    keyClasses.remove(entry.getKey(), sizeClass);
+                    usedBytes.addAndGet(-sizeClass.slotSize);
+                }
+                sizeClass.entries.clear();
+            }
+        }
+    }
+
+    private Object keyLock(Object key) {
+        int hash = key.hashCode();
+        return keyLocks[(hash ^ (hash >>> 16)) & (KEY_LOCKS - 1)];
+    }
+
+    private SizeClass sizeClassFor(int length) {
+        int slotSize = Math.max(MIN_SLOT_SIZE, Integer.highestOneBit(Math.max(1, length - 1)) << 1);
+        return sizeClasses[Integer.numberOfTrailingZeros(slotSize) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE)];
+    }
+
+    /**
+     * Grava em um slot da classe (chamado com o lock dela)
+     * @return false se a classe não tem slot livre nem há slab a reservar
+     */
+    private boolean tryStore(SizeClass sizeClass, Object key, byte[] value, long expiresAt) {
+        long address = allocate(sizeClass);
+        if (address < 0) {
+            return false;
+        }
+        slab(address).put(offset(address), value);
+        sizeClass.entries.put(key, new Slot(address, value.length, expiresAt, System.nanoTime()));
+        keyClasses.put(key, sizeClass);
+        usedBytes.addAndGet(sizeClass.slotSize);
+        return true;
+    }
+
+    /**
+     * Slot livre da classe (chamado com o lock dela): reaproveitado, do slab em uso ou de um slab novo
+     * @return Endereço do slot ou -1 se a classe está cheia e não há slab a reservar
+     */
+    private long allocate(SizeClass sizeClass) {
+        long address;
+        if (sizeClass.freeHead >= 0) {
+            address = sizeClass.freeHead;
+            sizeClass.freeHead = slab(address).getLong(offset(address));
+        } else if (sizeClass.currentSlab >= 0 && sizeClass.nextOffset + sizeClass.slotSize <= slabSize) {
+            address = address(sizeClass.currentSlab, sizeClass.nextOffset);
+            sizeClass.nextOffset += sizeClass.slotSize;
+        } else {
+            int slab = reserveSlab();
+            if (slab < 0) {
+                return -1;
+            }
+            sizeClass.ownedSlabs.add(slab);
+            sizeClass.currentSlab = slab;
+            sizeClass.nextOffset = sizeClass.slotSize;
+            address = address(slab, 0);
+        }
+
+        int slab = (int) (address >>> 32);
+        liveSlots[slab]++;
+        if (emptySlab[slab]) {
+            emptySlab[slab] = false;
+            emptySlabs.decrementAndGet();
+        }
+        return address;
+    }
+
+    /**
+     * @return Índice de um slab devolvido por outra classe ou de um novo, ou -1 se a capacidade
+     *         já está reservada
+     */
+    private int reserveSlab() {
+        synchronized (slabLock) {
+            Integer released = releasedSlabs.poll();
+            if (released != null) {
+                return released;
+            }
+            if (slabCount == slabs.length) {
+                return -1;
+            }
+            slabs[slabCount] = ByteBuffer.allocateDirect(slabSize);
+            return slabCount++;
+        }
+    }
+
+    private boolean evictLeastRecentlyUsed(SizeClass sizeClass) {
+        Iterator<Map.Entry<Object, Slot>> leastRecentlyUsed = sizeClass.entries.entrySet().iterator();
+        if (!leastRecentlyUsed.hasNext()) {
+            return false;
+        }
+        Map.Entry<Object, Slot> victim = leastRecentlyUsed.next();
+        countRemoval(victim.getValue());
+        releaseLocked(victim.getKey(), sizeClass);
+        return true;
+    }
+
+    /**
+     * Devolve ao conjunto comum um slab sem entradas de outra classe
+     */
+    private boolean takeEmptySlab(SizeClass requester) {
+        if (emptySlabs.get() <= 0) {
+            return false;
+        }
+        for (SizeClass owner : sizeClasses) {
+            if (owner == requester) {
+                continue;
+            }
+            synchronized (owner) {
+                for (int slab : owner.ownedSlabs) {
+                    if (emptySlab[slab]) {
+                        emptySlab[slab] = false;
+                        emptySlabs.decrementAndGet();
+                        detach(owner, slab);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devolve ao conjunto comum o slab da entrada menos usada das outras classes, removendo as
+     * entradas que estão nele
+     */
+    private boolean takeLeastRecentlyUsedSlab(SizeClass requester) {
+        SizeClass oldest = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (SizeClass owner : sizeClasses) {
+            if (owner == requester) {
+                continue;
+            }
+            synchronized (owner) {
+                Iterator<Slot> slots = owner.entries.values().iterator();
+                if (slots.hasNext()) {
+                    long accessedAt = slots.next().accessedAt;
+                    if (oldest == null || accessedAt - oldestAccess < 0) {
+                        oldest = owner;
+                        oldestAccess = accessedAt;
+                    }
+                }
+            }
+        }
+        if (oldest == null) {
+            return false;
+        }
+
+        synchronized (oldest) {
+            Iterator<Slot> slots = oldest.entries.values().iterator();
+            if (!slots.hasNext()) {
+                return false;
+            }
+            int slab = (int) (slots.next().address >>> 32);
+            Iterator<Map.Entry<Object, Slot>> entries = oldest.entries.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Object, Slot> entry = entries.next();
+                if ((int) (entry.getValue().address >>> 32) == slab) {
+                    countRemoval(entry.getValue());
+                    entries.remove();
+                    keyClasses.remove(entry.getKey(), oldest);
+                    usedBytes.addAndGet(-oldest.slotSize);
+                }
+            }
+            liveSlots[slab] = 0;
+            detach(oldest, slab);
+        }
+        return true;
+    }
+
+    /**
+     * Retira o slab da classe (chamado com o lock dela, sem entradas no slab) e o deixa para outra
+     */
+    private void detach(SizeClass owner, int slab) {
+        // Os slots livres deste slab saem da lista da classe
+        long previous = -1;
+        long address = owner.freeHead;
+        while (address >= 0) {
+            long next = slab(address).getLong(offset(address));
+            if ((int) (address >>> 32) == slab) {
+                if (previous < 0) {
+                    owner.freeHead = next;
+                } else {
+                    slab(previous).putLong(offset(previous), next);
+                }
+            } else {
+                previous = address;
+            }
+            address = next;
+        }
+        owner.ownedSlabs.remove(Integer.valueOf(slab));
+        if (owner.currentSlab == slab) {
+            owner.currentSlab = -1;
+        }
+        slabMoves.incrementAndGet();
+        synchronized (slabLock) {
+            releasedSlabs.push(slab);
+        }
+    }
+
+    private void countRemoval(Slot slot) {
+        if (slot.expiresAt <= System.currentTimeMillis()) {
+            expirations.incrementAndGet();
+        } else {
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean release(Object key, SizeClass sizeClass) {
+        synchronized (sizeClass) {
+            return releaseLocked(key, sizeClass);
+        }
+    }
+
+    private boolean releaseLocked(Object key, SizeClass sizeClass) {
+        Slot slot = sizeClass.entries.remove(key);
+        // A chave pode já estar em outra classe (substituição em andamento)
+        keyClasses.remove(key, sizeClass);
+        if (slot == null) {
+            return false;
+        }
+        freeSlot(sizeClass, slot.address);
+        usedBytes.addAndGet(-sizeClass.slotSize);
+        return true;
+    }
+
+    private void freeSlot(SizeClass sizeClass, long address) {
+        slab(address).putLong(offset(address), sizeClass.freeHead);
+        sizeClass.freeHead = address;
+        int slab = (int) (address >>> 32);
+        if (--liveSlots[slab] == 0) {
+            emptySlab[slab] = true;
+            emptySlabs.incrementAndGet();
+        }
+    }
+
+    private static long address(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    public int size() { return keyClasses.size(); }
+    /** Bytes dos slots ocupados */
+    public long getUsedBytes() { return usedBytes.get(); }
+    /** Bytes de memória nativa já reservados pelos slabs */
+    public long getReservedBytes() {
+        synchronized (slabLock) {
+            return (long) slabCount * slabSize;
+        }
+    }
+    public long getCapacityBytes() { return capacityBytes; }
+
+    // Métricas
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getExpirations() { return expirations.get(); }
+    public long getRejected() { return rejected.get(); }
+    /** Slabs passados de uma classe para outra */
+    public long getSlabMoves() { return slabMoves.get(); }
+}
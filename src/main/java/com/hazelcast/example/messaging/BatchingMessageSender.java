@@ -0,0 +1,230 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.hazelcast.example.concurrent.BatchLoop;
+import com.hazelcast.example.metrics.AppMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envio assíncrono e em lote para o Service Bus
+ *
+ * As mensagens são enfileiradas e uma thread dedicada as envia em lotes, disparados pelo
+ * número máximo de mensagens ou pelo tempo de espera (linger). O número de mensagens
+ * pendentes é limitado; quando o limite é atingido o chamador espera até o timeout.
+ * Cada envio ao transporte é medido em servicebus.send (por resultado) e o número de mensagens
+ * do envio em servicebus.send.batch.size. O future de cada mensagem reflete o lote do broker
+ * em que ela foi: um envio dividido em vários lotes pode ter parte das mensagens aceita.
+ * Depois de close() nenhuma mensagem fica sem resposta: ou é enviada pela thread de envio ou
+ * seu future falha com RejectedExecutionException. O transporte só é fechado quando a thread
+ * de envio termina, mesmo que close() desista de esperar por ela.
+ */
+public class BatchingMessageSender implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingMessageSender.class);
+
+    private final MessageTransport transport;
+    private final int maxBatchMessages;
+    private final long lingerMillis;
+    private final long enqueueTimeoutMillis;
+    private final int maxInFlight;
+    private final Semaphore inFlightPermits;
+    private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>();
+    private final Thread senderThread;
+    // Fechado por quem terminar por último: a thread de envio ou close()
+    private final AtomicInteger transportUsers = new AtomicInteger(2);
+    private volatile boolean running = true;
+
+    // Métricas
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private final AtomicLong rejectedMessages = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong brokerBatches = new AtomicLong();
+    private final AtomicLong totalSendNanos = new AtomicLong();
+    private final Timer sendTimer = AppMetrics.timer("servicebus.send",
+        "Time to hand a batch to the Service Bus transport", "outcome", "success");
+    private final Timer sendFailureTimer = AppMetrics.timer("servicebus.send",
+        "Time to hand a batch to the Service Bus transport", "outcome", "failure");
+    private final DistributionSummary batchSize = AppMetrics.summary("servicebus.send.batch.size",
+        "Messages per send to the Service Bus transport", "messages");
+
+    private record PendingMessage(ServiceBusMessage message, CompletableFuture<Void> future) {}
+
+    /**
+     * @param transport Transporte usado para enviar os lotes
+     * @param maxBatchMessages Número máximo de mensagens por envio
+     * @param lingerMillis Tempo máximo que uma mensagem espera por outras antes do envio
+     * @param maxInFlight Número máximo de mensagens enfileiradas ou em envio
+     * @param enqueueTimeoutMillis Tempo máximo de espera por espaço antes de rejeitar a mensagem
+     */
+    public BatchingMessageSender(MessageTransport transport, int maxBatchMessages, long lingerMillis,
+                                 int maxInFlight, long enqueueTimeoutMillis) {
+        if (maxBatchMessages <= 0 || lingerMillis <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxBatchMessages, lingerMillis and maxInFlight must be positive");
+        }
+        this.transport = transport;
+        this.maxBatchMessages = maxBatchMessages;
+        this.lingerMillis = lingerMillis;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.maxInFlight = maxInFlight;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+
+        this.senderThread = new Thread(this::sendLoop, "service-bus-batch-sender");
+        this.senderThread.setDaemon(true);
+        this.senderThread.start();
+
+        logger.info("Service Bus batch sender started (maxBatchMessages={}, linger={}ms, maxInFlight={})",
+            maxBatchMessages, lingerMillis, maxInFlight);
+    }
+
+    /**
+     * Enfileira uma mensagem para envio
+     * @return Future concluído quando o lote contendo a mensagem for aceito pelo broker
+     */
+    public CompletableFuture<Void> send(ServiceBusMessage message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        boolean acquired = false;
+        if (running) {
+            try {
+                acquired = inFlightPermits.tryAcquire(enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!acquired) {
+            rejectedMessages.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                running ? "Too many in-flight Service Bus messages" : "Sender is closed"));
+            return future;
+        }
+
+        future.whenComplete((result, error) -> inFlightPermits.release());
+        PendingMessage pending = new PendingMessage(message, future);
+        queue.add(pending);
+
+        // close() pode ter ocorrido durante a espera: se a thread de envio não pegou a mensagem, ela não será enviada
+        if (!running && queue.remove(pending)) {
+            rejectedMessages.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException("Sender is closed"));
+        }
+        return future;
+    }
+
+    private void sendLoop() {
+        BatchLoop.run("Service Bus batch sender", queue, maxBatchMessages, lingerMillis, () -> running,
+            () -> running = false, batch -> {
+                flush(batch);
+                return true;
+            });
+        releaseTransport();
+    }
+
+    private void releaseTransport() {
+        if (transportUsers.decrementAndGet() == 0) {
+            transport.close();
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        List<ServiceBusMessage> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            messages.add(pending.message());
+        }
+
+        batchSize.record(batch.size());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            SendResult result = transport.send(messages);
+            success = result.allSent();
+            brokerBatches.addAndGet(result.batches());
+            // Só falham as mensagens dos lotes recusados; as aceitas pelo broker não devem ser reenviadas
+            for (int i = 0; i < batch.size(); i++) {
+                Exception error = result.error(i);
+                if (error == null) {
+                    batch.get(i).future().complete(null);
+                } else {
+                    batch.get(i).future().completeExceptionally(error);
+                }
+            }
+            int failed = result.failedCount();
+            sentMessages.addAndGet(batch.size() - failed);
+            failedMessages.addAndGet(failed);
+            if (failed > 0) {
+                logger.error("Failed to send {} of {} messages to Service Bus", failed, batch.size(),
+                    result.errors().stream().filter(error -> error != null).findFirst().orElseThrow());
+            } else {
+                logger.debug("Sent {} messages to Service Bus in {} batches", batch.size(), result.batches());
+            }
+
+        } catch (Exception e) {
+            failedMessages.addAndGet(batch.size());
+            logger.error("Failed to send {} messages to Service Bus", batch.size(), e);
+            for (PendingMessage pending : batch) {
+                pending.future().completeExceptionally(e);
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            totalSendNanos.addAndGet(elapsed);
+            (success ? sendTimer : sendFailureTimer).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Para de aceitar mensagens, envia as pendentes e fecha o transporte (aguarda até 30 s)
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            senderThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (senderThread.isAlive()) {
+            // O lote em andamento ainda usa o transporte; a thread de envio o fecha ao terminar
+            logger.warn("Service Bus sender thread still running after close; transport will close when it finishes");
+        }
+        releaseTransport();
+
+        logger.info("Service Bus batch sender stopped: sent={}, failed={}, rejected={}, flushes={}, " +
+                "brokerBatches={}, avgMessagesPerFlush={}, avgSendMs={}",
+            sentMessages.get(), failedMessages.get(), rejectedMessages.get(), flushes.get(), brokerBatches.get(),
+            String.format("%.1f", getAverageMessagesPerFlush()), String.format("%.2f", getAverageSendLatencyMillis()));
+    }
+
+    // Métricas
+    public int getInFlightCount() { return maxInFlight - inFlightPermits.availablePermits(); }
+    public int getQueueDepth() { return queue.size(); }
+    public long getSentMessages() { return sentMessages.get(); }
+    public long getFailedMessages() { return failedMessages.get(); }
+    public long getRejectedMessages() { return rejectedMessages.get(); }
+    public long getFlushCount() { return flushes.get(); }
+    public long getBrokerBatches() { return brokerBatches.get(); }
+
+    public double getAverageMessagesPerFlush() {
+        long count = flushes.get();
+        return count == 0 ? 0 : (double) (sentMessages.get() + failedMessages.get()) / count;
+    }
+
+    public double getAverageSendLatencyMillis() {
+        long count = flushes.get();
+        return count == 0 ? 0 : totalSendNanos.get() / 1_000_000.0 / count;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.azure.messaging.servicebus.ServiceBusReceivedMessage;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Identificação de uma alteração de mapa ao longo da propagação
+ *
+ * Nas mensagens do Service Bus o correlation ID vai na propriedade CorrelationId do broker e o
+ * instante de origem (epoch ms) e o mapa nas propriedades de aplicação originTime e mapName.
+ *
+ * @param correlationId Identificador da alteração, o mesmo em user_events e nas mensagens
+ * @param originTime Instante da alteração na origem, em epoch ms (0 quando desconhecido)
+ * @param mapName Mapa de origem
+ */
+public record ChangeTrace(String correlationId, long originTime, String mapName) {
+
+    public static final String PROPERTY_ORIGIN_TIME = "originTime";
+    public static final String PROPERTY_MAP_NAME = "mapName";
+
+    /**
+     * Nova alteração observada agora
+     */
+    public static ChangeTrace start(String mapName) {
+        return new ChangeTrace(UUID.randomUUID().toString(), System.currentTimeMillis(), mapName);
+    }
+
+    public void applyTo(ServiceBusMessage message) {
+        message.setCorrelationId(correlationId);
+        message.getApplicationProperties().put(PROPERTY_ORIGIN_TIME, originTime);
+        message.getApplicationProperties().put(PROPERTY_MAP_NAME, mapName);
+    }
+
+    /**
+     * Rastreamento de uma mensagem recebida, ou null se ela não foi gerada por uma alteração
+     */
+    public static ChangeTrace from(ServiceBusReceivedMessage message) {
+        return from(message.getCorrelationId(), message.getApplicationProperties());
+    }
+
+    static ChangeTrace from(String correlationId, Map<String, Object> properties) {
+        Object originTime = properties.get(PROPERTY_ORIGIN_TIME);
+        if (!(originTime instanceof Number)) {
+            return null;
+        }
+        Object mapName = properties.get(PROPERTY_MAP_NAME);
+        return new ChangeTrace(correlationId, ((Number) originTime).longValue(),
+            mapName != null ? mapName.toString() : null);
+    }
+}
@@ -0,0 +1,366 @@
+package com.hazelcast.example.messaging;
+
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.example.metrics.PropagationLag;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumidor concorrente com prefetch e liquidação em lote
+ *
+ * Uma thread de leitura busca mensagens antecipadamente (até o limite de prefetch) enquanto
+ * as anteriores são processadas em N faixas de execução. Mensagens com a mesma chave de
+ * ordenação caem sempre na mesma faixa e são processadas em ordem; as demais são
+ * distribuídas em rodízio. A liquidação (complete/abandon) é feita em lote por outra thread.
+ *
+ * Uma falha do handler é repetida na própria faixa, com espera crescente, antes de a mensagem
+ * ser abandonada. Se ainda assim falhar, as mensagens seguintes da mesma chave que já estão na
+ * faixa também são abandonadas sem processar, para que o broker as reentregue depois da que
+ * falhou; a chave volta a ser processada quando a faixa não tem mais mensagens dela.
+ * Publica o tamanho de cada leitura (servicebus.receive.batch.size), o tempo de processamento
+ * por resultado (servicebus.process) e o atraso entre o enfileiramento no broker e o início do
+ * processamento (servicebus.receive.lag). Mensagens geradas por alterações de mapa
+ * ({@link MessageSource#trace}) registram também o atraso desde a alteração ao serem recebidas
+ * e depois de processadas (propagation.lag).
+ */
+public class ConcurrentMessageConsumer<M> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentMessageConsumer.class);
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofMillis(100);
+
+    private final MessageSource<M> source;
+    private final MessageHandler<M> handler;
+    private final int concurrency;
+    private final int prefetch;
+    private final Duration receiveTimeout;
+    private final int settleBatchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    private final ExecutorService[] lanes;
+    private final Semaphore prefetchPermits;
+    private final BlockingQueue<Settlement<M>> settlements = new LinkedBlockingQueue<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    // Mensagens de cada chave ainda nas faixas e chaves cuja última mensagem falhou
+    private final Map<String, Integer> pendingByKey = new ConcurrentHashMap<>();
+    private final Set<String> failedKeys = ConcurrentHashMap.newKeySet();
+    private final Thread receiverThread;
+    private final Thread settlerThread;
+    private volatile boolean running = true;
+    private volatile boolean settling = true;
+
+    // Métricas
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong settleCalls = new AtomicLong();
+    private final AtomicLong totalProcessingNanos = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final DistributionSummary receiveBatchSize = AppMetrics.summary("servicebus.receive.batch.size",
+        "Messages returned by each receive call", "messages");
+    private final Timer processTimer = AppMetrics.timer("servicebus.process",
+        "Message handler time", "outcome", "success");
+    private final Timer processFailureTimer = AppMetrics.timer("servicebus.process",
+        "Message handler time", "outcome", "failure");
+    private final Timer lagTimer = AppMetrics.timer("servicebus.receive.lag",
+        "Time from broker enqueue to the start of processing");
+
+    private record Settlement<M>(M message, boolean success) {}
+
+    /**
+     * @param source Origem das mensagens
+     * @param handler Processamento de cada mensagem
+     * @param concurrency Número de faixas de processamento paralelo
+     * @param prefetch Número máximo de mensagens recebidas e ainda não liquidadas
+     * @param receiveTimeout Tempo máximo de espera de cada leitura
+     * @param settleBatchSize Número máximo de mensagens liquidadas por vez
+     */
+    public ConcurrentMessageConsumer(MessageSource<M> source, MessageHandler<M> handler, int concurrency,
+                                     int prefetch, Duration receiveTimeout, int settleBatchSize) {
+        this(source, handler, concurrency, prefetch, receiveTimeout, settleBatchSize,
+            DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_BACKOFF);
+    }
+
+    /**
+     * @param source Origem das mensagens
+     * @param handler Processamento de cada mensagem
+     * @param concurrency Número de faixas de processamento paralelo
+     * @param prefetch Número máximo de mensagens recebidas e ainda não liquidadas
+     * @param receiveTimeout Tempo máximo de espera de cada leitura
+     * @param settleBatchSize Número máximo de mensagens liquidadas por vez
+     * @param maxAttempts Tentativas do handler por mensagem antes de abandoná-la
+     * @param retryBackoff Espera antes da segunda tentativa (dobra a cada nova falha)
+     */
+    public ConcurrentMessageConsumer(MessageSource<M> source, MessageHandler<M> handler, int concurrency,
+                                     int prefetch, Duration receiveTimeout, int settleBatchSize,
+                                     int maxAttempts, Duration retryBackoff) {
+        if (concurrency <= 0 || prefetch <= 0 || settleBatchSize <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException(
+                "concurrency, prefetch, settleBatchSize and maxAttempts must be positive");
+        }
+        this.source = source;
+        this.handler = handler;
+        this.concurrency = concurrency;
+        this.prefetch = prefetch;
+        this.receiveTimeout = receiveTimeout;
+        this.settleBatchSize = settleBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.prefetchPermits = new Semaphore(prefetch);
+
+        // Uma thread por faixa garante a ordem das mensagens de mesma chave
+        this.lanes = new ExecutorService[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            int lane = i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "service-bus-consumer-" + lane);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        this.receiverThread = new Thread(this::receiveLoop, "service-bus-receiver");
+        this.receiverThread.setDaemon(true);
+        this.settlerThread = new Thread(this::settleLoop, "service-bus-settler");
+        this.settlerThread.setDaemon(true);
+    }
+
+    public ConcurrentMessageConsumer<M> start() {
+        settlerThread.start();
+        receiverThread.start();
+        logger.info("Message consumer started (concurrency={}, prefetch={}, settleBatchSize={})",
+            concurrency, prefetch, settleBatchSize);
+        return this;
+    }
+
+    private void receiveLoop() {
+        while (running) {
+            int permits = 0;
+            try {
+                // Só busca o que cabe no limite de prefetch
+                prefetchPermits.acquire();
+                permits = 1 + prefetchPermits.drainPermits();
+
+                List<M> messages = source.receive(permits, receiveTimeout);
+                receiveBatchSize.record(messages.size());
+                prefetchPermits.release(permits - messages.size());
+                permits = 0;
+
+                for (M message : messages) {
+                    received.incrementAndGet();
+                    dispatch(message);
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                prefetchPermits.release(permits);
+                logger.error("Error receiving messages", e);
+            }
+        }
+    }
+
+    private void dispatch(M message) {
+        String key = source.orderingKey(message);
+        int lane = key != null
+            ? Math.floorMod(key.hashCode(), concurrency)
+            : Math.floorMod(roundRobin.getAndIncrement(), concurrency);
+
+        if (key != null) {
+            pendingByKey.merge(key, 1, Integer::sum);
+        }
+        lanes[lane].execute(() -> {
+            try {
+                process(message, key);
+            } finally {
+                if (key != null) {
+                    release(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Desconta a mensagem da chave; sem mais mensagens na faixa, a chave volta a ser processada
+     */
+    private void release(String key) {
+        pendingByKey.compute(key, (k, pending) -> {
+            if (pending == null || pending <= 1) {
+                failedKeys.remove(k);
+                return null;
+            }
+            return pending - 1;
+        });
+    }
+
+    private void process(M message, String key) {
+        if (key != null && failedKeys.contains(key)) {
+            // Uma mensagem anterior da chave foi abandonada: esta só pode ser aplicada depois dela
+            deferred.incrementAndGet();
+            settlements.add(new Settlement<>(message, false));
+            return;
+        }
+
+        ChangeTrace trace = source.trace(message);
+        if (trace != null) {
+            PropagationLag.record(PropagationLag.STAGE_SERVICE_BUS_RECEIVED, trace.mapName(), trace.originTime());
+        }
+        
+        Instant enqueuedTime = source.enqueuedTime(message);
+        if (enqueuedTime != null) {
+            long lag = Math.max(0, System.currentTimeMillis() - enqueuedTime.toEpochMilli());
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+            lagTimer.record(lag, TimeUnit.MILLISECONDS);
+        }
+
+        boolean success = false;
+        for (int attempt = 1; !success && attempt <= maxAttempts; attempt++) {
+            if (attempt > 1 && !awaitRetry(attempt)) {
+                break;
+            }
+            success = handle(message, attempt);
+        }
+
+        if (success) {
+            processed.incrementAndGet();
+            if (trace != null) {
+                PropagationLag.record(PropagationLag.STAGE_SERVICE_BUS_PROCESSED, trace.mapName(), trace.originTime());
+            }
+        } else {
+            failed.incrementAndGet();
+            if (key != null) {
+                failedKeys.add(key);
+            }
+        }
+        settlements.add(new Settlement<>(message, success));
+    }
+
+    private boolean handle(M message, int attempt) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            handler.handle(message);
+            success = true;
+        } catch (Exception e) {
+            if (attempt < maxAttempts) {
+                logger.warn("Error processing message (attempt {}/{}), retrying: {}", attempt, maxAttempts,
+                    e.getMessage());
+            } else {
+                logger.error("Error processing message after {} attempts", maxAttempts, e);
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            totalProcessingNanos.addAndGet(elapsed);
+            (success ? processTimer : processFailureTimer).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        return success;
+    }
+
+    private boolean awaitRetry(int attempt) {
+        retried.incrementAndGet();
+        try {
+            Thread.sleep(retryBackoff.toMillis() << Math.min(attempt - 2, 10));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void settleLoop() {
+        List<Settlement<M>> batch = new ArrayList<>(settleBatchSize);
+
+        while (settling || !settlements.isEmpty()) {
+            try {
+                Settlement<M> first = settlements.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                settlements.drainTo(batch, settleBatchSize - 1);
+
+                List<M> completed = new ArrayList<>(batch.size());
+                List<M> abandoned = new ArrayList<>();
+                for (Settlement<M> settlement : batch) {
+                    (settlement.success() ? completed : abandoned).add(settlement.message());
+                }
+                source.settle(completed, abandoned);
+                settleCalls.incrementAndGet();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                settling = false;
+            } catch (Exception e) {
+                logger.error("Error settling messages", e);
+            } finally {
+                prefetchPermits.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Para de receber, aguarda o processamento das mensagens já recebidas e liquida todas
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            receiverThread.join(receiveTimeout.toMillis() + TimeUnit.SECONDS.toMillis(5));
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(30, TimeUnit.SECONDS);
+            }
+            settling = false;
+            settlerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logger.info("Message consumer stopped: received={}, processed={}, failed={}, retried={}, deferred={}, " +
+                "settleCalls={}, avgProcessingMs={}, maxLagMs={}",
+            received.get(), processed.get(), failed.get(), retried.get(), deferred.get(), settleCalls.get(),
+            String.format("%.2f", getAverageProcessingMillis()), maxLagMillis.get());
+    }
+
+    // Métricas
+    public long getReceivedCount() { return received.get(); }
+    public long getProcessedCount() { return processed.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public long getRetriedCount() { return retried.get(); }
+    public long getDeferredCount() { return deferred.get(); }
+    public long getSettleCalls() { return settleCalls.get(); }
+    public int getInFlightCount() { return prefetch - prefetchPermits.availablePermits(); }
+    public long getLastLagMillis() { return lastLagMillis.get(); }
+    public long getMaxLagMillis() { return maxLagMillis.get(); }
+
+    public double getAverageProcessingMillis() {
+        long count = processed.get() + failed.get();
+        return count == 0 ? 0 : totalProcessingNanos.get() / 1_000_000.0 / count;
+    }
+}
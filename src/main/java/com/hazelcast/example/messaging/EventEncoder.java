@@ -0,0 +1,133 @@
+package com.hazelcast.example.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hazelcast.example.messaging.ServiceBusManager.EventMessage;
+import com.hazelcast.example.metrics.AppMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialização dos eventos enviados ao Service Bus
+ *
+ * Mantém um ObjectWriter pré-configurado por tipo de payload e escreve direto para bytes
+ * (os buffers internos do Jackson são reaproveitados por thread), sem passar por String.
+ * A codificação é JSON ou Smile (JSON binário compacto), identificada pelo content type.
+ * O tempo de serialização e o tamanho dos payloads são publicados em servicebus.encode e
+ * servicebus.encode.payload.size, por codificação.
+ */
+public class EventEncoder {
+
+    /**
+     * Codificações suportadas e seus content types
+     */
+    public enum Encoding {
+        JSON("application/json"),
+        SMILE("application/x-jackson-smile");
+
+        private final String contentType;
+
+        Encoding(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() { return contentType; }
+
+        public static Encoding forContentType(String contentType) {
+            for (Encoding encoding : values()) {
+                if (encoding.contentType.equalsIgnoreCase(contentType)) {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+    }
+
+    private static final ObjectMapper JSON_MAPPER = configure(new ObjectMapper());
+    private static final ObjectMapper SMILE_MAPPER = configure(new SmileMapper());
+
+    private final Encoding encoding;
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    // Métricas
+    private final AtomicLong encodedMessages = new AtomicLong();
+    private final AtomicLong encodedBytes = new AtomicLong();
+    private final AtomicLong encodeNanos = new AtomicLong();
+    private final Timer encodeTimer;
+    private final DistributionSummary payloadSize;
+
+    public EventEncoder(Encoding encoding) {
+        this.encoding = encoding;
+        this.mapper = mapperFor(encoding);
+        String tag = encoding.name().toLowerCase();
+        this.encodeTimer = AppMetrics.timer("servicebus.encode", "Time to serialize an event payload",
+            "encoding", tag);
+        this.payloadSize = AppMetrics.summary("servicebus.encode.payload.size", "Serialized event payload size",
+            "bytes", "encoding", tag);
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        return mapper;
+    }
+
+    private static ObjectMapper mapperFor(Encoding encoding) {
+        return encoding == Encoding.SMILE ? SMILE_MAPPER : JSON_MAPPER;
+    }
+
+    /**
+     * Serializa o evento usando o writer em cache para o tipo do payload
+     */
+    public byte[] encode(EventMessage<?> event) throws JsonProcessingException {
+        long start = System.nanoTime();
+
+        Class<?> dataType = event.getData() != null ? event.getData().getClass() : Object.class;
+        ObjectWriter writer = writers.computeIfAbsent(dataType, type ->
+            mapper.writerFor(mapper.getTypeFactory().constructParametricType(EventMessage.class, type)));
+        byte[] payload = writer.writeValueAsBytes(event);
+
+        long elapsed = System.nanoTime() - start;
+        encodeNanos.addAndGet(elapsed);
+        encodedMessages.incrementAndGet();
+        encodedBytes.addAndGet(payload.length);
+        encodeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        payloadSize.record(payload.length);
+        return payload;
+    }
+
+    /**
+     * Lê um payload recebido de acordo com o content type da mensagem
+     */
+    public static JsonNode decode(byte[] payload, String contentType) throws IOException {
+        Encoding encoding = contentType == null ? Encoding.JSON : Encoding.forContentType(contentType);
+        return mapperFor(encoding).readTree(payload);
+    }
+
+    public Encoding getEncoding() { return encoding; }
+    public String getContentType() { return encoding.getContentType(); }
+
+    // Métricas
+    public long getEncodedMessages() { return encodedMessages.get(); }
+    public long getEncodedBytes() { return encodedBytes.get(); }
+
+    public double getAveragePayloadBytes() {
+        long count = encodedMessages.get();
+        return count == 0 ? 0 : (double) encodedBytes.get() / count;
+    }
+
+    public double getAverageEncodeMicros() {
+        long count = encodedMessages.get();
+        return count == 0 ? 0 : encodeNanos.get() / 1000.0 / count;
+    }
+}
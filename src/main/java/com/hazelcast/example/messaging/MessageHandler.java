@@ -0,0 +1,10 @@
+package com.hazelcast.example.messaging;
+
+/**
+ * Processa uma mensagem recebida; uma exceção faz a mensagem ser abandonada para reentrega
+ */
+@FunctionalInterface
+public interface MessageHandler<M> {
+    
+    void handle(M message) throws Exception;
+}
@@ -0,0 +1,42 @@
+package com.hazelcast.example.messaging;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Origem de mensagens para o consumidor concorrente
+ *
+ * Abstração sobre o ServiceBusReceiverClient para permitir testes com um broker falso em memória.
+ */
+public interface MessageSource<M> {
+    
+    /**
+     * Recebe até maxMessages mensagens, aguardando no máximo timeout
+     */
+    List<M> receive(int maxMessages, Duration timeout);
+    
+    /**
+     * Liquida um grupo de mensagens: completa as processadas e abandona as que falharam
+     */
+    void settle(List<M> completed, List<M> abandoned);
+    
+    /**
+     * Chave de ordenação (ex.: session id); mensagens com a mesma chave são processadas em ordem.
+     * Retorna null quando a mensagem não exige ordem.
+     */
+    String orderingKey(M message);
+    
+    /**
+     * Momento em que a mensagem entrou no broker, usado para medir o atraso (lag)
+     */
+    Instant enqueuedTime(M message);
+    
+    /**
+     * Origem da alteração que gerou a mensagem, usada para medir o atraso de propagação.
+     * Retorna null quando a mensagem não traz essa informação.
+     */
+    default ChangeTrace trace(M message) {
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+
+import java.util.List;
+
+/**
+ * Transporte de envio de mensagens para o broker
+ *
+ * Abstração sobre o ServiceBusSenderClient para permitir testes com um broker falso em memória.
+ */
+public interface MessageTransport extends AutoCloseable {
+    
+    /**
+     * Envia as mensagens, dividindo-as em quantos lotes do broker forem necessários.
+     * Cada lote é aceito ou recusado por inteiro e o resultado diz o que aconteceu com cada
+     * mensagem: as de lotes aceitos não devem ser reenviadas. Uma mensagem maior que o lote
+     * do broker falha sozinha (IllegalArgumentException); quando o broker recusa um lote, ele
+     * e as mensagens ainda não enviadas falham com o mesmo erro, preservando a ordem.
+     * @return Resultado por mensagem e número de lotes aceitos
+     */
+    SendResult send(List<ServiceBusMessage> messages);
+    
+    @Override
+    void close();
+}
@@ -0,0 +1,66 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusReceivedMessage;
+import com.azure.messaging.servicebus.ServiceBusReceiverClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Origem real: recebe e liquida mensagens com o ServiceBusReceiverClient
+ */
+public class ReceiverClientSource implements MessageSource<ServiceBusReceivedMessage> {
+    private static final Logger logger = LoggerFactory.getLogger(ReceiverClientSource.class);
+    
+    private final ServiceBusReceiverClient receiverClient;
+    
+    public ReceiverClientSource(ServiceBusReceiverClient receiverClient) {
+        this.receiverClient = receiverClient;
+    }
+    
+    @Override
+    public List<ServiceBusReceivedMessage> receive(int maxMessages, Duration timeout) {
+        List<ServiceBusReceivedMessage> messages = new ArrayList<>(maxMessages);
+        receiverClient.receiveMessages(maxMessages, timeout).forEach(messages::add);
+        return messages;
+    }
+    
+    @Override
+    public void settle(List<ServiceBusReceivedMessage> completed, List<ServiceBusReceivedMessage> abandoned) {
+        // O cliente síncrono liquida uma mensagem por chamada; aqui isso acontece fora das
+        // threads de processamento, em grupo
+        for (ServiceBusReceivedMessage message : completed) {
+            try {
+                receiverClient.complete(message);
+            } catch (Exception e) {
+                logger.warn("Failed to complete message {}", message.getMessageId(), e);
+            }
+        }
+        for (ServiceBusReceivedMessage message : abandoned) {
+            try {
+                receiverClient.abandon(message);
+            } catch (Exception e) {
+                logger.warn("Failed to abandon message {}", message.getMessageId(), e);
+            }
+        }
+    }
+    
+    @Override
+    public String orderingKey(ServiceBusReceivedMessage message) {
+        return message.getSessionId() != null ? message.getSessionId() : message.getPartitionKey();
+    }
+    
+    @Override
+    public Instant enqueuedTime(ServiceBusReceivedMessage message) {
+        return message.getEnqueuedTime() != null ? message.getEnqueuedTime().toInstant() : null;
+    }
+    
+    @Override
+    public ChangeTrace trace(ServiceBusReceivedMessage message) {
+        return ChangeTrace.from(message);
+    }
+}
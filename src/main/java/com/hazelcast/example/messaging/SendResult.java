@@ -0,0 +1,44 @@
+package com.hazelcast.example.messaging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de um envio ao transporte, mensagem a mensagem
+ *
+ * @param batches Número de lotes aceitos pelo broker
+ * @param errors Erro de cada mensagem, na ordem enviada; null quando a mensagem foi aceita
+ */
+public record SendResult(int batches, List<Exception> errors) {
+
+    public SendResult {
+        errors = Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    /**
+     * Todas as mensagens aceitas
+     */
+    public static SendResult sent(int batches, int messages) {
+        return new SendResult(batches, Collections.nCopies(messages, null));
+    }
+
+    /**
+     * Nenhuma mensagem aceita, todas com o mesmo erro
+     */
+    public static SendResult failed(Exception error, int messages) {
+        return new SendResult(0, Collections.nCopies(messages, error));
+    }
+
+    public Exception error(int index) {
+        return errors.get(index);
+    }
+
+    public int failedCount() {
+        return (int) errors.stream().filter(error -> error != null).count();
+    }
+
+    public boolean allSent() {
+        return failedCount() == 0;
+    }
+}
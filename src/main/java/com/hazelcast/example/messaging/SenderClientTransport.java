@@ -0,0 +1,86 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.azure.messaging.servicebus.ServiceBusMessageBatch;
+import com.azure.messaging.servicebus.ServiceBusSenderClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transporte real: agrupa as mensagens em ServiceBusMessageBatch, preenchendo cada lote
+ * até o limite de tamanho do broker antes de enviá-lo. O tamanho de cada mensagem é
+ * verificado ao adicioná-la ao lote, antes de qualquer envio
+ */
+public class SenderClientTransport implements MessageTransport {
+    
+    private final ServiceBusSenderClient senderClient;
+    
+    public SenderClientTransport(ServiceBusSenderClient senderClient) {
+        this.senderClient = senderClient;
+    }
+    
+    @Override
+    public SendResult send(List<ServiceBusMessage> messages) {
+        List<Exception> errors = new ArrayList<>(Collections.nCopies(messages.size(), null));
+        List<Integer> batchIndexes = new ArrayList<>();
+        int batches = 0;
+        int next = 0;
+        try {
+            ServiceBusMessageBatch batch = senderClient.createMessageBatch();
+            for (; next < messages.size(); next++) {
+                ServiceBusMessage message = messages.get(next);
+                if (batch.tryAddMessage(message)) {
+                    batchIndexes.add(next);
+                    continue;
+                }
+                
+                // Não cabe nem em um lote vazio: só esta mensagem falha
+                if (batch.getCount() == 0) {
+                    errors.set(next, tooLarge(batch));
+                    continue;
+                }
+                
+                // Lote cheio: enviar e começar outro
+                senderClient.sendMessages(batch);
+                batches++;
+                batchIndexes.clear();
+                
+                batch = senderClient.createMessageBatch();
+                if (batch.tryAddMessage(message)) {
+                    batchIndexes.add(next);
+                } else {
+                    errors.set(next, tooLarge(batch));
+                }
+            }
+            
+            if (batch.getCount() > 0) {
+                senderClient.sendMessages(batch);
+                batches++;
+                batchIndexes.clear();
+            }
+        } catch (RuntimeException e) {
+            // O lote recusado e o que ainda não foi enviado falham; os lotes anteriores já foram aceitos
+            for (int index : batchIndexes) {
+                errors.set(index, e);
+            }
+            for (int index = next; index < messages.size(); index++) {
+                if (errors.get(index) == null) {
+                    errors.set(index, e);
+                }
+            }
+        }
+        return new SendResult(batches, errors);
+    }
+    
+    private static IllegalArgumentException tooLarge(ServiceBusMessageBatch batch) {
+        return new IllegalArgumentException("Message larger than the maximum batch size of "
+            + batch.getMaxSizeInBytes() + " bytes");
+    }
+    
+    @Override
+    public void close() {
+        senderClient.close();
+    }
+}
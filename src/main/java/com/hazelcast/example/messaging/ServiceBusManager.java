@@ -1,13 +1,14 @@
 package com.hazelcast.example.messaging;
 
 import com.azure.messaging.servicebus.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hazelcast.example.metrics.PropagationLag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Gerenciador para Azure Service Bus
@@ -15,88 +16,139 @@ import java.time.LocalDateTime;
 public class ServiceBusManager {
     private static final Logger logger = LoggerFactory.getLogger(ServiceBusManager.class);
     
-    private final ServiceBusSenderClient senderClient;
+    // Valores padrão do envio em lote
+    public static final int DEFAULT_MAX_BATCH_MESSAGES = 100;
+    public static final long DEFAULT_LINGER_MILLIS = 20;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10000;
+    private static final long ENQUEUE_TIMEOUT_MILLIS = 5000;
+    // Mensagens mantidas localmente pelo cliente de recebimento
+    public static final int DEFAULT_PREFETCH_COUNT = 100;
+    
+    private final BatchingMessageSender batchSender;
     private final ServiceBusReceiverClient receiverClient;
-    private final ObjectMapper objectMapper;
+    private final EventEncoder eventEncoder;
     private final String queueName;
     
     public ServiceBusManager(String connectionString, String queueName) {
+        this(connectionString, queueName, DEFAULT_MAX_BATCH_MESSAGES, DEFAULT_LINGER_MILLIS, DEFAULT_MAX_IN_FLIGHT,
+            EventEncoder.Encoding.JSON);
+    }
+    
+    /**
+     * @param maxBatchMessages Número máximo de mensagens por envio em lote
+     * @param lingerMillis Tempo máximo de espera para completar um lote
+     * @param maxInFlight Número máximo de mensagens aguardando envio
+     * @param encoding Codificação do corpo das mensagens (JSON ou Smile)
+     */
+    public ServiceBusManager(String connectionString, String queueName, 
+                             int maxBatchMessages, long lingerMillis, int maxInFlight,
+                             EventEncoder.Encoding encoding) {
         this.queueName = queueName;
         
-        // Configurar ObjectMapper para JSON
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        // Serialização dos eventos (writers em cache, direto para bytes)
+        this.eventEncoder = new EventEncoder(encoding);
         
         // Criar cliente de envio
-        this.senderClient = new ServiceBusClientBuilder()
+        ServiceBusSenderClient senderClient = new ServiceBusClientBuilder()
             .connectionString(connectionString)
             .sender()
             .queueName(queueName)
             .buildClient();
+        this.batchSender = new BatchingMessageSender(new SenderClientTransport(senderClient), 
+            maxBatchMessages, lingerMillis, maxInFlight, ENQUEUE_TIMEOUT_MILLIS);
         
         // Criar cliente de recebimento
         this.receiverClient = new ServiceBusClientBuilder()
             .connectionString(connectionString)
             .receiver()
             .queueName(queueName)
+            .prefetchCount(DEFAULT_PREFETCH_COUNT)
             .buildClient();
         
         logger.info("Service Bus clients initialized for queue: {}", queueName);
     }
     
     /**
-     * Envia uma mensagem para o Service Bus
+     * Envia uma mensagem para o Service Bus de forma assíncrona, agrupada em lotes
+     * @return Future concluído quando o broker aceitar a mensagem
      */
-    public void sendMessage(Object messageData, String messageType) {
+    public CompletableFuture<Void> sendMessage(Object messageData, String messageType) {
+        return sendMessage(messageData, messageType, null);
+    }
+    
+    /**
+     * Envia uma mensagem gerada por uma alteração de mapa: o correlation ID e a origem seguem
+     * nas propriedades da mensagem e a aceitação pelo broker registra o atraso de propagação
+     * @param trace Origem da alteração (null para mensagens sem origem)
+     */
+    public CompletableFuture<Void> sendMessage(Object messageData, String messageType, ChangeTrace trace) {
         try {
             // Criar objeto de evento
-            EventMessage event = new EventMessage();
+            EventMessage<Object> event = new EventMessage<>();
             event.setEventType(messageType);
             event.setTimestamp(LocalDateTime.now());
             event.setData(messageData);
             
-            // Converter para JSON
-            String jsonMessage = objectMapper.writeValueAsString(event);
+            // Serializar direto para bytes, sem String intermediária
+            byte[] payload = eventEncoder.encode(event);
             
             // Criar mensagem do Service Bus
-            ServiceBusMessage message = new ServiceBusMessage(jsonMessage);
-            message.setContentType("application/json");
+            ServiceBusMessage message = new ServiceBusMessage(payload);
+            message.setContentType(eventEncoder.getContentType());
             message.getApplicationProperties().put("eventType", messageType);
             message.getApplicationProperties().put("timestamp", event.getTimestamp().toString());
+            if (trace != null) {
+                trace.applyTo(message);
+            }
             
-            // Enviar mensagem
-            senderClient.sendMessage(message);
-            
-            logger.info("Message sent to Service Bus queue '{}': {}", queueName, messageType);
+            // Enfileirar para envio em lote
+            return batchSender.send(message).whenComplete((result, error) -> {
+                if (error != null) {
+                    logger.error("Failed to send message to Service Bus queue '{}': {}", queueName, messageType, error);
+                } else {
+                    logger.debug("Message sent to Service Bus queue '{}': {}", queueName, messageType);
+                    if (trace != null) {
+                        PropagationLag.record(PropagationLag.STAGE_SERVICE_BUS_SENT, trace.mapName(), trace.originTime());
+                    }
+                }
+            });
             
         } catch (Exception e) {
             logger.error("Failed to send message to Service Bus", e);
+            return CompletableFuture.failedFuture(e);
         }
     }
     
     /**
      * Envia evento de usuário
      */
-    public void sendUserEvent(String userId, String username, String action, String details) {
+    public CompletableFuture<Void> sendUserEvent(String userId, String username, String action, String details) {
         UserEventData eventData = new UserEventData();
         eventData.setUserId(userId);
         eventData.setUsername(username);
         eventData.setAction(action);
         eventData.setDetails(details);
         
-        sendMessage(eventData, "USER_EVENT");
+        return sendMessage(eventData, "USER_EVENT");
     }
     
     /**
      * Envia evento de sistema
      */
-    public void sendSystemEvent(String component, String level, String message) {
+    public CompletableFuture<Void> sendSystemEvent(String component, String level, String message) {
+        return sendSystemEvent(component, level, message, null);
+    }
+    
+    /**
+     * Envia evento de sistema gerado por uma alteração de mapa
+     */
+    public CompletableFuture<Void> sendSystemEvent(String component, String level, String message, ChangeTrace trace) {
         SystemEventData eventData = new SystemEventData();
         eventData.setComponent(component);
         eventData.setLevel(level);
         eventData.setMessage(message);
         
-        sendMessage(eventData, "SYSTEM_EVENT");
+        return sendMessage(eventData, "SYSTEM_EVENT", trace);
     }
     
     /**
@@ -110,7 +162,8 @@ public class ServiceBusManager {
             receiverClient.receiveMessages(maxMessages, Duration.ofSeconds(timeoutSeconds))
                 .forEach(message -> {
                     try {
-                        logger.info("Received message: {}", message.getBody().toString());
+                        logger.info("Received message: {}", 
+                            EventEncoder.decode(message.getBody().toBytes(), message.getContentType()));
                         logger.info("Properties: {}", message.getApplicationProperties());
                         
                         // Completar a mensagem (remover da fila)
@@ -128,12 +181,27 @@ public class ServiceBusManager {
         }
     }
     
+    /**
+     * Inicia um consumidor concorrente da fila
+     * @param handler Processamento de cada mensagem (exceção = nova tentativa; esgotadas, abandonar para reentrega)
+     * @param concurrency Número de mensagens processadas em paralelo
+     * @param prefetch Número máximo de mensagens recebidas e ainda não liquidadas
+     * @return Consumidor em execução; fechar com close()
+     */
+    public ConcurrentMessageConsumer<ServiceBusReceivedMessage> startConsumer(
+            MessageHandler<ServiceBusReceivedMessage> handler, int concurrency, int prefetch) {
+        logger.info("Starting concurrent consumer for queue: {}", queueName);
+        return new ConcurrentMessageConsumer<>(new ReceiverClientSource(receiverClient), handler,
+            concurrency, prefetch, Duration.ofSeconds(5), 50).start();
+    }
+    
     /**
      * Testa a conexão enviando uma mensagem de teste
      */
     public boolean testConnection() {
         try {
-            sendSystemEvent("ServiceBusManager", "INFO", "Connection test");
+            // Aguarda a confirmação do broker
+            sendSystemEvent("ServiceBusManager", "INFO", "Connection test").get(30, TimeUnit.SECONDS);
             logger.info("Service Bus connection test successful");
             return true;
         } catch (Exception e) {
@@ -147,9 +215,12 @@ public class ServiceBusManager {
      */
     public void shutdown() {
         try {
-            if (senderClient != null) {
-                senderClient.close();
-            }
+            // Envia as mensagens pendentes antes de fechar
+            batchSender.close();
+            logger.info("Service Bus payloads: encoding={}, messages={}, avgBytes={}, avgEncodeMicros={}",
+                eventEncoder.getEncoding(), eventEncoder.getEncodedMessages(),
+                String.format("%.1f", eventEncoder.getAveragePayloadBytes()),
+                String.format("%.2f", eventEncoder.getAverageEncodeMicros()));
             if (receiverClient != null) {
                 receiverClient.close();
             }
@@ -160,10 +231,10 @@ public class ServiceBusManager {
     }
     
     // Classes internas para estruturar os eventos
-    public static class EventMessage {
+    public static class EventMessage<T> {
         private String eventType;
         private LocalDateTime timestamp;
-        private Object data;
+        private T data;
         
         // Getters e Setters
         public String getEventType() { return eventType; }
@@ -172,8 +243,8 @@ public class ServiceBusManager {
         public LocalDateTime getTimestamp() { return timestamp; }
         public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
         
-        public Object getData() { return data; }
-        public void setData(Object data) { this.data = data; }
+        public T getData() { return data; }
+        public void setData(T data) { this.data = data; }
     }
     
     public static class UserEventData {
@@ -0,0 +1,128 @@
+package com.hazelcast.example.metrics;
+
+import com.hazelcast.example.management.ManagementEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+
+/**
+ * Métricas da aplicação (Micrometer)
+ *
+ * Os componentes registram seus medidores no registro global do Micrometer, que não guarda
+ * nada até receber um registro concreto: sem {@link #prometheus()} as medições custam pouco
+ * e são descartadas. O membro e o cliente integrado adicionam o registro Prometheus e o
+ * publicam em /metrics do {@link ManagementEndpoint}.
+ *
+ * Nomes publicados (unidade e sufixos no padrão Prometheus):
+ * <ul>
+ *   <li>hazelcast.map.latency / hazelcast.map.entries: operações do membro por mapa ({@link HazelcastMapMetrics})</li>
+ *   <li>hazelcast.map.call: latência vista pelo chamador por mapa e operação (PipelinedMap)</li>
+ *   <li>hikaricp.connections.*: espera (acquire), uso e ocupação do pool</li>
+ *   <li>sql.statement: latência por comando SQL (verbo e tabela) e resultado</li>
+ *   <li>servicebus.send, servicebus.send.batch.size: envio em lote ao Service Bus</li>
+ *   <li>servicebus.encode, servicebus.encode.payload.size: serialização dos eventos por codificação</li>
+ *   <li>servicebus.receive.batch.size, servicebus.process, servicebus.receive.lag: consumo</li>
+ *   <li>map.listener.process: listener de mapa</li>
+ *   <li>user.events.write.behind.*, changelog.*: filas de gravação de user_events (linhas por resultado,
+ *       profundidade da fila e novas tentativas)</li>
+ *   <li>propagation.lag: tempo desde a alteração até cada etapa, por mapa e etapa ({@link PropagationLag})</li>
+ * </ul>
+ */
+public final class AppMetrics {
+
+    public static final String METRICS_PATH = "/metrics";
+
+    private static PrometheusMeterRegistry prometheus;
+
+    private AppMetrics() {}
+
+    /**
+     * Registro onde os componentes criam seus medidores
+     */
+    public static MeterRegistry registry() {
+        return Metrics.globalRegistry;
+    }
+
+    /**
+     * Registro Prometheus do processo, criado e ligado ao registro global na primeira chamada
+     * (junto com as métricas de JVM)
+     */
+    public static synchronized PrometheusMeterRegistry prometheus() {
+        if (prometheus == null) {
+            prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            new JvmMemoryMetrics().bindTo(prometheus);
+            new JvmGcMetrics().bindTo(prometheus);
+            new JvmThreadMetrics().bindTo(prometheus);
+            new ProcessorMetrics().bindTo(prometheus);
+            Metrics.addRegistry(prometheus);
+        }
+        return prometheus;
+    }
+
+    /**
+     * Publica as métricas no formato texto do Prometheus em /metrics do endpoint
+     */
+    public static ManagementEndpoint expose(ManagementEndpoint endpoint) {
+        PrometheusMeterRegistry registry = prometheus();
+        return endpoint.addHandler(METRICS_PATH, exchange ->
+            ManagementEndpoint.respond(exchange, 200, TextFormat.CONTENT_TYPE_004, registry.scrape()));
+    }
+
+    /**
+     * Timer com histograma de percentis (buckets agregáveis entre instâncias no Prometheus)
+     *
+     * @param tags Pares nome, valor
+     */
+    public static Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+            .description(description)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.of(100, ChronoUnit.MICROS))
+            .register(registry());
+    }
+
+    /**
+     * Contador crescente (ex.: linhas gravadas, descartadas)
+     */
+    public static Counter counter(String name, String description, String... tags) {
+        return Counter.builder(name)
+            .description(description)
+            .tags(tags)
+            .register(registry());
+    }
+
+    /**
+     * Contadores de um mesmo nome separados por resultado (tag result), ex.: linhas por resultado
+     *
+     * @return Função que devolve o contador de cada resultado
+     */
+    public static Function<String, Counter> resultCounters(String name, String description) {
+        return result -> counter(name, description, "result", result);
+    }
+
+    /**
+     * Distribuição de tamanhos (ex.: mensagens por lote) com histograma
+     */
+    public static DistributionSummary summary(String name, String description, String baseUnit, String... tags) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .baseUnit(baseUnit)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry());
+    }
+}
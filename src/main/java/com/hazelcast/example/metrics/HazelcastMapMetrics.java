@@ -0,0 +1,88 @@
+package com.hazelcast.example.metrics;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.LocalMapStats;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Estatísticas locais dos mapas do membro (LocalMapStats) como métricas
+ *
+ * Cada mapa publica a contagem e o tempo total de get/put/set/remove executados neste membro
+ * (hazelcast.map.latency, um FunctionTimer: a taxa e a média saem das diferenças entre
+ * coletas), além de entradas e memória das partições que o membro possui. Os valores são
+ * lidos na coleta, sem custo nas operações. Só vale para membros: o cliente não tem
+ * estatísticas locais e mede suas chamadas no próprio caminho (hazelcast.map.call).
+ */
+public class HazelcastMapMetrics implements MeterBinder {
+
+    private record Operation(String name, ToLongFunction<LocalMapStats> count, ToDoubleFunction<LocalMapStats> totalMillis) {}
+
+    private static final List<Operation> OPERATIONS = List.of(
+        new Operation("get", LocalMapStats::getGetOperationCount, LocalMapStats::getTotalGetLatency),
+        new Operation("put", LocalMapStats::getPutOperationCount, LocalMapStats::getTotalPutLatency),
+        new Operation("set", LocalMapStats::getSetOperationCount, LocalMapStats::getTotalSetLatency),
+        new Operation("remove", LocalMapStats::getRemoveOperationCount, LocalMapStats::getTotalRemoveLatency));
+
+    private final HazelcastInstance instance;
+    private final Collection<String> mapNames;
+
+    public HazelcastMapMetrics(HazelcastInstance instance, Collection<String> mapNames) {
+        this.instance = instance;
+        this.mapNames = List.copyOf(mapNames);
+    }
+
+    /**
+     * Liga as métricas dos mapas ao registro da aplicação, se a instância for um membro
+     *
+     * @return true se as métricas foram registradas
+     */
+    public static boolean bind(HazelcastInstance instance, Collection<String> mapNames) {
+        if (!(instance.getLocalEndpoint() instanceof Member)) {
+            return false;
+        }
+        new HazelcastMapMetrics(instance, mapNames).bindTo(AppMetrics.registry());
+        return true;
+    }
+
+    /**
+     * Os medidores guardam só referências fracas ao objeto medido: ele é a própria instância,
+     * que vive enquanto o membro estiver de pé, e não este binder, que ninguém mais referencia
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String mapName : mapNames) {
+            for (Operation operation : OPERATIONS) {
+                FunctionTimer.builder("hazelcast.map.latency", instance,
+                        member -> operation.count().applyAsLong(stats(member, mapName)),
+                        member -> operation.totalMillis().applyAsDouble(stats(member, mapName)),
+                        TimeUnit.MILLISECONDS)
+                    .description("Operations executed by this member on the map")
+                    .tags("map", mapName, "operation", operation.name())
+                    .register(registry);
+            }
+            Gauge.builder("hazelcast.map.entries", instance, member -> stats(member, mapName).getOwnedEntryCount())
+                .description("Entries owned by this member")
+                .tag("map", mapName)
+                .register(registry);
+            Gauge.builder("hazelcast.map.memory", instance, member -> stats(member, mapName).getOwnedEntryMemoryCost())
+                .description("Memory cost of the entries owned by this member")
+                .tag("map", mapName)
+                .baseUnit("bytes")
+                .register(registry);
+        }
+    }
+
+    private static LocalMapStats stats(HazelcastInstance member, String mapName) {
+        return member.getMap(mapName).getLocalMapStats();
+    }
+}
@@ -0,0 +1,48 @@
+package com.hazelcast.example.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Atraso de propagação de uma alteração de mapa até cada destino
+ *
+ * A alteração recebe na origem um instante (relógio de parede, epoch em ms) e um correlation ID
+ * que seguem com ela para user_events e para as mensagens do Service Bus. Cada etapa registra
+ * em propagation.lag (por mapa e etapa) quanto tempo passou desde a origem. As etapas de
+ * processos diferentes dependem de relógios sincronizados; diferenças negativas contam como zero.
+ */
+public final class PropagationLag {
+
+    /** Linha gravada em user_events */
+    public static final String STAGE_SQL = "sql";
+    /** Mensagem aceita pelo Service Bus */
+    public static final String STAGE_SERVICE_BUS_SENT = "servicebus.sent";
+    /** Mensagem recebida pelo consumidor, antes do processamento */
+    public static final String STAGE_SERVICE_BUS_RECEIVED = "servicebus.received";
+    /** Mensagem processada com sucesso pelo consumidor */
+    public static final String STAGE_SERVICE_BUS_PROCESSED = "servicebus.processed";
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private PropagationLag() {}
+
+    /**
+     * Registra o atraso da etapa; sem instante de origem (0) não há o que medir
+     *
+     * @param mapName Mapa de origem (null quando desconhecido)
+     * @param originTimeMillis Instante da alteração na origem, em epoch ms
+     */
+    public static void record(String stage, String mapName, long originTimeMillis) {
+        if (originTimeMillis <= 0) {
+            return;
+        }
+        String map = mapName != null ? mapName : "unknown";
+        long lag = Math.max(0, System.currentTimeMillis() - originTimeMillis);
+        TIMERS.computeIfAbsent(stage + '|' + map, ignored -> AppMetrics.timer("propagation.lag",
+                "Time from the map change to the stage", "stage", stage, "map", map))
+            .record(lag, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,68 @@
+package com.hazelcast.example.processors;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Acrescenta texto a um valor String (ex.: histórico de estado de sessão), mantendo no máximo
+ * os últimos maxLength caracteres; entrada ausente passa a conter apenas o texto
+ *
+ * @return valor após a alteração
+ */
+public class AppendProcessor<K> implements EntryProcessor<K, String, String>, IdentifiedDataSerializable {
+
+    private String suffix;
+    private String separator;
+    private int maxLength;
+
+    public AppendProcessor() {}
+
+    public AppendProcessor(String suffix, String separator, int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive");
+        }
+        this.suffix = suffix;
+        this.separator = separator;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String process(Map.Entry<K, String> entry) {
+        String current = entry.getValue();
+        String updated = current == null || current.isEmpty() ? suffix : current + separator + suffix;
+        if (updated.length() > maxLength) {
+            updated = updated.substring(updated.length() - maxLength);
+        }
+        entry.setValue(updated);
+        return updated;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(suffix);
+        out.writeString(separator);
+        out.writeInt(maxLength);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        suffix = in.readString();
+        separator = in.readString();
+        maxLength = in.readInt();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProcessorDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ProcessorDataSerializableFactory.APPEND;
+    }
+}
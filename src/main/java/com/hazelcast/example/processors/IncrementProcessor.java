@@ -0,0 +1,53 @@
+package com.hazelcast.example.processors;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Incrementa um contador Long atomicamente (entrada ausente começa em zero)
+ *
+ * @return valor após o incremento
+ */
+public class IncrementProcessor<K> implements EntryProcessor<K, Long, Long>, IdentifiedDataSerializable {
+
+    private long delta;
+
+    public IncrementProcessor() {}
+
+    public IncrementProcessor(long delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    public Long process(Map.Entry<K, Long> entry) {
+        Long current = entry.getValue();
+        long updated = (current != null ? current : 0L) + delta;
+        entry.setValue(updated);
+        return updated;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(delta);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        delta = in.readLong();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProcessorDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ProcessorDataSerializableFactory.INCREMENT;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hazelcast.example.processors;
+
+import com.hazelcast.nio.serialization.DataSerializableFactory;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Fábrica dos EntryProcessors enviados aos donos das partições
+ *
+ * Registrada em membros e clientes por {@link com.hazelcast.example.serialization.DomainSerializers}.
+ */
+public class ProcessorDataSerializableFactory implements DataSerializableFactory {
+
+    public static final int FACTORY_ID = 1001;
+
+    public static final int UPDATE_LAST_LOGIN = 1;
+    public static final int INCREMENT = 2;
+    public static final int APPEND = 3;
+    public static final int USER_EMAIL = 4;
+
+    @Override
+    public IdentifiedDataSerializable create(int typeId) {
+        return switch (typeId) {
+            case UPDATE_LAST_LOGIN -> new UpdateLastLoginProcessor();
+            case INCREMENT -> new IncrementProcessor<>();
+            case APPEND -> new AppendProcessor<>();
+            case USER_EMAIL -> new UserEmailProcessor();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.hazelcast.example.processors;
+
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Registra o login do usuário no dono da partição, sem ler e regravar o UserData pelo cliente
+ *
+ * O horário vem do chamador (não é calculado no membro) para que a réplica de backup, que
+ * executa o mesmo processor, grave exatamente o mesmo valor. Usuários inexistentes não são criados.
+ *
+ * @return último login anterior (null se não havia ou se o usuário não existe)
+ */
+public class UpdateLastLoginProcessor
+        implements EntryProcessor<String, UserData, LocalDateTime>, IdentifiedDataSerializable {
+
+    private LocalDateTime loginTime;
+
+    public UpdateLastLoginProcessor() {}
+
+    public UpdateLastLoginProcessor(LocalDateTime loginTime) {
+        this.loginTime = loginTime;
+    }
+
+    @Override
+    public LocalDateTime process(Map.Entry<String, UserData> entry) {
+        UserData user = entry.getValue();
+        if (user == null) {
+            return null;
+        }
+        LocalDateTime previous = user.getLastLogin();
+        user.setLastLogin(loginTime);
+        entry.setValue(user);
+        return previous;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(loginTime);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        loginTime = in.readObject();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProcessorDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ProcessorDataSerializableFactory.UPDATE_LAST_LOGIN;
+    }
+}
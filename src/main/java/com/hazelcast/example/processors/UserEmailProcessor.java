@@ -0,0 +1,48 @@
+package com.hazelcast.example.processors;
+
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.util.Map;
+
+/**
+ * Lê apenas o email do usuário no dono da partição, sem transferir o UserData inteiro
+ *
+ * Marcado como ReadOnly: não bloqueia a chave, não gera backup nem evento de alteração.
+ */
+public class UserEmailProcessor
+        implements EntryProcessor<String, UserData, String>, ReadOnly, IdentifiedDataSerializable {
+
+    @Override
+    public String process(Map.Entry<String, UserData> entry) {
+        UserData user = entry.getValue();
+        return user != null ? user.getEmail() : null;
+    }
+
+    @Override
+    public EntryProcessor<String, UserData, String> getBackupProcessor() {
+        return null;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) {
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) {
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProcessorDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ProcessorDataSerializableFactory.USER_EMAIL;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hazelcast.example.query;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.map.IMap;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Consultas ao mapa "users" executadas no grid com índices e projeções
+ *
+ * As consultas filtram nos membros usando os índices (email HASH, createdAt SORTED) e
+ * devolvem só o necessário, evitando varrer as partições ou consultar o SQL Server.
+ */
+public class UserQueries {
+
+    public static final String EMAIL = "email";
+    public static final String CREATED_AT = "createdAt";
+    public static final String USER_ID = "userId";
+    public static final String USERNAME = "username";
+
+    private final IMap<String, UserData> users;
+
+    public UserQueries(IMap<String, UserData> users) {
+        this.users = users;
+    }
+
+    /**
+     * Adiciona ao mapa os índices usados pelas consultas
+     */
+    public static MapConfig addIndexes(MapConfig mapConfig) {
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.HASH, EMAIL).setName(EMAIL));
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.SORTED, CREATED_AT).setName(CREATED_AT));
+        return mapConfig;
+    }
+
+    /**
+     * Resumo do usuário devolvido pelas projeções
+     */
+    public record UserSummary(String userId, String username, String email) {}
+
+    /**
+     * Página de resultados de uma consulta paginada
+     */
+    public record Page<T>(List<T> items, int pageIndex, int pageSize, boolean hasNext) {}
+
+    public Optional<UserData> findByEmail(String email) {
+        return users.values(Predicates.equal(EMAIL, email)).stream().findFirst();
+    }
+
+    /**
+     * IDs dos usuários criados no intervalo, sem transferir os objetos inteiros
+     */
+    public Collection<String> findUserIdsCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return users.project(Projections.singleAttribute(USER_ID), createdBetween(from, to));
+    }
+
+    public Collection<UserSummary> findSummaries(Predicate<String, UserData> predicate) {
+        Collection<Object[]> rows = users.project(Projections.multiAttribute(USER_ID, USERNAME, EMAIL), predicate);
+        List<UserSummary> summaries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            summaries.add(new UserSummary((String) row[0], (String) row[1], (String) row[2]));
+        }
+        return summaries;
+    }
+
+    public long countCreatedSince(LocalDateTime since) {
+        return users.aggregate(Aggregators.count(), Predicates.greaterEqual(CREATED_AT, since));
+    }
+
+    /**
+     * Usuários criados a partir de uma data, do mais recente para o mais antigo, em páginas
+     *
+     * @param pageIndex Página desejada (começando em 0)
+     */
+    public Page<UserData> pageCreatedSince(LocalDateTime since, int pageSize, int pageIndex) {
+        PagingPredicate<String, UserData> paging = Predicates.pagingPredicate(
+            Predicates.greaterEqual(CREATED_AT, since), new NewestFirst(), pageSize);
+        paging.setPage(pageIndex);
+
+        List<UserData> items = new ArrayList<>(users.values(paging));
+        // Página cheia: verificar se existe ao menos mais um resultado
+        boolean hasNext = items.size() == pageSize
+            && countCreatedSince(since) > (long) (pageIndex + 1) * pageSize;
+        return new Page<>(items, pageIndex, pageSize, hasNext);
+    }
+
+    public static Predicate<String, UserData> createdBetween(LocalDateTime from, LocalDateTime to) {
+        return Predicates.between(CREATED_AT, from, to);
+    }
+
+    /**
+     * Ordenação executada nos membros: createdAt decrescente, userId como desempate
+     */
+    private static class NewestFirst implements Comparator<Map.Entry<String, UserData>>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int compare(Map.Entry<String, UserData> a, Map.Entry<String, UserData> b) {
+            LocalDateTime createdA = a.getValue().getCreatedAt();
+            LocalDateTime createdB = b.getValue().getCreatedAt();
+            int byDate = Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()).compare(createdA, createdB);
+            return byDate != 0 ? byDate : a.getKey().compareTo(b.getKey());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.example.affinity.AffinityDataSerializableFactory;
+import com.hazelcast.example.memory.MemoryDataSerializableFactory;
+import com.hazelcast.example.processors.ProcessorDataSerializableFactory;
+
+/**
+ * Registro dos serializadores Compact das classes de domínio e das fábricas dos EntryProcessors,
+ * das tarefas por usuário e da coleta de memória
+ *
+ * Deve ser aplicado tanto na configuração dos membros quanto na dos clientes, para que
+ * os dois lados usem o mesmo esquema. Sem o registro explícito o Hazelcast recorre à
+ * serialização Compact por reflexão, mais lenta e com nomes de tipo acoplados à classe.
+ */
+public final class DomainSerializers {
+
+    private DomainSerializers() {}
+
+    /**
+     * Registra os serializadores e as fábricas na configuração de serialização (membro ou cliente)
+     */
+    public static SerializationConfig register(SerializationConfig serializationConfig) {
+        serializationConfig.getCompactSerializationConfig()
+            .addSerializer(new UserDataSerializer())
+            .addSerializer(new UserSessionSerializer())
+            .addSerializer(new UserProfileSerializer())
+            .addSerializer(new ProductInfoSerializer())
+            .addSerializer(new UserKeySerializer());
+        serializationConfig.addDataSerializableFactory(ProcessorDataSerializableFactory.FACTORY_ID,
+            new ProcessorDataSerializableFactory());
+        serializationConfig.addDataSerializableFactory(AffinityDataSerializableFactory.FACTORY_ID,
+            new AffinityDataSerializableFactory());
+        serializationConfig.addDataSerializableFactory(MemoryDataSerializableFactory.FACTORY_ID,
+            new MemoryDataSerializableFactory());
+        return serializationConfig;
+    }
+}
@@ -0,0 +1,35 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.example.HazelcastClientExample.ProductInfo;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Serializador Compact dos produtos guardados em "cache-data"
+ */
+public class ProductInfoSerializer implements CompactSerializer<ProductInfo> {
+
+    public static final String TYPE_NAME = "ProductInfo";
+
+    @Override
+    public ProductInfo read(CompactReader reader) {
+        return new ProductInfo(reader.readString("name"), reader.readFloat64("price"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, ProductInfo product) {
+        writer.writeString("name", product.getName());
+        writer.writeFloat64("price", product.getPrice());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<ProductInfo> getCompactClass() {
+        return ProductInfo.class;
+    }
+}
@@ -0,0 +1,44 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Serializador Compact do mapa "users"
+ */
+public class UserDataSerializer implements CompactSerializer<UserData> {
+
+    public static final String TYPE_NAME = "UserData";
+
+    @Override
+    public UserData read(CompactReader reader) {
+        UserData user = new UserData();
+        user.setUserId(reader.readString("userId"));
+        user.setUsername(reader.readString("username"));
+        user.setEmail(reader.readString("email"));
+        user.setCreatedAt(reader.readTimestamp("createdAt"));
+        user.setLastLogin(reader.readTimestamp("lastLogin"));
+        return user;
+    }
+
+    @Override
+    public void write(CompactWriter writer, UserData user) {
+        writer.writeString("userId", user.getUserId());
+        writer.writeString("username", user.getUsername());
+        writer.writeString("email", user.getEmail());
+        writer.writeTimestamp("createdAt", user.getCreatedAt());
+        writer.writeTimestamp("lastLogin", user.getLastLogin());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<UserData> getCompactClass() {
+        return UserData.class;
+    }
+}
@@ -0,0 +1,35 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.example.affinity.UserKey;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Serializador Compact das chaves de dados por usuário
+ */
+public class UserKeySerializer implements CompactSerializer<UserKey> {
+
+    public static final String TYPE_NAME = "UserKey";
+
+    @Override
+    public UserKey read(CompactReader reader) {
+        return new UserKey(reader.readString("userId"), reader.readString("kind"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, UserKey key) {
+        writer.writeString("userId", key.getUserId());
+        writer.writeString("kind", key.getKind());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<UserKey> getCompactClass() {
+        return UserKey.class;
+    }
+}
@@ -0,0 +1,35 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Serializador Compact dos perfis guardados em "cache-data"
+ */
+public class UserProfileSerializer implements CompactSerializer<UserProfile> {
+
+    public static final String TYPE_NAME = "UserProfile";
+
+    @Override
+    public UserProfile read(CompactReader reader) {
+        return new UserProfile(reader.readString("name"), reader.readString("email"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, UserProfile profile) {
+        writer.writeString("name", profile.getName());
+        writer.writeString("email", profile.getEmail());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<UserProfile> getCompactClass() {
+        return UserProfile.class;
+    }
+}
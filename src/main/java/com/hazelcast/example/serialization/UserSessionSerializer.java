@@ -0,0 +1,39 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Serializador Compact do mapa "user-sessions"
+ */
+public class UserSessionSerializer implements CompactSerializer<UserSession> {
+
+    public static final String TYPE_NAME = "UserSession";
+
+    @Override
+    public UserSession read(CompactReader reader) {
+        return new UserSession(
+            reader.readString("userId"),
+            reader.readString("username"),
+            reader.readTimestamp("loginTime"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, UserSession session) {
+        writer.writeString("userId", session.getUserId());
+        writer.writeString("username", session.getUsername());
+        writer.writeTimestamp("loginTime", session.getLoginTime());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<UserSession> getCompactClass() {
+        return UserSession.class;
+    }
+}
@@ -0,0 +1,232 @@
+package com.hazelcast.example.streaming;
+
+import com.azure.messaging.servicebus.ServiceBusClientBuilder;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EventJournalConfig;
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.database.ChangelogEvent;
+import com.hazelcast.example.database.ChangelogWriter;
+import com.hazelcast.example.messaging.MessageTransport;
+import com.hazelcast.example.messaging.SenderClientTransport;
+import com.hazelcast.function.SupplierEx;
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.pipeline.JournalInitialPosition;
+import com.hazelcast.jet.pipeline.Pipeline;
+import com.hazelcast.jet.pipeline.ServiceFactories;
+import com.hazelcast.jet.pipeline.Sink;
+import com.hazelcast.jet.pipeline.Sinks;
+import com.hazelcast.jet.pipeline.Sources;
+import com.hazelcast.jet.pipeline.StreamStage;
+import com.hazelcast.map.EventJournalMapEvent;
+import com.hazelcast.partition.PartitionService;
+import com.microsoft.sqlserver.jdbc.SQLServerDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.CommonDataSource;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Job Jet que propaga as alterações dos mapas a partir do Event Journal
+ *
+ * Lê o journal de cada mapa (adições, atualizações e remoções), numera os eventos por partição
+ * com estado do próprio job e grava o resultado no changelog da tabela user_events (sink JDBC)
+ * e, opcionalmente, no Service Bus. A numeração faz parte dos snapshots: depois de uma falha o
+ * job volta ao último snapshot, relê o journal a partir dali e atribui as mesmas sequências, e
+ * a inserção idempotente do {@link ChangelogWriter} e a detecção de duplicatas da fila
+ * descartam o que já tinha sido entregue. Com isso at-least-once basta para efeito exactly-once
+ * nos dois destinos, sem transações XA. Um job novo começa no fim atual do journal e continua a
+ * numeração das últimas sequências gravadas.
+ */
+public final class MapJournalPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(MapJournalPipeline.class);
+
+    public static final String JOB_NAME = "map-journal-changelog";
+    public static final int DEFAULT_JOURNAL_CAPACITY = 100_000;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 10_000;
+    public static final int DEFAULT_JDBC_BATCH_LIMIT = 500;
+
+    private MapJournalPipeline() {}
+
+    /**
+     * Alteração lida do journal, antes de receber partição e sequência. Os valores já saem do
+     * source convertidos em JSON; a chave segue como objeto para o cálculo da partição
+     * (as chaves dos mapas do changelog são Strings). O instante de origem é o da leitura do
+     * journal, que não guarda o instante da escrita; o correlation ID só é definido junto com a
+     * sequência ({@link #correlationId})
+     */
+    private record MapChange(String mapName, Object key, String eventType, String payload, long originTime)
+            implements Serializable {}
+
+    /**
+     * Habilita o Event Journal dos mapas e o Jet no membro
+     *
+     * @param capacity Eventos mantidos no journal de cada mapa (divididos entre as partições)
+     */
+    public static void enableJournal(Config config, Collection<String> mapNames, int capacity) {
+        config.getJetConfig().setEnabled(true);
+        for (String mapName : mapNames) {
+            config.getMapConfig(mapName).setEventJournalConfig(new EventJournalConfig()
+                .setEnabled(true)
+                .setCapacity(capacity));
+        }
+    }
+
+    /**
+     * Monta o pipeline
+     *
+     * @param lastSequences Última sequência gravada por partição de cada mapa
+     *                      ({@link ChangelogWriter#lastSequences}); é a origem da numeração
+     * @param dataSourceSupplier Banco do changelog (executado nos membros)
+     * @param transportSupplier Transporte do Service Bus, ou null para não publicar
+     */
+    public static Pipeline build(Map<String, long[]> lastSequences,
+                                 SupplierEx<? extends CommonDataSource> dataSourceSupplier,
+                                 SupplierEx<? extends MessageTransport> transportSupplier,
+                                 int jdbcBatchLimit) {
+        Pipeline pipeline = Pipeline.create();
+        // A ordem de uma partição precisa chegar intacta aos sinks
+        pipeline.setPreserveOrder(true);
+
+        List<StreamStage<ChangelogEvent>> branches = new ArrayList<>();
+        for (Map.Entry<String, long[]> map : lastSequences.entrySet()) {
+            branches.add(readChanges(pipeline, map.getKey(), map.getValue()));
+        }
+        if (branches.isEmpty()) {
+            throw new IllegalArgumentException("At least one map is required");
+        }
+
+        StreamStage<ChangelogEvent> events = branches.get(0);
+        for (int i = 1; i < branches.size(); i++) {
+            events = events.merge(branches.get(i));
+        }
+
+        Sink<ChangelogEvent> jdbcSink = Sinks.<ChangelogEvent>jdbcBuilder()
+            .updateQuery(ChangelogWriter.INSERT_SQL)
+            .dataSourceSupplier(dataSourceSupplier)
+            .bindFn(MapJournalPipeline::bind)
+            .exactlyOnce(false)
+            .batchLimit(jdbcBatchLimit)
+            .build();
+        events.writeTo(jdbcSink);
+
+        if (transportSupplier != null) {
+            events.writeTo(ServiceBusSink.changelog(transportSupplier, ServiceBusSink.DEFAULT_MAX_ATTEMPTS));
+        }
+        return pipeline;
+    }
+
+    /**
+     * Submete o job uma única vez no cluster; se ele já existe (outro membro submeteu), devolve o existente
+     */
+    public static Job submit(HazelcastInstance instance, Pipeline pipeline, ProcessingGuarantee guarantee,
+                             long snapshotIntervalMillis) {
+        JobConfig jobConfig = new JobConfig()
+            .setName(JOB_NAME)
+            .setProcessingGuarantee(guarantee)
+            .setSnapshotIntervalMillis(snapshotIntervalMillis)
+            // Uma falha que esgota as tentativas dos sinks suspende o job, que pode ser retomado do snapshot
+            .setSuspendOnFailure(true);
+        Job job = instance.getJet().newJobIfAbsent(pipeline, jobConfig);
+
+        logger.info("Map journal pipeline '{}' submitted (id={}, guarantee={}, snapshotInterval={}ms)",
+            JOB_NAME, job.getIdString(), guarantee, snapshotIntervalMillis);
+        return job;
+    }
+
+    /**
+     * DataSource do SQL Server criado em cada membro (o supplier só carrega as credenciais)
+     */
+    public static SupplierEx<CommonDataSource> sqlServerDataSource(String connectionString, String username,
+                                                                   String password) {
+        return () -> {
+            SQLServerDataSource dataSource = new SQLServerDataSource();
+            dataSource.setURL(connectionString);
+            dataSource.setUser(username);
+            dataSource.setPassword(password);
+            return dataSource;
+        };
+    }
+
+    /**
+     * Transporte do Service Bus criado em cada membro
+     */
+    public static SupplierEx<MessageTransport> serviceBusTransport(String connectionString, String queueName) {
+        return () -> new SenderClientTransport(new ServiceBusClientBuilder()
+            .connectionString(connectionString)
+            .sender()
+            .queueName(queueName)
+            .buildClient());
+    }
+
+    private static StreamStage<ChangelogEvent> readChanges(Pipeline pipeline, String mapName, long[] lastSequences) {
+        return pipeline
+            .readFrom(Sources.<MapChange, Object, Object>mapJournal(mapName, JournalInitialPosition.START_FROM_CURRENT,
+                event -> new MapChange(mapName, event.getKey(), eventType(event),
+                    ChangelogEvent.payload(event.getKey(), event.getNewValue(), event.getOldValue()),
+                    System.currentTimeMillis()),
+                MapJournalPipeline::isChange))
+            .withoutTimestamps()
+            .setName("journal-" + mapName)
+            .mapUsingService(ServiceFactories.sharedService(ctx -> ctx.hazelcastInstance().getPartitionService()),
+                MapJournalPipeline::toEvent)
+            .groupingKey(ChangelogEvent::partitionId)
+            .mapStateful(() -> new long[] {-1},
+                (last, partitionId, event) -> {
+                    if (last[0] < 0) {
+                        last[0] = partitionId < lastSequences.length ? lastSequences[partitionId] : 0;
+                    }
+                    return sequenced(event, ++last[0]);
+                })
+            .setName("sequence-" + mapName);
+    }
+
+    /**
+     * Apenas alterações feitas pela aplicação; eviction e expiração não mudam o dado
+     */
+    private static boolean isChange(EventJournalMapEvent<Object, Object> event) {
+        EntryEventType type = event.getType();
+        return type == EntryEventType.ADDED || type == EntryEventType.UPDATED || type == EntryEventType.REMOVED;
+    }
+
+    private static String eventType(EventJournalMapEvent<Object, Object> event) {
+        return "MAP_ENTRY_" + event.getType().name();
+    }
+
+    private static ChangelogEvent toEvent(PartitionService partitionService, MapChange change) {
+        return new ChangelogEvent(change.mapName(), String.valueOf(change.key()), change.eventType(),
+            partitionService.getPartition(change.key()).getPartitionId(), 0, change.payload(), null,
+            change.originTime());
+    }
+
+    private static ChangelogEvent sequenced(ChangelogEvent event, long sequence) {
+        return new ChangelogEvent(event.mapName(), event.entryKey(), event.eventType(), event.partitionId(), sequence,
+            event.payload(), correlationId(event.mapName(), event.partitionId(), sequence), event.originTime());
+    }
+
+    /**
+     * Correlation ID de um evento, derivado da sua identidade (mapa, partição, sequência): a
+     * releitura do journal depois de voltar a um snapshot repete o mesmo ID na linha e na mensagem
+     */
+    public static String correlationId(String mapName, int partitionId, long sequence) {
+        return UUID.nameUUIDFromBytes((mapName + ":" + partitionId + ":" + sequence)
+            .getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static void bind(PreparedStatement stmt, ChangelogEvent event) throws Exception {
+        Object[] row = ChangelogWriter.toRow(event);
+        for (int i = 0; i < row.length; i++) {
+            stmt.setObject(i + 1, row[i]);
+        }
+    }
+}
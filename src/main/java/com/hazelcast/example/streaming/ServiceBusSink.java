@@ -0,0 +1,145 @@
+package com.hazelcast.example.streaming;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.hazelcast.example.database.ChangelogEvent;
+import com.hazelcast.example.messaging.ChangeTrace;
+import com.hazelcast.example.messaging.EventEncoder;
+import com.hazelcast.example.messaging.MessageTransport;
+import com.hazelcast.example.messaging.SendResult;
+import com.hazelcast.example.messaging.ServiceBusManager.EventMessage;
+import com.hazelcast.example.metrics.PropagationLag;
+import com.hazelcast.function.SupplierEx;
+import com.hazelcast.jet.pipeline.Sink;
+import com.hazelcast.jet.pipeline.SinkBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sink Jet que publica os eventos do changelog no Service Bus
+ *
+ * Cada processador acumula as mensagens recebidas e as envia em lote no flush (ao fim de cada
+ * lote de itens e antes de cada snapshot). O MessageId é a identidade do evento
+ * (mapa:partição:sequência), então os eventos reenviados depois de um restart do job são
+ * descartados pela detecção de duplicatas da fila. O correlation ID e o instante de origem do
+ * evento seguem nas propriedades da mensagem ({@link ChangeTrace}), e o atraso até a aceitação
+ * pelo broker é publicado em propagation.lag.
+ */
+public final class ServiceBusSink {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceBusSink.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+
+    private ServiceBusSink() {}
+
+    /**
+     * @param transportSupplier Cria o transporte de cada processador (executado nos membros)
+     * @param maxAttempts Tentativas de envio de um lote antes de falhar o job
+     */
+    public static Sink<ChangelogEvent> changelog(SupplierEx<? extends MessageTransport> transportSupplier,
+                                                 int maxAttempts) {
+        return SinkBuilder.sinkBuilder("service-bus-sink", ctx -> new Buffer(transportSupplier.get(), maxAttempts))
+            .<ChangelogEvent>receiveFn(Buffer::add)
+            .flushFn(Buffer::flush)
+            .destroyFn(Buffer::close)
+            .build();
+    }
+
+    /**
+     * Mensagem do evento; também usada pelos testes para conferir o formato
+     */
+    public static ServiceBusMessage toMessage(EventEncoder encoder, ChangelogEvent event) throws Exception {
+        EventMessage<ChangelogEvent> envelope = new EventMessage<>();
+        envelope.setEventType(event.eventType());
+        envelope.setTimestamp(LocalDateTime.now());
+        envelope.setData(event);
+
+        ServiceBusMessage message = new ServiceBusMessage(encoder.encode(envelope));
+        message.setContentType(encoder.getContentType());
+        message.setMessageId(event.mapName() + ":" + event.partitionId() + ":" + event.sequence());
+        // Mesma partição do Service Bus para as alterações de uma chave
+        message.setPartitionKey(event.entryKey());
+        message.getApplicationProperties().put("eventType", event.eventType());
+        new ChangeTrace(event.correlationId(), event.originTime(), event.mapName()).applyTo(message);
+        message.getApplicationProperties().put("partitionId", event.partitionId());
+        message.getApplicationProperties().put("sequence", event.sequence());
+        return message;
+    }
+
+    private static final class Buffer {
+        private final MessageTransport transport;
+        private final int maxAttempts;
+        private final EventEncoder encoder = new EventEncoder(EventEncoder.Encoding.JSON);
+        private final List<ServiceBusMessage> pending = new ArrayList<>();
+        private final List<ChangelogEvent> pendingEvents = new ArrayList<>();
+
+        Buffer(MessageTransport transport, int maxAttempts) {
+            this.transport = transport;
+            this.maxAttempts = maxAttempts;
+        }
+
+        void add(ChangelogEvent event) throws Exception {
+            pending.add(toMessage(encoder, event));
+            pendingEvents.add(event);
+        }
+
+        /**
+         * Envia o que está pendente; as novas tentativas reenviam só as mensagens recusadas.
+         * Depois da última tentativa a exceção falha o job, que retoma do último snapshot
+         */
+        void flush() throws InterruptedException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long backoff = INITIAL_BACKOFF_MILLIS;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    SendResult result = transport.send(pending);
+                    // Mantém pendentes só as mensagens dos lotes recusados
+                    List<ServiceBusMessage> failed = new ArrayList<>();
+                    List<ChangelogEvent> failedEvents = new ArrayList<>();
+                    RuntimeException error = null;
+                    for (int i = 0; i < pending.size(); i++) {
+                        Exception messageError = result.error(i);
+                        if (messageError == null) {
+                            ChangelogEvent event = pendingEvents.get(i);
+                            PropagationLag.record(PropagationLag.STAGE_SERVICE_BUS_SENT, event.mapName(), event.originTime());
+                        } else {
+                            failed.add(pending.get(i));
+                            failedEvents.add(pendingEvents.get(i));
+                            if (error == null) {
+                                error = messageError instanceof RuntimeException runtime
+                                    ? runtime : new IllegalStateException(messageError);
+                            }
+                        }
+                    }
+                    pending.clear();
+                    pending.addAll(failed);
+                    pendingEvents.clear();
+                    pendingEvents.addAll(failedEvents);
+                    if (error == null) {
+                        return;
+                    }
+                    throw error;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    logger.warn("Service Bus send of {} changelog events failed (attempt {}/{}), retrying in {} ms",
+                        pending.size(), attempt, maxAttempts, backoff, e);
+                    Thread.sleep(backoff);
+                    backoff *= 2;
+                }
+            }
+        }
+
+        void close() {
+            transport.close();
+        }
+    }
+}
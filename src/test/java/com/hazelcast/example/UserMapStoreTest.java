@@ -0,0 +1,121 @@
+package com.hazelcast.example;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.database.TestDatabase;
+import com.hazelcast.example.processors.UpdateLastLoginProcessor;
+import com.hazelcast.map.IMap;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the users map store backed by an in-memory database
+ */
+public class UserMapStoreTest {
+
+    private SqlServerManager sqlServerManager;
+    private HazelcastInstance hazelcastInstance;
+
+    @BeforeEach
+    void setUp() {
+        sqlServerManager = TestDatabase.createManager("user-map-store");
+        TestDatabase.createTables(sqlServerManager);
+
+        Config config = new Config();
+        config.setClusterName("map-store-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+
+        MapConfig usersConfig = new MapConfig(UserMapStore.MAP_NAME);
+        usersConfig.setMapStoreConfig(UserMapStore.createMapStoreConfig(0)
+            .setImplementation(new UserMapStore(sqlServerManager)));
+        config.addMapConfig(usersConfig);
+
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.shutdown();
+        TestDatabase.dropTables(sqlServerManager);
+        sqlServerManager.shutdown();
+    }
+
+    @Test
+    void testPutAllIsWrittenThroughToDatabase() {
+        IMap<String, UserData> users = hazelcastInstance.getMap(UserMapStore.MAP_NAME);
+
+        Map<String, UserData> batch = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            batch.put("user" + i, new UserData("user" + i, "User " + i, "user" + i + "@example.com"));
+        }
+        users.putAll(batch);
+
+        assertEquals(List.of("100"), sqlServerManager.executeQuery("SELECT COUNT(*) FROM users"));
+
+        users.remove("user0");
+        assertEquals(List.of("99"), sqlServerManager.executeQuery("SELECT COUNT(*) FROM users"));
+    }
+
+    @Test
+    void testMissIsReadThroughFromDatabase() {
+        sqlServerManager.executeUpdate("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)",
+            "db-user", "Database User", "db@example.com");
+
+        IMap<String, UserData> users = hazelcastInstance.getMap(UserMapStore.MAP_NAME);
+        UserData loaded = users.get("db-user");
+
+        assertNotNull(loaded);
+        assertEquals("Database User", loaded.getUsername());
+        assertEquals("db@example.com", loaded.getEmail());
+        assertNotNull(loaded.getCreatedAt());
+        assertNull(users.get("missing-user"));
+    }
+
+    @Test
+    void testInitialLoadReadsAllKeys() {
+        for (int i = 0; i < 50; i++) {
+            sqlServerManager.executeUpdate("INSERT INTO users (user_id, username) VALUES (?, ?)",
+                "preloaded" + i, "Preloaded " + i);
+        }
+
+        // First access of a LAZY map triggers loadAllKeys + loadAll
+        IMap<String, UserData> users = hazelcastInstance.getMap(UserMapStore.MAP_NAME);
+        assertEquals(50, users.size());
+        assertEquals("Preloaded 7", users.get("preloaded7").getUsername());
+
+        // The key query is closed once the keys are consumed, returning its connection to the pool
+        HikariDataSource dataSource = (HikariDataSource) sqlServerManager.getDataSource();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dataSource.getHikariPoolMXBean().getActiveConnections() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    void testEntryProcessorUpdatesAreWrittenThrough() {
+        IMap<String, UserData> users = hazelcastInstance.getMap(UserMapStore.MAP_NAME);
+        users.put("user1", new UserData("user1", "User 1", "user1@example.com"));
+
+        users.executeOnKey("user1", new UpdateLastLoginProcessor(LocalDateTime.of(2024, 3, 10, 8, 15)));
+
+        try (Stream<LocalDateTime> lastLogin = sqlServerManager.stream("SELECT last_login FROM users WHERE user_id = ?",
+                rs -> rs.getTimestamp(1).toLocalDateTime(), "user1")) {
+            assertEquals(LocalDateTime.of(2024, 3, 10, 8, 15), lastLogin.findFirst().orElseThrow());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.hazelcast.example.affinity;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-user data co-location on a two-member cluster
+ */
+public class UserAffinityTest {
+
+    private HazelcastInstance member1;
+    private HazelcastInstance member2;
+    private HazelcastInstance client;
+
+    @BeforeEach
+    void setUp() {
+        member1 = Hazelcast.newHazelcastInstance(createConfig());
+        member2 = Hazelcast.newHazelcastInstance(createConfig());
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName("affinity-test");
+        InetSocketAddress address = member1.getCluster().getLocalMember().getSocketAddress();
+        clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+        DomainSerializers.register(clientConfig.getSerializationConfig());
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    private static Config createConfig() {
+        Config config = new Config();
+        config.setClusterName("affinity-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        DomainSerializers.register(config.getSerializationConfig());
+        return config;
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        member2.shutdown();
+        member1.shutdown();
+    }
+
+    @Test
+    void testUserDataSharesOnePartition() {
+        assertEquals(2, member1.getCluster().getMembers().size());
+
+        for (int i = 0; i < 50; i++) {
+            String userId = "user" + i;
+            assertEquals(UserAffinity.partitionOf(client, userId).getPartitionId(),
+                client.getPartitionService().getPartition(UserKey.profile(userId)).getPartitionId());
+        }
+    }
+
+    @Test
+    void testContextIsLoadedOnThePartitionOwner() throws Exception {
+        IMap<String, UserData> users = client.getMap(UserAffinity.USERS_MAP);
+        IMap<String, UserSession> sessions = client.getMap(UserAffinity.SESSIONS_MAP);
+        IMap<Object, Object> cache = client.getMap(UserAffinity.CACHE_MAP);
+
+        users.put("user123", new UserData("user123", "John Doe", "john@example.com"));
+        sessions.put("user123", new UserSession("user123", "John Doe", LocalDateTime.now()));
+        cache.put(UserKey.profile("user123"), new UserProfile("John Doe", "john@example.com"));
+
+        UserContext context = UserAffinity.loadContext(client, "user123").get(10, TimeUnit.SECONDS);
+
+        assertEquals("john@example.com", context.user().getEmail());
+        assertEquals("John Doe", context.session().getUsername());
+        assertEquals("john@example.com", context.profile().getEmail());
+
+        UserContext missing = UserAffinity.loadContext(client, "nobody").get(10, TimeUnit.SECONDS);
+        assertNull(missing.user());
+        assertNull(missing.session());
+        assertNull(missing.profile());
+    }
+}
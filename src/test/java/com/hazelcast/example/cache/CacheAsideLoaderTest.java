@@ -0,0 +1,139 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cache-aside loader against an embedded member
+ */
+public class CacheAsideLoaderTest {
+
+    private HazelcastInstance hazelcastInstance;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("cache-aside-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        executor = Executors.newFixedThreadPool(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        IMap<String, String> map = hazelcastInstance.getMap("products");
+        AtomicInteger backendCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CacheAsideLoader<String, String> loader = new CacheAsideLoader<>(map, key -> {
+            backendCalls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "data for " + key;
+        }, Duration.ofSeconds(30), 0, Duration.ZERO, executor);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> loader.get("laptop")));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("data for laptop", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, backendCalls.get());
+        assertEquals(1, loader.getLoads());
+        assertEquals("data for laptop", map.get("laptop"));
+        assertTrue(map.getEntryView("laptop").getExpirationTime() < Long.MAX_VALUE);
+    }
+
+    @Test
+    void testAbsentKeysAreNegativelyCached() {
+        IMap<String, String> map = hazelcastInstance.getMap("products");
+        AtomicInteger backendCalls = new AtomicInteger();
+        CacheAsideLoader<String, String> loader = new CacheAsideLoader<>(map, key -> {
+            backendCalls.incrementAndGet();
+            return null;
+        }, Duration.ofSeconds(30), 0, Duration.ofMinutes(1), executor);
+
+        assertNull(loader.get("missing"));
+        assertNull(loader.get("missing"));
+        assertNull(loader.get("missing"));
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(2, loader.getNegativeHits());
+        assertFalse(map.containsKey("missing"));
+
+        loader.invalidate("missing");
+        assertNull(loader.get("missing"));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void testEntriesCloseToExpiryAreRefreshedInBackground() throws Exception {
+        IMap<String, String> map = hazelcastInstance.getMap("products");
+        AtomicInteger version = new AtomicInteger();
+        CacheAsideLoader<String, String> loader = new CacheAsideLoader<>(map, key -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "v" + version.incrementAndGet();
+        }, Duration.ofSeconds(30), 1_000_000, Duration.ZERO, executor);
+
+        // A load cost of ~20ms with a huge beta makes every hit fall inside the refresh window
+        assertEquals("v1", loader.get("mouse"));
+        assertEquals("v1", loader.get("mouse"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"v2".equals(map.get("mouse")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("v2", map.get("mouse"));
+        assertTrue(loader.getEarlyRefreshes() >= 1);
+    }
+
+    @Test
+    void testLoadFailureIsNotCached() {
+        IMap<String, String> map = hazelcastInstance.getMap("products");
+        AtomicInteger attempts = new AtomicInteger();
+        CacheAsideLoader<String, String> loader = new CacheAsideLoader<>(map, key -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RuntimeException("database unavailable");
+            }
+            return "recovered";
+        }, Duration.ofSeconds(30), 0, Duration.ofMinutes(1), executor);
+
+        assertThrows(IllegalStateException.class, () -> loader.get("keyboard"));
+        assertEquals("recovered", loader.get("keyboard"));
+        assertEquals(1, loader.getLoadFailures());
+    }
+}
@@ -0,0 +1,127 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.UserMapStore;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.database.TestDatabase;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the range-based warm-up of the users map on a two-member cluster
+ */
+public class CacheWarmerTest {
+
+    private static final int USERS = 1000;
+
+    private SqlServerManager sqlServerManager;
+    private HazelcastInstance member1;
+    private HazelcastInstance member2;
+
+    @BeforeEach
+    void setUp() {
+        sqlServerManager = TestDatabase.createManager("cache-warmer");
+        TestDatabase.createTables(sqlServerManager);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[] {"user" + i, "User " + i, "user" + i + "@example.com"});
+        }
+        sqlServerManager.executeBatch("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)", rows);
+
+        member1 = Hazelcast.newHazelcastInstance(createConfig());
+        member2 = Hazelcast.newHazelcastInstance(createConfig());
+    }
+
+    private Config createConfig() {
+        Config config = new Config();
+        config.setClusterName("cache-warmer-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        DomainSerializers.register(config.getSerializationConfig());
+
+        // The warm-up replaces the initial load through loadAllKeys
+        MapConfig usersConfig = new MapConfig(UserMapStore.MAP_NAME);
+        usersConfig.setMapStoreConfig(UserMapStore.createMapStoreConfig(0)
+            .setImplementation(new UserMapStore(sqlServerManager))
+            .setProperty(UserMapStore.PROPERTY_INITIAL_LOAD, "false"));
+        config.addMapConfig(usersConfig);
+        return config;
+    }
+
+    @AfterEach
+    void tearDown() {
+        member2.shutdown();
+        member1.shutdown();
+        TestDatabase.dropTables(sqlServerManager);
+        sqlServerManager.shutdown();
+    }
+
+    @Test
+    void testEachMemberLoadsOnlyTheKeysItOwns() throws Exception {
+        assertEquals(2, member1.getCluster().getMembers().size());
+        IMap<String, UserData> users = member1.getMap(UserMapStore.MAP_NAME);
+        assertEquals(0, users.size());
+
+        CacheWarmer.Settings settings = new CacheWarmer.Settings(UserMapStore.MAP_NAME, "users", "user_id",
+            true, 3, 100, 50);
+        CacheWarmer warmer1 = new CacheWarmer(member1, sqlServerManager, settings);
+        CacheWarmer warmer2 = new CacheWarmer(member2, sqlServerManager, settings);
+        assertFalse(warmer1.isReady());
+
+        warmer1.start();
+        warmer2.start().get(60, TimeUnit.SECONDS);
+        warmer1.start().get(60, TimeUnit.SECONDS);
+
+        assertTrue(warmer1.isReady());
+        assertEquals(CacheWarmer.State.COMPLETED, warmer1.getState());
+        // 10 boundaries (every 100th key) give 11 ranges, the last one holding only the last boundary
+        assertEquals(11, warmer1.getTotalRanges());
+        assertEquals(11, warmer1.getCompletedRanges());
+        assertEquals(USERS, warmer1.getScannedKeys());
+        assertEquals(USERS, warmer2.getScannedKeys());
+
+        // Every key is loaded exactly once, by its owner
+        assertTrue(warmer1.getLoadedKeys() > 0 && warmer2.getLoadedKeys() > 0);
+        assertEquals(USERS, warmer1.getLoadedKeys() + warmer2.getLoadedKeys());
+        assertEquals(warmer1.getLoadedKeys(), member1.getMap(UserMapStore.MAP_NAME).getLocalMapStats().getOwnedEntryCount());
+        assertEquals(USERS, users.size());
+        assertEquals("User 42", users.get("user42").getUsername());
+        assertEquals("COMPLETED", warmer1.getProgress().get("state"));
+    }
+
+    @Test
+    void testEntriesWrittenDuringWarmUpAreKept() throws Exception {
+        IMap<String, UserData> users = member1.getMap(UserMapStore.MAP_NAME);
+        users.put("user7", new UserData("user7", "Renamed", "user7@example.com"));
+
+        CacheWarmer.Settings settings = CacheWarmer.Settings.defaults(UserMapStore.MAP_NAME, "users", "user_id");
+        new CacheWarmer(member1, sqlServerManager, settings).start().get(60, TimeUnit.SECONDS);
+        new CacheWarmer(member2, sqlServerManager, settings).start().get(60, TimeUnit.SECONDS);
+
+        assertEquals(USERS, users.size());
+        assertEquals("Renamed", users.get("user7").getUsername());
+    }
+
+    @Test
+    void testFailureStillReleasesReadiness() {
+        CacheWarmer warmer = new CacheWarmer(member1, sqlServerManager,
+            CacheWarmer.Settings.defaults(UserMapStore.MAP_NAME, "missing_table", "user_id"));
+
+        assertThrows(Exception.class, () -> warmer.start().get(60, TimeUnit.SECONDS));
+        assertEquals(CacheWarmer.State.FAILED, warmer.getState());
+        assertTrue(warmer.isReady());
+    }
+}
@@ -0,0 +1,105 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nearcache.NearCacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the client Near Cache configuration against an embedded member
+ */
+public class NearCacheSupportTest {
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("near-cache-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        NearCacheSupport.configureInvalidation(config);
+        // Send invalidations immediately so the test does not wait for a batch
+        config.setProperty("hazelcast.map.invalidation.batch.enabled", "false");
+        member = Hazelcast.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName("near-cache-test");
+        InetSocketAddress address = member.getCluster().getLocalMember().getSocketAddress();
+        clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+        NearCacheSupport.configure(clientConfig,
+            NearCacheSupport.Settings.defaults("product-cache", InMemoryFormat.OBJECT, 100, 30));
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        member.shutdown();
+    }
+
+    @Test
+    void testRepeatedReadsAreServedLocally() {
+        IMap<String, String> productCache = client.getMap("product-cache");
+        productCache.put("laptop", "Laptop data");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Laptop data", productCache.get("laptop"));
+        }
+
+        NearCacheStats stats = NearCacheSupport.getStats(client, "product-cache");
+        assertNotNull(stats);
+        assertEquals(1, stats.getMisses());
+        assertEquals(9, stats.getHits());
+        assertEquals(1, stats.getOwnedEntryCount());
+        assertEquals(90.0, NearCacheSupport.hitPercentage(stats), 0.001);
+    }
+
+    @Test
+    void testCacheAsideReadsWithoutEarlyRefreshUseTheNearCache() {
+        IMap<String, String> productCache = client.getMap("product-cache");
+        CacheAsideLoader<String, String> loader = new CacheAsideLoader<>(productCache, key -> key + " data",
+            Duration.ofSeconds(30), 0, Duration.ofSeconds(10), Runnable::run);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("keyboard data", loader.get("keyboard"));
+        }
+
+        assertEquals(1, loader.getLoads());
+        assertTrue(NearCacheSupport.getStats(client, "product-cache").getHits() >= 8);
+    }
+
+    @Test
+    void testMemberUpdateInvalidatesNearCache() throws Exception {
+        IMap<String, String> productCache = client.getMap("product-cache");
+        productCache.put("mouse", "v1");
+        assertEquals("v1", productCache.get("mouse"));
+
+        member.<String, String>getMap("product-cache").put("mouse", "v2");
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!"v2".equals(productCache.get("mouse")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals("v2", productCache.get("mouse"));
+        assertTrue(NearCacheSupport.getStats(client, "product-cache").getInvalidations() >= 1);
+    }
+
+    @Test
+    void testMapsWithoutNearCacheHaveNoStats() {
+        client.getMap("other-map").put("key", "value");
+        assertNull(NearCacheSupport.getStats(client, "other-map"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.hazelcast.example.cache;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the pipelined map facade through a client connected to an embedded member
+ */
+public class PipelinedMapTest {
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("pipelined-map-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        member = Hazelcast.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName("pipelined-map-test");
+        InetSocketAddress address = member.getCluster().getLocalMember().getSocketAddress();
+        clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        member.shutdown();
+    }
+
+    @Test
+    void testBulkWritesAndReadsArePartitionGrouped() {
+        PipelinedMap<String, String> map = new PipelinedMap<>(client, "pipelined", 16);
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put("key-" + i, "value-" + i);
+        }
+
+        Map<Integer, Map<String, String>> groups = map.groupByPartition(entries);
+        assertTrue(groups.size() > 1);
+        groups.forEach((partitionId, group) -> group.keySet().forEach(key ->
+            assertEquals(partitionId, client.getPartitionService().getPartition(key).getPartitionId())));
+
+        map.putAll(entries).toCompletableFuture().join();
+        assertEquals(1000, member.getMap("pipelined").size());
+
+        List<String> keys = new ArrayList<>(List.of("key-1", "key-500", "key-999", "missing"));
+        Map<String, String> values = map.getAll(keys).toCompletableFuture().join();
+        assertEquals(Map.of("key-1", "value-1", "key-500", "value-500", "key-999", "value-999"), values);
+
+        map.setAll(Map.of("key-1", "updated")).toCompletableFuture().join();
+        assertEquals("updated", map.getAsync("key-1").toCompletableFuture().join());
+    }
+
+    @Test
+    void testPipelineBoundsPendingOperationsAndKeepsOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            PipelinedMap<String, String> map = new PipelinedMap<>(client, "pipelined", 4);
+            AtomicInteger pending = new AtomicInteger();
+            AtomicInteger maxPending = new AtomicInteger();
+
+            List<Integer> results = map.pipeline(IntStream.range(0, 100).boxed().toList(), item -> {
+                maxPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+                return CompletableFuture.supplyAsync(() -> {
+                    sleep(2);
+                    pending.decrementAndGet();
+                    return item * 2;
+                }, executor);
+            }).toCompletableFuture().join();
+
+            assertEquals(IntStream.range(0, 100).map(i -> i * 2).boxed().toList(), results);
+            // The next operation is issued just before the pipeline waits for a free slot
+            assertTrue(maxPending.get() <= 5, "Pending operations: " + maxPending.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedOperationFailsTheBatch() {
+        PipelinedMap<String, String> map = new PipelinedMap<>(client, "pipelined");
+
+        CompletableFuture<List<Object>> result = map.<Integer, Object>pipeline(List.of(1, 2, 3), item -> item == 2
+            ? CompletableFuture.failedFuture(new IllegalStateException("boom"))
+            : CompletableFuture.completedFuture(item)).toCompletableFuture();
+
+        assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
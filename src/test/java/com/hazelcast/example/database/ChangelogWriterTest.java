@@ -0,0 +1,227 @@
+package com.hazelcast.example.database;
+
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.example.metrics.PropagationLag;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ordered, idempotent changelog writer against an in-memory database
+ */
+public class ChangelogWriterTest {
+
+    private static final String MAP_NAME = "sync-data";
+    private static final int PARTITIONS = 16;
+    private static final long ORIGIN_TIME = 1_700_000_000_000L;
+
+    private SqlServerManager sqlServerManager;
+
+    @BeforeEach
+    void setUp() {
+        sqlServerManager = TestDatabase.createManager("changelog");
+        TestDatabase.createTables(sqlServerManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.dropTables(sqlServerManager);
+        sqlServerManager.shutdown();
+    }
+
+    @Test
+    void testReplayedEventsAreWrittenOnce() {
+        List<ChangelogEvent> events = events(50);
+
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 4, 1000, 20, 50, 1000, 3);
+        events.forEach(writer::submit);
+        writer.close();
+        assertEquals(events.size(), writer.getInsertedRows());
+
+        // Same events again, e.g. a retried pipeline after a crash
+        ChangelogWriter replay = new ChangelogWriter(sqlServerManager, 4, 1000, 20, 50, 1000, 3);
+        events.forEach(replay::submit);
+        replay.close();
+
+        assertEquals(0, replay.getInsertedRows());
+        assertEquals(events.size(), replay.getDuplicateRows());
+        assertEquals(List.of(String.valueOf(events.size())),
+            sqlServerManager.executeQuery("SELECT COUNT(*) FROM user_events"));
+    }
+
+    @Test
+    void testEventsOfAPartitionAreWrittenInSequenceOrder() {
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 4, 1000, 7, 20, 1000, 3);
+        events(100).forEach(writer::submit);
+        writer.close();
+        assertEquals(0, writer.getFailedRows());
+
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            // Insertion order (identity) must match sequence order within the partition
+            List<String> byId = sqlServerManager.executeQuery(
+                "SELECT sequence_no FROM user_events WHERE partition_id = ? ORDER BY id", partition);
+            List<String> bySequence = sqlServerManager.executeQuery(
+                "SELECT sequence_no FROM user_events WHERE partition_id = ? ORDER BY sequence_no", partition);
+            assertEquals(100, byId.size());
+            assertEquals(bySequence, byId);
+        }
+    }
+
+    @Test
+    void testFailedBatchIsRetried() throws InterruptedException {
+        TestDatabase.dropTables(sqlServerManager);
+
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 1, 100, 10, 20, 1000, 20);
+        events(2).forEach(writer::submit);
+
+        // The table comes back while the lane is backing off
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.getRetryCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        TestDatabase.createTables(sqlServerManager);
+        writer.close();
+
+        assertTrue(writer.getRetryCount() > 0);
+        assertEquals(0, writer.getFailedRows());
+        assertEquals(2 * PARTITIONS, writer.getInsertedRows());
+    }
+
+    @Test
+    void testStalledLaneWritesEverySequenceOnceTheDatabaseRecovers() throws InterruptedException {
+        TestDatabase.dropTables(sqlServerManager);
+
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 1, 1000, 10, 20, 1000, 2);
+        List<ChangelogEvent> events = events(3);
+        events.forEach(writer::submit);
+
+        // Well past maxAttempts the lane keeps the batch instead of moving on
+        awaitTrue(() -> writer.getRetryCount() > 4 && writer.getStalledLaneCount() == 1);
+        assertEquals(0, writer.getInsertedRows());
+        TestDatabase.createTables(sqlServerManager);
+        awaitTrue(() -> writer.getInsertedRows() == events.size());
+        writer.close();
+
+        assertEquals(0, writer.getFailedRows());
+        assertEquals(0, writer.getStalledLaneCount());
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            assertEquals(List.of("1", "2", "3"), sqlServerManager.executeQuery(
+                "SELECT sequence_no FROM user_events WHERE partition_id = ? ORDER BY id", partition));
+        }
+    }
+
+    @Test
+    void testFullQueueFailsThePartitionInsteadOfSkippingAhead() throws InterruptedException {
+        TestDatabase.dropTables(sqlServerManager);
+
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 1, 4, 2, 20, 50, 2);
+        int accepted = 0;
+        for (long sequence = 1; sequence <= 20; sequence++) {
+            if (writer.submit(new ChangelogEvent(MAP_NAME, "key", "MAP_ENTRY_UPDATED", 0, sequence, "{}", null, 0))) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted < 20);
+        assertEquals(20 - accepted, writer.getRejectedCount());
+        assertEquals(Set.of(MAP_NAME + ":0"), writer.getFailedPartitions());
+
+        TestDatabase.createTables(sqlServerManager);
+        int written = accepted;
+        awaitTrue(() -> writer.getInsertedRows() == written);
+        // The failed partition stays closed; the others sharing its lane go on
+        assertFalse(writer.submit(new ChangelogEvent(MAP_NAME, "key", "MAP_ENTRY_UPDATED", 0, 21, "{}", null, 0)));
+        assertTrue(writer.submit(new ChangelogEvent(MAP_NAME, "other", "MAP_ENTRY_UPDATED", 1, 1, "{}", null, 0)));
+        writer.close();
+
+        // The partition's changelog ends at the last accepted event, with no gaps before it
+        assertEquals(LongStream.rangeClosed(1, accepted).mapToObj(String::valueOf).toList(),
+            sqlServerManager.executeQuery("SELECT sequence_no FROM user_events WHERE partition_id = 0 ORDER BY id"));
+        assertArrayEquals(new long[] {accepted, 1},
+            Arrays.copyOf(ChangelogWriter.lastSequences(sqlServerManager, MAP_NAME, PARTITIONS), 2));
+    }
+
+    @Test
+    void testIncrementalReadAndLastSequences() {
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 2, 1000, 50, 20, 1000, 3);
+        events(10).forEach(writer::submit);
+        writer.close();
+
+        List<ChangelogEvent> firstPage = ChangelogWriter.read(sqlServerManager, MAP_NAME, 3, 0, 4);
+        assertEquals(List.of(1L, 2L, 3L, 4L), firstPage.stream().map(ChangelogEvent::sequence).toList());
+        List<ChangelogEvent> nextPage = ChangelogWriter.read(sqlServerManager, MAP_NAME, 3, 4, 100);
+        assertEquals(6, nextPage.size());
+        assertEquals(5L, nextPage.get(0).sequence());
+
+        ChangelogEvent event = nextPage.get(0);
+        assertEquals("key-3-5", event.entryKey());
+        assertEquals("MAP_ENTRY_UPDATED", event.eventType());
+        assertEquals("{\"key\":\"key-3-5\",\"value\":\"value-5\",\"oldValue\":\"value-4\"}", event.payload());
+        assertEquals("trace-key-3-5", event.correlationId());
+        assertEquals(ORIGIN_TIME + 5, event.originTime());
+
+        long[] last = ChangelogWriter.lastSequences(sqlServerManager, MAP_NAME, PARTITIONS);
+        for (long sequence : last) {
+            assertEquals(10, sequence);
+        }
+        assertArrayEquals(new long[PARTITIONS], ChangelogWriter.lastSequences(sqlServerManager, "other", PARTITIONS));
+    }
+
+    @Test
+    void testPropagationLagIsRecordedForWrittenRows() {
+        AppMetrics.prometheus();
+        long before = sqlLagCount();
+
+        ChangelogWriter writer = new ChangelogWriter(sqlServerManager, 2, 1000, 50, 20, 1000, 3);
+        events(3).forEach(writer::submit);
+        // Without an origin time there is nothing to measure
+        writer.submit(new ChangelogEvent(MAP_NAME, "untraced", "MAP_ENTRY_ADDED", 0, 4, "{}", null, 0));
+        writer.close();
+
+        assertEquals(3 * PARTITIONS + 1, writer.getInsertedRows());
+        assertEquals(3 * PARTITIONS, sqlLagCount() - before);
+        assertEquals(List.of("1"), sqlServerManager.executeQuery(
+            "SELECT COUNT(*) FROM user_events WHERE correlation_id IS NULL AND origin_time IS NULL"));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 20 s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static long sqlLagCount() {
+        Timer timer = AppMetrics.registry().find("propagation.lag")
+            .tags("stage", PropagationLag.STAGE_SQL, "map", MAP_NAME).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    /**
+     * {@code perPartition} events for each partition, interleaved across partitions
+     */
+    private static List<ChangelogEvent> events(int perPartition) {
+        List<ChangelogEvent> events = new ArrayList<>();
+        for (long sequence = 1; sequence <= perPartition; sequence++) {
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                String key = "key-" + partition + "-" + sequence;
+                events.add(new ChangelogEvent(MAP_NAME, key, "MAP_ENTRY_UPDATED", partition, sequence,
+                    ChangelogEvent.payload(key, "value-" + sequence, "value-" + (sequence - 1)),
+                    "trace-" + key, ORIGIN_TIME + sequence));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,254 @@
+package com.hazelcast.example.database;
+
+import com.hazelcast.example.metrics.AppMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SqlServerManager against an in-memory database
+ */
+public class SqlServerManagerTest {
+
+    private static final String[] USER_COLUMNS = {"user_id", "username", "email", "last_login"};
+
+    private SqlServerManager sqlServerManager;
+
+    @BeforeEach
+    void setUp() {
+        sqlServerManager = TestDatabase.createManager("sql-server-manager");
+        TestDatabase.createTables(sqlServerManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.dropTables(sqlServerManager);
+        sqlServerManager.shutdown();
+    }
+
+    private void insertUsers(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"user" + i, "User " + i, "user" + i + "@example.com", LocalDateTime.now()});
+        }
+        sqlServerManager.executeUpsertBatch("users", "user_id", USER_COLUMNS, rows);
+    }
+
+    @Test
+    void testSingleRowUpsertInsertsThenUpdates() {
+        Object[] values = {"user1", "User 1", "user1@example.com", LocalDateTime.now()};
+        assertEquals(1, sqlServerManager.executeUpsert("users", "user_id", USER_COLUMNS, values));
+
+        Object[] updated = {"user1", "User One", "one@example.com", LocalDateTime.now()};
+        assertEquals(1, sqlServerManager.executeUpsert("users", "user_id", USER_COLUMNS, updated));
+
+        assertEquals(List.of("User One, one@example.com"),
+            sqlServerManager.executeQuery("SELECT username, email FROM users WHERE user_id = ?", "user1"));
+    }
+
+    @Test
+    void testBatchUpsertIsChunkedBelowParameterLimit() {
+        // 4 columns -> 500 rows per statement, so 1234 rows need three chunks
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1234; i++) {
+            rows.add(new Object[]{"user" + i, "User " + i, "user" + i + "@example.com", LocalDateTime.now()});
+        }
+
+        assertEquals(1234, sqlServerManager.executeUpsertBatch("users", "user_id", USER_COLUMNS, rows));
+        assertEquals(List.of("1234"), sqlServerManager.executeQuery("SELECT COUNT(*) FROM users"));
+
+        // Second pass updates every row instead of inserting
+        for (Object[] row : rows) {
+            row[1] = "Renamed";
+        }
+        assertEquals(1234, sqlServerManager.executeUpsertBatch("users", "user_id", USER_COLUMNS, rows));
+        assertEquals(List.of("1234"),
+            sqlServerManager.executeQuery("SELECT COUNT(*) FROM users WHERE username = ?", "Renamed"));
+    }
+
+    @Test
+    void testBatchUpsertKeepsLastValueForDuplicateKeys() {
+        List<Object[]> rows = List.of(
+            new Object[]{"user1", "First", "a@example.com", null},
+            new Object[]{"user2", "Other", "b@example.com", null},
+            new Object[]{"user1", "Last", "c@example.com", null});
+
+        assertEquals(2, sqlServerManager.executeUpsertBatch("users", "user_id", USER_COLUMNS, rows));
+        assertEquals(List.of("Last"),
+            sqlServerManager.executeQuery("SELECT username FROM users WHERE user_id = ?", "user1"));
+    }
+
+    @Test
+    void testGeneratedMergeSqlIsCached() {
+        SqlTextCache<?> cache = sqlServerManager.getMergeSqlCache();
+        long missesBefore = cache.getMisses();
+
+        for (int i = 0; i < 10; i++) {
+            Object[] values = {"user" + i, "User " + i, null, null};
+            sqlServerManager.executeUpsert("users", "user_id", USER_COLUMNS, values);
+        }
+
+        assertEquals(missesBefore + 1, cache.getMisses());
+        assertTrue(cache.getHits() >= 9);
+        assertTrue(cache.getHitRate() > 0.8);
+
+        // The same numbers are published as metrics of this pool
+        AppMetrics.prometheus();
+        String pool = ((HikariDataSource) sqlServerManager.getDataSource()).getPoolName();
+        assertEquals(cache.getHits(), AppMetrics.registry().get("sql.merge.cache.requests")
+            .tags("pool", pool, "result", "hit").functionCounter().count());
+        assertEquals(cache.getMisses(), AppMetrics.registry().get("sql.merge.cache.requests")
+            .tags("pool", pool, "result", "miss").functionCounter().count());
+        assertEquals(cache.getHitRate(), AppMetrics.registry().get("sql.merge.cache.hit.ratio")
+            .tag("pool", pool).gauge().value());
+    }
+
+    @Test
+    void testStatementNamesUseVerbAndTable() {
+        assertEquals("select users", SqlServerManager.statementName("SELECT user_id FROM users WHERE user_id = ?"));
+        assertEquals("insert user_events", SqlServerManager.statementName(ChangelogWriter.INSERT_SQL));
+        assertEquals("update users", SqlServerManager.statementName("update [users] SET last_login = ?"));
+        assertEquals("merge users", SqlServerManager.statementName(
+            "MERGE INTO users AS target USING (VALUES (?, ?)) AS source (user_id, username) ON 1 = 1"));
+        assertEquals("delete user_events", SqlServerManager.statementName("  DELETE FROM user_events"));
+        assertEquals("if", SqlServerManager.statementName("IF NOT EXISTS (SELECT * FROM sysobjects) CREATE TABLE t"));
+    }
+
+    @Test
+    void testSqlTextCacheEvictsLeastRecentlyUsed() {
+        SqlTextCache<String> cache = new SqlTextCache<>(2);
+        cache.get("a", key -> "SQL " + key);
+        cache.get("b", key -> "SQL " + key);
+        cache.get("a", key -> "SQL " + key);
+        cache.get("c", key -> "SQL " + key);
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getMisses());
+        // "b" was evicted, "a" is still cached
+        cache.get("a", key -> "SQL " + key);
+        assertEquals(3, cache.getMisses());
+        cache.get("b", key -> "SQL " + key);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void testStreamMapsRowsAndReleasesConnection() {
+        insertUsers(2500);
+        HikariDataSource dataSource = (HikariDataSource) sqlServerManager.getDataSource();
+
+        long count;
+        try (Stream<String> emails = sqlServerManager.stream(
+                "SELECT email FROM users ORDER BY id", 100, rs -> rs.getString("email"))) {
+            count = emails.filter(email -> email.endsWith("@example.com")).count();
+            assertEquals(1, dataSource.getHikariPoolMXBean().getActiveConnections());
+        }
+
+        assertEquals(2500, count);
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    void testStreamClosedEarlyReleasesConnection() {
+        insertUsers(100);
+        HikariDataSource dataSource = (HikariDataSource) sqlServerManager.getDataSource();
+
+        try (Stream<String> ids = sqlServerManager.stream(
+                "SELECT user_id FROM users WHERE username LIKE ? ORDER BY id", rs -> rs.getString(1), "User%")) {
+            assertEquals(List.of("user0", "user1"), ids.limit(2).collect(Collectors.toList()));
+        }
+
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    void testForEachRowDeliversTypedRows() {
+        insertUsers(10);
+        List<Long> ids = new ArrayList<>();
+
+        long rows = sqlServerManager.forEachRow("SELECT id FROM users ORDER BY id", 3,
+            rs -> rs.getLong(1), ids::add);
+
+        assertEquals(10, rows);
+        assertEquals(10, ids.size());
+        assertEquals(-1, sqlServerManager.forEachRow("SELECT * FROM missing_table", 3,
+            rs -> rs.getLong(1), ids::add));
+    }
+
+    @Test
+    void testBatchUpsertRejectsUnknownKeyColumn() {
+        assertThrows(IllegalArgumentException.class, () ->
+            sqlServerManager.executeUpsertBatch("users", "id", USER_COLUMNS, List.of()));
+    }
+
+    @Test
+    void testBulkInsertFallsBackToBatchedInsertInRequestedOrder() {
+        String[] columns = {"user_id", "event_type", "partition_id", "origin_time"};
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Object[]{String.format("user%03d", i), "BULK_EVENT", i % 4, new Timestamp(1_700_000_000_000L + i)});
+        }
+        Collections.shuffle(rows);
+
+        BulkInsertOptions options = new BulkInsertOptions(50, true, List.of("partition_id", "user_id"), 30);
+        assertEquals(100, sqlServerManager.bulkInsert("user_events", columns, rows, options));
+
+        // H2 has no bulk copy: the rows go through INSERT in the requested order, which the identity keeps
+        List<String> inserted = sqlServerManager.executeQuery("SELECT user_id FROM user_events ORDER BY id");
+        assertEquals(rows.stream()
+                .sorted(Comparator.comparing((Object[] row) -> (Integer) row[2])
+                    .thenComparing(row -> (String) row[0]))
+                .map(row -> (String) row[0])
+                .toList(),
+            inserted);
+        try (Stream<Long> originTimes = sqlServerManager.stream(
+                "SELECT origin_time FROM user_events WHERE user_id = 'user005'", rs -> rs.getTimestamp(1).getTime())) {
+            assertEquals(List.of(1_700_000_000_005L), originTimes.toList());
+        }
+        assertEquals(0, sqlServerManager.bulkInsert("user_events", columns, List.of(), options));
+        assertThrows(IllegalArgumentException.class, () -> sqlServerManager.bulkInsert("user_events", columns, rows,
+            new BulkInsertOptions(0, false, List.of("missing"), 0)));
+    }
+
+    @Test
+    void testBulkRecordInfersColumnMetadataFromValues() throws Exception {
+        String[] columns = {"name", "count", "total", "amount", "at", "empty"};
+        List<Object[]> rows = List.of(
+            new Object[]{"short", 1, 10L, new BigDecimal("12.5"), LocalDateTime.of(2024, 1, 1, 0, 0), null},
+            new Object[]{"a longer value", null, 20L, new BigDecimal("1234.125"), null, null});
+        RowBulkRecord record = new RowBulkRecord(columns, rows);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), List.copyOf(record.getColumnOrdinals()));
+        assertEquals(Types.NVARCHAR, record.getColumnType(1));
+        assertEquals(14, record.getPrecision(1));
+        assertEquals(Types.INTEGER, record.getColumnType(2));
+        assertEquals(Types.BIGINT, record.getColumnType(3));
+        assertEquals(Types.DECIMAL, record.getColumnType(4));
+        assertEquals(7, record.getPrecision(4));
+        assertEquals(3, record.getScale(4));
+        assertEquals(Types.TIMESTAMP, record.getColumnType(5));
+        assertEquals(Types.NVARCHAR, record.getColumnType(6));
+
+        assertTrue(record.next());
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0)), record.getRowData()[4]);
+        assertTrue(record.next());
+        assertEquals("a longer value", record.getRowData()[0]);
+        assertFalse(record.next());
+
+        assertThrows(IllegalArgumentException.class, () -> new RowBulkRecord(new String[]{"value"},
+            List.<Object[]>of(new Object[]{"text"}, new Object[]{1})));
+    }
+}
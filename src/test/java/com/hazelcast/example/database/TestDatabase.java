@@ -0,0 +1,57 @@
+package com.hazelcast.example.database;
+
+import com.zaxxer.hikari.HikariConfig;
+
+/**
+ * In-memory H2 database (SQL Server compatibility mode) shared by the JDBC tests
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {}
+
+    public static String jdbcUrl(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    }
+
+    public static SqlServerManager createManager(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl(name));
+        config.setMaximumPoolSize(4);
+        return new SqlServerManager(config);
+    }
+
+    /**
+     * Creates the users and user_events tables with the same columns as sql-server-schema.sql
+     */
+    public static void createTables(SqlServerManager sqlServerManager) {
+        sqlServerManager.executeUpdate("CREATE TABLE IF NOT EXISTS users (" +
+            "id BIGINT IDENTITY(1,1) PRIMARY KEY, " +
+            "user_id NVARCHAR(100) NOT NULL UNIQUE, " +
+            "username NVARCHAR(255) NOT NULL, " +
+            "email NVARCHAR(255), " +
+            "created_at DATETIME2 DEFAULT GETDATE(), " +
+            "last_login DATETIME2)");
+
+        sqlServerManager.executeUpdate("CREATE TABLE IF NOT EXISTS user_events (" +
+            "id BIGINT IDENTITY(1,1) PRIMARY KEY, " +
+            "user_id NVARCHAR(100) NOT NULL, " +
+            "event_type NVARCHAR(100) NOT NULL, " +
+            "event_data NVARCHAR(MAX), " +
+            "created_at DATETIME2 DEFAULT GETDATE(), " +
+            "map_name NVARCHAR(100), " +
+            "entry_key NVARCHAR(450), " +
+            "partition_id INT, " +
+            "sequence_no BIGINT, " +
+            "correlation_id NVARCHAR(64), " +
+            "origin_time DATETIME2)");
+
+        // H2 has no filtered indexes; NULLS DISTINCT keeps rows without a sequence out of the uniqueness check
+        sqlServerManager.executeUpdate("CREATE UNIQUE NULLS DISTINCT INDEX IF NOT EXISTS UX_user_events_changelog " +
+            "ON user_events(map_name, partition_id, sequence_no)");
+    }
+
+    public static void dropTables(SqlServerManager sqlServerManager) {
+        sqlServerManager.executeUpdate("DROP TABLE IF EXISTS users");
+        sqlServerManager.executeUpdate("DROP TABLE IF EXISTS user_events");
+    }
+}
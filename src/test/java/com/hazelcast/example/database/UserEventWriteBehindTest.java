@@ -0,0 +1,98 @@
+package com.hazelcast.example.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the user_events write-behind pipeline against an in-memory database
+ */
+public class UserEventWriteBehindTest {
+
+    private SqlServerManager sqlServerManager;
+
+    @BeforeEach
+    void setUp() {
+        sqlServerManager = TestDatabase.createManager("write-behind");
+        TestDatabase.createTables(sqlServerManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.dropTables(sqlServerManager);
+        sqlServerManager.shutdown();
+    }
+
+    @Test
+    void testEventsAreFlushedInBatches() {
+        UserEventWriteBehind writer = new UserEventWriteBehind(sqlServerManager, 1000, 50, 100,
+            UserEventWriteBehind.OverflowPolicy.BLOCK, 1000);
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(writer.submit("user" + i, "TEST_EVENT", "data " + i));
+        }
+        writer.close();
+
+        assertEquals(500, writer.getFlushedRows());
+        assertEquals(0, writer.getFailedRows());
+        assertEquals(0, writer.getQueueDepth());
+        assertTrue(writer.getFlushCount() >= 10, "Expected at most 50 rows per batch");
+        assertTrue(writer.getAverageRowsPerBatch() <= 50);
+        assertEquals(List.of("500"), sqlServerManager.executeQuery("SELECT COUNT(*) FROM user_events"));
+    }
+
+    @Test
+    void testBulkInsertModeWritesEveryBatch() {
+        UserEventWriteBehind writer = new UserEventWriteBehind(sqlServerManager, 1000, 50, 100,
+            UserEventWriteBehind.OverflowPolicy.BLOCK, 1000, BulkInsertOptions.DEFAULT);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(writer.submit("user" + i, "TEST_EVENT", "data " + i));
+        }
+        writer.close();
+
+        assertEquals(200, writer.getFlushedRows());
+        assertEquals(0, writer.getFailedRows());
+        assertEquals(List.of("200"), sqlServerManager.executeQuery("SELECT COUNT(*) FROM user_events"));
+    }
+
+    @Test
+    void testPartialBatchIsFlushedAfterMaxDelay() throws InterruptedException {
+        UserEventWriteBehind writer = new UserEventWriteBehind(sqlServerManager, 1000, 100, 50,
+            UserEventWriteBehind.OverflowPolicy.BLOCK, 1000);
+
+        writer.submit("user1", "TEST_EVENT", "single event");
+
+        // Well below the batch size: only the max delay can trigger the flush
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.getFlushedRows() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, writer.getFlushedRows());
+        writer.close();
+    }
+
+    @Test
+    void testDropPolicyRejectsWhenQueueIsFull() {
+        // A single-slot queue flooded with events forces drops
+        UserEventWriteBehind writer = new UserEventWriteBehind(sqlServerManager, 1, 1, 1000,
+            UserEventWriteBehind.OverflowPolicy.DROP, 0);
+
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (writer.submit("user" + i, "TEST_EVENT", "data " + i)) {
+                accepted++;
+            }
+        }
+        writer.close();
+
+        assertTrue(writer.getDroppedCount() > 0);
+        assertEquals(1000, accepted + writer.getDroppedCount());
+        assertEquals(accepted, writer.getFlushedRows() + writer.getFailedRows());
+    }
+}
@@ -0,0 +1,121 @@
+package com.hazelcast.example.loadgen;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.serialization.DomainSerializers;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the workload building blocks and a short open-loop run against an embedded member
+ */
+public class LoadGeneratorTest {
+
+    @Test
+    void testZipfianConcentratesAccessesOnFewKeys() {
+        SplittableRandom random = new SplittableRandom(1);
+        KeyDistribution zipfian = KeyDistribution.zipfian(10_000, 0.99);
+        int[] counts = new int[10_000];
+        for (int i = 0; i < 200_000; i++) {
+            counts[(int) zipfian.next(random)]++;
+        }
+
+        int[] sorted = counts.clone();
+        Arrays.sort(sorted);
+        long top100 = 0;
+        for (int i = sorted.length - 100; i < sorted.length; i++) {
+            top100 += sorted[i];
+        }
+        // 1% of the keys take a large share of the traffic, and the hottest key is not simply key 0
+        assertTrue(top100 > 200_000 * 0.3, "Top 100 keys: " + top100);
+        assertNotEquals(0, indexOfMax(counts));
+    }
+
+    @Test
+    void testHotspotAndWeightedChoice() {
+        SplittableRandom random = new SplittableRandom(2);
+        KeyDistribution hotspot = KeyDistribution.hotspot(1000, 0.1, 0.9);
+        int hot = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long key = hotspot.next(random);
+            assertTrue(key >= 0 && key < 1000);
+            if (key < 100) {
+                hot++;
+            }
+        }
+        assertEquals(0.9, hot / 10_000.0, 0.02);
+
+        WeightedChoice<Integer> sizes = WeightedChoice.parse("128:3, 1024:1, 16384:0", Integer::valueOf);
+        int small = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int size = sizes.next(random);
+            assertNotEquals(16384, size);
+            if (size == 128) {
+                small++;
+            }
+        }
+        assertEquals(0.75, small / 10_000.0, 0.02);
+        assertThrows(IllegalArgumentException.class, () -> WeightedChoice.parse("a:0", String::valueOf));
+    }
+
+    @Test
+    void testOpenLoopRunRecordsEveryOperation(@TempDir Path directory) throws Exception {
+        Config config = new Config();
+        config.setClusterName("loadgen-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        DomainSerializers.register(config.getSerializationConfig());
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        try {
+            Properties properties = new Properties();
+            properties.setProperty("durationSeconds", "2");
+            properties.setProperty("targetOpsPerSecond", "500");
+            properties.setProperty("readRatio", "0.5");
+            properties.setProperty("keySpace", "1000");
+            properties.setProperty("keyDistribution", "hotspot");
+            properties.setProperty("reportIntervalSeconds", "1");
+            properties.setProperty("histogramLog", directory.resolve("latency.hlog").toString());
+            WorkloadSpec spec = WorkloadSpec.defaults().with(properties);
+
+            LoadGenerator generator = new LoadGenerator(member, spec);
+            Map<String, Histogram> totals = generator.run();
+
+            // Open loop: the number of operations follows the schedule, not the response times
+            assertEquals(1000, generator.getIssued(), 5);
+            assertEquals(generator.getIssued(), totals.values().stream().mapToLong(Histogram::getTotalCount).sum());
+            assertTrue(totals.keySet().containsAll(
+                List.of("cache-data.get", "cache-data.set", "user-sessions.set", "users.get")),
+                "Operations: " + totals.keySet());
+            assertTrue(totals.get("cache-data.get").getValueAtPercentile(99) < TimeUnit.SECONDS.toNanos(10));
+            assertTrue(member.getMap("user-sessions").size() > 0);
+
+            HistogramLogReader reader = new HistogramLogReader(directory.resolve("latency.hlog").toString());
+            assertNotNull(reader.nextIntervalHistogram());
+            reader.close();
+        } finally {
+            member.shutdown();
+        }
+    }
+
+    private static int indexOfMax(int[] values) {
+        int max = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[max]) {
+                max = i;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hazelcast.example.management;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the health routes of the management endpoint
+ */
+public class ManagementEndpointTest {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private ManagementEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new ManagementEndpoint(0).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.close();
+    }
+
+    @Test
+    void testReadinessFollowsChecks() throws Exception {
+        AtomicBoolean warmedUp = new AtomicBoolean();
+        endpoint.addReadinessCheck("hazelcast", () -> true)
+            .addReadinessCheck("warmup-users", warmedUp::get, () -> Map.of("loadedKeys", 10));
+
+        HttpResponse<String> notReady = get("/health/ready");
+        assertEquals(503, notReady.statusCode());
+        assertTrue(notReady.body().contains("\"warmup-users\":{\"status\":\"DOWN\",\"details\":{\"loadedKeys\":10}}"));
+        assertFalse(endpoint.isReady());
+
+        warmedUp.set(true);
+        HttpResponse<String> ready = get("/health/ready");
+        assertEquals(200, ready.statusCode());
+        assertTrue(ready.body().startsWith("{\"status\":\"UP\""));
+        assertEquals("application/json", ready.headers().firstValue("Content-Type").orElseThrow());
+    }
+
+    @Test
+    void testLivenessAndCustomHandler() throws Exception {
+        endpoint.addHandler("/metrics", exchange -> ManagementEndpoint.respond(exchange, 200, "text/plain", "up 1\n"));
+
+        assertEquals(200, get("/health/live").statusCode());
+        assertEquals("up 1\n", get("/metrics").body());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + endpoint.getPort() + path)).build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,111 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.XmlConfigBuilder;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-map memory accounting and limit recommendations
+ */
+public class MapMemoryMonitorTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("memory-monitor-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        DomainSerializers.register(config.getSerializationConfig());
+        config.addMapConfig(MemoryLimits.apply(new MapConfig("cache-data"),
+            MemoryLimits.Settings.usedHeap("cache-data", EvictionPolicy.LFU, 64)));
+        member = Hazelcast.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName("memory-monitor-test");
+        InetSocketAddress address = member.getCluster().getLocalMember().getSocketAddress();
+        clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+        DomainSerializers.register(clientConfig.getSerializationConfig());
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        member.shutdown();
+    }
+
+    @Test
+    void testReportsMemoryPerMapFromClient() {
+        IMap<String, byte[]> map = client.getMap("cache-data");
+        for (int i = 0; i < 1000; i++) {
+            map.set("key-" + i, new byte[1024]);
+        }
+
+        MapMemoryMonitor.MemoryReport report = new MapMemoryMonitor().report(client);
+
+        assertEquals(1, report.members().size());
+        MapMemoryMonitor.MapReport cacheData = report.maps().stream()
+            .filter(m -> m.mapName().equals("cache-data")).findFirst().orElseThrow();
+        assertEquals(1000, cacheData.entries());
+        assertTrue(cacheData.bytesPerEntry() > 1024, "cost per entry includes the 1 KB value");
+        assertEquals("USED_HEAP_SIZE", cacheData.maxSizePolicy());
+        assertEquals(64, cacheData.maxSize());
+        assertEquals(Math.max(1, (long) Math.ceil(cacheData.peakMemberCost() * 1.5 / MB)), cacheData.recommendedMaxHeapMb());
+    }
+
+    @Test
+    void testWarnsBeforeLimitsAreReached() {
+        MemberMemorySample sample = new MemberMemorySample("member-1", 900 * MB, 1000 * MB, List.of(
+            new MapMemoryUsage("cache-data", 1000, 50 * MB, 1000, 5 * MB, "USED_HEAP_SIZE", 64),
+            new MapMemoryUsage("user-sessions", 9000, 9 * MB, 0, 0, "PER_NODE", 10000),
+            new MapMemoryUsage("products", 100000, 600 * MB, 0, 0, "PER_NODE", 1000000),
+            new MapMemoryUsage("events", 10, MB, 0, 0, "FREE_HEAP_PERCENTAGE", 10)));
+
+        MapMemoryMonitor.MemoryReport report = new MapMemoryMonitor().analyze(List.of(sample));
+        List<String> warnings = report.warnings();
+
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("Member member-1 heap is 90% used")), warnings::toString);
+        assertTrue(warnings.stream().anyMatch(w -> w.contains("cache-data on member member-1 uses 55 MB of its 64 MB")));
+        assertTrue(warnings.stream().anyMatch(w -> w.contains("user-sessions on member member-1 holds 9000 of 10000")));
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("Map products needs about 900 MB")));
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("Map products entry limit 1000000")));
+        assertTrue(warnings.stream().anyMatch(w -> w.contains("map events starts evicting below 10%")));
+
+        MapMemoryMonitor.MapReport products = report.maps().stream()
+            .filter(m -> m.mapName().equals("products")).findFirst().orElseThrow();
+        // Capped at half of the member heap
+        assertEquals(500, products.recommendedMaxHeapMb());
+        assertEquals(600 * MB / 100000, products.bytesPerEntry());
+    }
+
+    @Test
+    void testXmlConfigLimitsMapsByHeap() {
+        InputStream xml = getClass().getClassLoader().getResourceAsStream("hazelcast.xml");
+        Config config = new XmlConfigBuilder(xml).build();
+
+        assertEquals(MaxSizePolicy.USED_HEAP_SIZE, config.getMapConfig("cache-data").getEvictionConfig().getMaxSizePolicy());
+        assertEquals(MaxSizePolicy.USED_HEAP_SIZE, config.getMapConfig("user-sessions").getEvictionConfig().getMaxSizePolicy());
+        assertEquals(64, config.getMapConfig("user-sessions").getEvictionConfig().getSize());
+    }
+}
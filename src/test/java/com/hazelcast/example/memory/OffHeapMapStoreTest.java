@@ -0,0 +1,85 @@
+package com.hazelcast.example.memory;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.example.affinity.UserKey;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap second tier of a map on an embedded member
+ */
+public class OffHeapMapStoreTest {
+
+    private HazelcastInstance hazelcastInstance;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("off-heap-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        DomainSerializers.register(config.getSerializationConfig());
+        config.addMapConfig(OffHeapMapStore.configure(new MapConfig("cache-data").setMaxIdleSeconds(1800), 8));
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    void testEvictedEntriesAreReloadedFromNativeMemory() {
+        IMap<Object, Object> map = hazelcastInstance.getMap("cache-data");
+        UserKey profileKey = UserKey.profile("user123");
+        map.put(profileKey, new UserProfile("John Doe", "john@example.com"));
+        map.put("product:1", "laptop");
+
+        // Eviction from the heap tier does not reach the MapStore
+        assertTrue(map.evict(profileKey));
+        assertTrue(map.evict("product:1"));
+        assertEquals(0, map.size());
+
+        UserProfile profile = (UserProfile) map.get(profileKey);
+        assertEquals("john@example.com", profile.getEmail());
+        assertEquals("laptop", map.get("product:1"));
+    }
+
+    @Test
+    void testEntryTtlAlsoExpiresTheOffHeapCopy() throws InterruptedException {
+        IMap<Object, Object> map = hazelcastInstance.getMap("cache-data");
+        map.put("api:weather:current", "sunny", 1, TimeUnit.SECONDS);
+        map.put("product:1", "laptop");
+
+        // Evicted before expiring: reloaded with the TTL it has left
+        assertTrue(map.evict("api:weather:current"));
+        assertEquals("sunny", map.get("api:weather:current"));
+        assertTrue(map.getEntryView("api:weather:current").getExpirationTime()
+            <= System.currentTimeMillis() + 1000);
+
+        Thread.sleep(1500);
+        assertNull(map.get("api:weather:current"));
+        assertTrue(map.evict("product:1"));
+        assertEquals("laptop", map.get("product:1"));
+    }
+
+    @Test
+    void testDeleteRemovesBothTiers() {
+        IMap<Object, Object> map = hazelcastInstance.getMap("cache-data");
+        map.put("product:1", "laptop");
+        map.delete("product:1");
+        map.evictAll();
+
+        assertNull(map.get("product:1"));
+    }
+}
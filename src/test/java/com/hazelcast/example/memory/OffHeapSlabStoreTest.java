@@ -0,0 +1,182 @@
+package com.hazelcast.example.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap slab allocator
+ */
+public class OffHeapSlabStoreTest {
+
+    private static final int SLAB_SIZE = 4096;
+
+    private static byte[] value(int size, int seed) {
+        byte[] value = new byte[size];
+        Arrays.fill(value, (byte) seed);
+        return value;
+    }
+
+    @Test
+    void testPutGetRemove() {
+        OffHeapSlabStore store = new OffHeapSlabStore(4 * SLAB_SIZE, SLAB_SIZE);
+
+        assertTrue(store.put("a", value(100, 1), 0));
+        assertTrue(store.put("b", value(10, 2), 0));
+        assertArrayEquals(value(100, 1), store.get("a", 0));
+        assertArrayEquals(value(10, 2), store.get("b", 0));
+        assertEquals(128 + 64, store.getUsedBytes());
+
+        // Replacing moves the value to the slot size of the new length
+        assertTrue(store.put("a", value(1000, 3), 0));
+        assertArrayEquals(value(1000, 3), store.get("a", 0));
+        assertEquals(1024 + 64, store.getUsedBytes());
+
+        assertTrue(store.remove("a"));
+        assertNull(store.get("a", 0));
+        assertEquals(64, store.getUsedBytes());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testFreedSlotsAreReused() {
+        OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, SLAB_SIZE);
+
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 64; i++) {
+                assertTrue(store.put("key-" + i, value(64, round), 0));
+            }
+            for (int i = 0; i < 64; i++) {
+                assertArrayEquals(value(64, round), store.get("key-" + i, 0));
+                store.remove("key-" + i);
+            }
+        }
+        assertEquals(SLAB_SIZE, store.getReservedBytes());
+        assertEquals(0, store.getEvictions());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenNativeMemoryIsFull() {
+        // One slab of 4 KB holds four 1 KB slots
+        OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, SLAB_SIZE);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(store.put("key-" + i, value(1000, i), 0));
+        }
+        store.get("key-0", 0);
+
+        assertTrue(store.put("key-4", value(1000, 4), 0));
+
+        assertEquals(1, store.getEvictions());
+        assertNotNull(store.get("key-0", 0));
+        assertNull(store.get("key-1", 0));
+        assertArrayEquals(value(1000, 4), store.get("key-4", 0));
+        assertEquals(SLAB_SIZE, store.getReservedBytes());
+    }
+
+    @Test
+    void testRejectsValuesLargerThanASlab() {
+        OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, SLAB_SIZE);
+
+        assertTrue(store.put("huge", value(100, 1), 0));
+        assertFalse(store.put("huge", value(SLAB_SIZE + 1, 1), 0));
+        assertNull(store.get("huge", 0));
+        assertEquals(1, store.getRejected());
+    }
+
+    @Test
+    void testEmptySlabsMoveToAnotherClass() {
+        OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, SLAB_SIZE);
+        for (int i = 0; i < 64; i++) {
+            assertTrue(store.put("key-" + i, value(64, i), 0));
+        }
+        for (int i = 0; i < 64; i++) {
+            store.remove("key-" + i);
+        }
+
+        // The only slab belonged to the 64-byte class; with no entries left it is handed over
+        assertTrue(store.put("other-class", value(2000, 1), 0));
+        assertArrayEquals(value(2000, 1), store.get("other-class", 0));
+        assertEquals(1, store.getSlabMoves());
+        assertEquals(0, store.getEvictions());
+        assertEquals(SLAB_SIZE, store.getReservedBytes());
+    }
+
+    @Test
+    void testClassWithoutEntriesTakesTheLeastRecentlyUsedSlab() {
+        OffHeapSlabStore store = new OffHeapSlabStore(2 * SLAB_SIZE, SLAB_SIZE);
+        // One slab of 128-byte slots and one of 1 KB slots; the 128-byte entries are older
+        assertTrue(store.put("small-1", value(100, 1), 0));
+        assertTrue(store.put("small-2", value(100, 2), 0));
+        assertTrue(store.put("medium", value(1000, 3), 0));
+        store.get("medium", 0);
+
+        assertTrue(store.put("large", value(2000, 4), 0));
+
+        assertNull(store.get("small-1", 0));
+        assertNull(store.get("small-2", 0));
+        assertArrayEquals(value(1000, 3), store.get("medium", 0));
+        assertArrayEquals(value(2000, 4), store.get("large", 0));
+        assertEquals(2, store.getEvictions());
+        assertEquals(0, store.getRejected());
+        assertEquals(1024 + 2048, store.getUsedBytes());
+    }
+
+    @Test
+    void testConcurrentWritersOfDifferentSizes() throws Exception {
+        OffHeapSlabStore store = new OffHeapSlabStore(64 * SLAB_SIZE, SLAB_SIZE);
+        int threads = 8;
+        int keysPerThread = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; round < 200; round++) {
+                        for (int i = 0; i < keysPerThread; i++) {
+                            // Each round moves the value to another size class
+                            String key = "key-" + thread + "-" + i;
+                            assertTrue(store.put(key, value(50 << (round % 4), round), 0));
+                            assertArrayEquals(value(50 << (round % 4), round), store.get(key, 0));
+                        }
+                        store.remove("key-" + thread + "-0");
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The last round (199) wrote 400-byte values into 512-byte slots; key 0 of each thread was removed
+        assertEquals(threads * (keysPerThread - 1), store.size());
+        assertEquals(threads * (keysPerThread - 1) * 512L, store.getUsedBytes());
+        assertArrayEquals(value(400, 199), store.get("key-3-7", 0));
+        assertEquals(0, store.getEvictions());
+    }
+
+    @Test
+    void testEntriesExpireUnlessTouched() throws InterruptedException {
+        OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, SLAB_SIZE);
+        store.put("expiring", value(10, 1), 100);
+        store.put("touched", value(10, 2), 100);
+
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(50);
+            assertNotNull(store.get("touched", 100));
+        }
+
+        assertNull(store.get("expiring", 0));
+        assertEquals(1, store.getExpirations());
+        assertEquals(1, store.size());
+    }
+}
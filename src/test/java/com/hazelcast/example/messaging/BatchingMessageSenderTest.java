@@ -0,0 +1,182 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batched Service Bus sender against an in-process fake broker
+ */
+public class BatchingMessageSenderTest {
+
+    @Test
+    void testMessagesAreGroupedUpToMaxBatchSize() throws Exception {
+        FakeMessageTransport transport = new FakeMessageTransport();
+        BatchingMessageSender sender = new BatchingMessageSender(transport, 10, 1000, 1000, 1000);
+
+        // Hold the first send so the remaining messages queue up behind it
+        CountDownLatch gate = transport.blockSends();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            futures.add(sender.send(new ServiceBusMessage("message " + i)));
+        }
+        gate.countDown();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        sender.close();
+
+        assertEquals(95, transport.getMessageCount());
+        assertTrue(transport.getBatches().stream().allMatch(batch -> batch.size() <= 10));
+        assertTrue(transport.getBatches().size() <= 11, "Expected full batches, got " + transport.getBatches().size());
+        assertEquals(95, sender.getSentMessages());
+        assertEquals(0, sender.getInFlightCount());
+        assertTrue(transport.isClosed());
+    }
+
+    @Test
+    void testPartialBatchIsSentAfterLinger() throws Exception {
+        FakeMessageTransport transport = new FakeMessageTransport();
+        BatchingMessageSender sender = new BatchingMessageSender(transport, 100, 20, 1000, 1000);
+
+        sender.send(new ServiceBusMessage("single")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, transport.getBatches().size());
+        assertEquals(1, transport.getBatches().get(0).size());
+        sender.close();
+    }
+
+    @Test
+    void testSendFailureCompletesFuturesExceptionally() {
+        FakeMessageTransport transport = new FakeMessageTransport();
+        transport.failWith(new IllegalStateException("broker unavailable"));
+        BatchingMessageSender sender = new BatchingMessageSender(transport, 10, 10, 1000, 1000);
+
+        CompletableFuture<Void> future = sender.send(new ServiceBusMessage("lost"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        sender.close();
+        assertEquals(1, sender.getFailedMessages());
+        assertEquals(0, sender.getInFlightCount());
+    }
+
+    @Test
+    void testOnlyMessagesOfRefusedBatchesFail() throws Exception {
+        FakeMessageTransport transport = new FakeMessageTransport();
+        transport.splitBatchesOf(3);
+        transport.failBatch(1, new IllegalStateException("batch refused"));
+        BatchingMessageSender sender = new BatchingMessageSender(transport, 10, 1000, 1000, 1000);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(sender.send(new ServiceBusMessage("message " + i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, error) -> null)
+            .get(10, TimeUnit.SECONDS);
+        sender.close();
+
+        // The first broker batch was accepted; the refused one and everything after it were not sent
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i >= 3, futures.get(i).isCompletedExceptionally(), "Future of message " + i);
+        }
+        assertEquals(3, transport.getMessageCount());
+        assertEquals(3, sender.getSentMessages());
+        assertEquals(7, sender.getFailedMessages());
+    }
+
+    @Test
+    void testOversizedMessageFailsAlone() throws Exception {
+        FakeMessageTransport transport = new FakeMessageTransport();
+        transport.rejectLargerThan(100);
+        BatchingMessageSender sender = new BatchingMessageSender(transport, 10, 1000, 1000, 1000);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(sender.send(new ServiceBusMessage(i == 4 ? "x".repeat(1000) : "message " + i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, error) -> null)
+            .get(10, TimeUnit.SECONDS);
+        sender.close();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> futures.get(4).get());
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i == 4, futures.get(i).isCompletedExceptionally(), "Future of message " + i);
+        }
+        assertEquals(9, transport.getMessageCount());
+        assertEquals(1, sender.getFailedMessages());
+    }
+
+    @Test
+    void testEveryMessageIsAnsweredWhenCloseRacesWithSend() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            FakeMessageTransport transport = new FakeMessageTransport();
+            BatchingMessageSender sender = new BatchingMessageSender(transport, 10, 1, 1000, 1000);
+            List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch started = new CountDownLatch(4);
+
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread producer = new Thread(() -> {
+                    started.countDown();
+                    for (int n = 0; n < 200; n++) {
+                        futures.add(sender.send(new ServiceBusMessage("message " + n)));
+                    }
+                });
+                producer.start();
+                producers.add(producer);
+            }
+            started.await();
+            sender.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            // Sent or rejected, but never left pending after the sender stopped
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+                }
+            }
+            assertEquals(800, sender.getSentMessages() + sender.getRejectedMessages());
+            assertEquals(sender.getSentMessages(), transport.getMessageCount());
+            assertEquals(0, sender.getInFlightCount());
+            assertTrue(transport.isClosed());
+        }
+    }
+
+    @Test
+    void testInFlightLimitRejectsWhenFull() throws Exception {
+        FakeMessageTransport transport = new FakeMessageTransport();
+        CountDownLatch gate = transport.blockSends();
+        BatchingMessageSender sender = new BatchingMessageSender(transport, 10, 10, 5, 50);
+
+        List<CompletableFuture<Void>> accepted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accepted.add(sender.send(new ServiceBusMessage("message " + i)));
+        }
+        CompletableFuture<Void> rejected = sender.send(new ServiceBusMessage("over limit"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(5, sender.getInFlightCount());
+
+        gate.countDown();
+        CompletableFuture.allOf(accepted.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        sender.close();
+        assertEquals(1, sender.getRejectedMessages());
+        assertEquals(5, transport.getMessageCount());
+    }
+}
@@ -0,0 +1,205 @@
+package com.hazelcast.example.messaging;
+
+import com.hazelcast.example.messaging.FakeMessageSource.Message;
+import com.hazelcast.example.metrics.AppMetrics;
+import com.hazelcast.example.metrics.PropagationLag;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the concurrent consumer against an in-process fake queue
+ */
+public class ConcurrentMessageConsumerTest {
+
+    private static void awaitSettled(FakeMessageSource source, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (source.getCompleted().size() + source.getAbandoned().size() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testMessagesWithSameKeyAreProcessedInOrder() throws Exception {
+        FakeMessageSource source = new FakeMessageSource();
+        Map<String, List<Integer>> processedByKey = new ConcurrentHashMap<>();
+
+        ConcurrentMessageConsumer<Message> consumer = new ConcurrentMessageConsumer<>(source, message -> {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+            processedByKey.computeIfAbsent(message.key(), key -> new CopyOnWriteArrayList<>()).add(message.sequence());
+        }, 4, 64, Duration.ofMillis(50), 16).start();
+
+        for (int sequence = 0; sequence < 50; sequence++) {
+            for (int key = 0; key < 8; key++) {
+                source.publish("key-" + key, sequence);
+            }
+        }
+
+        awaitSettled(source, 400);
+        consumer.close();
+
+        assertEquals(400, source.getCompleted().size());
+        assertEquals(400, consumer.getProcessedCount());
+        assertEquals(8, processedByKey.size());
+        for (List<Integer> sequences : processedByKey.values()) {
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(i, sequences.get(i));
+            }
+        }
+        // Settlement is batched, not one call per message
+        assertTrue(consumer.getSettleCalls() < 400);
+    }
+
+    @Test
+    void testFailedMessagesAreAbandoned() throws Exception {
+        FakeMessageSource source = new FakeMessageSource();
+        ConcurrentMessageConsumer<Message> consumer = new ConcurrentMessageConsumer<>(source, message -> {
+            if (message.sequence() % 2 == 1) {
+                throw new IllegalStateException("cannot apply " + message.sequence());
+            }
+        }, 2, 10, Duration.ofMillis(50), 5).start();
+
+        for (int i = 0; i < 20; i++) {
+            source.publish(null, i);
+        }
+
+        awaitSettled(source, 20);
+        consumer.close();
+
+        assertEquals(10, source.getCompleted().size());
+        assertEquals(10, source.getAbandoned().size());
+        assertEquals(10, consumer.getFailedCount());
+    }
+
+    @Test
+    void testFailedMessageIsRetriedBeforeLaterMessagesWithTheSameKey() throws Exception {
+        FakeMessageSource source = new FakeMessageSource();
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        AtomicBoolean failedOnce = new AtomicBoolean();
+
+        ConcurrentMessageConsumer<Message> consumer = new ConcurrentMessageConsumer<>(source, message -> {
+            if (message.sequence() == 0 && failedOnce.compareAndSet(false, true)) {
+                throw new IllegalStateException("transient failure");
+            }
+            processed.add(message.sequence());
+        }, 2, 16, Duration.ofMillis(50), 4, 3, Duration.ofMillis(10)).start();
+
+        for (int i = 0; i < 5; i++) {
+            source.publish("order-1", i);
+        }
+
+        awaitSettled(source, 5);
+        consumer.close();
+
+        assertEquals(List.of(0, 1, 2, 3, 4), processed);
+        assertEquals(5, source.getCompleted().size());
+        assertTrue(source.getAbandoned().isEmpty());
+        assertEquals(1, consumer.getRetriedCount());
+        assertEquals(0, consumer.getFailedCount());
+    }
+
+    @Test
+    void testLaterMessagesWithTheSameKeyAreHeldBackAfterAFailure() throws Exception {
+        FakeMessageSource source = new FakeMessageSource();
+        CountDownLatch queued = new CountDownLatch(1);
+        List<String> processed = new CopyOnWriteArrayList<>();
+
+        ConcurrentMessageConsumer<Message> consumer = new ConcurrentMessageConsumer<>(source, message -> {
+            if (message.key().equals("order-1") && message.sequence() == 0) {
+                // Keeps the lane busy until the rest of the key is queued behind it
+                queued.await(5, TimeUnit.SECONDS);
+                throw new IllegalStateException("cannot apply " + message.sequence());
+            }
+            processed.add(message.key() + ":" + message.sequence());
+        }, 1, 16, Duration.ofMillis(50), 4, 2, Duration.ofMillis(10)).start();
+
+        for (int i = 0; i < 3; i++) {
+            source.publish("order-1", i);
+        }
+        source.publish("order-2", 0);
+        while (consumer.getReceivedCount() < 4) {
+            Thread.sleep(10);
+        }
+        queued.countDown();
+
+        awaitSettled(source, 4);
+        consumer.close();
+
+        // The failed message goes back to the broker ahead of the ones that depend on it
+        assertEquals(List.of("order-2:0"), processed);
+        assertEquals(List.of(0, 1, 2), source.getAbandoned().stream().map(Message::sequence).toList());
+        assertEquals(1, consumer.getFailedCount());
+        assertEquals(2, consumer.getDeferredCount());
+    }
+
+    @Test
+    void testUnsettledMessagesNeverExceedPrefetch() throws Exception {
+        FakeMessageSource source = new FakeMessageSource();
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentMessageConsumer<Message> consumer = new ConcurrentMessageConsumer<>(source,
+            message -> release.await(5, TimeUnit.SECONDS), 2, 8, Duration.ofMillis(20), 4).start();
+
+        for (int i = 0; i < 100; i++) {
+            source.publish(null, i);
+        }
+
+        Thread.sleep(200);
+        assertEquals(8, consumer.getInFlightCount());
+        assertEquals(8, consumer.getReceivedCount());
+
+        release.countDown();
+        awaitSettled(source, 100);
+        consumer.close();
+
+        assertEquals(100, source.getCompleted().size());
+        assertTrue(source.getMaxUnsettled() <= 8);
+        assertTrue(consumer.getMaxLagMillis() >= 0);
+    }
+
+    @Test
+    void testPropagationLagIsRecordedForTracedMessages() throws Exception {
+        AppMetrics.prometheus();
+        long receivedBefore = lagCount(PropagationLag.STAGE_SERVICE_BUS_RECEIVED);
+        long processedBefore = lagCount(PropagationLag.STAGE_SERVICE_BUS_PROCESSED);
+
+        FakeMessageSource source = new FakeMessageSource();
+        ConcurrentMessageConsumer<Message> consumer = new ConcurrentMessageConsumer<>(source, message -> {
+            if (message.sequence() == 0) {
+                throw new IllegalStateException("cannot apply " + message.sequence());
+            }
+        }, 2, 10, Duration.ofMillis(50), 5).start();
+
+        long originTime = System.currentTimeMillis() - 1000;
+        for (int i = 0; i < 4; i++) {
+            source.publish("key-" + i, i, new ChangeTrace("trace-" + i, originTime, "consumer-lag"));
+        }
+        // Messages not produced by a map change carry no trace and are not measured
+        source.publish(null, 4);
+
+        awaitSettled(source, 5);
+        consumer.close();
+
+        assertEquals(4, lagCount(PropagationLag.STAGE_SERVICE_BUS_RECEIVED) - receivedBefore);
+        assertEquals(3, lagCount(PropagationLag.STAGE_SERVICE_BUS_PROCESSED) - processedBefore);
+        Timer received = AppMetrics.registry().find("propagation.lag")
+            .tags("stage", PropagationLag.STAGE_SERVICE_BUS_RECEIVED, "map", "consumer-lag").timer();
+        assertTrue(received.max(TimeUnit.MILLISECONDS) >= 1000);
+    }
+
+    private static long lagCount(String stage) {
+        Timer timer = AppMetrics.registry().find("propagation.lag").tags("stage", stage, "map", "consumer-lag").timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
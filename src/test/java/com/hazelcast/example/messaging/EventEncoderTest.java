@@ -0,0 +1,61 @@
+package com.hazelcast.example.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hazelcast.example.messaging.ServiceBusManager.EventMessage;
+import com.hazelcast.example.messaging.ServiceBusManager.UserEventData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for JSON and Smile event encoding
+ */
+public class EventEncoderTest {
+
+    private static EventMessage<UserEventData> userEvent() {
+        UserEventData data = new UserEventData();
+        data.setUserId("user1");
+        data.setUsername("User 1");
+        data.setAction("USER_CREATED");
+        data.setDetails("User created and stored in cache and database");
+
+        EventMessage<UserEventData> event = new EventMessage<>();
+        event.setEventType("USER_EVENT");
+        event.setTimestamp(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        event.setData(data);
+        return event;
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        EventEncoder encoder = new EventEncoder(EventEncoder.Encoding.JSON);
+
+        byte[] payload = encoder.encode(userEvent());
+        JsonNode decoded = EventEncoder.decode(payload, "application/json");
+
+        assertEquals("USER_EVENT", decoded.get("eventType").asText());
+        assertEquals("user1", decoded.get("data").get("userId").asText());
+        assertEquals(1, encoder.getEncodedMessages());
+        assertEquals(payload.length, encoder.getEncodedBytes());
+    }
+
+    @Test
+    void testSmileIsSmallerAndDecodesToSameTree() throws Exception {
+        EventEncoder json = new EventEncoder(EventEncoder.Encoding.JSON);
+        EventEncoder smile = new EventEncoder(EventEncoder.Encoding.forContentType("application/x-jackson-smile"));
+
+        byte[] jsonPayload = json.encode(userEvent());
+        byte[] smilePayload = smile.encode(userEvent());
+
+        assertTrue(smilePayload.length < jsonPayload.length);
+        assertEquals(EventEncoder.decode(jsonPayload, json.getContentType()),
+            EventEncoder.decode(smilePayload, smile.getContentType()));
+    }
+
+    @Test
+    void testUnknownContentTypeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EventEncoder.Encoding.forContentType("text/plain"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.hazelcast.example.messaging;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process queue used by the consumer tests: tracks settlements and unsettled deliveries
+ */
+public class FakeMessageSource implements MessageSource<FakeMessageSource.Message> {
+
+    public record Message(String key, int sequence, Instant enqueuedTime, ChangeTrace trace) {}
+
+    private final LinkedBlockingQueue<Message> queue = new LinkedBlockingQueue<>();
+    private final List<Message> completed = Collections.synchronizedList(new ArrayList<>());
+    private final List<Message> abandoned = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger unsettled = new AtomicInteger();
+    private final AtomicInteger maxUnsettled = new AtomicInteger();
+
+    public void publish(String key, int sequence) {
+        publish(key, sequence, null);
+    }
+
+    public void publish(String key, int sequence, ChangeTrace trace) {
+        queue.add(new Message(key, sequence, Instant.now(), trace));
+    }
+
+    @Override
+    public List<Message> receive(int maxMessages, Duration timeout) {
+        List<Message> messages = new ArrayList<>();
+        try {
+            Message first = queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                messages.add(first);
+                queue.drainTo(messages, maxMessages - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        maxUnsettled.accumulateAndGet(unsettled.addAndGet(messages.size()), Math::max);
+        return messages;
+    }
+
+    @Override
+    public void settle(List<Message> completedMessages, List<Message> abandonedMessages) {
+        completed.addAll(completedMessages);
+        abandoned.addAll(abandonedMessages);
+        unsettled.addAndGet(-(completedMessages.size() + abandonedMessages.size()));
+    }
+
+    @Override
+    public String orderingKey(Message message) {
+        return message.key();
+    }
+
+    @Override
+    public Instant enqueuedTime(Message message) {
+        return message.enqueuedTime();
+    }
+
+    @Override
+    public ChangeTrace trace(Message message) {
+        return message.trace();
+    }
+
+    public List<Message> getCompleted() { return completed; }
+    public List<Message> getAbandoned() { return abandoned; }
+    public int getMaxUnsettled() { return maxUnsettled.get(); }
+}
@@ -0,0 +1,122 @@
+package com.hazelcast.example.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * In-process broker used by the messaging tests: records every batch it receives
+ */
+public class FakeMessageTransport implements MessageTransport {
+
+    private final List<List<ServiceBusMessage>> batches = Collections.synchronizedList(new ArrayList<>());
+    private volatile RuntimeException failure;
+    private volatile int failedBatch = -1;
+    private volatile int maxBatchMessages = Integer.MAX_VALUE;
+    private volatile int maxMessageBytes = Integer.MAX_VALUE;
+    private int batchCount;
+    private volatile CountDownLatch gate;
+    private volatile boolean closed;
+
+    @Override
+    public SendResult send(List<ServiceBusMessage> messages) {
+        CountDownLatch currentGate = gate;
+        if (currentGate != null) {
+            try {
+                currentGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null && failedBatch < 0) {
+            throw failure;
+        }
+
+        // Same outcome rules as SenderClientTransport: oversized messages fail alone,
+        // a refused batch fails together with everything not sent yet
+        List<Exception> errors = new ArrayList<>(Collections.nCopies(messages.size(), null));
+        List<Integer> batch = new ArrayList<>();
+        int accepted = 0;
+        for (int index = 0; index <= messages.size(); index++) {
+            boolean last = index == messages.size();
+            if (!last && messages.get(index).getBody().toBytes().length > maxMessageBytes) {
+                errors.set(index, new IllegalArgumentException("Message larger than " + maxMessageBytes + " bytes"));
+                continue;
+            }
+            if (!last) {
+                batch.add(index);
+            }
+            if (batch.isEmpty() || (!last && batch.size() < maxBatchMessages)) {
+                continue;
+            }
+            synchronized (this) {
+                if (batchCount++ == failedBatch) {
+                    for (int failed = batch.get(0); failed < messages.size(); failed++) {
+                        if (errors.get(failed) == null) {
+                            errors.set(failed, failure);
+                        }
+                    }
+                    return new SendResult(accepted, errors);
+                }
+            }
+            List<ServiceBusMessage> sent = new ArrayList<>();
+            batch.forEach(sentIndex -> sent.add(messages.get(sentIndex)));
+            batches.add(sent);
+            accepted++;
+            batch.clear();
+        }
+        return new SendResult(accepted, errors);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /** Makes every following send fail with the given exception */
+    public void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    /** Refuses the broker batch with the given index (counted from 0 across all sends) */
+    public void failBatch(int index, RuntimeException failure) {
+        this.failedBatch = index;
+        this.failure = failure;
+    }
+
+    /** Splits each send into broker batches of at most the given number of messages */
+    public void splitBatchesOf(int maxBatchMessages) {
+        this.maxBatchMessages = maxBatchMessages;
+    }
+
+    /** Rejects messages whose body is larger than the given size */
+    public void rejectLargerThan(int maxMessageBytes) {
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /** Blocks sends until the returned latch is released */
+    public CountDownLatch blockSends() {
+        CountDownLatch latch = new CountDownLatch(1);
+        gate = latch;
+        return latch;
+    }
+
+    public List<List<ServiceBusMessage>> getBatches() {
+        synchronized (batches) {
+            return new ArrayList<>(batches);
+        }
+    }
+
+    public int getMessageCount() {
+        synchronized (batches) {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hazelcast.example.metrics;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.cache.PipelinedMap;
+import com.hazelcast.example.database.ChangelogEvent;
+import com.hazelcast.example.database.ChangelogWriter;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.database.TestDatabase;
+import com.hazelcast.example.database.UserEventWriteBehind;
+import com.hazelcast.example.management.ManagementEndpoint;
+import com.hazelcast.example.messaging.BatchingMessageSender;
+import com.hazelcast.example.messaging.EventEncoder;
+import com.hazelcast.example.messaging.FakeMessageTransport;
+import com.hazelcast.example.messaging.ServiceBusManager.EventMessage;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the instrumented SQL, map, messaging and write queue paths show up on the Prometheus endpoint
+ */
+public class AppMetricsTest {
+
+    @Test
+    void testMetricsEndpointCoversSqlMapAndMessaging() throws Exception {
+        AppMetrics.prometheus();
+
+        SqlServerManager sqlServerManager = TestDatabase.createManager("app-metrics");
+        Config config = new Config();
+        config.setClusterName("app-metrics-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        ManagementEndpoint endpoint = AppMetrics.expose(new ManagementEndpoint(0)).start();
+        try {
+            TestDatabase.createTables(sqlServerManager);
+            sqlServerManager.executeUpsert("users", "user_id", new String[]{"user_id", "username"},
+                new Object[]{"user1", "User 1"});
+            assertEquals(1, sqlServerManager.executeQuery("SELECT username FROM users WHERE user_id = ?", "user1").size());
+
+            assertTrue(HazelcastMapMetrics.bind(member, List.of("metrics-map")));
+            PipelinedMap<String, String> map = new PipelinedMap<>(member, "metrics-map");
+            map.putAll(Map.of("a", "1", "b", "2")).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            map.getAsync("a").toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            try (BatchingMessageSender sender = new BatchingMessageSender(new FakeMessageTransport(), 10, 5, 100, 1000)) {
+                sender.send(new ServiceBusMessage("event")).get(10, TimeUnit.SECONDS);
+            }
+            EventMessage<String> event = new EventMessage<>();
+            event.setEventType("METRICS_TEST");
+            event.setData("payload");
+            new EventEncoder(EventEncoder.Encoding.JSON).encode(event);
+
+            UserEventWriteBehind writeBehind = new UserEventWriteBehind(sqlServerManager);
+            writeBehind.submit("user1", "METRICS_TEST", "{}");
+            writeBehind.close();
+            ChangelogWriter changelogWriter = new ChangelogWriter(sqlServerManager);
+            changelogWriter.submit(new ChangelogEvent("metrics-map", "a", "MAP_ENTRY_ADDED", 0, 1, "{}", null, 0));
+            changelogWriter.close();
+
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + endpoint.getPort() + AppMetrics.METRICS_PATH)).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain"));
+
+            String body = response.body();
+            assertMetric(body, "sql_statement_seconds_count", "statement=\"merge users\"", "outcome=\"success\"");
+            assertMetric(body, "sql_statement_seconds_bucket", "statement=\"select users\"");
+            assertMetric(body, "hikaricp_connections_acquire_seconds_count");
+            assertMetric(body, "hikaricp_connections_usage_seconds_count");
+            assertMetric(body, "hazelcast_map_call_seconds_count", "map=\"metrics-map\"", "operation=\"putAll\"");
+            assertMetric(body, "hazelcast_map_latency_seconds_count", "map=\"metrics-map\"", "operation=\"get\"");
+            assertMetric(body, "hazelcast_map_entries", "map=\"metrics-map\"");
+            assertMetric(body, "servicebus_send_seconds_count", "outcome=\"success\"");
+            assertMetric(body, "servicebus_send_batch_size_messages_count");
+            assertMetric(body, "servicebus_encode_seconds_count", "encoding=\"json\"");
+            assertMetric(body, "servicebus_encode_payload_size_bytes_count", "encoding=\"json\"");
+            assertMetric(body, "user_events_write_behind_rows_total", "result=\"flushed\"");
+            assertMetric(body, "changelog_rows_total", "result=\"inserted\"");
+            assertTrue(body.contains("\nuser_events_write_behind_queue "), "Missing write-behind queue gauge");
+            assertTrue(body.contains("\nchangelog_queue "), "Missing changelog queue gauge");
+            assertMetric(body, "jvm_memory_used_bytes");
+        } finally {
+            endpoint.close();
+            member.shutdown();
+            TestDatabase.dropTables(sqlServerManager);
+            sqlServerManager.shutdown();
+        }
+    }
+
+    /**
+     * Asserts that a sample of the metric with all the given labels has a positive value
+     */
+    private static void assertMetric(String body, String name, String... labels) {
+        for (String line : body.split("\n")) {
+            if (!line.startsWith(name + "{") && !line.startsWith(name + " ")) {
+                continue;
+            }
+            boolean matches = true;
+            for (String label : labels) {
+                matches &= line.contains(label);
+            }
+            if (matches && Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)) > 0) {
+                return;
+            }
+        }
+        fail("No positive sample of " + name + " " + List.of(labels));
+    }
+}
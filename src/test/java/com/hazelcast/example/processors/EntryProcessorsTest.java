@@ -0,0 +1,124 @@
+package com.hazelcast.example.processors;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the entry processors, executed from a client so they go through serialization
+ */
+public class EntryProcessorsTest {
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("processors-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        DomainSerializers.register(config.getSerializationConfig());
+        member = Hazelcast.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName("processors-test");
+        InetSocketAddress address = member.getCluster().getLocalMember().getSocketAddress();
+        clientConfig.getNetworkConfig().addAddress(address.getHostString() + ":" + address.getPort());
+        DomainSerializers.register(clientConfig.getSerializationConfig());
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        member.shutdown();
+    }
+
+    @Test
+    void testUpdateLastLoginReturnsPreviousValue() {
+        IMap<String, UserData> users = client.getMap("users");
+        users.put("user1", new UserData("user1", "User 1", "user1@example.com"));
+        users.put("user2", new UserData("user2", "User 2", "user2@example.com"));
+
+        LocalDateTime firstLogin = LocalDateTime.of(2024, 1, 1, 9, 0);
+        LocalDateTime secondLogin = firstLogin.plusHours(1);
+
+        Map<String, LocalDateTime> previous = users.executeOnKeys(Set.of("user1", "user2", "missing"),
+            new UpdateLastLoginProcessor(firstLogin));
+        assertNull(previous.get("user1"));
+        assertEquals(firstLogin, users.get("user2").getLastLogin());
+        assertFalse(users.containsKey("missing"));
+
+        assertEquals(firstLogin, users.executeOnKey("user1", new UpdateLastLoginProcessor(secondLogin)));
+        assertEquals(secondLogin, users.get("user1").getLastLogin());
+        assertEquals("User 1", users.get("user1").getUsername());
+    }
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() throws Exception {
+        IMap<String, Long> counters = client.getMap("counters");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        counters.executeOnKey("page-views", new IncrementProcessor<>(1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1000L, counters.get("page-views"));
+        assertEquals(1005L, counters.executeOnKey("page-views", new IncrementProcessor<>(5)));
+    }
+
+    @Test
+    void testAppendKeepsOnlyTheTail() {
+        IMap<String, String> sessions = client.getMap("session-state");
+
+        assertEquals("login", sessions.executeOnKey("s1", new AppendProcessor<>("login", ",", 16)));
+        assertEquals("login,cart", sessions.executeOnKey("s1", new AppendProcessor<>("cart", ",", 16)));
+        assertEquals("n,cart,checkout", sessions.executeOnKey("s1", new AppendProcessor<>("checkout", ",", 15)));
+        assertEquals("n,cart,checkout", sessions.get("s1"));
+    }
+
+    @Test
+    void testReadOnlyProcessorOverEntries() {
+        IMap<String, UserData> users = client.getMap("users");
+        for (int i = 0; i < 10; i++) {
+            users.put("user" + i, new UserData("user" + i, "User " + i, "user" + i + "@example.com"));
+        }
+
+        Map<String, String> emails = users.executeOnEntries(new UserEmailProcessor(),
+            Predicates.in("userId", "user3", "user4"));
+
+        assertEquals(Map.of("user3", "user3@example.com", "user4", "user4@example.com"), emails);
+    }
+}
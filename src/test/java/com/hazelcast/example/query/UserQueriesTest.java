@@ -0,0 +1,95 @@
+package com.hazelcast.example.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the indexed users queries against an embedded member
+ */
+public class UserQueriesTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private HazelcastInstance hazelcastInstance;
+    private IMap<String, UserData> users;
+    private UserQueries queries;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("user-queries-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        DomainSerializers.register(config.getSerializationConfig());
+        config.addMapConfig(UserQueries.addIndexes(new MapConfig("users")));
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+
+        users = hazelcastInstance.getMap("users");
+        Map<String, UserData> batch = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            UserData user = new UserData("user" + i, "User " + i, "user" + i + "@example.com");
+            user.setCreatedAt(BASE.plusDays(i));
+            batch.put(user.getUserId(), user);
+        }
+        users.putAll(batch);
+        queries = new UserQueries(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    void testFindByEmailUsesHashIndex() {
+        assertEquals("User 42", queries.findByEmail("user42@example.com").orElseThrow().getUsername());
+        assertTrue(queries.findByEmail("nobody@example.com").isEmpty());
+
+        long indexQueries = users.getLocalMapStats().getIndexStats().get(UserQueries.EMAIL).getQueryCount();
+        assertTrue(indexQueries >= 2, "email index queries: " + indexQueries);
+    }
+
+    @Test
+    void testRangeQueriesAndProjections() {
+        Set<String> ids = Set.copyOf(queries.findUserIdsCreatedBetween(BASE.plusDays(10), BASE.plusDays(12)));
+        assertEquals(Set.of("user10", "user11", "user12"), ids);
+
+        assertEquals(30, queries.countCreatedSince(BASE.plusDays(70)));
+
+        Set<String> emails = queries.findSummaries(Predicates.equal(UserQueries.USER_ID, "user7")).stream()
+            .map(UserQueries.UserSummary::email)
+            .collect(Collectors.toSet());
+        assertEquals(Set.of("user7@example.com"), emails);
+
+        assertTrue(users.getLocalMapStats().getIndexStats().get(UserQueries.CREATED_AT).getQueryCount() >= 2);
+    }
+
+    @Test
+    void testPagingReturnsNewestFirst() {
+        UserQueries.Page<UserData> first = queries.pageCreatedSince(BASE.plusDays(90), 4, 0);
+        assertEquals(List.of("user99", "user98", "user97", "user96"),
+            first.items().stream().map(UserData::getUserId).toList());
+        assertTrue(first.hasNext());
+
+        UserQueries.Page<UserData> last = queries.pageCreatedSince(BASE.plusDays(90), 4, 2);
+        assertEquals(List.of("user91", "user90"), last.items().stream().map(UserData::getUserId).toList());
+        assertFalse(last.hasNext());
+    }
+}
@@ -0,0 +1,57 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.HazelcastClientExample.ProductInfo;
+import com.hazelcast.example.HazelcastClientExample.UserProfile;
+import com.hazelcast.example.HazelcastClientExample.UserSession;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trip checks for the domain compact serializers
+ */
+public class DomainSerializersTest {
+
+    private final InternalSerializationService serializationService = TestSerialization.createService(true);
+
+    @Test
+    void testUserDataRoundTrip() {
+        UserData user = new UserData("user1", "User One", "user1@example.com");
+
+        UserData copy = serializationService.toObject(serializationService.toData(user));
+
+        assertEquals(user.getUserId(), copy.getUserId());
+        assertEquals(user.getUsername(), copy.getUsername());
+        assertEquals(user.getEmail(), copy.getEmail());
+        assertEquals(user.getCreatedAt(), copy.getCreatedAt());
+
+        UserData withNulls = new UserData();
+        withNulls.setUserId("user2");
+        UserData nullsCopy = serializationService.toObject(serializationService.toData(withNulls));
+        assertEquals("user2", nullsCopy.getUserId());
+        assertNull(nullsCopy.getEmail());
+        assertNull(nullsCopy.getCreatedAt());
+    }
+
+    @Test
+    void testCacheAndSessionTypesRoundTrip() {
+        LocalDateTime loginTime = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000);
+        UserSession session = serializationService.toObject(
+            serializationService.toData(new UserSession("user123", "John Doe", loginTime)));
+        assertEquals("user123", session.getUserId());
+        assertEquals(loginTime, session.getLoginTime());
+
+        UserProfile profile = serializationService.toObject(
+            serializationService.toData(new UserProfile("John Doe", "john@example.com")));
+        assertEquals("john@example.com", profile.getEmail());
+
+        ProductInfo product = serializationService.toObject(
+            serializationService.toData(new ProductInfo("Laptop", 999.99)));
+        assertEquals("Laptop", product.getName());
+        assertEquals(999.99, product.getPrice());
+    }
+}
@@ -0,0 +1,51 @@
+package com.hazelcast.example.serialization;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.compact.Schema;
+import com.hazelcast.internal.serialization.impl.compact.SchemaService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Helper for tests and benchmarks: a standalone serialization service, no member required
+ */
+public final class TestSerialization {
+
+    private TestSerialization() {}
+
+    /**
+     * @param registerDomainSerializers false keeps the zero-config (reflective) compact fallback
+     */
+    public static InternalSerializationService createService(boolean registerDomainSerializers) {
+        SerializationConfig config = new SerializationConfig();
+        if (registerDomainSerializers) {
+            DomainSerializers.register(config);
+        }
+        return new DefaultSerializationServiceBuilder()
+            .setConfig(config)
+            .setSchemaService(new InMemorySchemaService())
+            .build();
+    }
+
+    private static class InMemorySchemaService implements SchemaService {
+        private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+        @Override
+        public Schema get(long schemaId) {
+            return schemas.get(schemaId);
+        }
+
+        @Override
+        public void put(Schema schema) {
+            schemas.putIfAbsent(schema.getSchemaId(), schema);
+        }
+
+        @Override
+        public void putLocal(Schema schema) {
+            put(schema);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.hazelcast.example.streaming;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.example.HazelcastAzureIntegratedClient.UserData;
+import com.hazelcast.example.database.ChangelogEvent;
+import com.hazelcast.example.database.ChangelogWriter;
+import com.hazelcast.example.database.SqlServerManager;
+import com.hazelcast.example.database.TestDatabase;
+import com.hazelcast.example.messaging.FakeMessageTransport;
+import com.hazelcast.example.serialization.DomainSerializers;
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.core.JobStatus;
+import com.hazelcast.jet.pipeline.Pipeline;
+import com.hazelcast.map.IMap;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the map journal pipeline on an embedded member, with an in-memory database and a fake broker
+ */
+public class MapJournalPipelineTest {
+
+    private static final String DATABASE = "journal";
+    private static final List<String> MAPS = List.of("sync-data", "users");
+
+    // Read by the sink created on the member, which runs in this JVM
+    private static volatile FakeMessageTransport broker;
+
+    private SqlServerManager sqlServerManager;
+    private HazelcastInstance member;
+
+    @BeforeEach
+    void setUp() {
+        sqlServerManager = TestDatabase.createManager(DATABASE);
+        TestDatabase.createTables(sqlServerManager);
+        broker = new FakeMessageTransport();
+
+        Config config = new Config();
+        config.setClusterName("journal-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        DomainSerializers.register(config.getSerializationConfig());
+        MapJournalPipeline.enableJournal(config, MAPS, 10_000);
+        member = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        member.shutdown();
+        TestDatabase.dropTables(sqlServerManager);
+        sqlServerManager.shutdown();
+    }
+
+    @Test
+    void testChangesReachDatabaseAndBrokerInOrder() {
+        Job job = submit();
+        IMap<String, String> syncMap = member.getMap("sync-data");
+        awaitPipeline(syncMap, "ready");
+
+        for (int i = 0; i < 20; i++) {
+            syncMap.put("key-" + i, "v1");
+            syncMap.put("key-" + i, "v2");
+        }
+        for (int i = 0; i < 5; i++) {
+            syncMap.remove("key-" + i);
+        }
+        IMap<String, UserData> users = member.getMap("users");
+        users.put("user-1", new UserData("user-1", "alice", "alice@example.com"));
+
+        awaitTrue(() -> count("entry_key LIKE 'key-%'") == 45 && count("map_name = 'users'") == 1);
+        awaitTrue(() -> distinctMessageIds().size() == count("1 = 1"));
+
+        for (int i = 0; i < 20; i++) {
+            List<String> types = sqlServerManager.executeQuery(
+                "SELECT event_type FROM user_events WHERE entry_key = ? ORDER BY sequence_no", "key-" + i);
+            assertEquals(i < 5
+                    ? List.of("MAP_ENTRY_ADDED", "MAP_ENTRY_UPDATED", "MAP_ENTRY_REMOVED")
+                    : List.of("MAP_ENTRY_ADDED", "MAP_ENTRY_UPDATED"),
+                types, "Events of key-" + i);
+        }
+        assertEquals(List.of("{\"key\":\"key-7\",\"value\":\"v2\",\"oldValue\":\"v1\"}"),
+            sqlServerManager.executeQuery("SELECT event_data FROM user_events WHERE entry_key = ? " +
+                "AND event_type = 'MAP_ENTRY_UPDATED'", "key-7"));
+        assertTrue(sqlServerManager.executeQuery("SELECT event_data FROM user_events WHERE map_name = 'users'")
+            .get(0).contains("\"email\":\"alice@example.com\""));
+        assertContiguousSequences();
+
+        // The row and the message of a change share its correlation ID
+        assertEquals(0, count("correlation_id IS NULL OR origin_time IS NULL"));
+        Set<String> correlationIds = Set.copyOf(
+            sqlServerManager.executeQuery("SELECT correlation_id FROM user_events"));
+        assertEquals(correlationIds.size(), count("1 = 1"));
+        assertEquals(correlationIds, broker.getBatches().stream()
+            .flatMap(List::stream)
+            .map(ServiceBusMessage::getCorrelationId)
+            .collect(Collectors.toSet()));
+        job.cancel();
+    }
+
+    @Test
+    void testResumeFromSnapshotContinuesSequences() {
+        // Rows written by an earlier job: numbering continues after them
+        int partition = member.getPartitionService().getPartition("key-0").getPartitionId();
+        Map<String, long[]> lastSequences = lastSequences();
+        lastSequences.get("sync-data")[partition] = 3;
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            sqlServerManager.executeUpdate(ChangelogWriter.INSERT_SQL, ChangelogWriter.toRow(new ChangelogEvent(
+                "sync-data", "old", "MAP_ENTRY_UPDATED", partition, sequence, "{}", null, 0)));
+        }
+
+        Job job = MapJournalPipeline.submit(member, build(lastSequences), ProcessingGuarantee.AT_LEAST_ONCE, 200);
+        IMap<String, String> syncMap = member.getMap("sync-data");
+        awaitPipeline(syncMap, "ready");
+        for (int i = 0; i < 50; i++) {
+            syncMap.put("key-" + i, "before");
+        }
+        awaitTrue(() -> count("entry_key LIKE 'key-%'") == 50);
+
+        // Changes made while the job is down wait in the journal and are read after it resumes from the snapshot
+        job.suspend();
+        awaitTrue(() -> job.getStatus() == JobStatus.SUSPENDED);
+        for (int i = 0; i < 50; i++) {
+            syncMap.put("key-" + i, "after");
+        }
+        job.resume();
+        awaitTrue(() -> count("entry_key LIKE 'key-%'") == 100);
+
+        assertEquals(List.of("4"), sqlServerManager.executeQuery("SELECT MIN(sequence_no) FROM user_events " +
+            "WHERE partition_id = ? AND entry_key LIKE 'key-%'", partition));
+        assertContiguousSequences();
+        awaitTrue(() -> distinctMessageIds().size() == count("entry_key <> 'old'"));
+
+        // Correlation IDs follow the event identity, so the row and every (re)sent message of a change agree
+        try (Stream<String[]> rows = sqlServerManager.stream(
+                "SELECT map_name, partition_id, sequence_no, correlation_id FROM user_events WHERE entry_key <> 'old'",
+                rs -> new String[] {rs.getString(1) + ":" + rs.getInt(2) + ":" + rs.getLong(3), rs.getString(4)})) {
+            Map<String, String> rowIds = rows.collect(Collectors.toMap(row -> row[0], row -> row[1]));
+            rowIds.forEach((messageId, correlationId) -> {
+                String[] identity = messageId.split(":");
+                assertEquals(MapJournalPipeline.correlationId(identity[0], Integer.parseInt(identity[1]),
+                    Long.parseLong(identity[2])), correlationId, "Correlation ID of " + messageId);
+            });
+            broker.getBatches().stream()
+                .flatMap(List::stream)
+                .forEach(message -> assertEquals(rowIds.get(message.getMessageId()), message.getCorrelationId(),
+                    "Correlation ID of message " + message.getMessageId()));
+        }
+        job.cancel();
+    }
+
+    private Job submit() {
+        return MapJournalPipeline.submit(member, build(lastSequences()), ProcessingGuarantee.AT_LEAST_ONCE, 200);
+    }
+
+    private Map<String, long[]> lastSequences() {
+        int partitionCount = member.getPartitionService().getPartitions().size();
+        Map<String, long[]> lastSequences = new LinkedHashMap<>();
+        for (String mapName : MAPS) {
+            lastSequences.put(mapName, ChangelogWriter.lastSequences(sqlServerManager, mapName, partitionCount));
+        }
+        return lastSequences;
+    }
+
+    private static Pipeline build(Map<String, long[]> lastSequences) {
+        return MapJournalPipeline.build(lastSequences,
+            () -> {
+                JdbcDataSource dataSource = new JdbcDataSource();
+                dataSource.setURL(TestDatabase.jdbcUrl(DATABASE));
+                return dataSource;
+            },
+            () -> broker,
+            100);
+    }
+
+    /**
+     * The journal is read from its current end, so writes only count once the source is reading
+     */
+    private void awaitPipeline(IMap<String, String> syncMap, String sentinel) {
+        awaitTrue(() -> {
+            syncMap.put(sentinel, String.valueOf(System.nanoTime()));
+            return count("entry_key = '" + sentinel + "'") > 0;
+        });
+    }
+
+    /**
+     * Every (map, partition) has sequences 1..n with no gaps or repeats
+     */
+    private void assertContiguousSequences() {
+        Map<String, List<Long>> sequences;
+        try (Stream<Object[]> rows = sqlServerManager.stream(
+                "SELECT map_name, partition_id, sequence_no FROM user_events ORDER BY sequence_no",
+                rs -> new Object[] {rs.getString(1) + "/" + rs.getInt(2), rs.getLong(3)})) {
+            sequences = rows.collect(Collectors.groupingBy(row -> (String) row[0], LinkedHashMap::new,
+                Collectors.mapping(row -> (Long) row[1], Collectors.toList())));
+        }
+        sequences.forEach((partition, values) -> assertEquals(
+            LongStream.rangeClosed(1, values.size()).boxed().toList(), values, "Sequences of " + partition));
+    }
+
+    private long count(String condition) {
+        return Long.parseLong(sqlServerManager.executeQuery("SELECT COUNT(*) FROM user_events WHERE " + condition)
+            .get(0));
+    }
+
+    private static Set<String> distinctMessageIds() {
+        return broker.getBatches().stream()
+            .flatMap(List::stream)
+            .map(ServiceBusMessage::getMessageId)
+            .collect(Collectors.toSet());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 60 s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}